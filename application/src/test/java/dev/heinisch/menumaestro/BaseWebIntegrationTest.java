@@ -25,6 +25,7 @@ import io.restassured.RestAssured;
 import io.restassured.http.Header;
 import io.restassured.parsing.Parser;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -125,6 +126,9 @@ public abstract class BaseWebIntegrationTest {
     @Autowired
     protected PlatformTransactionManager txManager;
 
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
     @Autowired
     protected ShoppingListRepository shoppingListRepository;
 
@@ -77,8 +77,8 @@ public class MarkAsCompletedWebIT extends BaseWebIntegrationTest {
         menuStash.getEntries().add(StashEntry.builder()
                 .stash(menuStash)
                 .ingredientId(ingredient1.getId())
-                .unit(IngredientUnit.KILOGRAMS)
-                .amount(.1)
+                .unit(IngredientUnit.GRAMS)
+                .amount(100.)
                 .build());
         menuStash.getEntries().add(StashEntry.builder()
                 .stash(menuStash)
@@ -171,8 +171,8 @@ public class MarkAsCompletedWebIT extends BaseWebIntegrationTest {
         assertThat(menuStash.getEntries().size()).isEqualTo(1);
         StashEntry stashEntry= menuStash.getEntries().stream().findFirst().orElseThrow();
 
-        assertThat(stashEntry.getUnit()).isEqualTo(IngredientUnit.CUPS);
-        assertThat(stashEntry.getAmount()).isEqualTo(5.1875, Offset.offset(0.0001));
+        assertThat(stashEntry.getUnit()).isEqualTo(IngredientUnit.MILLILITRES);
+        assertThat(stashEntry.getAmount()).isEqualTo(1250., Offset.offset(0.0001));
     }
 
 
@@ -111,7 +111,7 @@ public class CloseMenuIT extends BaseWebIntegrationTest {
         txTemplate.executeWithoutResult(tx -> {
             var stash = stashRepository.findById(menu.getStash().getId()).orElseThrow();
             stash.getEntries().add(stashEntry(stash, ingredient1.getId(), 1500, IngredientUnit.GRAMS));
-            stash.getEntries().add(stashEntry(stash, ingredient2.getId(), 1, IngredientUnit.LITRES));
+            stash.getEntries().add(stashEntry(stash, ingredient2.getId(), 1000, IngredientUnit.MILLILITRES));
         });
 
         RestAssured.given()
@@ -135,16 +135,16 @@ public class CloseMenuIT extends BaseWebIntegrationTest {
 
             () -> Assertions.assertEquals(ingredient2.getId(),
                 entriesOrg.get(0).getIngredientId()),
-            () -> Assertions.assertEquals(1,
-                entriesOrg.get(0).getAmount()),
-            () -> Assertions.assertEquals(IngredientUnit.LITRES,
+            () -> Assertions.assertEquals(1000,
+                entriesOrg.get(0).getAmount(), 0.0001),
+            () -> Assertions.assertEquals(IngredientUnit.MILLILITRES,
                 entriesOrg.get(0).getUnit()),
 
             () -> Assertions.assertEquals(ingredient1.getId(),
                 entriesOrg.get(1).getIngredientId()),
-            () -> Assertions.assertEquals(1.5,
-                entriesOrg.get(1).getAmount()),
-            () -> Assertions.assertEquals(IngredientUnit.KILOGRAMS,
+            () -> Assertions.assertEquals(1500,
+                entriesOrg.get(1).getAmount(), 0.0001),
+            () -> Assertions.assertEquals(IngredientUnit.GRAMS,
                 entriesOrg.get(1).getUnit())
         );
     }
@@ -0,0 +1,266 @@
+package dev.heinisch.menumaestro.shopping_list;
+
+import dev.heinisch.menumaestro.domain.account.Account;
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import dev.heinisch.menumaestro.domain.menu.Menu;
+import dev.heinisch.menumaestro.domain.organization.Organization;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingList;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListItem;
+import dev.heinisch.menumaestro.BaseWebIntegrationTest;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultAccountTestData;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultIngredientTestData;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultMenuTestData;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultOrganizationTestData;
+import dev.heinisch.menumaestro.persistence.AccountRepository;
+import dev.heinisch.menumaestro.persistence.IngredientRepository;
+import dev.heinisch.menumaestro.persistence.OrganizationRepository;
+import dev.heinisch.menumaestro.persistence.ShoppingListRepository;
+import dev.heinisch.menumaestro.properties.ShoppingListOperationLogProperties;
+import dev.heinisch.menumaestro.service.ShoppingListOperationService;
+import dev.heinisch.menumaestro.websocket.ShoppingListUpdateMessage;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.http.Headers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.ShoppingListChangesDto;
+import org.openapitools.model.ShoppingListDto;
+import org.openapitools.model.ShoppingListEditDto;
+import org.openapitools.model.ShoppingListIngredientAddDto;
+import org.openapitools.model.ShoppingListIngredientEditDto;
+import org.openapitools.model.ShoppingListOperationTypeDto;
+import org.openapitools.model.ShoppingListStatus;
+import org.openapitools.model.IngredientUnitDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static dev.heinisch.menumaestro.utils.test_constants.DefaultAccountTestData.DEFAULT_USERNAME;
+
+@ActiveProfiles({"datagen-off", "test"})
+public class ShoppingListChangesIT extends BaseWebIntegrationTest {
+
+    @Override
+    protected String getBasePath() {
+        return "/shopping-lists";
+    }
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ShoppingListRepository shoppingListRepository;
+
+    @Autowired
+    private ShoppingListOperationService shoppingListOperationService;
+
+    @Autowired
+    private ShoppingListOperationLogProperties shoppingListOperationLogProperties;
+
+    Organization organization;
+
+    Menu defaultMenu;
+
+    ShoppingList shoppingList1;
+
+    Account account;
+
+    ShoppingListItem item1;
+
+    List<Ingredient> ingredients;
+
+    @BeforeEach
+    public void setup() {
+        organization = organizationRepository.saveAndFlush(DefaultOrganizationTestData.defaultOrganization1());
+        defaultMenu = menuRepository.saveAndFlush(DefaultMenuTestData.defaultMenu1(organization.getId()));
+
+        ingredients = ingredientRepository.saveAllAndFlush(DefaultIngredientTestData.getDefaultIngredients());
+
+        item1 = ShoppingListItem.builder()
+                .ingredientId(ingredients.get(0).getId())
+                .customItemName(null)
+                .amount(1.)
+                .unit(IngredientUnit.PIECE)
+                .isChecked(false)
+                .checkedByAccountUsername(null)
+                .build();
+
+        account = accountRepository.saveAndFlush(DefaultAccountTestData.defaultAccount());
+
+        shoppingList1 = ShoppingList.builder()
+                .name("Day 1: Breakfast")
+                .isClosed(false)
+                .organizationId(organization.getId())
+                .menuId(defaultMenu.getId())
+                .items(Set.of(item1))
+                .build();
+
+        shoppingListRepository.saveAllAndFlush(List.of(shoppingList1));
+    }
+
+    @Test
+    void getChanges_afterCheckOffAndAdd_returnsOperationsInOrder() {
+        Assertions.assertEquals(0L, getShoppingList().getSequenceNumber());
+
+        setChecked(true);
+        addCustomItem("Bread");
+
+        ShoppingListChangesDto changes = getChanges(0);
+        Assertions.assertNull(changes.getSnapshot());
+        Assertions.assertEquals(2L, changes.getSequenceNumber());
+        Assertions.assertEquals(2, changes.getOperations().size());
+
+        var checkOff = changes.getOperations().get(0);
+        Assertions.assertEquals(1L, checkOff.getSequenceNumber());
+        Assertions.assertEquals(ShoppingListOperationTypeDto.MODIFY, checkOff.getType());
+        Assertions.assertEquals(item1.getId(), checkOff.getItemId());
+        Assertions.assertTrue(checkOff.getIsChecked());
+        Assertions.assertEquals(DEFAULT_USERNAME, checkOff.getCheckedBy());
+
+        var add = changes.getOperations().get(1);
+        Assertions.assertEquals(2L, add.getSequenceNumber());
+        Assertions.assertEquals(ShoppingListOperationTypeDto.ADD, add.getType());
+        Assertions.assertEquals("Bread", add.getItem().getIngredient().getName());
+        Assertions.assertEquals(add.getItemId(), add.getItem().getId());
+
+        Assertions.assertEquals(List.of(2L), getChanges(1).getOperations().stream().map(o -> o.getSequenceNumber()).toList());
+        Assertions.assertTrue(getChanges(2).getOperations().isEmpty());
+        Assertions.assertEquals(2L, getShoppingList().getSequenceNumber());
+    }
+
+    @Test
+    void getChanges_unknownSequenceNumber_returnsSnapshot() {
+        setChecked(true);
+
+        ShoppingListChangesDto changes = getChanges(5);
+        Assertions.assertTrue(changes.getOperations().isEmpty());
+        Assertions.assertNotNull(changes.getSnapshot());
+        Assertions.assertEquals(1L, changes.getSequenceNumber());
+        Assertions.assertTrue(changes.getSnapshot().getIngredients().getFirst().getIsChecked());
+    }
+
+    @Test
+    void getChanges_compactedOperations_returnsSnapshot() {
+        setChecked(true);
+        setChecked(false);
+        long retainedOperations = shoppingListOperationLogProperties.getRetainedOperations();
+        try {
+            shoppingListOperationLogProperties.setRetainedOperations(1);
+            shoppingListOperationService.compact();
+        } finally {
+            shoppingListOperationLogProperties.setRetainedOperations(retainedOperations);
+        }
+
+        ShoppingListChangesDto compacted = getChanges(0);
+        Assertions.assertNotNull(compacted.getSnapshot());
+        Assertions.assertEquals(2L, compacted.getSequenceNumber());
+        Assertions.assertFalse(compacted.getSnapshot().getIngredients().getFirst().getIsChecked());
+
+        ShoppingListChangesDto retained = getChanges(1);
+        Assertions.assertNull(retained.getSnapshot());
+        Assertions.assertEquals(1, retained.getOperations().size());
+        Assertions.assertFalse(retained.getOperations().getFirst().getIsChecked());
+    }
+
+    @Test
+    void append_concurrentFirstOperationsOfListWithoutLog_allGetConsecutiveSequenceNumbers() throws InterruptedException {
+        int nThreads = 8;
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+        CyclicBarrier cyclicBarrier = new CyclicBarrier(nThreads);
+        var firstSequenceNumbers = new ConcurrentLinkedQueue<Long>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < nThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    cyclicBarrier.await();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    throw new RuntimeException(e);
+                }
+                firstSequenceNumbers.add(txTemplate.execute(status ->
+                        shoppingListOperationService.append(shoppingList1.getId(), List.of(ShoppingListUpdateMessage.closed()))));
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(LongStream.rangeClosed(1, nThreads).boxed().collect(Collectors.toSet()), new TreeSet<>(firstSequenceNumbers));
+        Assertions.assertEquals(nThreads, shoppingListOperationService.getLastSequenceNumber(shoppingList1.getId()));
+    }
+
+    @Test
+    void getChanges_shoppingListDoesNotExist_notFound() {
+        RestAssured
+                .given()
+                .headers(new Headers(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN"))))
+                .get(URI + "/{id}/changes?since=0", -1L)
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    private void setChecked(boolean checked) {
+        ShoppingListEditDto shoppingListEditDto = new ShoppingListEditDto()
+                .status(ShoppingListStatus.OPEN)
+                .ingredients(List.of(new ShoppingListIngredientEditDto().id(item1.getId()).checked(checked)));
+        RestAssured
+                .given()
+                .headers(new Headers(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN"))))
+                .contentType(ContentType.JSON)
+                .body(shoppingListEditDto)
+                .patch(URI + "/{id}", shoppingList1.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    private void addCustomItem(String name) {
+        RestAssured
+                .given()
+                .headers(new Headers(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN"))))
+                .contentType(ContentType.JSON)
+                .body(new ShoppingListIngredientAddDto().customIngredientName(name).unit(IngredientUnitDto.PIECE).amount(2.))
+                .post(URI + "/{id}/items", shoppingList1.getId())
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+    }
+
+    private ShoppingListDto getShoppingList() {
+        return RestAssured
+                .given()
+                .headers(new Headers(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN"))))
+                .get(URI + "/{id}", shoppingList1.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().as(ShoppingListDto.class);
+    }
+
+    private ShoppingListChangesDto getChanges(long since) {
+        return RestAssured
+                .given()
+                .headers(new Headers(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN"))))
+                .get(URI + "/{id}/changes?since=" + since, shoppingList1.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().as(ShoppingListChangesDto.class);
+    }
+}
@@ -0,0 +1,142 @@
+package dev.heinisch.menumaestro.shopping_list;
+
+import dev.heinisch.menumaestro.BaseWebIntegrationTest;
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import dev.heinisch.menumaestro.domain.menu.Menu;
+import dev.heinisch.menumaestro.domain.organization.Organization;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingList;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListItem;
+import dev.heinisch.menumaestro.domain.stash.StashEntry;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultIngredientTestData;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultMenuTestData;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultOrganizationTestData;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.http.Header;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.ShoppingListEditDto;
+import org.openapitools.model.ShoppingListIngredientEditDto;
+import org.openapitools.model.ShoppingListStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.heinisch.menumaestro.utils.test_constants.DefaultAccountTestData.DEFAULT_USERNAME;
+
+/**
+ * Closing a shopping list must either see a concurrent check-off, so the item reaches the stash, or reject it.
+ */
+@ActiveProfiles({"datagen-off", "test"})
+public class ShoppingListCloseConcurrencyIT extends BaseWebIntegrationTest {
+
+    private static final int N_ITEMS = 20;
+    private static final double ITEM_AMOUNT = 10.;
+
+    @Override
+    protected String getBasePath() {
+        return "/shopping-lists";
+    }
+
+    TransactionTemplate txTemplate;
+    Header authHeader;
+    Menu menu;
+    Ingredient ingredient;
+    ShoppingList shoppingList;
+
+    @BeforeEach
+    void setup() {
+        txTemplate = new TransactionTemplate(txManager);
+        authHeader = generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN"));
+        Organization organization = organizationRepository.saveAndFlush(DefaultOrganizationTestData.defaultOrganization1());
+        menu = menuRepository.saveAndFlush(DefaultMenuTestData.defaultMenu1(organization.getId()));
+        ingredient = ingredientRepository.saveAndFlush(DefaultIngredientTestData.defaultIngredient1());
+        Set<ShoppingListItem> items = new HashSet<>();
+        for (int i = 0; i < N_ITEMS; i++) {
+            items.add(ShoppingListItem.builder()
+                    .ingredientId(ingredient.getId())
+                    .amount(ITEM_AMOUNT)
+                    .unit(IngredientUnit.GRAMS)
+                    .isChecked(false)
+                    .build());
+        }
+        shoppingList = shoppingListRepository.saveAndFlush(ShoppingList.builder()
+                .name("shopping")
+                .isClosed(false)
+                .organizationId(organization.getId())
+                .menuId(menu.getId())
+                .items(items)
+                .build());
+    }
+
+    @Test
+    void checkOffWhileClosing_everyCheckedItemInStash() throws InterruptedException {
+        List<Long> itemIds = shoppingList.getItems().stream().map(ShoppingListItem::getId).toList();
+        CyclicBarrier cyclicBarrier = new CyclicBarrier(N_ITEMS + 1);
+        AtomicInteger nCheckedOff = new AtomicInteger(0);
+        AtomicInteger nRejected = new AtomicInteger(0);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i <= N_ITEMS; i++) {
+            // the closing thread is in the middle, so shoppers start before and after it
+            boolean closes = i == N_ITEMS / 2;
+            Long itemId = closes ? null : itemIds.get(i < N_ITEMS / 2 ? i : i - 1);
+            Thread thread = new Thread(() -> {
+                try {
+                    cyclicBarrier.await();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    throw new RuntimeException(e);
+                }
+                if (closes) {
+                    RestAssured.given()
+                            .header(authHeader)
+                            .contentType(ContentType.JSON)
+                            .patch(URI + "/{id}/close", shoppingList.getId())
+                            .then()
+                            .statusCode(HttpStatus.OK.value());
+                    return;
+                }
+                int statusCode = RestAssured.given()
+                        .header(authHeader)
+                        .contentType(ContentType.JSON)
+                        .body(new ShoppingListEditDto()
+                                .status(ShoppingListStatus.OPEN)
+                                .ingredients(List.of(new ShoppingListIngredientEditDto().id(itemId).checked(true))))
+                        .patch(URI + "/{id}", shoppingList.getId())
+                        .statusCode();
+                if (statusCode == HttpStatus.OK.value()) {
+                    nCheckedOff.incrementAndGet();
+                } else if (statusCode == HttpStatus.UNPROCESSABLE_ENTITY.value()) {
+                    nRejected.incrementAndGet();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(N_ITEMS, nCheckedOff.get() + nRejected.get());
+        txTemplate.executeWithoutResult(tx -> {
+            ShoppingList closedList = shoppingListRepository.findById(shoppingList.getId()).orElseThrow();
+            Assertions.assertTrue(closedList.getIsClosed());
+            Assertions.assertEquals(nCheckedOff.get(), closedList.getItems().stream().filter(ShoppingListItem::getIsChecked).count());
+        });
+        double amountInStash = stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow()
+                .getEntries().stream()
+                .filter(entry -> entry.getIngredientId().equals(ingredient.getId()))
+                .mapToDouble(StashEntry::getAmount)
+                .sum();
+        Assertions.assertEquals(nCheckedOff.get() * ITEM_AMOUNT, amountInStash, 0.001);
+    }
+}
@@ -1,6 +1,7 @@
 package dev.heinisch.menumaestro.shopping_list;
 
 import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientStatus;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
 import dev.heinisch.menumaestro.domain.menu.Meal;
 import dev.heinisch.menumaestro.domain.menu.Menu;
@@ -9,6 +10,7 @@ import dev.heinisch.menumaestro.domain.menu.Snapshot;
 import dev.heinisch.menumaestro.domain.recipe.RecipeIngredientUse;
 import dev.heinisch.menumaestro.domain.recipe.RecipeValue;
 import dev.heinisch.menumaestro.BaseWebIntegrationTest;
+import dev.heinisch.menumaestro.utils.QueryCounter;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultIngredientTestData;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultMenuTestData;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultOrganizationTestData;
@@ -24,9 +26,11 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.openapitools.model.ErrorResponse;
 import org.openapitools.model.IngredientUnitDto;
 import org.openapitools.model.IngredientUseDto;
+import org.openapitools.model.ShoppingListConsolidatedCreateDto;
 import org.openapitools.model.ShoppingListCreateDto;
 import org.openapitools.model.ShoppingListDto;
 import org.openapitools.model.ShoppingListIngredientDto;
+import org.openapitools.model.ShoppingListMenuSelectionDto;
 import org.openapitools.model.ShoppingListStatus;
 import org.springframework.transaction.support.TransactionTemplate;
 
@@ -35,6 +39,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static dev.heinisch.menumaestro.utils.test_constants.DefaultIngredientTestData.DEFAULT_INGREDIENT_CATEGORY_1;
 import static io.restassured.RestAssured.given;
@@ -43,6 +48,7 @@ public class ShoppingListCreateIT extends BaseWebIntegrationTest {
 
     private static final String PATH_CREATE = "";
     private static final String PATH_PREVIEW = "/used-ingredient-preview";
+    private static final String PATH_CONSOLIDATED = "/consolidated";
 
     private TransactionTemplate txTemplate;
 
@@ -369,6 +375,148 @@ public class ShoppingListCreateIT extends BaseWebIntegrationTest {
         );
     }
 
+    @Test
+    void createShoppingList_manyItems_insertsItemsInBatches() {
+        int itemCount = 120;
+        var menu = txTemplate.execute(status -> {
+            List<Ingredient> ingredients = new ArrayList<>();
+            for (int i = 0; i < itemCount; i++) {
+                ingredients.add(Ingredient.builder()
+                        .name("Ingredient " + i)
+                        .defaultUnit(IngredientUnit.GRAMS)
+                        .category(DEFAULT_INGREDIENT_CATEGORY_1)
+                        .status(IngredientStatus.PUBLIC)
+                        .build());
+            }
+            Set<RecipeIngredientUse> uses = ingredientRepository.saveAll(ingredients).stream()
+                    .map(ingredient -> recipeIngredientUse(ingredient, 100f, IngredientUnit.GRAMS))
+                    .collect(Collectors.toSet());
+            return menuRepository.save(menuWithItems(organizationId, List.of(mealWithIngredients(uses), snapshot("snapshot"))));
+        });
+        MenuItem snapshot = menu.getItems().stream().filter(Snapshot.class::isInstance).findAny().orElseThrow();
+
+        QueryCounter queryCounter = QueryCounter.start(entityManagerFactory);
+        ShoppingListDto responseDto = given().contentType(ContentType.JSON)
+                .body(new ShoppingListCreateDto()
+                        .name("something valid")
+                        .menuId(menu.getId())
+                        .organizationId(organizationId)
+                        .addSnapshotIdsItem(snapshot.getId()))
+                .headers(new Headers(this.generateValidAuthorizationHeader("someone", List.of("ROLE_ADMIN"))))
+                .post(URI)
+                .then()
+                .statusCode(200)
+                .extract()
+                .as(ShoppingListDto.class);
+
+        Assertions.assertEquals(itemCount, responseDto.getIngredients().size());
+        Assertions.assertEquals(itemCount + 1, queryCounter.insertedEntities());
+        // 3 item inserts and 3 id blocks of the items instead of 120 each, the rest is loading the menu
+        Assertions.assertTrue(queryCounter.preparedStatements() < 40,
+                "prepared " + queryCounter.preparedStatements() + " statements");
+    }
+
+    /**
+     * Menu 1: Meal (ingredient 1, ingredient 2), Snapshot
+     * Menu 2: Meal (ingredient 1), Snapshot
+     * -> ingredient 1 of both menus summed up, ingredient 2 once
+     */
+    @Test
+    void createConsolidatedShoppingList_twoMenus_sumsMissingIngredients() {
+        List<Ingredient> defaultIngredients = DefaultIngredientTestData.getDefaultIngredients();
+        var menus = txTemplate.execute(status -> {
+            var ingredients = ingredientRepository.saveAll(defaultIngredients);
+            var menu1 = menuRepository.save(menuWithItems(organizationId, List.of(
+                    mealWithIngredients(Set.of(recipeIngredientUse(ingredients.get(0), 0.5f, IngredientUnit.LITRES),
+                            recipeIngredientUse(ingredients.get(1), 22f, IngredientUnit.GRAMS))),
+                    snapshot("event 1"))));
+            var menu2 = menuRepository.save(menuWithItems(organizationId, List.of(
+                    mealWithIngredients(Set.of(recipeIngredientUse(ingredients.get(0), 1.3f, IngredientUnit.LITRES))),
+                    snapshot("event 2"))));
+            return List.of(menu1, menu2);
+        });
+        ShoppingListDto responseDto = given().contentType(ContentType.JSON)
+                .body(new ShoppingListConsolidatedCreateDto()
+                        .name("all events")
+                        .organizationId(organizationId)
+                        .addMenusItem(menuSelection(menus.get(0)))
+                        .addMenusItem(menuSelection(menus.get(1))))
+                .headers(new Headers(this.generateValidAuthorizationHeader("someone", List.of("ROLE_ADMIN"))))
+                .post(URI + PATH_CONSOLIDATED)
+                .then()
+                .statusCode(200)
+                .extract()
+                .as(ShoppingListDto.class);
+        List<ShoppingListIngredientDto> shoppingIngredients = responseDto.getIngredients();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("all events", responseDto.getName()),
+                () -> Assertions.assertEquals(menus.get(0).getId(), responseDto.getMenuId()),
+                () -> Assertions.assertEquals(ShoppingListStatus.OPEN, responseDto.getStatus()),
+                () -> Assertions.assertEquals(2, shoppingIngredients.size())
+        );
+        shoppingIngredients.sort(Comparator.comparing(i -> i.getIngredient().getAmount()));
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(1.8f, shoppingIngredients.get(0).getIngredient().getAmount()),
+                () -> Assertions.assertEquals(defaultIngredients.get(0).getName(), shoppingIngredients.get(0).getIngredient().getName()),
+                () -> Assertions.assertEquals(IngredientUnitDto.LITRES, shoppingIngredients.get(0).getIngredient().getUnit()),
+
+                () -> Assertions.assertEquals(22f, shoppingIngredients.get(1).getIngredient().getAmount()),
+                () -> Assertions.assertEquals(defaultIngredients.get(1).getName(), shoppingIngredients.get(1).getIngredient().getName()),
+                () -> Assertions.assertEquals(IngredientUnitDto.GRAMS, shoppingIngredients.get(1).getIngredient().getUnit())
+        );
+    }
+
+    @Test
+    void createConsolidatedShoppingList_menusEmpty_fails() {
+        given().contentType(ContentType.JSON)
+                .headers(new Headers(this.generateValidAuthorizationHeader("someone", List.of("ROLE_ADMIN"))))
+                .body(new ShoppingListConsolidatedCreateDto()
+                        .name("something valid")
+                        .organizationId(organizationId)
+                        .menus(Collections.emptyList()))
+                .post(URI + PATH_CONSOLIDATED)
+                .then()
+                .statusCode(422);
+    }
+
+    @Test
+    void createConsolidatedShoppingList_sameMenuTwice_fails() {
+        given().contentType(ContentType.JSON)
+                .headers(new Headers(this.generateValidAuthorizationHeader("someone", List.of("ROLE_ADMIN"))))
+                .body(new ShoppingListConsolidatedCreateDto()
+                        .name("something valid")
+                        .organizationId(organizationId)
+                        .addMenusItem(new ShoppingListMenuSelectionDto().menuId(defaultMenuId).snapshotIds(Collections.emptyList()))
+                        .addMenusItem(new ShoppingListMenuSelectionDto().menuId(defaultMenuId).snapshotIds(Collections.emptyList())))
+                .post(URI + PATH_CONSOLIDATED)
+                .then()
+                .statusCode(422);
+    }
+
+    @Test
+    void createConsolidatedShoppingList_menuNotFromOrganization_fails() {
+        var org2 = DefaultOrganizationTestData.defaultOrganization1();
+        org2.setName("Organization 2");
+        org2 = organizationRepository.saveAndFlush(org2);
+        var menu2 = menuRepository.saveAndFlush(DefaultMenuTestData.defaultMenu1(org2.getId()));
+        given().contentType(ContentType.JSON)
+                .headers(new Headers(this.generateValidAuthorizationHeader("someone", List.of("ROLE_ADMIN"))))
+                .body(new ShoppingListConsolidatedCreateDto()
+                        .name("something valid")
+                        .organizationId(organizationId)
+                        .addMenusItem(new ShoppingListMenuSelectionDto().menuId(defaultMenuId).snapshotIds(Collections.emptyList()))
+                        .addMenusItem(new ShoppingListMenuSelectionDto().menuId(menu2.getId()).snapshotIds(Collections.emptyList())))
+                .post(URI + PATH_CONSOLIDATED)
+                .then()
+                .statusCode(422);
+    }
+
+    private static ShoppingListMenuSelectionDto menuSelection(Menu menu) {
+        return new ShoppingListMenuSelectionDto()
+                .menuId(menu.getId())
+                .snapshotIds(menu.getItems().stream().filter(Snapshot.class::isInstance).map(MenuItem::getId).toList());
+    }
+
     private static Snapshot snapshot(String name) {
         return Snapshot.builder()
                 .name(name)
@@ -25,6 +25,7 @@ import io.restassured.http.Headers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.openapitools.model.ShoppingListDto;
 import org.openapitools.model.ShoppingListEditDto;
 import org.openapitools.model.ShoppingListIngredientEditDto;
 import org.openapitools.model.ShoppingListStatus;
@@ -228,6 +229,85 @@ public class ShoppingListEditIT extends BaseWebIntegrationTest {
         });
     }
 
+    @Test
+    void checkOffShoppingListItem_responseOnlyContainsEditedItems() {
+        ShoppingListItem uncheckedItem = ShoppingListItem.builder()
+                .ingredientId(ingredients.get(0).getId())
+                .amount(1.)
+                .unit(IngredientUnit.PIECE)
+                .isChecked(false)
+                .build();
+        ShoppingListItem checkedItem = ShoppingListItem.builder()
+                .customItemName("Apple Juice")
+                .amount(2.)
+                .unit(IngredientUnit.LITRES)
+                .isChecked(true)
+                .checkedByAccountUsername(account2.getUsername())
+                .build();
+        ShoppingList shoppingList2 = shoppingListRepository.saveAndFlush(ShoppingList.builder()
+                .name("Day 2: Breakfast")
+                .isClosed(false)
+                .organizationId(organization.getId())
+                .menuId(defaultMenu.getId())
+                .items(Set.of(uncheckedItem, checkedItem))
+                .build());
+
+        ShoppingListDto response = RestAssured
+                .given()
+                .headers(new Headers(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN"))))
+                .contentType(ContentType.JSON)
+                .body(new ShoppingListEditDto()
+                        .status(ShoppingListStatus.OPEN)
+                        .ingredients(List.of(new ShoppingListIngredientEditDto().id(uncheckedItem.getId()).checked(true))))
+                .patch(URI + "/{id}", shoppingList2.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().as(ShoppingListDto.class);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(shoppingList2.getId(), response.getId()),
+                () -> Assertions.assertEquals("Day 2: Breakfast", response.getName()),
+                () -> Assertions.assertEquals(ShoppingListStatus.OPEN, response.getStatus()),
+                () -> Assertions.assertEquals(2, response.getItemCount()),
+                () -> Assertions.assertEquals(2, response.getCheckedItemCount()),
+                () -> Assertions.assertEquals(1, response.getIngredients().size()),
+                () -> Assertions.assertEquals(uncheckedItem.getId(), response.getIngredients().getFirst().getId()),
+                () -> Assertions.assertTrue(response.getIngredients().getFirst().getIsChecked()),
+                () -> Assertions.assertEquals(DEFAULT_USERNAME, response.getIngredients().getFirst().getCheckedBy())
+        );
+    }
+
+    @Test
+    void checkOffShoppingListItem_sameItemTwiceInRequest_conflictAndNothingChecked() {
+        ShoppingListEditDto shoppingListEditDto = new ShoppingListEditDto()
+                .status(ShoppingListStatus.OPEN)
+                .ingredients(List.of(
+                        new ShoppingListIngredientEditDto()
+                                .id(item1.getId())
+                                .checked(true),
+                        new ShoppingListIngredientEditDto()
+                                .id(item1.getId())
+                                .checked(true))
+                );
+
+        var response = RestAssured
+                .given()
+                .headers(new Headers(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN"))))
+                .contentType(ContentType.JSON)
+                .body(shoppingListEditDto)
+                .patch(URI + "/{id}", shoppingList1.getId());
+
+        response
+                .then()
+                .statusCode(HttpStatus.CONFLICT.value())
+                .body("message", equalTo("Item was already checked off!"));
+
+        txTemplate.executeWithoutResult(tx -> {
+            ShoppingList shoppingList = shoppingListRepository.findById(shoppingList1.getId()).get();
+            Assertions.assertFalse(shoppingList.getItems().stream().findFirst().get().getIsChecked());
+        });
+    }
+
     @Test
     void uncheckShoppingListItem_success() {
         shoppingList1.getItems().stream().findFirst().get().setCheckedByAccountUsername(account2.getUsername());
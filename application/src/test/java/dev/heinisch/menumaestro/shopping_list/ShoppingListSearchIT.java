@@ -515,4 +515,60 @@ public class ShoppingListSearchIT extends BaseWebIntegrationTest {
 
         Assertions.assertEquals(5, responseDto.getTotalElements());
     }
+
+    @Test
+    void getShoppingListsSummary_countsItemsWithoutIngredients() {
+        TestPageableResponse<ShoppingListDto> fullResponseDto = given().contentType(ContentType.JSON)
+            .headers(new Headers(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN"))))
+                .get(URI + "?view=SUMMARY&page=0&size=10")
+                .then()
+                .statusCode(200)
+                .extract()
+                .as(new TypeRef<>() {});
+
+        var responseDto = fullResponseDto.getContent();
+
+        Assertions.assertEquals(5, fullResponseDto.getTotalElements());
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(shoppingList1.getName(), shoppingList2.getName(), shoppingList3.getName(), shoppingList5.getName(), shoppingList4.getName()),
+                        responseDto.stream().map(ShoppingListDto::getName).toList()),
+                () -> Assertions.assertTrue(responseDto.stream().allMatch(dto -> dto.getIngredients().isEmpty())),
+
+                () -> Assertions.assertEquals(shoppingList3.getId(), responseDto.get(2).getId()),
+                () -> Assertions.assertEquals(shoppingList3.getMenuId(), responseDto.get(2).getMenuId()),
+                () -> Assertions.assertEquals(2L, responseDto.get(2).getItemCount()),
+                () -> Assertions.assertEquals(1L, responseDto.get(2).getCheckedItemCount()),
+
+                () -> Assertions.assertEquals(ShoppingListStatus.CLOSED, responseDto.get(4).getStatus()),
+                () -> Assertions.assertEquals(1L, responseDto.get(4).getItemCount()),
+                () -> Assertions.assertEquals(1L, responseDto.get(4).getCheckedItemCount()),
+
+                () -> Assertions.assertEquals(1L, responseDto.get(0).getItemCount()),
+                () -> Assertions.assertEquals(0L, responseDto.get(0).getCheckedItemCount())
+        );
+    }
+
+    @Test
+    void getShoppingListsSummary_asUser_onlyListsOfOwnOrganizations() {
+        organizationAccountRelationRepository.saveAndFlush(
+            OrganizationAccountRelation.builder()
+                .account(defaultAccount)
+                .organization(organizationRepository.findById(organization2Id).get())
+                .role(OrganizationRole.MEMBER)
+                .build()
+        );
+
+        TestPageableResponse<ShoppingListDto> responseDto = given().contentType(ContentType.JSON)
+            .headers(new Headers(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_USER"))))
+                .get(URI + "?view=SUMMARY&status=OPEN")
+                .then()
+                .statusCode(200)
+                .extract()
+                .as(new TypeRef<>() {});
+
+        Assertions.assertEquals(1, responseDto.getTotalElements());
+        Assertions.assertEquals(shoppingList5.getName(), responseDto.getContent().getFirst().getName());
+        Assertions.assertEquals(1L, responseDto.getContent().getFirst().getItemCount());
+        Assertions.assertEquals(0L, responseDto.getContent().getFirst().getCheckedItemCount());
+    }
 }
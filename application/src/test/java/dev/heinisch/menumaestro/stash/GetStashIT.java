@@ -9,19 +9,27 @@ import dev.heinisch.menumaestro.domain.organization.OrganizationRole;
 import dev.heinisch.menumaestro.domain.stash.Stash;
 import dev.heinisch.menumaestro.domain.stash.StashEntry;
 import dev.heinisch.menumaestro.BaseWebIntegrationTest;
+import dev.heinisch.menumaestro.exceptions.VersionMatchFailedException;
+import dev.heinisch.menumaestro.service.StashService;
 import dev.heinisch.menumaestro.utils.ErrorResponseAssert;
 import dev.heinisch.menumaestro.utils.RestHelper;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultIngredientTestData;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultMenuTestData;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultOrganizationTestData;
+import io.restassured.RestAssured;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
 import io.restassured.http.Method;
 import jakarta.annotation.PostConstruct;
 import org.apache.commons.lang3.tuple.Triple;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.openapitools.model.IngredientUnitDto;
+import org.openapitools.model.IngredientUseCreateEditDto;
 import org.openapitools.model.IngredientUseDto;
 import org.openapitools.model.StashResponseDto;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.transaction.support.TransactionTemplate;
 
@@ -34,13 +42,18 @@ import static dev.heinisch.menumaestro.utils.test_constants.DefaultAccountTestDa
 
 public class GetStashIT extends BaseWebIntegrationTest {
 
+    @Autowired
+    StashService stashService;
+
     private RestHelper.PathRestHelper<StashResponseDto, Long> rest;
+    private Header authHeader;
 
     @PostConstruct
     void initRestHelper() {
+        authHeader = this.generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_USER"));
         rest = new RestHelper.PathRestHelper<>(
                 StashResponseDto.class,
-                this.generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_USER")),
+                authHeader,
                 Method.GET,
                 URI + "/{id}",
                 HttpStatus.OK
@@ -140,23 +153,24 @@ public class GetStashIT extends BaseWebIntegrationTest {
         basicStashAssert(response, 3);
         var ingredients = new ArrayList<>(response.getIngredients());
         ingredients.sort(Comparator.comparing(IngredientUseDto::getAmount));
+        // entries are stored in grams, but shown in a nicer unit
         Assertions.assertAll(
-                () -> Assertions.assertEquals(10, ingredients.get(0).getAmount()),
-                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_NAME_2, ingredients.get(0).getName()),
-                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_UNIT_2.toString(), ingredients.get(0).getUnit().toString()),
-                () -> Assertions.assertEquals(ingredientIds.getMiddle(), ingredients.get(0).getId())
+                () -> Assertions.assertEquals(0.5f, ingredients.get(0).getAmount()),
+                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_NAME_1, ingredients.get(0).getName()),
+                () -> Assertions.assertEquals(IngredientUnitDto.KILOGRAMS, ingredients.get(0).getUnit()),
+                () -> Assertions.assertEquals(ingredientIds.getLeft(), ingredients.get(0).getId())
         );
         Assertions.assertAll(
-                () -> Assertions.assertEquals(30, ingredients.get(1).getAmount()),
-                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_NAME_3, ingredients.get(1).getName()),
-                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_UNIT_3.toString(), ingredients.get(1).getUnit().toString()),
-                () -> Assertions.assertEquals(ingredientIds.getRight(), ingredients.get(1).getId())
+                () -> Assertions.assertEquals(10, ingredients.get(1).getAmount()),
+                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_NAME_2, ingredients.get(1).getName()),
+                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_UNIT_2.toString(), ingredients.get(1).getUnit().toString()),
+                () -> Assertions.assertEquals(ingredientIds.getMiddle(), ingredients.get(1).getId())
         );
         Assertions.assertAll(
-                () -> Assertions.assertEquals(500, ingredients.get(2).getAmount()),
-                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_NAME_1, ingredients.get(2).getName()),
-                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_UNIT_1.toString(), ingredients.get(2).getUnit().toString()),
-                () -> Assertions.assertEquals(ingredientIds.getLeft(), ingredients.get(2).getId())
+                () -> Assertions.assertEquals(30, ingredients.get(2).getAmount()),
+                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_NAME_3, ingredients.get(2).getName()),
+                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_UNIT_3.toString(), ingredients.get(2).getUnit().toString()),
+                () -> Assertions.assertEquals(ingredientIds.getRight(), ingredients.get(2).getId())
         );
     }
 
@@ -197,11 +211,86 @@ public class GetStashIT extends BaseWebIntegrationTest {
             .messageContains("Stash");
     }
 
+    @Test
+    void getStash_ifNoneMatchCurrentVersion_notModified() throws VersionMatchFailedException {
+        createAccountRelation(organization, account, OrganizationRole.PLANNER);
+        Long ingredientId = ingredientRepository.saveAndFlush(DefaultIngredientTestData.defaultIngredient1()).getId();
+        stashService.updateStash(orgStashId, List.of(new IngredientUseCreateEditDto(ingredientId, IngredientUnitDto.GRAMS, 100f)), null);
+
+        rest.request(orgStashId, new Headers(authHeader, new Header("If-None-Match", "\"1\"")))
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header("ETag", "\"1\"");
+    }
+
+    @Test
+    void getStash_ifNoneMatchOutdatedVersion_success() throws VersionMatchFailedException {
+        createAccountRelation(organization, account, OrganizationRole.PLANNER);
+        Long ingredientId = ingredientRepository.saveAndFlush(DefaultIngredientTestData.defaultIngredient1()).getId();
+        stashService.updateStash(orgStashId, List.of(new IngredientUseCreateEditDto(ingredientId, IngredientUnitDto.GRAMS, 100f)), null);
+
+        StashResponseDto response = rest.request(orgStashId, new Headers(authHeader, new Header("If-None-Match", "W/\"0\", \"5\"")))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", "\"1\"")
+                .extract()
+                .as(StashResponseDto.class);
+        Assertions.assertEquals("1", response.getVersionNumber());
+        basicStashAssert(response, 1);
+    }
+
+    @Test
+    void getStash_sinceVersion_onlyChangedEntries() throws VersionMatchFailedException {
+        createAccountRelation(organization, account, OrganizationRole.PLANNER);
+        Long ingredient1Id = ingredientRepository.saveAndFlush(DefaultIngredientTestData.defaultIngredient1()).getId();
+        Long ingredient2Id = ingredientRepository.saveAndFlush(DefaultIngredientTestData.defaultIngredient2()).getId();
+        stashService.updateStash(orgStashId, List.of(
+                new IngredientUseCreateEditDto(ingredient1Id, IngredientUnitDto.GRAMS, 100f),
+                new IngredientUseCreateEditDto(ingredient2Id, IngredientUnitDto.GRAMS, 200f)), null);
+        stashService.updateStash(orgStashId, List.of(new IngredientUseCreateEditDto(ingredient2Id, IngredientUnitDto.GRAMS, 50f)), null);
+
+        StashResponseDto response = requestSinceVersion(orgStashId, 1L);
+        Assertions.assertEquals("2", response.getVersionNumber());
+        Assertions.assertEquals(false, response.getComplete());
+        basicStashAssert(response, 1);
+        Assertions.assertEquals(ingredient2Id, response.getIngredients().getFirst().getId());
+        Assertions.assertEquals(50f, response.getIngredients().getFirst().getAmount());
+
+        basicStashAssert(requestSinceVersion(orgStashId, 2L), 0);
+    }
+
+    @Test
+    void getStash_sinceVersionBeforeRemoval_complete() throws VersionMatchFailedException {
+        createAccountRelation(organization, account, OrganizationRole.PLANNER);
+        Long ingredient1Id = ingredientRepository.saveAndFlush(DefaultIngredientTestData.defaultIngredient1()).getId();
+        Long ingredient2Id = ingredientRepository.saveAndFlush(DefaultIngredientTestData.defaultIngredient2()).getId();
+        stashService.updateStash(orgStashId, List.of(
+                new IngredientUseCreateEditDto(ingredient1Id, IngredientUnitDto.GRAMS, 100f),
+                new IngredientUseCreateEditDto(ingredient2Id, IngredientUnitDto.GRAMS, 200f)), null);
+        stashService.updateStash(orgStashId, List.of(new IngredientUseCreateEditDto(ingredient2Id, IngredientUnitDto.GRAMS, 0f)), null);
+
+        StashResponseDto response = requestSinceVersion(orgStashId, 1L);
+        Assertions.assertEquals(true, response.getComplete());
+        basicStashAssert(response, 1);
+        Assertions.assertEquals(ingredient1Id, response.getIngredients().getFirst().getId());
+    }
+
     @Test
     void basicAuthTests() {
         rest.basicAuthTests(orgStashId);
     }
 
+    private StashResponseDto requestSinceVersion(Long stashId, Long sinceVersion) {
+        return RestAssured.given()
+                .headers(new Headers(authHeader))
+                .queryParam("sinceVersion", sinceVersion)
+                .request(Method.GET, URI + "/{id}", stashId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .as(StashResponseDto.class);
+    }
+
     private static void basicStashAssert(StashResponseDto response, int expectedNumberIngredients) {
         Assertions.assertAll(
                 () -> Assertions.assertNotNull(response.getId()),
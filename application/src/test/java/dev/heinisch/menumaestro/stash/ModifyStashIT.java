@@ -1,13 +1,19 @@
 package dev.heinisch.menumaestro.stash;
 
 import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientCategory;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientStatus;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
 import dev.heinisch.menumaestro.domain.menu.Menu;
 import dev.heinisch.menumaestro.domain.organization.Organization;
 import dev.heinisch.menumaestro.domain.stash.Stash;
 import dev.heinisch.menumaestro.domain.stash.StashEntry;
+import dev.heinisch.menumaestro.domain.stash.StashMovement;
+import dev.heinisch.menumaestro.domain.stash.StashMovementSource;
 import dev.heinisch.menumaestro.BaseWebIntegrationTest;
+import dev.heinisch.menumaestro.persistence.StashMovementRepository;
+import dev.heinisch.menumaestro.utils.QueryCounter;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultIngredientTestData;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultMenuTestData;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultOrganizationTestData;
@@ -16,12 +22,15 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class ModifyStashIT extends BaseWebIntegrationTest {
 
     @Autowired
     StashService stashService;
+    @Autowired
+    StashMovementRepository stashMovementRepository;
     @Test
     public void addToStash() {
         Organization organization = organizationRepository.saveAndFlush(DefaultOrganizationTestData.defaultOrganization1());
@@ -30,7 +39,7 @@ public class ModifyStashIT extends BaseWebIntegrationTest {
         List<Ingredient> ingredients = ingredientRepository.saveAllAndFlush(DefaultIngredientTestData.getDefaultIngredients());
 
         IngredientUse ingredient = new IngredientUse(ingredients.get(0), IngredientUnit.GRAMS,50f);
-        stashService.addToStash(menu.getStash().getId(),List.of(ingredient));
+        stashService.addToStash(menu.getStash().getId(),List.of(ingredient), StashMovementSource.MANUAL_EDIT, null);
         Stash  stash=stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
         Assertions.assertEquals(1,stash.getEntries().size());
         StashEntry stashEntry=stash.getEntries().stream().findFirst().orElseThrow();
@@ -43,7 +52,7 @@ public class ModifyStashIT extends BaseWebIntegrationTest {
         stash=stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
         IngredientUse overwrite= new IngredientUse(ingredients.get(0), IngredientUnit.GRAMS,1f);
 
-        stashService.addToStash(stash.getId(),List.of(overwrite));
+        stashService.addToStash(stash.getId(),List.of(overwrite), StashMovementSource.MANUAL_EDIT, null);
         stash=stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
         Assertions.assertEquals(1,stash.getEntries().size());
         stashEntry=stash.getEntries().stream().findFirst().orElseThrow();
@@ -59,7 +68,7 @@ public class ModifyStashIT extends BaseWebIntegrationTest {
         List<Ingredient> ingredients = ingredientRepository.saveAllAndFlush(DefaultIngredientTestData.getDefaultIngredients());
 
         IngredientUse ingredient = new IngredientUse(ingredients.get(0), IngredientUnit.GRAMS,50f);
-        stashService.addToStash(menu.getStash().getId(),List.of(ingredient));
+        stashService.addToStash(menu.getStash().getId(),List.of(ingredient), StashMovementSource.MANUAL_EDIT, null);
         Stash  stash=stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
         Assertions.assertEquals(1,stash.getEntries().size());
         StashEntry stashEntry=stash.getEntries().stream().findFirst().orElseThrow();
@@ -72,11 +81,88 @@ public class ModifyStashIT extends BaseWebIntegrationTest {
         stash=stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
         IngredientUse overwrite= new IngredientUse(ingredients.get(0), IngredientUnit.GRAMS,-50f);
 
-        stashService.addToStash(stash.getId(),List.of(overwrite));
+        stashService.addToStash(stash.getId(),List.of(overwrite), StashMovementSource.MANUAL_EDIT, null);
         stash=stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
         Assertions.assertEquals(0,stash.getEntries().size());
     }
 
+    @Test
+    public void addToStash_largeStash_onlyWritesChangedEntries() {
+        Organization organization = organizationRepository.saveAndFlush(DefaultOrganizationTestData.defaultOrganization1());
+        Menu menu = menuRepository.saveAndFlush(DefaultMenuTestData.defaultMenu1(organization.getId()));
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ingredients.add(Ingredient.builder()
+                    .name("Ingredient " + i)
+                    .defaultUnit(IngredientUnit.GRAMS)
+                    .category(IngredientCategory.PANTRY_STAPLES)
+                    .status(IngredientStatus.PUBLIC)
+                    .build());
+        }
+        List<Ingredient> savedIngredients = ingredientRepository.saveAllAndFlush(ingredients);
+        Long stashId = menu.getStash().getId();
+        stashService.addToStash(stashId, savedIngredients.stream()
+                .map(ingredient -> new IngredientUse(ingredient, IngredientUnit.GRAMS, 100f))
+                .toList(), StashMovementSource.MANUAL_EDIT, null);
+
+        QueryCounter queryCounter = QueryCounter.start(entityManagerFactory);
+        stashService.addToStash(stashId, List.of(
+                new IngredientUse(savedIngredients.get(0), IngredientUnit.GRAMS, 10f),
+                new IngredientUse(savedIngredients.get(1), IngredientUnit.GRAMS, -100f)), StashMovementSource.MANUAL_EDIT, null);
+
+        // the changed entry and the version of the stash
+        Assertions.assertEquals(2, queryCounter.updatedEntities());
+        Assertions.assertEquals(1, queryCounter.deletedEntities());
+        Assertions.assertEquals(0, queryCounter.insertedEntities(StashEntry.class));
+        Assertions.assertEquals(2, queryCounter.insertedEntities(StashMovement.class));
+        Stash stash = stashRepository.findByIdFetchAggregate(stashId).orElseThrow();
+        Assertions.assertEquals(49, stash.getEntries().size());
+        StashEntry changedEntry = stash.getEntries().stream()
+                .filter(entry -> entry.getIngredientId().equals(savedIngredients.get(0).getId()))
+                .findFirst().orElseThrow();
+        Assertions.assertEquals(110f, changedEntry.getAmount().floatValue());
+    }
+
+    @Test
+    public void addToStash_recordsFoldedMovementInCanonicalUnit() {
+        Organization organization = organizationRepository.saveAndFlush(DefaultOrganizationTestData.defaultOrganization1());
+        Menu menu = menuRepository.saveAndFlush(DefaultMenuTestData.defaultMenu1(organization.getId()));
+        List<Ingredient> ingredients = ingredientRepository.saveAllAndFlush(DefaultIngredientTestData.getDefaultIngredients());
+
+        stashService.addToStash(menu.getStash().getId(), List.of(new IngredientUse(ingredients.get(0), IngredientUnit.KILOGRAMS, 2f)),
+                StashMovementSource.SHOPPING_LIST_CLOSED, 42L);
+
+        List<StashMovement> movements = stashMovementRepository.findByStashIdOrderByIdAsc(menu.getStash().getId());
+        Assertions.assertEquals(1, movements.size());
+        StashMovement movement = movements.getFirst();
+        Assertions.assertEquals(ingredients.get(0).getId(), movement.getIngredientId());
+        Assertions.assertEquals(IngredientUnit.GRAMS, movement.getUnit());
+        Assertions.assertEquals(2000, movement.getAmount(), 0.001);
+        Assertions.assertEquals(StashMovementSource.SHOPPING_LIST_CLOSED, movement.getSource());
+        Assertions.assertEquals(42L, movement.getSourceId());
+        Assertions.assertTrue(movement.getCompacted());
+        Assertions.assertEquals(1, stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow()
+                .getEntries().size());
+    }
+
+    @Test
+    public void addToStash_unitsOfSameKind_storedInOneCanonicalEntry() {
+        Organization organization = organizationRepository.saveAndFlush(DefaultOrganizationTestData.defaultOrganization1());
+        Menu menu = menuRepository.saveAndFlush(DefaultMenuTestData.defaultMenu1(organization.getId()));
+        List<Ingredient> ingredients = ingredientRepository.saveAllAndFlush(DefaultIngredientTestData.getDefaultIngredients());
+
+        stashService.addToStash(menu.getStash().getId(), List.of(new IngredientUse(ingredients.get(0), IngredientUnit.KILOGRAMS, 1.5f)),
+                StashMovementSource.MANUAL_EDIT, null);
+        stashService.addToStash(menu.getStash().getId(), List.of(new IngredientUse(ingredients.get(0), IngredientUnit.GRAMS, 200f)),
+                StashMovementSource.MANUAL_EDIT, null);
+
+        Stash stash = stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
+        Assertions.assertEquals(1, stash.getEntries().size());
+        StashEntry stashEntry = stash.getEntries().stream().findFirst().orElseThrow();
+        Assertions.assertEquals(IngredientUnit.GRAMS, stashEntry.getUnit());
+        Assertions.assertEquals(1700, stashEntry.getAmount(), 0.001);
+    }
+
     @Test
     public void unableToConvertStash() {
         Organization organization = organizationRepository.saveAndFlush(DefaultOrganizationTestData.defaultOrganization1());
@@ -85,7 +171,7 @@ public class ModifyStashIT extends BaseWebIntegrationTest {
         List<Ingredient> ingredients = ingredientRepository.saveAllAndFlush(DefaultIngredientTestData.getDefaultIngredients());
 
         IngredientUse ingredient = new IngredientUse(ingredients.get(0), IngredientUnit.GRAMS,50f);
-        stashService.addToStash(menu.getStash().getId(),List.of(ingredient));
+        stashService.addToStash(menu.getStash().getId(),List.of(ingredient), StashMovementSource.MANUAL_EDIT, null);
 
         Stash  stash=stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
         Assertions.assertEquals(1,stash.getEntries().size());
@@ -95,7 +181,7 @@ public class ModifyStashIT extends BaseWebIntegrationTest {
         stash=stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
         IngredientUse overwrite= new IngredientUse(ingredients.get(0), IngredientUnit.LITRES,-50f);
 
-            stashService.addToStash(stash.getId(),List.of(overwrite));
+            stashService.addToStash(stash.getId(),List.of(overwrite), StashMovementSource.MANUAL_EDIT, null);
         stash=stashRepository.findByIdFetchAggregate(menu.getStash().getId()).orElseThrow();
         Assertions.assertEquals(1,stash.getEntries().size());
         Assertions.assertEquals(stashEntry.getAmount().floatValue(),ingredient.amount());
@@ -181,7 +181,7 @@ public class MoveStashIngredientsIT extends BaseWebIntegrationTest {
      * - source ingredient amount becomes 0 -> deletes entry
      * - source ingredient amount nonzero -> amount subtracted
      * - target ingredient existed -> amount added
-     * - target ingredient was in stash but with different unit -> stash contains both units
+     * - target ingredient was in stash but with a unit of different kind -> stash contains both units
      */
     @Test
     void moveIngredients_updateAppliedCorrectly() {
@@ -190,11 +190,11 @@ public class MoveStashIngredientsIT extends BaseWebIntegrationTest {
         txTemplate.executeWithoutResult(tx -> {
             var stash = stashRepository.findById(org1StashId).orElseThrow();
             stash.getEntries().add(stashEntry(stash, ingredient1.getId(), 1500, IngredientUnit.GRAMS));
-            stash.getEntries().add(stashEntry(stash, ingredient2.getId(), 1, IngredientUnit.LITRES));
+            stash.getEntries().add(stashEntry(stash, ingredient2.getId(), 1000, IngredientUnit.MILLILITRES));
 
             stash = stashRepository.findById(org2StashId).orElseThrow();
-            stash.getEntries().add(stashEntry(stash, ingredient1.getId(), 2, IngredientUnit.CUPS));
-            stash.getEntries().add(stashEntry(stash, ingredient2.getId(), 0.3, IngredientUnit.LITRES));
+            stash.getEntries().add(stashEntry(stash, ingredient1.getId(), 472, IngredientUnit.MILLILITRES));
+            stash.getEntries().add(stashEntry(stash, ingredient2.getId(), 300, IngredientUnit.MILLILITRES));
         });
         var transferRequests = List.of(
                 new IngredientUseCreateEditDto(ingredient1.getId(), IngredientUnitDto.GRAMS, 1400f),
@@ -222,17 +222,17 @@ public class MoveStashIngredientsIT extends BaseWebIntegrationTest {
         Assertions.assertAll(
                 () -> Assertions.assertEquals(3, entries2.size()),
 
-                () -> Assertions.assertEquals(ingredient2.getId(), entries2.getFirst().getIngredientId()),
-                () -> Assertions.assertEquals(IngredientUnit.LITRES, entries2.getFirst().getUnit()),
-                () -> Assertions.assertEquals(1.3, entries2.getFirst().getAmount(), 0.0001),
+                () -> Assertions.assertEquals(ingredient1.getId(), entries2.getFirst().getIngredientId()),
+                () -> Assertions.assertEquals(472, entries2.getFirst().getAmount()),
+                () -> Assertions.assertEquals(IngredientUnit.MILLILITRES, entries2.getFirst().getUnit()),
 
-                () -> Assertions.assertEquals(ingredient1.getId(), entries2.get(2).getIngredientId()),
-                () -> Assertions.assertEquals(2, entries2.get(2).getAmount()),
-                () -> Assertions.assertEquals(IngredientUnit.CUPS, entries2.get(2).getUnit()),
+                () -> Assertions.assertEquals(ingredient2.getId(), entries2.get(1).getIngredientId()),
+                () -> Assertions.assertEquals(1300, entries2.get(1).getAmount(), 0.0001),
+                () -> Assertions.assertEquals(IngredientUnit.MILLILITRES, entries2.get(1).getUnit()),
 
-                () -> Assertions.assertEquals(ingredient1.getId(), entries2.get(1).getIngredientId()),
-                () -> Assertions.assertEquals(1.400, entries2.get(1).getAmount(), 0.0001),
-                () -> Assertions.assertEquals(IngredientUnit.KILOGRAMS, entries2.get(1).getUnit())
+                () -> Assertions.assertEquals(ingredient1.getId(), entries2.get(2).getIngredientId()),
+                () -> Assertions.assertEquals(1400, entries2.get(2).getAmount(), 0.0001),
+                () -> Assertions.assertEquals(IngredientUnit.GRAMS, entries2.get(2).getUnit())
         );
     }
 
@@ -4,17 +4,26 @@ import dev.heinisch.menumaestro.domain.account.Account;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientComputationService;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUnitConversionService;
 import dev.heinisch.menumaestro.domain.menu.Menu;
+import dev.heinisch.menumaestro.domain.menu.MenuStatus;
 import dev.heinisch.menumaestro.domain.organization.Organization;
+import dev.heinisch.menumaestro.domain.stash.Stash;
 import dev.heinisch.menumaestro.exceptions.VersionMatchFailedException;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultIngredientTestData;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultMenuTestData;
 import dev.heinisch.menumaestro.utils.test_constants.DefaultOrganizationTestData;
 import dev.heinisch.menumaestro.mapper.IngredientMapper;
 import dev.heinisch.menumaestro.mapper.StashMapper;
 import dev.heinisch.menumaestro.persistence.EntityLockingRepository;
 import dev.heinisch.menumaestro.persistence.IngredientRepository;
+import dev.heinisch.menumaestro.persistence.MenuRepository;
 import dev.heinisch.menumaestro.persistence.OrganizationRepository;
+import dev.heinisch.menumaestro.properties.EntityLockingProperties;
+import dev.heinisch.menumaestro.properties.StashProperties;
+import dev.heinisch.menumaestro.service.IngredientCatalogService;
+import dev.heinisch.menumaestro.service.IngredientReferenceCache;
 import dev.heinisch.menumaestro.service.StashService;
 import dev.heinisch.menumaestro.utils.DatabaseCleanerExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +35,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
@@ -35,6 +45,7 @@ import org.springframework.transaction.support.TransactionTemplate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -44,7 +55,9 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 @ActiveProfiles({"postgres-test", "datagen-off"})
 @DataJpaTest(includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
-        classes = {StashService.class, EntityLockingRepository.class, StashMapper.class, IngredientMapper.class, IngredientUnitConversionService.class, IngredientComputationService.class}))
+        classes = {StashService.class, EntityLockingRepository.class, StashMapper.class, IngredientMapper.class, IngredientUnitConversionService.class, IngredientComputationService.class,
+                IngredientCatalogService.class, IngredientReferenceCache.class, StashProperties.class, EntityLockingProperties.class}))
+@Import(SimpleMeterRegistry.class)
 @ExtendWith(DatabaseCleanerExtension.class)
 @Transactional(propagation = Propagation.NOT_SUPPORTED)
 public class PatchStashConcurrencyIT {
@@ -55,6 +68,9 @@ public class PatchStashConcurrencyIT {
     @Autowired
     private IngredientRepository ingredientRepository;
 
+    @Autowired
+    private MenuRepository menuRepository;
+
     @Autowired
     PlatformTransactionManager txManager;
     TransactionTemplate txTemplate;
@@ -66,7 +82,10 @@ public class PatchStashConcurrencyIT {
     Long ingredient1Id;
     @Autowired
     private StashService stashService;
-
+    @Autowired
+    private EntityLockingRepository entityLockingRepository;
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setup() {
@@ -78,6 +97,7 @@ public class PatchStashConcurrencyIT {
 
     @AfterEach
     void teardown() {
+        menuRepository.deleteAll();
         organizationRepository.deleteAll();
         ingredientRepository.deleteAll();
     }
@@ -117,4 +137,81 @@ public class PatchStashConcurrencyIT {
         Assertions.assertEquals(1, nSucceeded.get());
         Assertions.assertEquals(nThreads - 1, nPreconditionFail.get());
     }
+
+    @Test
+    public void concurrentOppositeTransfers_noDeadlock() throws InterruptedException, VersionMatchFailedException {
+        menu = menuRepository.saveAndFlush(DefaultMenuTestData.defaultMenu1(organization.getId()));
+        Long menuStashId = menu.getStash().getId();
+        var initialAmount = List.of(new IngredientUseCreateEditDto().id(ingredient1Id)
+                .amount(100f)
+                .unit(IngredientUnitDto.GRAMS));
+        stashService.updateStash(stashId, initialAmount, null);
+        stashService.updateStash(menuStashId, initialAmount, null);
+        var transfer = List.of(new IngredientUseCreateEditDto().id(ingredient1Id)
+                .amount(1f)
+                .unit(IngredientUnitDto.GRAMS));
+        int nThreads = 10;
+        int nTransfers = 5;
+        CyclicBarrier cyclicBarrier = new CyclicBarrier(nThreads);
+        List<Thread> threads = new ArrayList<>();
+        AtomicInteger nFailed = new AtomicInteger(0);
+        for (int i = 0; i < nThreads; i++) {
+            boolean toMenu = i % 2 == 0;
+            Thread thread = new Thread(() -> {
+                try {
+                    cyclicBarrier.await();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int j = 0; j < nTransfers; j++) {
+                    try {
+                        if (toMenu) {
+                            stashService.moveStashIngredients(stashId, menuStashId, transfer);
+                        } else {
+                            stashService.moveStashIngredients(menuStashId, stashId, transfer);
+                        }
+                    } catch (RuntimeException e) {
+                        nFailed.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(0, nFailed.get());
+        Assertions.assertEquals(100f, stashService.getStash(stashId).getIngredients().getFirst().getAmount());
+        Assertions.assertEquals(100f, stashService.getStash(menuStashId).getIngredients().getFirst().getAmount());
+    }
+
+    @Test
+    public void lockEntities_retriedAfterTimeout_keepsChangesMadeBefore() throws InterruptedException {
+        menu = menuRepository.saveAndFlush(DefaultMenuTestData.defaultMenu1(organization.getId()));
+        Long menuStashId = menu.getStash().getId();
+        CountDownLatch stashLocked = new CountDownLatch(1);
+        Thread lockHolder = new Thread(() -> txTemplate.executeWithoutResult(status -> {
+            entityLockingRepository.lockEntity(Stash.class, stashId, 50);
+            stashLocked.countDown();
+            try {
+                // longer than one attempt, shorter than all of them
+                Thread.sleep(120);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }));
+        lockHolder.start();
+        stashLocked.await();
+
+        txTemplate.executeWithoutResult(status -> {
+            Menu changedMenu = menuRepository.findById(menu.getId()).orElseThrow();
+            changedMenu.setStatus(MenuStatus.CLOSED);
+            Assertions.assertEquals(2, entityLockingRepository.lockEntities(Stash.class, List.of(stashId, menuStashId), 50).size());
+        });
+        lockHolder.join();
+
+        Assertions.assertTrue(meterRegistry.counter("menumaestro.locking.retries", "entity", "Stash").count() >= 1);
+        Assertions.assertEquals(MenuStatus.CLOSED, menuRepository.findById(menu.getId()).orElseThrow().getStatus());
+    }
 }
@@ -133,8 +133,8 @@ public class PatchStashWebIT extends BaseWebIntegrationTest {
         Assertions.assertAll(
                 () -> Assertions.assertEquals(1, modifiedEntries.size()),
                 () -> Assertions.assertEquals(ingredient2Id, modifiedEntries.getFirst().getIngredientId()),
-                () -> Assertions.assertEquals(IngredientUnit.KILOGRAMS, modifiedEntries.getFirst().getUnit()),
-                () -> Assertions.assertEquals(2., modifiedEntries.getFirst().getAmount())
+                () -> Assertions.assertEquals(IngredientUnit.GRAMS, modifiedEntries.getFirst().getUnit()),
+                () -> Assertions.assertEquals(2000., modifiedEntries.getFirst().getAmount(), 0.001)
         );
     }
 
@@ -164,7 +164,7 @@ public class PatchStashWebIT extends BaseWebIntegrationTest {
         txTemplate.executeWithoutResult(tx -> {
             Stash stash = stashRepository.findById(orgStashId).orElseThrow();
             stash.getEntries().add(stashEntry(stash, ingredient1Id, 100., IngredientUnit.GRAMS));
-            stash.getEntries().add(stashEntry(stash, ingredient1Id, 1., IngredientUnit.TEASPOONS));
+            stash.getEntries().add(stashEntry(stash, ingredient1Id, 5., IngredientUnit.MILLILITRES));
         });
         // check setup
         Assertions.assertEquals(2, stashRepository.findByIdFetchAggregate(orgStashId).orElseThrow().getEntries().size());
@@ -174,7 +174,7 @@ public class PatchStashWebIT extends BaseWebIntegrationTest {
                 .header("ETag", "1");
         List<StashEntry> modifiedEntries = new ArrayList<>(stashRepository.findByIdFetchAggregate(orgStashId).orElseThrow().getEntries());
         Assertions.assertEquals(1, modifiedEntries.size());
-        Assertions.assertEquals(IngredientUnit.TEASPOONS, modifiedEntries.getFirst().getUnit());
+        Assertions.assertEquals(IngredientUnit.MILLILITRES, modifiedEntries.getFirst().getUnit());
     }
 
     @Test
@@ -189,7 +189,7 @@ public class PatchStashWebIT extends BaseWebIntegrationTest {
         txTemplate.executeWithoutResult(tx -> {
             Stash stash = stashRepository.findById(orgStashId).orElseThrow();
             stash.getEntries().add(stashEntry(stash, ingredient1Id, 100., IngredientUnit.GRAMS));
-            stash.getEntries().add(stashEntry(stash, ingredient1Id, 1., IngredientUnit.TEASPOONS));
+            stash.getEntries().add(stashEntry(stash, ingredient1Id, 5., IngredientUnit.MILLILITRES));
         });
         // check setup
         Assertions.assertEquals(2, stashRepository.findByIdFetchAggregate(orgStashId).orElseThrow().getEntries().size());
@@ -222,8 +222,8 @@ public class PatchStashWebIT extends BaseWebIntegrationTest {
         Assertions.assertAll(
                 () -> Assertions.assertEquals(1, modifiedEntries.size()),
                 () -> Assertions.assertEquals(ingredient1Id, modifiedEntries.getFirst().getIngredientId()),
-                () -> Assertions.assertEquals(IngredientUnit.TABLESPOONS, modifiedEntries.getFirst().getUnit()),
-                () -> Assertions.assertEquals(8., modifiedEntries.getFirst().getAmount())
+                () -> Assertions.assertEquals(IngredientUnit.MILLILITRES, modifiedEntries.getFirst().getUnit()),
+                () -> Assertions.assertEquals(120., modifiedEntries.getFirst().getAmount(), 0.001)
         );
     }
 
@@ -0,0 +1,230 @@
+package dev.heinisch.menumaestro.stash;
+
+import dev.heinisch.menumaestro.BaseWebIntegrationTest;
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientComputationService;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
+import dev.heinisch.menumaestro.domain.menu.Menu;
+import dev.heinisch.menumaestro.domain.organization.Organization;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingList;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListItem;
+import dev.heinisch.menumaestro.domain.stash.Stash;
+import dev.heinisch.menumaestro.domain.stash.StashEntry;
+import dev.heinisch.menumaestro.domain.stash.StashMovement;
+import dev.heinisch.menumaestro.domain.stash.StashMovementSource;
+import dev.heinisch.menumaestro.exceptions.ConflictException;
+import dev.heinisch.menumaestro.exceptions.VersionMatchFailedException;
+import dev.heinisch.menumaestro.persistence.StashMovementRepository;
+import dev.heinisch.menumaestro.service.IngredientCatalogService;
+import dev.heinisch.menumaestro.service.StashService;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultIngredientTestData;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultMenuTestData;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultOrganizationTestData;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.IngredientUnitDto;
+import org.openapitools.model.IngredientUseCreateEditDto;
+import org.openapitools.model.StashResponseDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static dev.heinisch.menumaestro.utils.test_constants.DefaultAccountTestData.DEFAULT_USERNAME;
+
+/**
+ * Runs with background compaction, which the scheduler does not get to during a test, so tests compact explicitly.
+ */
+@TestPropertySource(properties = {
+        "menumaestro.stash.compaction.mode=BACKGROUND",
+        "menumaestro.stash.compaction.interval=1h"
+})
+public class StashMovementCompactionIT extends BaseWebIntegrationTest {
+
+    @Autowired
+    StashService stashService;
+    @Autowired
+    StashMovementRepository stashMovementRepository;
+    @Autowired
+    IngredientComputationService ingredientComputationService;
+    @Autowired
+    IngredientCatalogService ingredientCatalogService;
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    Organization organization;
+    Menu menu;
+    Long menuStashId;
+    Ingredient ingredient;
+
+    @BeforeEach
+    void setup() {
+        organization = organizationRepository.saveAndFlush(DefaultOrganizationTestData.defaultOrganization1());
+        menu = menuRepository.saveAndFlush(DefaultMenuTestData.defaultMenu1(organization.getId()));
+        menuStashId = menu.getStash().getId();
+        ingredient = ingredientRepository.saveAndFlush(DefaultIngredientTestData.defaultIngredient1());
+    }
+
+    @Test
+    void addToStash_onlyAppendsMovement_untilCompacted() {
+        stashService.addToStash(menuStashId, List.of(new IngredientUse(ingredient, IngredientUnit.GRAMS, 50f)),
+                StashMovementSource.SHOPPING_LIST_CLOSED, 7L);
+
+        Stash stash = stashRepository.findByIdFetchAggregate(menuStashId).orElseThrow();
+        Assertions.assertTrue(stash.getEntries().isEmpty());
+        Assertions.assertEquals(0L, stash.getVersionNumber());
+        List<StashMovement> movements = stashMovementRepository.findByStashIdAndCompactedFalseOrderByIdAsc(menuStashId);
+        Assertions.assertEquals(1, movements.size());
+        Assertions.assertEquals(StashMovementSource.SHOPPING_LIST_CLOSED, movements.getFirst().getSource());
+        Assertions.assertEquals(7L, movements.getFirst().getSourceId());
+
+        Assertions.assertEquals(1, stashService.compactMovements(menuStashId));
+
+        stash = stashRepository.findByIdFetchAggregate(menuStashId).orElseThrow();
+        Assertions.assertEquals(1, stash.getEntries().size());
+        Assertions.assertEquals(50f, stash.getEntries().iterator().next().getAmount().floatValue());
+        Assertions.assertEquals(1L, stash.getVersionNumber());
+        Assertions.assertTrue(stashMovementRepository.findByStashIdAndCompactedFalseOrderByIdAsc(menuStashId).isEmpty());
+        Assertions.assertEquals(0, stashService.compactMovements(menuStashId));
+    }
+
+    @Test
+    void closeShoppingList_checkedItemsPendingUntilCompacted() {
+        ShoppingList shoppingList = shoppingListRepository.saveAndFlush(ShoppingList.builder()
+                .name("shopping")
+                .isClosed(false)
+                .organizationId(organization.getId())
+                .menuId(menu.getId())
+                .items(Set.of(ShoppingListItem.builder()
+                        .ingredientId(ingredient.getId())
+                        .amount(50.)
+                        .unit(IngredientUnit.GRAMS)
+                        .isChecked(true)
+                        .build()))
+                .build());
+
+        RestAssured.given()
+                .header(generateValidAuthorizationHeader(DEFAULT_USERNAME, List.of("ROLE_ADMIN")))
+                .patch(URI + "/shopping-lists/{id}/close", shoppingList.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        Assertions.assertTrue(stashRepository.findByIdFetchAggregate(menuStashId).orElseThrow().getEntries().isEmpty());
+        List<StashMovement> movements = stashMovementRepository.findByStashIdAndCompactedFalseOrderByIdAsc(menuStashId);
+        Assertions.assertEquals(1, movements.size());
+        Assertions.assertEquals(StashMovementSource.SHOPPING_LIST_CLOSED, movements.getFirst().getSource());
+        Assertions.assertEquals(shoppingList.getId(), movements.getFirst().getSourceId());
+        Assertions.assertEquals(50f, stashService.getStash(menuStashId).getIngredients().getFirst().getAmount());
+
+        Assertions.assertEquals(1, stashService.compactMovements(menuStashId));
+
+        Stash stash = stashRepository.findByIdFetchAggregate(menuStashId).orElseThrow();
+        Assertions.assertEquals(50f, stash.getEntries().iterator().next().getAmount().floatValue());
+    }
+
+    @Test
+    void getStash_includesPendingMovements() {
+        stashService.addToStash(menuStashId, List.of(new IngredientUse(ingredient, IngredientUnit.GRAMS, 50f)),
+                StashMovementSource.SHOPPING_LIST_CLOSED, 7L);
+        stashService.addToStash(menuStashId, List.of(new IngredientUse(ingredient, IngredientUnit.GRAMS, -20f)),
+                StashMovementSource.MEAL_DONE, 8L);
+
+        StashResponseDto pending = stashService.getStash(menuStashId);
+        Assertions.assertEquals(1, pending.getIngredients().size());
+        Assertions.assertEquals(30f, pending.getIngredients().getFirst().getAmount());
+        Assertions.assertEquals("2", pending.getVersionNumber());
+
+        stashService.compactMovements(menuStashId);
+
+        StashResponseDto compacted = stashService.getStash(menuStashId);
+        Assertions.assertEquals(pending.getIngredients(), compacted.getIngredients());
+        Assertions.assertEquals(pending.getVersionNumber(), compacted.getVersionNumber());
+    }
+
+    @Test
+    void loadedStash_pendingMovementsFoldedIntoComputations() {
+        stashService.addToStash(menuStashId, List.of(new IngredientUse(ingredient, IngredientUnit.GRAMS, 50f)),
+                StashMovementSource.SHOPPING_LIST_CLOSED, 7L);
+        stashService.addToStash(menuStashId, List.of(new IngredientUse(ingredient, IngredientUnit.GRAMS, -20f)),
+                StashMovementSource.MEAL_DONE, 8L);
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            Stash stash = stashRepository.findById(menuStashId).orElseThrow();
+            List<IngredientUse> available = ingredientComputationService
+                    .stashBatch(stash, ingredientCatalogService.forStash(stash)).toList();
+
+            Assertions.assertEquals(0L, stash.getVersionNumber());
+            Assertions.assertEquals(2L, stash.getVisibleVersionNumber());
+            Assertions.assertEquals(1, available.size());
+            Assertions.assertEquals(30, available.getFirst().amount(), 0.001);
+        });
+
+        stashService.compactMovements(menuStashId);
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            Stash stash = stashRepository.findById(menuStashId).orElseThrow();
+            Assertions.assertTrue(stash.getPendingMovements().isEmpty());
+            Assertions.assertEquals(2L, stash.getVisibleVersionNumber());
+        });
+    }
+
+    @Test
+    void updateStash_withVersionIncludingPendingMovements_compactsFirst() throws VersionMatchFailedException {
+        stashService.addToStash(menuStashId, List.of(new IngredientUse(ingredient, IngredientUnit.GRAMS, 50f)),
+                StashMovementSource.SHOPPING_LIST_CLOSED, 7L);
+        Long version = Long.parseLong(stashService.getStash(menuStashId).getVersionNumber());
+
+        Long newVersion = stashService.updateStash(menuStashId,
+                List.of(new IngredientUseCreateEditDto(ingredient.getId(), IngredientUnitDto.GRAMS, 80f)), version);
+
+        Assertions.assertEquals(version + 1, newVersion);
+        Stash stash = stashRepository.findByIdFetchAggregate(menuStashId).orElseThrow();
+        Assertions.assertEquals(80f, stash.getEntries().iterator().next().getAmount().floatValue());
+        List<StashMovement> movements = stashMovementRepository.findByStashIdOrderByIdAsc(menuStashId);
+        Assertions.assertEquals(2, movements.size());
+        Assertions.assertTrue(movements.stream().allMatch(StashMovement::getCompacted));
+        Assertions.assertEquals(StashMovementSource.MANUAL_EDIT, movements.get(1).getSource());
+        Assertions.assertEquals(30, movements.get(1).getAmount(), 0.001);
+    }
+
+    @Test
+    void moveStashIngredients_foldsPendingMovements_andRecordsTransfer() {
+        Long orgStashId = organization.getStash().getId();
+        stashService.addToStash(menuStashId, List.of(new IngredientUse(ingredient, IngredientUnit.GRAMS, 50f)),
+                StashMovementSource.SHOPPING_LIST_CLOSED, 7L);
+
+        stashService.moveStashIngredients(menuStashId, orgStashId,
+                List.of(new IngredientUseCreateEditDto(ingredient.getId(), IngredientUnitDto.GRAMS, 20f)));
+
+        StashEntry menuEntry = stashRepository.findByIdFetchAggregate(menuStashId).orElseThrow()
+                .getEntries().iterator().next();
+        Assertions.assertEquals(30f, menuEntry.getAmount().floatValue());
+        StashMovement transferOut = stashMovementRepository.findByStashIdOrderByIdAsc(menuStashId).getLast();
+        Assertions.assertEquals(StashMovementSource.TRANSFER, transferOut.getSource());
+        Assertions.assertEquals(orgStashId, transferOut.getSourceId());
+        Assertions.assertEquals(-20, transferOut.getAmount(), 0.001);
+
+        List<StashMovement> transferIn = stashMovementRepository.findByStashIdAndCompactedFalseOrderByIdAsc(orgStashId);
+        Assertions.assertEquals(1, transferIn.size());
+        Assertions.assertEquals(menuStashId, transferIn.getFirst().getSourceId());
+        Assertions.assertEquals(20, transferIn.getFirst().getAmount(), 0.001);
+    }
+
+    @Test
+    void addToStash_lockedStash_conflict() {
+        Stash stash = stashRepository.findById(menuStashId).orElseThrow();
+        stash.setLocked(true);
+        stashRepository.saveAndFlush(stash);
+
+        Assertions.assertThrows(ConflictException.class, () -> stashService.addToStash(menuStashId,
+                List.of(new IngredientUse(ingredient, IngredientUnit.GRAMS, 50f)), StashMovementSource.MEAL_DONE, 8L));
+        Assertions.assertTrue(stashMovementRepository.findByStashIdOrderByIdAsc(menuStashId).isEmpty());
+    }
+}
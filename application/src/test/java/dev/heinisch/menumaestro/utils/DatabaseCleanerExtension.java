@@ -1,5 +1,6 @@
 package dev.heinisch.menumaestro.utils;
 
+import dev.heinisch.menumaestro.service.IngredientReferenceCache;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
@@ -29,6 +30,7 @@ public class DatabaseCleanerExtension implements AfterEachCallback {
             cleanTablesData(tables, dbConnection);
             log.debug("Deleted data from {} tables", tables.size());
         }
+        SpringExtension.getApplicationContext(context).getBean(IngredientReferenceCache.class).invalidate();
     }
 
     private Connection getDatabaseConnection(ExtensionContext context) throws SQLException {
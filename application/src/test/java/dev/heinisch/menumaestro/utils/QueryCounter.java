@@ -0,0 +1,45 @@
+package dev.heinisch.menumaestro.utils;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the statements hibernate prepares, based on its statistics which the test profile enables.
+ * A JDBC batch is prepared once, no matter how many rows it inserts.
+ * The statistics are global, so counts include statements of concurrent requests.
+ */
+public class QueryCounter {
+
+    private final Statistics statistics;
+
+    private QueryCounter(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public static QueryCounter start(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return new QueryCounter(statistics);
+    }
+
+    public long preparedStatements() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    public long insertedEntities() {
+        return statistics.getEntityInsertCount();
+    }
+
+    public long insertedEntities(Class<?> entityClass) {
+        return statistics.getEntityStatistics(entityClass.getName()).getInsertCount();
+    }
+
+    public long updatedEntities() {
+        return statistics.getEntityUpdateCount();
+    }
+
+    public long deletedEntities() {
+        return statistics.getEntityDeleteCount();
+    }
+}
@@ -0,0 +1,149 @@
+package dev.heinisch.menumaestro.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.heinisch.menumaestro.BackendApplication;
+import dev.heinisch.menumaestro.domain.menu.Menu;
+import dev.heinisch.menumaestro.domain.organization.Organization;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingList;
+import dev.heinisch.menumaestro.persistence.MenuRepository;
+import dev.heinisch.menumaestro.persistence.OrganizationRepository;
+import dev.heinisch.menumaestro.persistence.ShoppingListRepository;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultMenuTestData;
+import dev.heinisch.menumaestro.utils.test_constants.DefaultOrganizationTestData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs two replicas against the same postgres database, e.g.
+ * {@code MENUMAESTRO_IT_POSTGRES_URL=jdbc:postgresql://localhost:5432/menumaestro_it}, and checks that updates
+ * published on one replica reach the subscribers of the other.
+ */
+@EnabledIfEnvironmentVariable(named = "MENUMAESTRO_IT_POSTGRES_URL", matches = ".+")
+public class PostgresShoppingListBrokerIT {
+
+    private static ConfigurableApplicationContext replicaA;
+    private static ConfigurableApplicationContext replicaB;
+
+    private final BlockingQueue<Message<?>> receivedOnB = new LinkedBlockingQueue<>();
+
+    private Organization organization;
+    private Menu menu;
+    private ShoppingList shoppingList;
+
+    @BeforeAll
+    static void startReplicas() {
+        replicaA = startReplica();
+        replicaB = startReplica();
+    }
+
+    @AfterAll
+    static void stopReplicas() {
+        if (replicaA != null) {
+            replicaA.close();
+        }
+        if (replicaB != null) {
+            replicaB.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startReplica() {
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("datagen-off")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + System.getenv("MENUMAESTRO_IT_POSTGRES_URL"),
+                        "spring.datasource.username=" + System.getenv().getOrDefault("MENUMAESTRO_IT_POSTGRES_USER", "postgres"),
+                        "spring.datasource.password=" + System.getenv().getOrDefault("MENUMAESTRO_IT_POSTGRES_PASSWORD", "postgres"),
+                        "menumaestro.initial-accounts.enabled=false",
+                        "menumaestro.initial-organizations.enabled=false",
+                        "menumaestro.websocket.broker.type=POSTGRES"
+                )
+                .run();
+    }
+
+    @BeforeEach
+    void setup() {
+        organization = replicaA.getBean(OrganizationRepository.class).saveAndFlush(DefaultOrganizationTestData.defaultOrganization1());
+        menu = replicaA.getBean(MenuRepository.class).saveAndFlush(DefaultMenuTestData.defaultMenu1(organization.getId()));
+        shoppingList = replicaA.getBean(ShoppingListRepository.class).saveAndFlush(ShoppingList.builder()
+                .name("Replicated")
+                .isClosed(false)
+                .organizationId(organization.getId())
+                .menuId(menu.getId())
+                .items(Set.of())
+                .build());
+
+        replicaB.getBean("brokerChannel", SubscribableChannel.class).subscribe(receivedOnB::add);
+    }
+
+    @AfterEach
+    void cleanup() {
+        replicaA.getBean(ShoppingListRepository.class).deleteById(shoppingList.getId());
+        replicaA.getBean(MenuRepository.class).deleteById(menu.getId());
+        replicaA.getBean(OrganizationRepository.class).deleteById(organization.getId());
+    }
+
+    @Test
+    void publishOnReplicaA_subscriberOnReplicaB_receivesBatch() throws Exception {
+        subscribeOnB(shoppingList.getId());
+
+        ShoppingListUpdateBatch batch = null;
+        // replica B starts listening asynchronously, so publish until the first batch arrives
+        for (int attempt = 0; attempt < 20 && batch == null; attempt++) {
+            publishOnA(shoppingList.getId());
+            batch = nextBatch();
+        }
+
+        Assertions.assertNotNull(batch);
+        Assertions.assertEquals(shoppingList.getId(), batch.shoppingListId());
+        Assertions.assertEquals(ShoppingListUpdateType.CLOSED, batch.updates().getFirst().updateType());
+    }
+
+    @Test
+    void publishOnReplicaA_noSubscriberOnReplicaB_notRelayed() throws Exception {
+        publishOnA(shoppingList.getId());
+
+        Assertions.assertNull(nextBatch());
+    }
+
+    private void subscribeOnB(Long shoppingListId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("replica-b-session");
+        accessor.setSubscriptionId("sub-" + shoppingListId);
+        accessor.setDestination("/shopping-lists/" + shoppingListId);
+        replicaB.publishEvent(new SessionSubscribeEvent(this, MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders())));
+    }
+
+    private void publishOnA(Long shoppingListId) {
+        ShoppingListUpdatePublisher publisher = replicaA.getBean(ShoppingListUpdatePublisher.class);
+        replicaA.getBean(TransactionTemplate.class)
+                .executeWithoutResult(status -> publisher.publish(shoppingListId, ShoppingListUpdateMessage.closed()));
+    }
+
+    private ShoppingListUpdateBatch nextBatch() throws Exception {
+        Message<?> message = receivedOnB.poll(500, TimeUnit.MILLISECONDS);
+        if (message == null) {
+            return null;
+        }
+        return replicaB.getBean(ObjectMapper.class).readValue((byte[]) message.getPayload(), ShoppingListUpdateBatch.class);
+    }
+}
@@ -0,0 +1,72 @@
+package dev.heinisch.menumaestro.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and exits with status 1 if any benchmark got slower than the allowed ratio.
+ * <br>
+ * Usage: {@code BenchmarkComparison <baseline.json> <candidate.json> [max-slowdown-percent, default 10]}
+ * <br>
+ * Only average time results are compared, as produced by the benchmarks in this module.
+ */
+public class BenchmarkComparison {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <candidate.json> [max-slowdown-percent]");
+            System.exit(2);
+        }
+        double maxSlowdown = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.1;
+        Map<String, Double> baseline = readScores(new File(args[0]));
+        Map<String, Double> candidate = readScores(new File(args[1]));
+
+        int regressions = 0;
+        for (var entry : new TreeMap<>(candidate).entrySet()) {
+            Double baselineScore = baseline.get(entry.getKey());
+            if (baselineScore == null) {
+                System.out.printf("NEW        %s: %.3f%n", entry.getKey(), entry.getValue());
+                continue;
+            }
+            double change = entry.getValue() / baselineScore - 1;
+            boolean regression = change > maxSlowdown;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-10s %s: %.3f -> %.3f (%+.1f%%)%n", regression ? "REGRESSION" : "OK",
+                    entry.getKey(), baselineScore, entry.getValue(), change * 100);
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) slower than allowed %.0f%%%n", regressions, maxSlowdown * 100);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return score per benchmark and parameter combination
+     */
+    private static Map<String, Double> readScores(File resultFile) throws IOException {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(resultFile)) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText());
+            JsonNode params = result.get("params");
+            if (params != null) {
+                new TreeMap<>(toMap(params)).forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+            }
+            scores.put(key.toString(), result.get("primaryMetric").get("score").asDouble());
+        }
+        return scores;
+    }
+
+    private static Map<String, String> toMap(JsonNode params) {
+        Map<String, String> map = new LinkedHashMap<>();
+        params.properties().forEach(field -> map.put(field.getKey(), field.getValue().asText()));
+        return map;
+    }
+}
@@ -0,0 +1,44 @@
+package dev.heinisch.menumaestro.benchmarks;
+
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientComputationService;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientComputationBenchmark {
+
+    @Benchmark
+    public List<IngredientUse> sumIngredients(SyntheticMenuState state) {
+        return state.ingredientComputationService.sumIngredients(state.ingredientUses).toList();
+    }
+
+    @Benchmark
+    public List<IngredientUse> sumAutoconverting(SyntheticMenuState state) {
+        return state.ingredientComputationService.sumAutoconverting(state.ingredientUses).toList();
+    }
+
+    @Benchmark
+    public IngredientComputationService.UsedStashAndMissingAndTotalIngredients computeMissingIngredientsSimple(SyntheticMenuState state) {
+        return state.ingredientComputationService.computeMissingIngredientsSimple(
+                state.selectedMeals, state.allMeals, state.stash, state.ingredientCatalog);
+    }
+
+    @Benchmark
+    public IngredientComputationService.UsedStashMissingIngredientsAndIngredientsPresentPerMeal computeMissingIngredientsWithTimelineHeuristic(SyntheticMenuState state) {
+        return state.ingredientComputationService.computeMissingIngredientsWithTimelineHeuristic(
+                state.selectedMeals, state.allMeals, state.stash, state.ingredientCatalog);
+    }
+}
@@ -0,0 +1,43 @@
+package dev.heinisch.menumaestro.benchmarks;
+
+import dev.heinisch.menumaestro.domain.menu.Menu;
+import dev.heinisch.menumaestro.domain.menu.MenuComputationService;
+import dev.heinisch.menumaestro.domain.menu.MenuMetadataCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MenuComputationBenchmark {
+
+    private MenuComputationService menuComputationService;
+
+    @Setup(Level.Trial)
+    public void setUp(SyntheticMenuState state) {
+        menuComputationService = new MenuComputationService(state.ingredientComputationService, new MenuMetadataCache(16));
+    }
+
+    /**
+     * Full computation of all meal states and snapshot metadata, as on a cache miss.
+     */
+    @Benchmark
+    public Menu computeMetadata(SyntheticMenuState state) {
+        menuComputationService.computeMetadataWithoutCache(state.menu, state.ingredientCatalog);
+        return state.menu;
+    }
+}
@@ -0,0 +1,186 @@
+package dev.heinisch.menumaestro.benchmarks;
+
+import dev.heinisch.menumaestro.DefaultIngredientTestData;
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientCatalog;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientComputationService;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUnitConversionService;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
+import dev.heinisch.menumaestro.domain.menu.Meal;
+import dev.heinisch.menumaestro.domain.menu.Menu;
+import dev.heinisch.menumaestro.domain.menu.MenuItem;
+import dev.heinisch.menumaestro.domain.menu.Snapshot;
+import dev.heinisch.menumaestro.domain.recipe.RecipeIngredientUse;
+import dev.heinisch.menumaestro.domain.recipe.RecipeValue;
+import dev.heinisch.menumaestro.domain.stash.Stash;
+import dev.heinisch.menumaestro.domain.stash.StashEntry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.CUPS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.GRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.KILOGRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.LITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.MILLILITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.OUNCES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.PIECE;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.TABLESPOONS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.TEASPOONS;
+
+/**
+ * Synthetic menu: meals with recipes drawing from a pool of ingredients, a snapshot after every few meals
+ * and a stash holding some of the pool. Generated with a fixed seed, so runs are comparable.
+ */
+@State(Scope.Benchmark)
+public class SyntheticMenuState {
+
+    private static final int INGREDIENT_POOL_SIZE = 200;
+    private static final int MEALS_PER_SNAPSHOT = 5;
+    private static final long SEED = 42;
+
+    private static final List<Function<Long, Ingredient>> FIXTURES = List.of(
+            DefaultIngredientTestData::defaultIngredient1,
+            DefaultIngredientTestData::defaultIngredient2,
+            DefaultIngredientTestData::defaultIngredient3,
+            DefaultIngredientTestData::defaultIngredient4);
+
+    private static final Map<IngredientUnit, List<IngredientUnit>> UNITS_OF_SAME_KIND = Map.of(
+            GRAMS, List.of(GRAMS, KILOGRAMS, OUNCES),
+            KILOGRAMS, List.of(KILOGRAMS, GRAMS, OUNCES),
+            LITRES, List.of(LITRES, MILLILITRES, CUPS, TABLESPOONS, TEASPOONS),
+            PIECE, List.of(PIECE));
+
+    public enum UnitMix {
+        /**
+         * Every use is in the default unit of its ingredient, nothing needs to be converted.
+         */
+        DEFAULT_UNITS,
+        /**
+         * Uses pick any unit of the same kind as the default unit, so sums need conversions.
+         */
+        SAME_KIND_UNITS
+    }
+
+    @Param({"10", "100"})
+    public int meals;
+
+    @Param({"8", "32"})
+    public int ingredientsPerMeal;
+
+    @Param({"0", "50", "200"})
+    public int stashSize;
+
+    @Param({"DEFAULT_UNITS", "SAME_KIND_UNITS"})
+    public UnitMix unitMix;
+
+    public IngredientComputationService ingredientComputationService;
+    public IngredientCatalog ingredientCatalog;
+    public Menu menu;
+    public Stash stash;
+    public List<Meal> allMeals;
+    /**
+     * Every second meal, as selected for a shopping list.
+     */
+    public List<Meal> selectedMeals;
+    public List<IngredientUse> ingredientUses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ingredientComputationService = new IngredientComputationService(new IngredientUnitConversionService());
+        Random random = new Random(SEED);
+
+        Map<Long, Ingredient> ingredientsById = new HashMap<>();
+        List<Ingredient> pool = new ArrayList<>(INGREDIENT_POOL_SIZE);
+        for (int i = 0; i < INGREDIENT_POOL_SIZE; i++) {
+            Ingredient ingredient = FIXTURES.get(i % FIXTURES.size()).apply((long) i + 1);
+            pool.add(ingredient);
+            ingredientsById.put(ingredient.getId(), ingredient);
+        }
+        ingredientCatalog = ingredientsById::get;
+
+        List<MenuItem> items = new ArrayList<>();
+        allMeals = new ArrayList<>(meals);
+        selectedMeals = new ArrayList<>();
+        ingredientUses = new ArrayList<>();
+        long itemId = 1;
+        for (int m = 0; m < meals; m++) {
+            Set<RecipeIngredientUse> uses = new HashSet<>();
+            for (Ingredient ingredient : pickDistinct(pool, ingredientsPerMeal, random)) {
+                IngredientUnit unit = unitFor(ingredient, random);
+                float amount = 1 + random.nextInt(500);
+                uses.add(RecipeIngredientUse.builder()
+                        .ingredient(ingredient)
+                        .unit(unit)
+                        .amount(amount)
+                        .build());
+                ingredientUses.add(new IngredientUse(ingredient, unit, amount));
+            }
+            Meal meal = Meal.builder()
+                    .id(itemId++)
+                    .name("meal " + m)
+                    .numberOfPeople(2)
+                    .isDone(false)
+                    .recipe(RecipeValue.builder()
+                            .ingredients(uses)
+                            .cookingAppliances(Collections.emptySet())
+                            .servings(2)
+                            .build())
+                    .build();
+            items.add(meal);
+            allMeals.add(meal);
+            if (m % 2 == 0) {
+                selectedMeals.add(meal);
+            }
+            if ((m + 1) % MEALS_PER_SNAPSHOT == 0) {
+                items.add(Snapshot.builder().id(itemId++).name("snapshot " + m).build());
+            }
+        }
+
+        List<StashEntry> entries = new ArrayList<>(stashSize);
+        for (Ingredient ingredient : pickDistinct(pool, stashSize, random)) {
+            entries.add(StashEntry.builder()
+                    .ingredientId(ingredient.getId())
+                    .unit(unitFor(ingredient, random))
+                    .amount((double) random.nextInt(2000))
+                    .build());
+        }
+        stash = Stash.builder().entries(entries).build();
+
+        menu = Menu.builder()
+                .name("benchmark menu")
+                .description("synthetic")
+                .numberOfPeople(2)
+                .organizationId(1L)
+                .items(items)
+                .build();
+        menu.setStash(stash);
+    }
+
+    private IngredientUnit unitFor(Ingredient ingredient, Random random) {
+        if (unitMix == UnitMix.DEFAULT_UNITS) {
+            return ingredient.getDefaultUnit();
+        }
+        List<IngredientUnit> units = UNITS_OF_SAME_KIND.get(ingredient.getDefaultUnit());
+        return units.get(random.nextInt(units.size()));
+    }
+
+    private static List<Ingredient> pickDistinct(List<Ingredient> pool, int count, Random random) {
+        List<Ingredient> shuffled = new ArrayList<>(pool);
+        Collections.shuffle(shuffled, random);
+        return shuffled.subList(0, Math.min(count, shuffled.size()));
+    }
+}
@@ -41,6 +41,12 @@ public class Ingredient {
     @Enumerated(EnumType.STRING)
     private IngredientCategory category;
 
+    /**
+     * Grams per millilitre, allows converting between mass and volume units. Unknown for most ingredients.
+     */
+    @Column(nullable = true)
+    private Double density;
+
     @ManyToOne(optional = true)
     private Ingredient parent;
 
@@ -0,0 +1,14 @@
+package dev.heinisch.menumaestro.domain.ingredient;
+
+/**
+ * Resolves the ingredient ids held by stash entries and shopping list items.
+ * Computations take a catalog instead of querying per id, so callers can load all ingredients of an aggregate at once.
+ */
+@FunctionalInterface
+public interface IngredientCatalog {
+
+    /**
+     * @throws java.util.NoSuchElementException if there is no ingredient with the given id
+     */
+    Ingredient get(Long ingredientId);
+}
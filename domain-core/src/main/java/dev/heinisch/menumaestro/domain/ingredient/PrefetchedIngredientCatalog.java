@@ -0,0 +1,72 @@
+package dev.heinisch.menumaestro.domain.ingredient;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Catalog that loads a known set of ingredient ids with one bulk query on first use.
+ * Ids outside of that set are loaded one by one and counted as misses, which points to an incomplete prefetch.
+ */
+public class PrefetchedIngredientCatalog implements IngredientCatalog {
+    private final Set<Long> prefetchIds;
+    private final Function<Collection<Long>, ? extends Collection<Ingredient>> bulkLoader;
+    private final Function<Long, Ingredient> singleLoader;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private Map<Long, Ingredient> ingredientsById;
+
+    public PrefetchedIngredientCatalog(Set<Long> prefetchIds,
+                                       Function<Collection<Long>, ? extends Collection<Ingredient>> bulkLoader,
+                                       Function<Long, Ingredient> singleLoader) {
+        this.prefetchIds = prefetchIds;
+        this.bulkLoader = bulkLoader;
+        this.singleLoader = singleLoader;
+    }
+
+    @Override
+    public Ingredient get(Long ingredientId) {
+        Map<Long, Ingredient> ingredients = ingredients();
+        Ingredient ingredient = ingredients.get(ingredientId);
+        if (ingredient != null) {
+            hits.incrementAndGet();
+            return ingredient;
+        }
+        misses.incrementAndGet();
+        return ingredients.computeIfAbsent(ingredientId, singleLoader);
+    }
+
+    /**
+     * @return all ingredients loaded so far, including the prefetched ones
+     */
+    public Map<Long, Ingredient> asMap() {
+        return Map.copyOf(ingredients());
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public int getPrefetched() {
+        return prefetchIds.size();
+    }
+
+    private synchronized Map<Long, Ingredient> ingredients() {
+        if (ingredientsById == null) {
+            ingredientsById = new ConcurrentHashMap<>();
+            if (!prefetchIds.isEmpty()) {
+                for (Ingredient ingredient : bulkLoader.apply(prefetchIds)) {
+                    ingredientsById.put(ingredient.getId(), ingredient);
+                }
+            }
+        }
+        return ingredientsById;
+    }
+}
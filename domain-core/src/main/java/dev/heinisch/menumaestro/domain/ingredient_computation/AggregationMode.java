@@ -0,0 +1,18 @@
+package dev.heinisch.menumaestro.domain.ingredient_computation;
+
+/**
+ * Units in which {@link IngredientComputationService} aggregates ingredient amounts.
+ */
+public enum AggregationMode {
+    /**
+     * Per ingredient and unit kind, the first unit used. Results stay in units the user chose, but each conversion rounds
+     * to the approximated unit factors. Computations against the stash run in canonical units, their results are
+     * converted to the ingredient's default unit.
+     */
+    PREFERRED_UNITS,
+    /**
+     * Millilitres, grams and pieces. Every amount is converted once, results are converted to nicer units
+     * only for display, see {@link IngredientComputationService#toDisplayUnit(IngredientUse)}.
+     */
+    CANONICAL_UNITS
+}
@@ -0,0 +1,73 @@
+package dev.heinisch.menumaestro.domain.ingredient_computation;
+
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Sums amounts per (ingredient, unit) without allocating per use.
+ * Keys are packed as {@code ingredientId << 4 | unitOrdinal}, the values live in a plain {@code double[]}.
+ */
+public final class IngredientAmountAccumulator {
+    private static final IngredientUnit[] UNITS = IngredientUnit.values();
+
+    private final PackedKeyIndex index;
+    private double[] sums;
+    private Ingredient[] ingredients;
+
+    public IngredientAmountAccumulator(int expectedSize) {
+        index = new PackedKeyIndex(expectedSize);
+        sums = new double[Math.max(4, expectedSize)];
+        ingredients = new Ingredient[Math.max(4, expectedSize)];
+    }
+
+    /**
+     * @return the slot the amount was added to
+     */
+    public int add(Ingredient ingredient, IngredientUnit unit, double amount) {
+        int slot = index.insert(PackedKeyIndex.pack(ingredient.getId(), unit.ordinal()));
+        if (slot == sums.length) {
+            sums = Arrays.copyOf(sums, slot * 2);
+            ingredients = Arrays.copyOf(ingredients, slot * 2);
+        }
+        if (ingredients[slot] == null) {
+            ingredients[slot] = ingredient;
+        }
+        sums[slot] += amount;
+        return slot;
+    }
+
+    public double amount(int slot) {
+        return sums[slot];
+    }
+
+    public void setAmount(int slot, double amount) {
+        sums[slot] = amount;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Sums are exposed with float precision, same as every other amount leaving the computation.
+     */
+    public IngredientUse get(int slot) {
+        long key = index.keyAt(slot);
+        return new IngredientUse(ingredients[slot], UNITS[PackedKeyIndex.ordinalOf(key)], (float) sums[slot]);
+    }
+
+    public void forEach(Consumer<IngredientUse> consumer) {
+        for (int slot = 0; slot < size(); slot++) {
+            consumer.accept(get(slot));
+        }
+    }
+
+    public Stream<IngredientUse> stream() {
+        return IntStream.range(0, size()).mapToObj(this::get);
+    }
+}
@@ -1,14 +1,19 @@
 package dev.heinisch.menumaestro.domain.ingredient_computation;
 
 import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientCatalog;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
 import dev.heinisch.menumaestro.domain.menu.Meal;
 import dev.heinisch.menumaestro.domain.menu.MealStatus;
 import dev.heinisch.menumaestro.domain.recipe.RecipeIngredientUse;
 import dev.heinisch.menumaestro.domain.stash.Stash;
+import dev.heinisch.menumaestro.domain.stash.StashEntry;
+import dev.heinisch.menumaestro.domain.stash.StashMovement;
 import lombok.Builder;
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -21,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -29,9 +33,21 @@ import java.util.stream.Stream;
  * Domain service
  */
 @Service
-@RequiredArgsConstructor
 public class IngredientComputationService {
     private final IngredientUnitConversionService ingredientUnitConversionService;
+    @Getter
+    private final AggregationMode aggregationMode;
+
+    public IngredientComputationService(IngredientUnitConversionService ingredientUnitConversionService) {
+        this(ingredientUnitConversionService, AggregationMode.PREFERRED_UNITS);
+    }
+
+    @Autowired
+    public IngredientComputationService(IngredientUnitConversionService ingredientUnitConversionService,
+                                        @Value("${menumaestro.ingredient-computation.aggregation-mode:PREFERRED_UNITS}") AggregationMode aggregationMode) {
+        this.ingredientUnitConversionService = ingredientUnitConversionService;
+        this.aggregationMode = aggregationMode;
+    }
 
     public Set<Long> ingredientsOfNotDoneRecipes(Collection<Meal> meals) {
         return meals.stream().filter(meal -> !meal.getIsDone()).flatMap(m -> m.getRecipe().getIngredients().stream()).map(RecipeIngredientUse::getIngredientId).collect(Collectors.toSet());
@@ -41,33 +57,126 @@ public class IngredientComputationService {
         return meals.stream().filter(meal -> !meal.getIsDone()).flatMap(meal -> meal.getRecipe().getIngredients().stream().map(IngredientUse::fromRecipeIngredientUse).map(ingredientUse -> ingredientUse.scale(meal.getRecipe().getServings(), meal.getNumberOfPeople())));
     }
 
-    private static Stream<IngredientUse> sumAmountsWithSameIngredientAndUnit(Map<IngredientUseKey, List<IngredientUse>> usedIngredientsByIngredientAndUnit) {
-        return usedIngredientsByIngredientAndUnit.entrySet().stream().map(entry -> {
-            double amount = entry.getValue().stream().mapToDouble(IngredientUse::amount).sum();
-            return new IngredientUse(entry.getKey().ingredient(), entry.getKey().unit(), ((float) amount));
-        });
+    public Stream<IngredientUse> sumIngredients(List<IngredientUse> ingredients) {
+        return sumIngredients(IngredientUseBatch.of(ingredients)).stream();
     }
 
-    public Stream<IngredientUse> sumIngredients(List<IngredientUse> ingredients) {
-        Map<Long, List<IngredientUnit>> unitsMap = ingredientUnitConversionService.unitsOfIngredients(ingredients);
-        Stream<IngredientUse> stream = ingredients.stream();
-        Map<IngredientUseKey, List<IngredientUse>> usedIngredientsByIngredientAndUnit = groupByIngredientAndUnit(unitsMap, stream);
-        return sumAmountsWithSameIngredientAndUnit(usedIngredientsByIngredientAndUnit);
+    /**
+     * Sums the batch per ingredient and unit, after converting every use to the first unit of the same kind that was used for its ingredient
+     * (or to the canonical unit of its kind, see {@link AggregationMode}).
+     */
+    public IngredientAmountAccumulator sumIngredients(IngredientUseBatch batch) {
+        return groupByIngredientAndUnit(preferredUnits(batch), batch);
     }
 
-    private Map<IngredientUseKey, List<IngredientUse>> groupByIngredientAndUnit(Map<Long, List<IngredientUnit>> unitsMap, Stream<IngredientUse> stream) {
-        return stream.map(i -> ingredientUnitConversionService.convertHeuristic(unitsMap, i))
-                .collect(Collectors.groupingBy(IngredientUseKey::fromIngredientUse));
+    /**
+     * Converts an aggregated amount to the unit shown to users. Only amounts aggregated in canonical units are converted.
+     */
+    public IngredientUse toDisplayUnit(IngredientUse ingredientUse) {
+        if (aggregationMode == AggregationMode.CANONICAL_UNITS) {
+            return ingredientUnitConversionService.heuristicallyConvertToNicerUnit(ingredientUse);
+        }
+        return ingredientUse;
+    }
+
+    /**
+     * Like {@link #toDisplayUnit(IngredientUse)}, converting the left amount to the same unit.
+     */
+    public Pair<Double, IngredientUse> toDisplayUnit(Pair<Double, IngredientUse> amountPair) {
+        IngredientUse displayed = toDisplayUnit(amountPair.getRight());
+        return Pair.of(ingredientUnitConversionService.convertAmountTo(displayed.ingredient(), amountPair.getLeft(), amountPair.getRight().unit(), displayed.unit()), displayed);
+    }
+
+    private PreferredUnits preferredUnits(IngredientUseBatch batch) {
+        if (aggregationMode == AggregationMode.CANONICAL_UNITS) {
+            return PreferredUnits.canonical(ingredientUnitConversionService);
+        }
+        return PreferredUnits.of(batch, ingredientUnitConversionService);
+    }
+
+    /**
+     * Computations against the stash run in canonical units in either mode, so the entries, which are stored in them,
+     * are taken as they are. Only volumes of ingredients with a density are converted, into grams.
+     * The results are converted afterwards, see {@link #fromStashUnit}.
+     */
+    private PreferredUnits stashUnits() {
+        return PreferredUnits.canonical(ingredientUnitConversionService);
+    }
+
+    /**
+     * Units the results of a computation against the stash are shown in.
+     * In {@link AggregationMode#PREFERRED_UNITS} one unit per ingredient and unit kind the meals used, remembered
+     * with {@link PreferredUnits#preferredUnitRemembering}: the default unit of the ingredient if it converts,
+     * otherwise the unit of the first meal use.
+     * In {@link AggregationMode#CANONICAL_UNITS} results stay canonical, see {@link #toDisplayUnit(IngredientUse)}.
+     */
+    private PreferredUnits resultUnits() {
+        if (aggregationMode == AggregationMode.CANONICAL_UNITS) {
+            return PreferredUnits.canonical(ingredientUnitConversionService);
+        }
+        return PreferredUnits.empty(ingredientUnitConversionService);
+    }
+
+    private IngredientUse fromStashUnit(PreferredUnits resultUnits, IngredientUse ingredientUse) {
+        IngredientUnit unit = resultUnits.preferredUnit(ingredientUse.ingredient(), ingredientUse.unit());
+        if (unit == ingredientUse.unit()) {
+            return ingredientUse;
+        }
+        return new IngredientUse(ingredientUse.ingredient(), unit, ingredientUnitConversionService.convertAmountTo(
+                ingredientUse.ingredient(), ingredientUse.amount(), ingredientUse.unit(), unit));
+    }
+
+    /**
+     * Sums per ingredient and unit kind in grams, millilitres or pieces, the units stash entries are stored in.
+     * Unlike {@link AggregationMode#CANONICAL_UNITS}, volumes stay volumes regardless of the density of the ingredient,
+     * so the entries of a stash do not depend on densities set later on.
+     */
+    public Stream<IngredientUse> sumInStashUnits(List<IngredientUse> ingredients) {
+        IngredientAmountAccumulator sum = new IngredientAmountAccumulator(ingredients.size());
+        for (IngredientUse ingredientUse : ingredients) {
+            IngredientUnit unit = ingredientUnitConversionService.canonicalUnit(ingredientUse.unit());
+            sum.add(ingredientUse.ingredient(), unit, ingredientUnitConversionService.convertAmountTo(ingredientUse.amount(), ingredientUse.unit(), unit));
+        }
+        return sum.stream();
+    }
+
+    /**
+     * Balance of the stash entries, the given movements and further changes, in the units stash entries are stored in.
+     * Amounts used up drop out, as they do when the movements are compacted into the entries.
+     */
+    public List<IngredientUse> stashBalance(Collection<StashEntry> entries, Collection<StashMovement> movements,
+                                            List<IngredientUse> changes, IngredientCatalog ingredientCatalog) {
+        List<IngredientUse> ingredients = new ArrayList<>(entries.size() + movements.size() + changes.size());
+        for (StashEntry entry : entries) {
+            ingredients.add(IngredientUse.fromStashEntry(entry, ingredientCatalog));
+        }
+        for (StashMovement movement : movements) {
+            ingredients.add(new IngredientUse(ingredientCatalog.get(movement.getIngredientId()), movement.getUnit(), movement.getAmount()));
+        }
+        ingredients.addAll(changes);
+        return sumInStashUnits(ingredients)
+                .filter(i -> i.amount() >= 0.001)
+                .toList();
+    }
+
+    private IngredientAmountAccumulator groupByIngredientAndUnit(PreferredUnits preferredUnits, IngredientUseBatch batch) {
+        IngredientAmountAccumulator accumulator = new IngredientAmountAccumulator(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Ingredient ingredient = batch.ingredient(i);
+            IngredientUnit unit = batch.unit(i);
+            IngredientUnit toUnit = preferredUnits.preferredUnit(ingredient, unit);
+            accumulator.add(ingredient, toUnit, ingredientUnitConversionService.convertAmountTo(ingredient, batch.amount(i), unit, toUnit));
+        }
+        return accumulator;
     }
 
     /**
      * Performs an "inner join" on the ingredient key to get (x, y) amount pairs. Useful for getting (x out of y) amounts.
      */
     public List<Pair<Double, IngredientUse>> mapToIngredientAmountPair(List<IngredientUse> leftIngredients, List<IngredientUse> rightIngredients) {
-        var rightIngredientsMap = rightIngredients.stream()
-                .collect(Collectors.toMap(IngredientUseKey::fromIngredientUse, Function.identity()));
+        var rightIngredientsMap = IngredientUseKeyMap.keyedBy(rightIngredients, IngredientUseKey::of);
         return leftIngredients.stream()
-                .map(i -> Pair.of(i.amount(), rightIngredientsMap.get(IngredientUseKey.fromIngredientUse(i))))
+                .map(i -> Pair.of(i.amount(), rightIngredientsMap.get(IngredientUseKey.of(i))))
                 .filter(pair -> Objects.nonNull(pair.getRight()))
                 .toList();
     }
@@ -75,35 +184,42 @@ public class IngredientComputationService {
     /**
      * Missing / used computation under the assumption that the selected meals exist in isolation and other meals will not take away ingredients.
      */
-    public UsedStashAndMissingAndTotalIngredients computeMissingIngredientsSimple(Collection<Meal> selectedMeals, Collection<Meal> allMeals, Stash stash, Function<Long, Ingredient> ingredientLoader) {
-        List<IngredientUse> availableIngredients = sumIngredients(stash.getEntries().stream().map(e -> IngredientUse.fromStashEntry(e, ingredientLoader)).map(use -> ingredientUnitConversionService.convertIfPossible(use, use.ingredient().getDefaultUnit())).toList())
+    public UsedStashAndMissingAndTotalIngredients computeMissingIngredientsSimple(Collection<Meal> selectedMeals, Collection<Meal> allMeals, Stash stash, IngredientCatalog ingredientCatalog) {
+        PreferredUnits stashUnits = stashUnits();
+        PreferredUnits resultUnits = resultUnits();
+        List<IngredientUse> availableIngredients = groupByIngredientAndUnit(stashUnits, stashBatch(stash, ingredientCatalog)).stream()
                 .collect(Collectors.toCollection(ArrayList::new));
-        Map<Long, List<IngredientUnit>> map = ingredientUnitConversionService.unitsOfIngredients(availableIngredients);
-        var availableIngredientsKeyed = availableIngredients.stream().collect(Collectors.toMap(IngredientUseKey::fromIngredientUse, Function.identity()));
+        var availableIngredientsKeyed = IngredientUseKeyMap.keyedBy(availableIngredients, IngredientUseKey::of);
         List<IngredientUse> ingredientsOfOpenMeals = ingredientsOfOpenMeals(selectedMeals)
-                .map(i -> ingredientUnitConversionService.convertHeuristic(map, i)).toList();
-        Set<IngredientUseKey> ingredientUseKeysOfMeals = ingredientsOfOpenMeals.stream().map(IngredientUseKey::fromIngredientUse).collect(Collectors.toSet());
-        Set<IngredientUseKey> overlappingKeys = new HashSet<>(availableIngredientsKeyed.keySet());
-        overlappingKeys.retainAll(ingredientUseKeysOfMeals);
-        List<IngredientUse> ingredientUsesSum = sumIngredients(Stream.concat(availableIngredients.stream(), ingredientsOfOpenMeals.stream().map(i -> i.scale(1, -1))).toList()).toList();
+                .map(use -> {
+                    resultUnits.preferredUnitRemembering(use.ingredient(), use.unit());
+                    return ingredientUnitConversionService.toCanonicalUnit(use);
+                })
+                .toList();
+        var ingredientsOfOpenMealsKeyed = IngredientUseKeyMap.keyedBy(ingredientsOfOpenMeals, IngredientUseKey::of);
+        List<IngredientUse> ingredientUsesSum = groupByIngredientAndUnit(stashUnits, IngredientUseBatch.of(Stream.concat(
+                availableIngredients.stream(), ingredientsOfOpenMeals.stream().map(i -> i.scale(1, -1))).toList())).stream().toList();
         List<IngredientUse> stashIngredientsAmountUsed = ingredientUsesSum.stream()
-                .filter(ingredientUse -> overlappingKeys.contains(IngredientUseKey.fromIngredientUse(ingredientUse)))
+                .filter(ingredientUse -> availableIngredientsKeyed.containsKey(IngredientUseKey.of(ingredientUse))
+                        && ingredientsOfOpenMealsKeyed.containsKey(IngredientUseKey.of(ingredientUse)))
                 .map(i -> {
-                    var stashIngredient = availableIngredientsKeyed.get(IngredientUseKey.fromIngredientUse(i));
+                    var stashIngredient = availableIngredientsKeyed.get(IngredientUseKey.of(i));
                     double amountConsumed = stashIngredient.amount() - Math.max(0, i.amount());
-                    return new IngredientUse(i.ingredient(), i.unit(), amountConsumed);
+                    return fromStashUnit(resultUnits, new IngredientUse(i.ingredient(), i.unit(), amountConsumed));
                 })
                 .toList();
         List<IngredientUse> missingIngredients = ingredientUsesSum.stream()
                 .filter(i -> i.amount() < 0)
                 .filter(ingredientUnitConversionService::ingredientAmountNotMinisculeHeuristic)
-                .map(i -> i.scale(1, -1))
+                .map(i -> fromStashUnit(resultUnits, i.scale(1, -1)))
+                .toList();
+        List<IngredientUse> totalIngredients = groupByIngredientAndUnit(stashUnits, IngredientUseBatch.of(ingredientsOfOpenMeals)).stream()
+                .map(i -> fromStashUnit(resultUnits, i))
                 .toList();
-        ingredientsOfOpenMeals = sumIngredients(ingredientsOfOpenMeals).toList();
         return UsedStashAndMissingAndTotalIngredients.builder()
                 .usedStashIngredients(stashIngredientsAmountUsed)
                 .missingIngredients(missingIngredients)
-                .totalIngredients(ingredientsOfOpenMeals).build();
+                .totalIngredients(totalIngredients).build();
     }
 
     /**
@@ -125,37 +241,109 @@ public class IngredientComputationService {
     /**
      * Considers the meals in their natural order, and computes data under the assumption that earlier meals take stash ingredients first.
      * The "simple" computation is a special case of this method, with a contiguous block of selectedMeals and allMeals = selectedMeals.
+     * <p>
+     * Single sweep over the meals ordered by position: the stash is kept as a ledger with one balance per ingredient and unit kind
+     * in the canonical unit the stash uses, and every meal only debits the balances of its own ingredients.
+     * Meals in between two selected meals consume stash ingredients, but their shortages are not reported.
      */
-    public UsedStashMissingIngredientsAndIngredientsPresentPerMeal computeMissingIngredientsWithTimelineHeuristic(Collection<Meal> selectedMeals, Collection<Meal> allMeals, Stash stash, Function<Long, Ingredient> ingredientLoader) {
-        List<IngredientUse> availableIngredients = new ArrayList<>(stash.getEntries().stream().map(e -> IngredientUse.fromStashEntry(e, ingredientLoader)).map(use -> ingredientUnitConversionService.convertIfPossible(use, use.ingredient().getDefaultUnit())).toList());
-        Map<Long, List<IngredientUnit>> unitsMap = ingredientUnitConversionService.unitsOfIngredients(availableIngredients);
+    public UsedStashMissingIngredientsAndIngredientsPresentPerMeal computeMissingIngredientsWithTimelineHeuristic(Collection<Meal> selectedMeals, Collection<Meal> allMeals, Stash stash, IngredientCatalog ingredientCatalog) {
+        return computeMissingIngredientsWithTimelineHeuristic(selectedMeals, allMeals, stashBatch(stash, ingredientCatalog));
+    }
+
+    /**
+     * Like {@link #computeMissingIngredientsWithTimelineHeuristic(Collection, Collection, Stash, IngredientCatalog)},
+     * starting from a stash that was already loaded by {@link #stashBatch}. The batch is only read.
+     */
+    public UsedStashMissingIngredientsAndIngredientsPresentPerMeal computeMissingIngredientsWithTimelineHeuristic(Collection<Meal> selectedMeals, Collection<Meal> allMeals, IngredientUseBatch stashBatch) {
+        PreferredUnits ledgerUnits = stashUnits();
+        PreferredUnits resultUnits = resultUnits();
+        IngredientAmountAccumulator ledger = groupByIngredientAndUnit(ledgerUnits, stashBatch);
+        for (int slot = 0; slot < ledger.size(); slot++) {
+            if (ledger.amount(slot) <= 0.0049 || !ingredientUnitConversionService.ingredientAmountNotMinisculeHeuristic(ledger.get(slot))) {
+                ledger.setAmount(slot, 0);
+            }
+        }
+
         var selectedMealsOrdered = new ArrayList<>(selectedMeals);
         selectedMealsOrdered.sort(Comparator.comparing(Meal::getPosition));
+        var allMealsOrdered = new ArrayList<>(allMeals);
+        allMealsOrdered.sort(Comparator.comparing(Meal::getPosition));
+
+        IngredientAmountAccumulator missingIngredients = new IngredientAmountAccumulator(ledger.size());
+        Map<Long, MealStatus> mealStatusPerMeal = new HashMap<>();
         int lastMealPosition = -1;
-        ArrayList<IngredientUse> missingIngredients = new ArrayList<>();
-        Map<Long, MealStatus> allIngredientsPresent = new HashMap<>();
+        int nextMeal = 0;
         for (Meal m : selectedMealsOrdered) {
-            int lambdaLastMealPosition = lastMealPosition;
-            var precedingMeals = allMeals.stream().filter(other -> other.getPosition() < m.getPosition() && other.getPosition() > lambdaLastMealPosition).toList();
-            availableIngredients = sumIngredients(Stream.concat(availableIngredients.stream(), ingredientsOfOpenMeals(precedingMeals).map(i -> i.scale(1, -1))).toList()).filter(i -> i.amount() > 0.0049).toList();
-            List<IngredientUse> mealIngredients = ingredientsOfOpenMeals(Set.of(m)).map(i -> i.scale(1, -1)).toList();
-            var ingredientKeys = availableIngredients.stream().map(IngredientUseKey::fromIngredientUse).collect(Collectors.toSet());
-            ingredientKeys.retainAll(mealIngredients.stream().map(IngredientUseKey::fromIngredientUse).collect(Collectors.toSet()));
-            Map<Boolean, List<IngredientUse>> result = sumIngredients(Stream.concat(availableIngredients.stream(), mealIngredients.stream()).toList())
-                    .filter(ingredientUse -> Math.abs(ingredientUse.amount()) > 0.00001)
-                    .filter(ingredientUnitConversionService::ingredientAmountNotMinisculeHeuristic)
-                    .collect(Collectors.groupingBy(ingredientUse -> ingredientUse.amount() >= 0));
-            result.computeIfAbsent(false, a -> new ArrayList<>());
-            result.computeIfAbsent(true, a -> new ArrayList<>());
-            missingIngredients.addAll(result.get(false));
-
-            MealStatus mealStatus = result.get(false).isEmpty() ? MealStatus.ALL_INGREDIENTS_PRESENT : !ingredientKeys.isEmpty() ? MealStatus.SOME_INGREDIENTS_MISSING : MealStatus.ALL_INGREDIENTS_MISSING;
-            allIngredientsPresent.put(m.getId(), mealStatus);
-            availableIngredients = result.get(true);
+            for (; nextMeal < allMealsOrdered.size() && allMealsOrdered.get(nextMeal).getPosition() < m.getPosition(); nextMeal++) {
+                Meal precedingMeal = allMealsOrdered.get(nextMeal);
+                if (precedingMeal.getPosition() > lastMealPosition) {
+                    debitPrecedingMeal(ledger, ledgerUnits, precedingMeal);
+                }
+            }
+            mealStatusPerMeal.put(m.getId(), debitSelectedMeal(ledger, ledgerUnits, resultUnits, missingIngredients, m));
             lastMealPosition = m.getPosition();
         }
-        var missingIngredientsSum = sumAmountsWithSameIngredientAndUnit(groupByIngredientAndUnit(unitsMap, missingIngredients.stream().map(i -> i.scale(1, -1)))).toList();
-        return UsedStashMissingIngredientsAndIngredientsPresentPerMeal.builder().missingIngredients(missingIngredientsSum).usedStashIngredients(Collections.emptyList()).mealStatusPerMeal(allIngredientsPresent).build();
+        return UsedStashMissingIngredientsAndIngredientsPresentPerMeal.builder()
+                .missingIngredients(missingIngredients.stream().map(i -> fromStashUnit(resultUnits, i)).toList())
+                .usedStashIngredients(Collections.emptyList())
+                .mealStatusPerMeal(mealStatusPerMeal).build();
+    }
+
+    private void debitPrecedingMeal(IngredientAmountAccumulator ledger, PreferredUnits ledgerUnits, Meal meal) {
+        ingredientsOfOpenMeals(List.of(meal)).forEach(use -> {
+            int slot = debit(ledger, ledgerUnits, use);
+            if (ledger.amount(slot) <= 0.0049) {
+                ledger.setAmount(slot, 0);
+            }
+        });
+    }
+
+    private MealStatus debitSelectedMeal(IngredientAmountAccumulator ledger, PreferredUnits ledgerUnits, PreferredUnits resultUnits,
+                                         IngredientAmountAccumulator missingIngredients, Meal meal) {
+        List<IngredientUse> mealIngredients = ingredientsOfOpenMeals(List.of(meal)).toList();
+        int[] slots = new int[mealIngredients.size()];
+        boolean anyInStash = false;
+        for (int i = 0; i < slots.length; i++) {
+            IngredientUse use = mealIngredients.get(i);
+            resultUnits.preferredUnitRemembering(use.ingredient(), use.unit());
+            slots[i] = ledger.add(use.ingredient(), ledgerUnits.preferredUnitRemembering(use.ingredient(), use.unit()), 0);
+            anyInStash |= ledger.amount(slots[i]) > 0;
+        }
+        mealIngredients.forEach(use -> debit(ledger, ledgerUnits, use));
+        boolean anyMissing = false;
+        for (int slot : slots) {
+            IngredientUse balance = ledger.get(slot);
+            if (Math.abs(balance.amount()) <= 0.00001 || !ingredientUnitConversionService.ingredientAmountNotMinisculeHeuristic(balance)) {
+                ledger.setAmount(slot, 0);
+            } else if (balance.amount() < 0) {
+                missingIngredients.add(balance.ingredient(), balance.unit(), -ledger.amount(slot));
+                ledger.setAmount(slot, 0);
+                anyMissing = true;
+            }
+        }
+        if (!anyMissing) {
+            return MealStatus.ALL_INGREDIENTS_PRESENT;
+        }
+        return anyInStash ? MealStatus.SOME_INGREDIENTS_MISSING : MealStatus.ALL_INGREDIENTS_MISSING;
+    }
+
+    /**
+     * The stash entries with its pending movements folded in, can be shared by several timeline computations over the same stash.
+     */
+    public IngredientUseBatch stashBatch(Stash stash, IngredientCatalog ingredientCatalog) {
+        if (!stash.getPendingMovements().isEmpty()) {
+            return IngredientUseBatch.of(stashBalance(stash.getEntries(), stash.getPendingMovements(), List.of(), ingredientCatalog));
+        }
+        IngredientUseBatch stashBatch = new IngredientUseBatch(stash.getEntries().size());
+        for (StashEntry entry : stash.getEntries()) {
+            stashBatch.add(ingredientCatalog.get(entry.getIngredientId()), entry.getUnit(), entry.getAmount());
+        }
+        return stashBatch;
+    }
+
+    private int debit(IngredientAmountAccumulator ledger, PreferredUnits ledgerUnits, IngredientUse use) {
+        IngredientUnit unit = ledgerUnits.preferredUnitRemembering(use.ingredient(), use.unit());
+        return ledger.add(use.ingredient(), unit, -ingredientUnitConversionService.convertAmountTo(use.ingredient(), use.amount(), use.unit(), unit));
     }
 
     @Builder
@@ -165,10 +353,10 @@ public class IngredientComputationService {
     }
 
     public Stream<IngredientUse> sumAutoconverting(List<IngredientUse> ingredients) {
-        List<IngredientUse> list = sumIngredients(ingredients)
-                .map(ingredientUnitConversionService::heuristicallyConvertToNicerUnit)
-                .toList();
+        IngredientAmountAccumulator sum = sumIngredients(IngredientUseBatch.of(ingredients));
+        IngredientUseBatch nicerUnits = new IngredientUseBatch(sum.size());
+        sum.forEach(ingredientUse -> nicerUnits.add(ingredientUnitConversionService.heuristicallyConvertToNicerUnit(ingredientUse)));
         // sum() again to make sure that no two equal keys were produced, just to be safe
-        return sumIngredients(list);
+        return groupByIngredientAndUnit(PreferredUnits.of(nicerUnits, ingredientUnitConversionService), nicerUnits).stream();
     }
 }
@@ -1,13 +1,12 @@
 package dev.heinisch.menumaestro.domain.ingredient_computation;
 
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.CUPS;
 import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.GRAMS;
@@ -21,157 +20,189 @@ import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.TEASPOON
 
 @Service
 public class IngredientUnitConversionService {
-    private final Map<IngredientUnit, UnitKind> unitKinds = Map.of(
-            LITRES, UnitKind.VOLUME,
-            MILLILITRES, UnitKind.VOLUME,
-            TABLESPOONS, UnitKind.VOLUME,
-            TEASPOONS, UnitKind.VOLUME,
-            CUPS, UnitKind.VOLUME,
-            KILOGRAMS, UnitKind.MASS,
-            GRAMS, UnitKind.MASS,
-            OUNCES, UnitKind.MASS,
-            PIECE, UnitKind.PIECE
+    private static final IngredientUnit[] UNITS = IngredientUnit.values();
+
+    /**
+     * Kind per unit ordinal, units can only be converted within their kind, unless the ingredient has a density.
+     */
+    private static final UnitKind[] UNIT_KINDS = new UnitKind[UNITS.length];
+
+    /**
+     * {@code converted = amount * FACTOR_NUMERATOR[from][to] / FACTOR_DENOMINATOR[from][to]}, zero numerator if the units cannot be converted.
+     * Numerator and denominator are kept apart, so divisions give exactly the same results as dividing by the rounded constants.
+     */
+    private static final double[][] FACTOR_NUMERATOR = new double[UNITS.length][UNITS.length];
+    private static final double[][] FACTOR_DENOMINATOR = new double[UNITS.length][UNITS.length];
+
+    /**
+     * Base unit per kind, amounts can be aggregated in these units without losing precision to rounded unit steps.
+     */
+    private static final Map<UnitKind, IngredientUnit> CANONICAL_UNITS = Map.of(
+            UnitKind.VOLUME, MILLILITRES,
+            UnitKind.MASS, GRAMS,
+            UnitKind.PIECE, PIECE
     );
 
+    static {
+        kind(UnitKind.VOLUME, LITRES, MILLILITRES, TABLESPOONS, TEASPOONS, CUPS);
+        kind(UnitKind.MASS, KILOGRAMS, GRAMS, OUNCES);
+        kind(UnitKind.PIECE, PIECE);
+
+        // Volume units
+        factor(MILLILITRES, LITRES, 1, 1000); // 1 litre = 1000 millilitres
+        factor(MILLILITRES, CUPS, 1, 236); // Rounded to 236 mL in a cup
+        factor(MILLILITRES, TABLESPOONS, 1, 15); // Rounded to 15 mL in a tablespoon
+        factor(MILLILITRES, TEASPOONS, 1, 5); // Rounded to 5 mL in a teaspoon
+        factor(LITRES, MILLILITRES, 1000, 1);
+        factor(LITRES, CUPS, 4, 1); // Approximately 4 cups in a litre
+        factor(LITRES, TABLESPOONS, 68, 1); // Approximately 68 tablespoons in a litre
+        factor(LITRES, TEASPOONS, 202, 1); // Approximately 202 teaspoons in a litre
+        factor(CUPS, MILLILITRES, 236, 1);
+        factor(CUPS, LITRES, 1, 4);
+        factor(CUPS, TABLESPOONS, 16, 1); // 1 cup = 16 tablespoons
+        factor(CUPS, TEASPOONS, 48, 1); // 1 cup = 48 teaspoons
+        factor(TABLESPOONS, MILLILITRES, 15, 1);
+        factor(TABLESPOONS, LITRES, 1, 68);
+        factor(TABLESPOONS, CUPS, 1, 16);
+        factor(TABLESPOONS, TEASPOONS, 3, 1); // 1 tablespoon = 3 teaspoons
+        factor(TEASPOONS, MILLILITRES, 5, 1);
+        factor(TEASPOONS, LITRES, 1, 202);
+        factor(TEASPOONS, CUPS, 1, 48);
+        factor(TEASPOONS, TABLESPOONS, 1, 3);
+        // Mass units
+        factor(GRAMS, KILOGRAMS, 1, 1000); // 1 kilogram = 1000 grams
+        factor(GRAMS, OUNCES, 1, 28); // Approximately 28 grams in an ounce
+        factor(KILOGRAMS, GRAMS, 1000, 1);
+        factor(KILOGRAMS, OUNCES, 35, 1); // Approximately 35 ounces in a kilogram
+        factor(OUNCES, GRAMS, 28, 1);
+        factor(OUNCES, KILOGRAMS, 1, 35);
+
+        for (IngredientUnit unit : UNITS) {
+            factor(unit, unit, 1, 1);
+            if (UNIT_KINDS[unit.ordinal()] == null) {
+                throw new IllegalStateException("No unit kind for " + unit);
+            }
+            for (IngredientUnit other : UNITS) {
+                if ((FACTOR_NUMERATOR[unit.ordinal()][other.ordinal()] != 0) != (UNIT_KINDS[unit.ordinal()] == UNIT_KINDS[other.ordinal()])) {
+                    throw new IllegalStateException("Conversion factor from " + unit + " to " + other + " does not match unit kinds");
+                }
+            }
+        }
+    }
+
+    private static void kind(UnitKind kind, IngredientUnit... units) {
+        for (IngredientUnit unit : units) {
+            UNIT_KINDS[unit.ordinal()] = kind;
+        }
+    }
+
+    private static void factor(IngredientUnit fromUnit, IngredientUnit toUnit, double numerator, double denominator) {
+        FACTOR_NUMERATOR[fromUnit.ordinal()][toUnit.ordinal()] = numerator;
+        FACTOR_DENOMINATOR[fromUnit.ordinal()][toUnit.ordinal()] = denominator;
+    }
+
     public Map<Long, List<IngredientUnit>> unitsOfIngredients(List<IngredientUse> ingredients) {
         return ingredients.stream()
                 .collect(Collectors.groupingBy((IngredientUse i) -> i.ingredient().getId(),
                         Collectors.mapping(IngredientUse::unit, Collectors.toList())));
     }
 
-    private enum UnitKind {
+    enum UnitKind {
         MASS,
         VOLUME,
         PIECE
     }
 
-    /*
-    Kinds of units:
-        volume
-        mass
-        piece
-    Ignoring density to convert from one to another
-    */
+    UnitKind unitKind(IngredientUnit unit) {
+        return UNIT_KINDS[unit.ordinal()];
+    }
+
+    /**
+     * Like {@link #unitKind(IngredientUnit)}, but volumes of an ingredient with known density count as mass,
+     * so both end up in the same bucket.
+     */
+    UnitKind unitKind(Ingredient ingredient, IngredientUnit unit) {
+        UnitKind kind = UNIT_KINDS[unit.ordinal()];
+        if (kind == UnitKind.VOLUME && hasDensity(ingredient)) {
+            return UnitKind.MASS;
+        }
+        return kind;
+    }
+
+    private static boolean hasDensity(Ingredient ingredient) {
+        return ingredient != null && ingredient.getDensity() != null && ingredient.getDensity() > 0;
+    }
+
+    /**
+     * Ignoring density to convert from one kind to another.
+     *
+     * @throws IllegalArgumentException if the units are of different kinds
+     */
     public double convertAmountTo(double amount, IngredientUnit fromUnit, IngredientUnit toUnit) {
         if (fromUnit == toUnit || amount == 0) {
             return amount;
         }
+        double numerator = FACTOR_NUMERATOR[fromUnit.ordinal()][toUnit.ordinal()];
+        if (numerator == 0) {
+            throw new IllegalArgumentException("Cannot convert " + fromUnit + " to " + toUnit + "!");
+        }
+        return amount * numerator / FACTOR_DENOMINATOR[fromUnit.ordinal()][toUnit.ordinal()];
+    }
 
-        double convertedAmount = amount;
-
-        // Conversion logic for volume units
-        if (fromUnit == MILLILITRES) {
-            if (toUnit == LITRES) {
-                convertedAmount = amount / 1000; // 1 litre = 1000 millilitres
-            } else if (toUnit == CUPS) {
-                convertedAmount = amount / 236; // Rounded to 236 mL in a cup
-            } else if (toUnit == TABLESPOONS) {
-                convertedAmount = amount / 15; // Rounded to 15 mL in a tablespoon
-            } else if (toUnit == TEASPOONS) {
-                convertedAmount = amount / 5; // Rounded to 5 mL in a teaspoon
-            }
-        } else if (fromUnit == LITRES) {
-            if (toUnit == MILLILITRES) {
-                convertedAmount = amount * 1000; // 1 litre = 1000 millilitres
-            } else if (toUnit == CUPS) {
-                convertedAmount = amount * 4; // Approximately 4 cups in a litre
-            } else if (toUnit == TABLESPOONS) {
-                convertedAmount = amount * 68; // Approximately 68 tablespoons in a litre
-            } else if (toUnit == TEASPOONS) {
-                convertedAmount = amount * 202; // Approximately 202 teaspoons in a litre
-            }
-        } else if (fromUnit == CUPS) {
-            if (toUnit == MILLILITRES) {
-                convertedAmount = amount * 236; // Rounded to 236 mL in a cup
-            } else if (toUnit == LITRES) {
-                convertedAmount = amount / 4; // 1 cup = 1/4 litre
-            } else if (toUnit == TABLESPOONS) {
-                convertedAmount = amount * 16; // 1 cup = 16 tablespoons
-            } else if (toUnit == TEASPOONS) {
-                convertedAmount = amount * 48; // 1 cup = 48 teaspoons
-            }
-        } else if (fromUnit == TABLESPOONS) {
-            if (toUnit == MILLILITRES) {
-                convertedAmount = amount * 15; // Rounded to 15 mL in a tablespoon
-            } else if (toUnit == LITRES) {
-                convertedAmount = amount / 68; // Approximately 68 tablespoons in a litre
-            } else if (toUnit == CUPS) {
-                convertedAmount = amount / 16; // 1 tablespoon = 1/16 cups
-            } else if (toUnit == TEASPOONS) {
-                convertedAmount = amount * 3; // 1 tablespoon = 3 teaspoons
-            }
-        } else if (fromUnit == TEASPOONS) {
-            if (toUnit == MILLILITRES) {
-                convertedAmount = amount * 5; // Rounded to 5 mL in a teaspoon
-            } else if (toUnit == LITRES) {
-                convertedAmount = amount / 202; // Approximately 202 teaspoons in a litre
-            } else if (toUnit == CUPS) {
-                convertedAmount = amount / 48; // 1 teaspoon = 1/48 cups
-            } else if (toUnit == TABLESPOONS) {
-                convertedAmount = amount / 3; // 1 teaspoon = 1/3 tablespoons
-            }
+    /**
+     * Converts between mass and volume using the density of the ingredient (grams per millilitre), if it has one.
+     *
+     * @throws IllegalArgumentException if the units cannot be converted for this ingredient
+     */
+    public double convertAmountTo(Ingredient ingredient, double amount, IngredientUnit fromUnit, IngredientUnit toUnit) {
+        UnitKind fromKind = UNIT_KINDS[fromUnit.ordinal()];
+        UnitKind toKind = UNIT_KINDS[toUnit.ordinal()];
+        if (fromKind == toKind || !hasDensity(ingredient)) {
+            return convertAmountTo(amount, fromUnit, toUnit);
         }
-        // Conversion logic for Mass units
-        else if (fromUnit == GRAMS) {
-            if (toUnit == KILOGRAMS) {
-                convertedAmount = amount / 1000; // 1 kilogram = 1000 grams
-            } else if (toUnit == OUNCES) {
-                convertedAmount = amount / 28; // Approximately 28 grams in an ounce
-            }
-        } else if (fromUnit == KILOGRAMS) {
-            if (toUnit == GRAMS) {
-                convertedAmount = amount * 1000; // 1 kilogram = 1000 grams
-            } else if (toUnit == OUNCES) {
-                convertedAmount = amount * 35; // Approximately 35 ounces in a kilogram
-            }
-        } else if (fromUnit == OUNCES) {
-            if (toUnit == GRAMS) {
-                convertedAmount = amount * 28; // Approximately 28 grams in an ounce
-            } else if (toUnit == KILOGRAMS) {
-                convertedAmount = amount / 35; // Approximately 35 ounces in a kilogram
-            }
+        if (fromKind == UnitKind.VOLUME && toKind == UnitKind.MASS) {
+            double grams = convertAmountTo(amount, fromUnit, MILLILITRES) * ingredient.getDensity();
+            return convertAmountTo(grams, GRAMS, toUnit);
         }
-
-        if (convertedAmount == amount) {
-            throw new IllegalArgumentException("Detected missing case / unit-conversion should not leave amount unchanged!");
+        if (fromKind == UnitKind.MASS && toKind == UnitKind.VOLUME) {
+            double millilitres = convertAmountTo(amount, fromUnit, GRAMS) / ingredient.getDensity();
+            return convertAmountTo(millilitres, MILLILITRES, toUnit);
         }
-
-        return convertedAmount;
+        throw new IllegalArgumentException("Cannot convert " + fromUnit + " to " + toUnit + "!");
     }
 
     public boolean canConvert(IngredientUnit fromUnit, IngredientUnit toUnit) {
-        if (fromUnit == toUnit) {
-            return true;
-        }
-
-        if (fromUnit == PIECE || toUnit == PIECE) {
-            return false; // Cannot convert PIECE
-        }
-
-        // Check if volumes
-        boolean isVolumeUnit = (fromUnit == LITRES || fromUnit == MILLILITRES ||
-                fromUnit == CUPS || fromUnit == TABLESPOONS ||
-                fromUnit == TEASPOONS);
+        return UNIT_KINDS[fromUnit.ordinal()] == UNIT_KINDS[toUnit.ordinal()];
+    }
 
-        boolean isTargetVolumeUnit = (toUnit == LITRES || toUnit == MILLILITRES ||
-                toUnit == CUPS || toUnit == TABLESPOONS ||
-                toUnit == TEASPOONS);
+    public boolean canConvert(Ingredient ingredient, IngredientUnit fromUnit, IngredientUnit toUnit) {
+        return unitKind(ingredient, fromUnit) == unitKind(ingredient, toUnit);
+    }
 
-        if (isVolumeUnit && isTargetVolumeUnit) {
-            return true;
-        }
+    /**
+     * @return millilitres, grams or pieces, depending on the kind of the unit
+     */
+    public IngredientUnit canonicalUnit(IngredientUnit unit) {
+        return CANONICAL_UNITS.get(UNIT_KINDS[unit.ordinal()]);
+    }
 
-        // Check if weight
-        boolean isWeightUnit = (fromUnit == KILOGRAMS || fromUnit == GRAMS || fromUnit == OUNCES);
-        boolean isTargetWeightUnit = (toUnit == KILOGRAMS || toUnit == GRAMS || toUnit == OUNCES);
+    /**
+     * @return like {@link #canonicalUnit(IngredientUnit)}, but grams for volumes of an ingredient with known density
+     */
+    public IngredientUnit canonicalUnit(Ingredient ingredient, IngredientUnit unit) {
+        return CANONICAL_UNITS.get(unitKind(ingredient, unit));
+    }
 
-        return isWeightUnit && isTargetWeightUnit;
+    public IngredientUse toCanonicalUnit(IngredientUse ingredientUse) {
+        IngredientUnit canonicalUnit = canonicalUnit(ingredientUse.ingredient(), ingredientUse.unit());
+        return new IngredientUse(ingredientUse.ingredient(), canonicalUnit,
+                convertAmountTo(ingredientUse.ingredient(), ingredientUse.amount(), ingredientUse.unit(), canonicalUnit));
     }
 
     public IngredientUse convertIfPossible(IngredientUse ingredientUse, IngredientUnit toUnit) {
-        if (canConvert(ingredientUse.unit(), toUnit)) {
+        if (canConvert(ingredientUse.ingredient(), ingredientUse.unit(), toUnit)) {
             return new IngredientUse(ingredientUse.ingredient(), toUnit,
-                    convertAmountTo(ingredientUse.amount(), ingredientUse.unit(), toUnit));
+                    convertAmountTo(ingredientUse.ingredient(), ingredientUse.amount(), ingredientUse.unit(), toUnit));
         } else {
             return ingredientUse;
         }
@@ -232,9 +263,16 @@ public class IngredientUnitConversionService {
     }
 
     private IngredientUnit getUnitHeuristic(Map<Long, List<IngredientUnit>> map, IngredientUse ingredientUse) {
-        return Stream.concat(map.computeIfAbsent(ingredientUse.ingredient().getId(), k -> Collections.emptyList()).stream(),
-                        Stream.of(ingredientUse.ingredient().getDefaultUnit(), ingredientUse.unit()))
-                .filter(otherUnit -> canConvert(ingredientUse.unit(), otherUnit))
-                .findFirst().orElseThrow();
+        IngredientUnit unit = ingredientUse.unit();
+        List<IngredientUnit> unitsOfIngredient = map.get(ingredientUse.ingredient().getId());
+        if (unitsOfIngredient != null) {
+            for (IngredientUnit otherUnit : unitsOfIngredient) {
+                if (canConvert(ingredientUse.ingredient(), unit, otherUnit)) {
+                    return otherUnit;
+                }
+            }
+        }
+        IngredientUnit defaultUnit = ingredientUse.ingredient().getDefaultUnit();
+        return canConvert(ingredientUse.ingredient(), unit, defaultUnit) ? defaultUnit : unit;
     }
 }
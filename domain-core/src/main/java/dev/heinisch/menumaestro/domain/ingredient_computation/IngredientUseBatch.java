@@ -0,0 +1,99 @@
+package dev.heinisch.menumaestro.domain.ingredient_computation;
+
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Struct-of-arrays form of a list of {@link IngredientUse}s.
+ * The summing kernel works on the primitive columns directly instead of grouping records by a key object.
+ */
+public final class IngredientUseBatch {
+    private static final IngredientUnit[] UNITS = IngredientUnit.values();
+
+    private long[] ingredientId;
+    private byte[] unitOrdinal;
+    private double[] amount;
+    private Ingredient[] ingredient;
+    private int size;
+
+    public IngredientUseBatch(int capacity) {
+        int initialCapacity = Math.max(4, capacity);
+        ingredientId = new long[initialCapacity];
+        unitOrdinal = new byte[initialCapacity];
+        amount = new double[initialCapacity];
+        ingredient = new Ingredient[initialCapacity];
+    }
+
+    public static IngredientUseBatch of(Collection<IngredientUse> ingredientUses) {
+        IngredientUseBatch batch = new IngredientUseBatch(ingredientUses.size());
+        for (IngredientUse ingredientUse : ingredientUses) {
+            batch.add(ingredientUse);
+        }
+        return batch;
+    }
+
+    public void add(IngredientUse ingredientUse) {
+        add(ingredientUse.ingredient(), ingredientUse.unit(), ingredientUse.amount());
+    }
+
+    public void add(Ingredient ingredient, IngredientUnit unit, double amount) {
+        if (size == ingredientId.length) {
+            grow();
+        }
+        this.ingredientId[size] = Objects.requireNonNull(ingredient.getId(), "ingredient without id");
+        this.unitOrdinal[size] = (byte) unit.ordinal();
+        this.amount[size] = amount;
+        this.ingredient[size] = ingredient;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = ingredientId.length * 2;
+        ingredientId = Arrays.copyOf(ingredientId, capacity);
+        unitOrdinal = Arrays.copyOf(unitOrdinal, capacity);
+        amount = Arrays.copyOf(amount, capacity);
+        ingredient = Arrays.copyOf(ingredient, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long ingredientId(int index) {
+        return ingredientId[index];
+    }
+
+    public int unitOrdinal(int index) {
+        return unitOrdinal[index];
+    }
+
+    public IngredientUnit unit(int index) {
+        return UNITS[unitOrdinal[index]];
+    }
+
+    public double amount(int index) {
+        return amount[index];
+    }
+
+    public Ingredient ingredient(int index) {
+        return ingredient[index];
+    }
+
+    public IngredientUse get(int index) {
+        return new IngredientUse(ingredient[index], unit(index), amount[index]);
+    }
+
+    public List<IngredientUse> toList() {
+        List<IngredientUse> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+        return result;
+    }
+}
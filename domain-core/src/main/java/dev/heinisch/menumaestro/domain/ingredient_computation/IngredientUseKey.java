@@ -1,24 +1,29 @@
 package dev.heinisch.menumaestro.domain.ingredient_computation;
 
-import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
 
-import java.util.Objects;
+/**
+ * Packs an (ingredient id, unit) pair into a single {@code long}, so keyed lookups neither allocate nor touch the ingredient entity.
+ */
+public final class IngredientUseKey {
+    private static final IngredientUnit[] UNITS = IngredientUnit.values();
 
-public record IngredientUseKey(Ingredient ingredient, IngredientUnit unit) {
-    public static IngredientUseKey fromIngredientUse(IngredientUse ingredientUse) {
-        return new IngredientUseKey(ingredientUse.ingredient(), ingredientUse.unit());
+    private IngredientUseKey() {
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        IngredientUseKey that = (IngredientUseKey) o;
-        return unit == that.unit && Objects.equals(ingredient.getId(), that.ingredient.getId());
+    public static long of(long ingredientId, IngredientUnit unit) {
+        return PackedKeyIndex.pack(ingredientId, unit.ordinal());
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(ingredient.getId(), unit);
+    public static long of(IngredientUse ingredientUse) {
+        return of(ingredientUse.ingredient().getId(), ingredientUse.unit());
+    }
+
+    public static long ingredientIdOf(long key) {
+        return PackedKeyIndex.ingredientIdOf(key);
+    }
+
+    public static IngredientUnit unitOf(long key) {
+        return UNITS[PackedKeyIndex.ordinalOf(key)];
     }
 }
@@ -0,0 +1,56 @@
+package dev.heinisch.menumaestro.domain.ingredient_computation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+/**
+ * Map from packed {@link IngredientUseKey}s to values, without boxing the keys.
+ * Removed keys keep their slot with a {@code null} value, so {@code null} values cannot be stored.
+ */
+public final class IngredientUseKeyMap<V> {
+    private final PackedKeyIndex index;
+    private Object[] values;
+
+    public IngredientUseKeyMap(int expectedSize) {
+        index = new PackedKeyIndex(expectedSize);
+        values = new Object[Math.max(4, expectedSize)];
+    }
+
+    public static <V> IngredientUseKeyMap<V> keyedBy(Collection<V> values, ToLongFunction<V> keyFunction) {
+        IngredientUseKeyMap<V> map = new IngredientUseKeyMap<>(values.size());
+        for (V value : values) {
+            map.put(keyFunction.applyAsLong(value), value);
+        }
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = index.slotOf(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public void put(long key, V value) {
+        int slot = index.insert(key);
+        if (slot >= values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * @return the previous value, or null if there was none
+     */
+    public V remove(long key) {
+        V previous = get(key);
+        if (previous != null) {
+            values[index.slotOf(key)] = null;
+        }
+        return previous;
+    }
+}
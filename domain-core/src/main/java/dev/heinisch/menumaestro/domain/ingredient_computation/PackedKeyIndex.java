@@ -0,0 +1,110 @@
+package dev.heinisch.menumaestro.domain.ingredient_computation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing index from packed {@code (ingredientId << 4 | small ordinal)} keys to dense, insertion-ordered slots.
+ * Callers keep their per-key values in plain arrays indexed by the returned slot, so no key or value is ever boxed.
+ */
+final class PackedKeyIndex {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int ORDINAL_BITS = 4;
+
+    private long[] table;
+    private int[] slots;
+    private long[] keys;
+    private int size;
+
+    PackedKeyIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        table = new long[capacity];
+        slots = new int[capacity];
+        keys = new long[Math.max(4, expectedSize)];
+        Arrays.fill(table, EMPTY);
+    }
+
+    static long pack(long ingredientId, int ordinal) {
+        return (ingredientId << ORDINAL_BITS) | ordinal;
+    }
+
+    static long ingredientIdOf(long key) {
+        return key >> ORDINAL_BITS;
+    }
+
+    static int ordinalOf(long key) {
+        return (int) (key & ((1 << ORDINAL_BITS) - 1));
+    }
+
+    int size() {
+        return size;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * @return the slot of the key, or -1 if it was never inserted
+     */
+    int slotOf(long key) {
+        int mask = table.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (table[i] == key) {
+                return slots[i];
+            }
+            if (table[i] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @return the slot of the key; a key seen for the first time gets slot {@code size() - 1}
+     */
+    int insert(long key) {
+        int mask = table.length - 1;
+        int i = hash(key) & mask;
+        while (table[i] != EMPTY) {
+            if (table[i] == key) {
+                return slots[i];
+            }
+            i = (i + 1) & mask;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        table[i] = key;
+        slots[i] = size;
+        keys[size] = key;
+        size++;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    private void rehash() {
+        long[] oldTable = table;
+        int[] oldSlots = slots;
+        table = new long[oldTable.length * 2];
+        slots = new int[oldTable.length * 2];
+        Arrays.fill(table, EMPTY);
+        int mask = table.length - 1;
+        for (int j = 0; j < oldTable.length; j++) {
+            if (oldTable[j] == EMPTY) {
+                continue;
+            }
+            int i = hash(oldTable[j]) & mask;
+            while (table[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            table[i] = oldTable[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,95 @@
+package dev.heinisch.menumaestro.domain.ingredient_computation;
+
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+
+import java.util.Arrays;
+
+/**
+ * Remembers, per ingredient and unit kind, the first unit seen in a batch. Mass and volume share a kind for ingredients with a density.
+ * Primitive counterpart of {@link IngredientUnitConversionService#convertHeuristic}: a use is converted to that unit,
+ * otherwise to the ingredient's default unit, otherwise it keeps its own unit.
+ * <br>
+ * In {@link AggregationMode#CANONICAL_UNITS} nothing needs to be remembered, every use is converted to the base unit of its kind.
+ */
+final class PreferredUnits {
+    private static final IngredientUnit[] UNITS = IngredientUnit.values();
+
+    private final IngredientUnitConversionService ingredientUnitConversionService;
+    private final boolean canonical;
+    private final PackedKeyIndex index;
+    private byte[] units;
+
+    private PreferredUnits(IngredientUnitConversionService ingredientUnitConversionService, int expectedSize, boolean canonical) {
+        this.ingredientUnitConversionService = ingredientUnitConversionService;
+        this.canonical = canonical;
+        this.index = new PackedKeyIndex(expectedSize);
+        this.units = new byte[Math.max(4, expectedSize)];
+    }
+
+    static PreferredUnits canonical(IngredientUnitConversionService ingredientUnitConversionService) {
+        return new PreferredUnits(ingredientUnitConversionService, 0, true);
+    }
+
+    /**
+     * Remembers nothing yet, see {@link #preferredUnitRemembering}.
+     */
+    static PreferredUnits empty(IngredientUnitConversionService ingredientUnitConversionService) {
+        return new PreferredUnits(ingredientUnitConversionService, 0, false);
+    }
+
+    static PreferredUnits of(IngredientUseBatch batch, IngredientUnitConversionService ingredientUnitConversionService) {
+        PreferredUnits preferredUnits = new PreferredUnits(ingredientUnitConversionService, batch.size(), false);
+        for (int i = 0; i < batch.size(); i++) {
+            IngredientUnit unit = batch.unit(i);
+            int sizeBefore = preferredUnits.index.size();
+            int slot = preferredUnits.index.insert(PackedKeyIndex.pack(batch.ingredientId(i), ingredientUnitConversionService.unitKind(batch.ingredient(i), unit).ordinal()));
+            if (slot == sizeBefore) {
+                preferredUnits.remember(slot, unit);
+            }
+        }
+        return preferredUnits;
+    }
+
+    IngredientUnit preferredUnit(Ingredient ingredient, IngredientUnit unit) {
+        if (canonical) {
+            return ingredientUnitConversionService.canonicalUnit(ingredient, unit);
+        }
+        int slot = index.slotOf(key(ingredient, unit));
+        return slot >= 0 ? UNITS[units[slot]] : fallbackUnit(ingredient, unit);
+    }
+
+    /**
+     * Like {@link #preferredUnit}, but the unit chosen for a kind that was not seen yet is remembered,
+     * so all later uses of that kind end up in the same unit.
+     */
+    IngredientUnit preferredUnitRemembering(Ingredient ingredient, IngredientUnit unit) {
+        if (canonical) {
+            return ingredientUnitConversionService.canonicalUnit(ingredient, unit);
+        }
+        int sizeBefore = index.size();
+        int slot = index.insert(key(ingredient, unit));
+        if (slot == sizeBefore) {
+            remember(slot, fallbackUnit(ingredient, unit));
+        }
+        return UNITS[units[slot]];
+    }
+
+    private long key(Ingredient ingredient, IngredientUnit unit) {
+        return PackedKeyIndex.pack(ingredient.getId(), ingredientUnitConversionService.unitKind(ingredient, unit).ordinal());
+    }
+
+    private void remember(int slot, IngredientUnit unit) {
+        if (slot == units.length) {
+            units = Arrays.copyOf(units, slot * 2);
+        }
+        units[slot] = (byte) unit.ordinal();
+    }
+
+    private IngredientUnit fallbackUnit(Ingredient ingredient, IngredientUnit unit) {
+        if (ingredientUnitConversionService.canConvert(ingredient, unit, ingredient.getDefaultUnit())) {
+            return ingredient.getDefaultUnit();
+        }
+        return unit;
+    }
+}
@@ -68,6 +68,15 @@ public class Menu {
     @OneToOne(optional = false, fetch = FetchType.LAZY, cascade = CascadeType.PERSIST, orphanRemoval = true)
     private Stash stash;
 
+    /**
+     * Bumped whenever meals or snapshots of the menu change, used to invalidate cached {@link SnapshotMetadata}.
+     * Only written through {@code MenuRepository.incrementContentVersion} so concurrent increments are not lost.
+     */
+    @Column(nullable = false, updatable = false)
+    @NotNull
+    @Setter(AccessLevel.NONE)
+    private Long contentVersion = 0L;
+
     @Builder
     public Menu(String name, String description, Integer numberOfPeople, Long organizationId,
                 List<MenuItem> items) {
@@ -1,9 +1,9 @@
 package dev.heinisch.menumaestro.domain.menu;
 
-import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientCatalog;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientComputationService;
-import dev.heinisch.menumaestro.domain.stash.Stash;
-import lombok.RequiredArgsConstructor;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUseBatch;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -12,22 +12,46 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
 
 @Service
-@RequiredArgsConstructor
 public class MenuComputationService {
     private final IngredientComputationService ingredientComputationService;
+    private final MenuMetadataCache menuMetadataCache;
+    private final SnapshotEvaluationExecutor snapshotEvaluationExecutor;
 
-    public void computeMetadata(Menu menu, Function<Long, Ingredient> ingredientLoader) {
+    public MenuComputationService(IngredientComputationService ingredientComputationService, MenuMetadataCache menuMetadataCache) {
+        this(ingredientComputationService, menuMetadataCache, SnapshotEvaluationExecutor.sequential());
+    }
+
+    @Autowired
+    public MenuComputationService(IngredientComputationService ingredientComputationService, MenuMetadataCache menuMetadataCache,
+                                  SnapshotEvaluationExecutor snapshotEvaluationExecutor) {
+        this.ingredientComputationService = ingredientComputationService;
+        this.menuMetadataCache = menuMetadataCache;
+        this.snapshotEvaluationExecutor = snapshotEvaluationExecutor;
+    }
+
+    /**
+     * Sets the meal statuses and snapshot metadata of the menu, reusing a previous result while neither the menu content nor the stash changed.
+     * Must only be used on committed state, writing transactions use {@link #computeMetadataWithoutCache}.
+     */
+    public void computeMetadata(Menu menu, IngredientCatalog ingredientCatalog) {
+        if (menuMetadataCache.applyTo(menu)) {
+            return;
+        }
+        computeMetadataWithoutCache(menu, ingredientCatalog);
+        menuMetadataCache.store(menu);
+    }
+
+    public void computeMetadataWithoutCache(Menu menu, IngredientCatalog ingredientCatalog) {
         var allItems = new ArrayList<>(menu.getItems());
         allItems.sort(Comparator.comparing(MenuItem::getPosition));
         addTransientDefaultSnapshot(allItems);
-        for (MenuItem item : allItems) {
-            if (item instanceof Snapshot snapshot) {
-                computeSnapshotMetadata(allItems, snapshot, menu.getStash(), ingredientLoader);
-            }
-        }
+        List<SnapshotSegment> segments = segments(allItems);
+        // every segment starts from the whole stash, so it is converted once and only read by the segments
+        IngredientUseBatch stashBatch = ingredientComputationService.stashBatch(menu.getStash(), ingredientCatalog);
+        boolean menuClosed = menu.getStatus() == MenuStatus.CLOSED;
+        snapshotEvaluationExecutor.forEach(segments, segment -> computeSnapshotMetadata(segment, stashBatch, menuClosed));
     }
 
     /**
@@ -46,13 +70,13 @@ public class MenuComputationService {
     }
 
     /**
-     * @param items sorted list
+     * Only touches the meals and the snapshot of its own segment, so segments can be computed concurrently.
      */
-    private void computeSnapshotMetadata(List<MenuItem> items, Snapshot snapshot, Stash stash, Function<Long, Ingredient> ingredientLoader) {
-        var includedMeals = getIncludedMeals(items, snapshot);
-        var computeResult = ingredientComputationService.computeMissingIngredientsWithTimelineHeuristic(includedMeals, includedMeals, stash, ingredientLoader);
+    private void computeSnapshotMetadata(SnapshotSegment segment, IngredientUseBatch stashBatch, boolean menuClosed) {
+        var includedMeals = segment.meals();
+        var computeResult = ingredientComputationService.computeMissingIngredientsWithTimelineHeuristic(includedMeals, includedMeals, stashBatch);
         for (Meal meal : includedMeals) {
-            if (meal.getMenu().getStatus() == MenuStatus.CLOSED) {
+            if (menuClosed) {
                 meal.setStatus(MealStatus.CLOSED);
             } else {
                 meal.setStatus(meal.getIsDone()
@@ -65,45 +89,46 @@ public class MenuComputationService {
         Set<Long> availableIngredientIds = ingredientComputationService.availableIngredientIds(mealIngredientIds, computeResult.missingIngredients());
         SnapshotMetadata metadata = new SnapshotMetadata(includedMeals.size(),
                 mealIngredientIds.size(), availableIngredientIds.size());
-        snapshot.setMetadata(metadata);
+        segment.snapshot().setMetadata(metadata);
     }
 
     public Set<Meal> getIncludedMeals(Menu menu, Set<Snapshot> snapshots) {
         List<MenuItem> items = new ArrayList<>(menu.getItems());
         items.sort(Comparator.comparing(MenuItem::getPosition));
-        return getIncludedMeals(items, snapshots);
-    }
-
-    /**
-     * @param items sorted list
-     */
-    private Set<Meal> getIncludedMeals(List<MenuItem> items, Set<Snapshot> snapshots) {
         // meals should not be part of multiple snapshots anyway
         Set<Meal> includedMeals = new HashSet<>();
-        for (Snapshot snapshot : snapshots) {
-            includedMeals.addAll(getIncludedMeals(items, snapshot));
+        int found = 0;
+        for (SnapshotSegment segment : segments(items)) {
+            if (snapshots.contains(segment.snapshot())) {
+                includedMeals.addAll(segment.meals());
+                found++;
+            }
+        }
+        if (found != snapshots.size()) {
+            throw new IllegalArgumentException();
         }
         return includedMeals;
     }
 
     /**
+     * Splits the items into the meals belonging to each snapshot, i.e. the meals between it and the previous snapshot.
+     *
      * @param items sorted list
      */
-    private List<Meal> getIncludedMeals(List<MenuItem> items, Snapshot snapshot) {
-        if (!items.contains(snapshot)) {
-            throw new IllegalArgumentException();
-        }
-        int snapshotIndex = items.indexOf(snapshot);
-        ArrayList<Meal> includedMeals = new ArrayList<>();
-        // search backward from the snapshot to the previous snapshot
-        for (int i = snapshotIndex - 1; i >= 0; i--) {
-            MenuItem item = items.get(i);
+    private static List<SnapshotSegment> segments(List<MenuItem> items) {
+        List<SnapshotSegment> segments = new ArrayList<>();
+        List<Meal> meals = new ArrayList<>();
+        for (MenuItem item : items) {
             if (item instanceof Meal meal) {
-                includedMeals.add(meal);
-            } else {
-                break;
+                meals.add(meal);
+            } else if (item instanceof Snapshot snapshot) {
+                segments.add(new SnapshotSegment(snapshot, meals));
+                meals = new ArrayList<>();
             }
         }
-        return includedMeals;
+        return segments;
+    }
+
+    private record SnapshotSegment(Snapshot snapshot, List<Meal> meals) {
     }
 }
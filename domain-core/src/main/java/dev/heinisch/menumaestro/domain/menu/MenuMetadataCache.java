@@ -0,0 +1,95 @@
+package dev.heinisch.menumaestro.domain.menu;
+
+import dev.heinisch.menumaestro.domain.stash.Stash;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU cache of the computed meal statuses and snapshot metadata per menu.
+ * An entry is only valid for the menu content version and stash version it was computed for, so a changed menu or stash
+ * simply misses and overwrites its entry. The stash version counts pending movements, see {@link Stash#getVisibleVersionNumber()}.
+ * <br>
+ * Entries are shared between concurrent requests. They are never changed after they are stored, and the cached
+ * {@link MealStatus} and {@link SnapshotMetadata} values are immutable, so they are handed out as they are.
+ */
+public class MenuMetadataCache {
+    private final Map<Long, CachedMenuMetadata> entries;
+
+    public MenuMetadataCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedMenuMetadata> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Copies cached statuses onto the transient fields of the menu's items.
+     *
+     * @return false if there was no entry for the current versions of the menu and its stash
+     */
+    boolean applyTo(Menu menu) {
+        if (menu.getId() == null) {
+            return false;
+        }
+        CachedMenuMetadata cached;
+        synchronized (entries) {
+            cached = entries.get(menu.getId());
+        }
+        if (cached == null || !cached.isFor(menu)) {
+            return false;
+        }
+        for (MenuItem item : menu.getItems()) {
+            if (item instanceof Meal meal) {
+                MealStatus status = cached.mealStatuses().get(meal.getId());
+                if (status == null) {
+                    return false;
+                }
+                meal.setStatus(status);
+            } else if (item instanceof Snapshot snapshot) {
+                snapshot.setMetadata(cached.snapshotMetadata().get(snapshot.getId()));
+            }
+        }
+        return true;
+    }
+
+    void store(Menu menu) {
+        if (menu.getId() == null) {
+            return;
+        }
+        Map<Long, MealStatus> mealStatuses = new HashMap<>();
+        Map<Long, SnapshotMetadata> snapshotMetadata = new HashMap<>();
+        for (MenuItem item : menu.getItems()) {
+            if (item instanceof Meal meal) {
+                mealStatuses.put(meal.getId(), meal.getStatus());
+            } else if (item instanceof Snapshot snapshot) {
+                snapshotMetadata.put(snapshot.getId(), snapshot.getMetadata());
+            }
+        }
+        var cached = new CachedMenuMetadata(menu.getContentVersion(), menu.getStash().getVisibleVersionNumber(),
+                Collections.unmodifiableMap(mealStatuses), Collections.unmodifiableMap(snapshotMetadata));
+        synchronized (entries) {
+            entries.put(menu.getId(), cached);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private record CachedMenuMetadata(Long contentVersion, Long stashVersion,
+                                      Map<Long, MealStatus> mealStatuses,
+                                      Map<Long, SnapshotMetadata> snapshotMetadata) {
+        boolean isFor(Menu menu) {
+            return Objects.equals(contentVersion, menu.getContentVersion())
+                    && Objects.equals(stashVersion, menu.getStash().getVisibleVersionNumber());
+        }
+    }
+}
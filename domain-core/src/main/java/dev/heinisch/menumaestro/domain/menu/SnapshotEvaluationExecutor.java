@@ -0,0 +1,100 @@
+package dev.heinisch.menumaestro.domain.menu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Evaluates the independent snapshot segments of a menu, on a bounded pool once a menu has enough of them.
+ * Smaller menus are evaluated on the calling thread, where forking would cost more than it saves.
+ * <br>
+ * Whole menus, e.g. of a consolidated shopping list, are always evaluated on the pool.
+ */
+public class SnapshotEvaluationExecutor implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final int parallelismThreshold;
+
+    private SnapshotEvaluationExecutor(ForkJoinPool pool, int parallelismThreshold) {
+        this.pool = pool;
+        this.parallelismThreshold = parallelismThreshold;
+    }
+
+    /**
+     * @param parallelism          maximum number of segments evaluated at the same time
+     * @param parallelismThreshold minimum number of segments before they are evaluated concurrently
+     */
+    public static SnapshotEvaluationExecutor bounded(int parallelism, int parallelismThreshold) {
+        if (parallelism <= 1) {
+            return sequential();
+        }
+        return new SnapshotEvaluationExecutor(new ForkJoinPool(parallelism), Math.max(2, parallelismThreshold));
+    }
+
+    public static SnapshotEvaluationExecutor sequential() {
+        return new SnapshotEvaluationExecutor(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Applies the action to every segment and returns once all are done.
+     * The action must only write state belonging to its own segment.
+     */
+    <T> void forEach(List<T> segments, Consumer<T> action) {
+        if (pool == null || segments.size() < parallelismThreshold) {
+            segments.forEach(action);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(segments.size());
+        for (T segment : segments) {
+            tasks.add(() -> {
+                action.accept(segment);
+                return null;
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * Applies the function to every menu and returns the results in the same order.
+     * The function must not touch lazily loaded state, it does not run within the transaction of the caller.
+     */
+    public <T, R> List<R> map(List<T> menus, Function<T, R> function) {
+        if (pool == null || menus.size() < 2) {
+            return menus.stream().map(function).toList();
+        }
+        List<Callable<R>> tasks = new ArrayList<>(menus.size());
+        for (T menu : menus) {
+            tasks.add(() -> function.apply(menu));
+        }
+        return invokeAll(tasks);
+    }
+
+    private <R> List<R> invokeAll(List<Callable<R>> tasks) {
+        List<R> results = new ArrayList<>(tasks.size());
+        for (Future<R> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while evaluating snapshots", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
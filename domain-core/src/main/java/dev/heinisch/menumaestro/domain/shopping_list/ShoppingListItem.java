@@ -7,6 +7,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import lombok.Getter;
@@ -21,8 +22,16 @@ import lombok.Setter;
 @Getter
 @Setter
 public class ShoppingListItem {
+    /**
+     * Pooled like the sequence increments, so generating a shopping list fetches one id block per 50 items.
+     */
     @Id
     @GeneratedValue(generator = "seq_shopping_list_item_id", strategy = GenerationType.SEQUENCE)
+    @SequenceGenerator(
+        name = "seq_shopping_list_item_id",
+        sequenceName = "seq_shopping_list_item_id",
+        allocationSize = 50
+    )
     private Long id;
 
     @ManyToOne(optional = false)
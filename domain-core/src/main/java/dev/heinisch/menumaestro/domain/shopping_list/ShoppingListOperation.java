@@ -0,0 +1,80 @@
+package dev.heinisch.menumaestro.domain.shopping_list;
+
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entry of the append-only operation log of a shopping list.
+ * Item operations carry the state of the item after the operation, so replaying them in order is idempotent.
+ */
+@Entity
+@Table(name = "shopping_list_op")
+@NoArgsConstructor
+@Getter
+public class ShoppingListOperation {
+    @Id
+    @GeneratedValue(generator = "seq_shopping_list_op_id", strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    /**
+     * Foreign Key (ShoppingList)
+     */
+    @Column(nullable = false)
+    @NotNull
+    private Long shoppingListId;
+
+    /**
+     * Consecutive per shopping list, starting at 1
+     */
+    @Column(nullable = false)
+    @NotNull
+    private Long sequenceNumber;
+
+    @Column(nullable = false)
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private ShoppingListOperationType operationType;
+
+    /**
+     * Foreign Key (ShoppingListItem), null for operations on the list itself
+     */
+    @Column
+    private Long shoppingListItemId;
+
+    @Column
+    private Double amount;
+
+    @Column
+    private IngredientUnit unit;
+
+    @Column
+    private Boolean isChecked;
+
+    @Column
+    private String checkedByAccountUsername;
+
+    @Builder
+    public ShoppingListOperation(Long shoppingListId, Long sequenceNumber, ShoppingListOperationType operationType,
+                                 Long shoppingListItemId, Double amount, IngredientUnit unit, Boolean isChecked,
+                                 String checkedByAccountUsername) {
+        this.shoppingListId = shoppingListId;
+        this.sequenceNumber = sequenceNumber;
+        this.operationType = operationType;
+        this.shoppingListItemId = shoppingListItemId;
+        this.amount = amount;
+        this.unit = unit;
+        this.isChecked = isChecked;
+        this.checkedByAccountUsername = checkedByAccountUsername;
+    }
+}
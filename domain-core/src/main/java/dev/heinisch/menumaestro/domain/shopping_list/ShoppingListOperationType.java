@@ -0,0 +1,7 @@
+package dev.heinisch.menumaestro.domain.shopping_list;
+
+public enum ShoppingListOperationType {
+    ADD,
+    MODIFY,
+    CLOSED
+}
@@ -0,0 +1,8 @@
+package dev.heinisch.menumaestro.domain.shopping_list;
+
+/**
+ * A shopping list without its items, only with their counts, for overviews.
+ */
+public record ShoppingListSummary(Long id, String name, Boolean isClosed, Long organizationId, Long menuId,
+                                  Long itemCount, Long checkedItemCount) {
+}
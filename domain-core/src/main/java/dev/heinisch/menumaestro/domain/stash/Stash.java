@@ -6,18 +6,24 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
 import jakarta.persistence.NamedAttributeNode;
 import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
 import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.SQLRestriction;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 
@@ -34,31 +40,74 @@ public class Stash {
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "stash")
     Set<StashEntry> entries;
 
+    /**
+     * Movements appended since the last compaction, not part of the entries yet. Read only, as loaded.
+     */
+    @OneToMany
+    @JoinColumn(name = "stash_id", insertable = false, updatable = false)
+    @SQLRestriction("compacted = false")
+    @OrderBy("id")
+    @Immutable
+    private List<StashMovement> pendingMovements;
+
     @Column(nullable = false)
     @NotNull
     private Long versionNumber;
 
+    /**
+     * Version in which an entry was last removed, changes since an earlier version can not be told by the entries alone.
+     */
+    @Column(nullable = false)
+    @NotNull
+    private Long lastRemovalVersion;
+
     @Column(nullable = false)
     @NotNull
     @Setter
     private Boolean locked;
 
     @Builder
-    public Stash(Long id, Collection<StashEntry> entries) {
+    public Stash(Long id, Collection<StashEntry> entries, Collection<StashMovement> pendingMovements) {
         this.id = id;
         this.versionNumber = 0L;
+        this.lastRemovalVersion = 0L;
         this.locked = false;
         this.entries = new HashSet<>(entries);
+        this.pendingMovements = pendingMovements == null ? new ArrayList<>() : new ArrayList<>(pendingMovements);
         for (StashEntry entry : entries) {
             entry.setStash(this);
         }
     }
 
     public static Stash createEmptyStash() {
-        return new Stash(null, Collections.emptySet());
+        return new Stash(null, Collections.emptySet(), null);
+    }
+
+    /**
+     * The version the stash has once its pending movements are compacted, each of them increments it.
+     */
+    public Long getVisibleVersionNumber() {
+        return versionNumber + pendingMovements.size();
     }
 
     public void incrementVersionNumber() {
         this.versionNumber++;
     }
+
+    public void incrementVersionNumber(long count) {
+        this.versionNumber += count;
+    }
+
+    public void removeEntry(StashEntry entry) {
+        if (entries.remove(entry)) {
+            recordEntryRemoval();
+        }
+    }
+
+    /**
+     * Call after incrementing the version for the change that removed the entry.
+     */
+    public void recordEntryRemoval() {
+        this.lastRemovalVersion = this.versionNumber;
+    }
 }
@@ -36,6 +36,13 @@ public class StashEntry {
     @NotNull
     private Double amount;
 
+    /**
+     * Version of the stash in which the entry was last changed.
+     */
+    @Column(nullable = false)
+    @NotNull
+    private Long versionNumber;
+
     @Data
     @Embeddable
     public static class StashEntryId {
@@ -61,6 +68,15 @@ public class StashEntry {
             this.id.stashId = stash.getId();
         }
         this.amount = amount;
+        this.versionNumber = stash != null ? stash.getVersionNumber() : 0L;
+    }
+
+    /**
+     * Sets the amount and stamps the entry with the current version of its stash.
+     */
+    public void updateAmount(Double amount) {
+        this.amount = amount;
+        this.versionNumber = stash.getVersionNumber();
     }
 
     public Long getIngredientId() {
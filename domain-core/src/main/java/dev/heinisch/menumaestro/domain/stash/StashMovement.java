@@ -0,0 +1,84 @@
+package dev.heinisch.menumaestro.domain.stash;
+
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entry of the append-only ledger of a stash, a signed amount in the canonical unit of its kind.
+ * The entries of a stash hold the balance of all compacted movements.
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+public class StashMovement {
+    @Id
+    @GeneratedValue(generator = "seq_stash_movement_id", strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    /**
+     * Foreign Key (Stash)
+     */
+    @Column(nullable = false)
+    @NotNull
+    private Long stashId;
+
+    @Column(nullable = false)
+    @NotNull
+    private Long ingredientId;
+
+    @Column(nullable = false)
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private IngredientUnit unit;
+
+    @Column(nullable = false)
+    @NotNull
+    private Double amount;
+
+    @Column(nullable = false)
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private StashMovementSource source;
+
+    /**
+     * Id of the shopping list, meal or other stash the movement came from, null for manual edits
+     */
+    @Column
+    private Long sourceId;
+
+    @Column(nullable = false)
+    @NotNull
+    private Instant createdAt;
+
+    /**
+     * Whether the amount is already part of the stash entries
+     */
+    @Column(nullable = false)
+    @NotNull
+    private Boolean compacted;
+
+    @Builder
+    public StashMovement(Long stashId, Long ingredientId, IngredientUnit unit, Double amount,
+                         StashMovementSource source, Long sourceId, Boolean compacted) {
+        this.stashId = stashId;
+        this.ingredientId = ingredientId;
+        this.unit = unit;
+        this.amount = amount;
+        this.source = source;
+        this.sourceId = sourceId;
+        this.createdAt = Instant.now();
+        this.compacted = compacted;
+    }
+}
@@ -0,0 +1,11 @@
+package dev.heinisch.menumaestro.domain.stash;
+
+/**
+ * What moved ingredients into or out of a stash, see {@link StashMovement#getSourceId()} for the referenced entity.
+ */
+public enum StashMovementSource {
+    SHOPPING_LIST_CLOSED,
+    MEAL_DONE,
+    MANUAL_EDIT,
+    TRANSFER
+}
@@ -17,12 +17,12 @@ import { ErrorService } from '../../../globals/error.service';
 import { StringFormattingService } from '../../../service/string-formatting.service';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client/dist/sockjs';
-import { ShoppingListUpdateMessage, ShoppingListUpdateType } from '../../../websocket/shopping-list-update.message';
+import { ShoppingListUpdateBatch, ShoppingListUpdateMessage, ShoppingListUpdateType } from '../../../websocket/shopping-list-update.message';
 import { Globals } from '../../../globals/globals';
 import {
   IngredientCategory, IngredientUnitDto, OrganizationRoleEnum,
   ShoppingListApiService,
-  ShoppingListDto, ShoppingListEditDto,
+  ShoppingListChangesDto, ShoppingListDto, ShoppingListEditDto,
   ShoppingListIngredientDto, ShoppingListIngredientEditDto, ShoppingListStatus, ShoppingListTokenDto
 } from "../../../../generated";
 
@@ -63,6 +63,7 @@ export class DetailShoppingListComponent implements OnInit {
   itemNotYourCartLegendChecked: boolean = true;
   shoppingListId: number = -1;
   shareToken: string | undefined = undefined;
+  lastSequenceNumber: number | undefined = undefined;
 
   isAddItemView: boolean = false;
 
@@ -119,10 +120,12 @@ export class DetailShoppingListComponent implements OnInit {
           this.stompClient.subscribe(
             '/shopping-lists/' + this.shoppingListId,
             (msg) => {
-              this.onShoppingListUpdateReceived(JSON.parse(msg.body));
+              this.onShoppingListUpdateBatchReceived(JSON.parse(msg.body));
             },
             { 'X-Authorization': (this.shareToken ?? this.tokenService.getToken()).toString() }
           );
+          // updates since the list was loaded or before a reconnect were not received on this subscription
+          this.catchUp();
         },
         onStompError: (frame) => {
           this.handleWebSocketError('WebSocket connection error: Unable to connect to shopping list updates');
@@ -151,18 +154,76 @@ export class DetailShoppingListComponent implements OnInit {
     }
   }
 
+  onShoppingListUpdateBatchReceived(batch: ShoppingListUpdateBatch) {
+    if (this.lastSequenceNumber === undefined || batch.sequenceNumber <= this.lastSequenceNumber) {
+      return; // list not loaded yet or already contains these updates
+    }
+    if (batch.firstSequenceNumber !== this.lastSequenceNumber + 1) {
+      this.catchUp();
+      return;
+    }
+    this.lastSequenceNumber = batch.sequenceNumber;
+    batch.updates.forEach((msg) => this.onShoppingListUpdateReceived(msg));
+    this.getGroupedListOfIngredients();
+  }
+
+  catchUp(): void {
+    if (this.lastSequenceNumber === undefined) {
+      return;
+    }
+    this.shoppingListApiService
+      .getShoppingListChanges(this.shoppingListId, this.lastSequenceNumber, this.shareToken)
+      .subscribe({
+        next: (changes: ShoppingListChangesDto) => {
+          if (changes.snapshot) {
+            this.onShoppingListLoaded(changes.snapshot);
+            return;
+          }
+          if (changes.sequenceNumber <= this.lastSequenceNumber!) {
+            return;
+          }
+          changes.operations
+            .filter((operation) => operation.sequenceNumber > this.lastSequenceNumber!)
+            .forEach((operation) =>
+              this.onShoppingListUpdateReceived({
+                updateType: operation.type as string as ShoppingListUpdateType,
+                shoppingListItemId: operation.itemId,
+                amount: operation.amount,
+                unit: operation.unit,
+                isChecked: operation.isChecked,
+                checkedBy: operation.checkedBy,
+                item: operation.item,
+              })
+            );
+          this.lastSequenceNumber = changes.sequenceNumber;
+          this.getGroupedListOfIngredients();
+        },
+        error: (err) => {
+          this.errorService.printErrorResponse(err);
+        },
+      });
+  }
+
   onShoppingListUpdateReceived(msg: ShoppingListUpdateMessage) {
     switch (msg.updateType) {
       case ShoppingListUpdateType.RELOAD:
         this.fetchShoppingList(this.shoppingListId);
         break;
+      case ShoppingListUpdateType.ADD:
+        if (!this.shoppingListDto.ingredients.some((item) => item.id == msg.shoppingListItemId)) {
+          this.shoppingListDto.ingredients.push(msg.item!);
+        }
+        break;
       case ShoppingListUpdateType.MODIFY:
         const itemUpdate = this.shoppingListDto.ingredients.find((item) => item.id == msg!.shoppingListItemId);
-        itemUpdate!.checkedBy = msg.checkedBy!;
-        itemUpdate!.isChecked = msg.isChecked!;
-        itemUpdate!.ingredient.amount = msg.amount!;
-        itemUpdate!.ingredient.unit = msg.unit!;
-        this.getGroupedListOfIngredients();
+        if (!itemUpdate) {
+          this.fetchShoppingList(this.shoppingListId);
+          break;
+        }
+        itemUpdate.checkedBy = msg.checkedBy!;
+        itemUpdate.isChecked = msg.isChecked!;
+        itemUpdate.ingredient.amount = msg.amount!;
+        itemUpdate.ingredient.unit = msg.unit!;
         break;
       case ShoppingListUpdateType.CLOSED:
         this.toastr.info('Shopping list has been closed!');
@@ -174,9 +235,7 @@ export class DetailShoppingListComponent implements OnInit {
   fetchShoppingList(shoppingListId: number): void {
     this.shoppingListApiService.getShoppingListById(shoppingListId, this.shareToken).subscribe({
       next: (shoppingListDto: ShoppingListDto) => {
-        this.loadingShoppingList = false;
-        this.shoppingListDto = shoppingListDto;
-        this.getGroupedListOfIngredients();
+        this.onShoppingListLoaded(shoppingListDto);
       },
       error: (err) => {
         this.loadingShoppingList = false;
@@ -186,6 +245,13 @@ export class DetailShoppingListComponent implements OnInit {
     });
   }
 
+  onShoppingListLoaded(shoppingListDto: ShoppingListDto): void {
+    this.loadingShoppingList = false;
+    this.shoppingListDto = shoppingListDto;
+    this.lastSequenceNumber = shoppingListDto.sequenceNumber;
+    this.getGroupedListOfIngredients();
+  }
+
   getCategories(map: IngredientMap): IngredientCategory[] {
     return Object.keys(map).sort((a, b) => {
       if (a === IngredientCategory.Other) return 1;
@@ -268,7 +334,15 @@ export class DetailShoppingListComponent implements OnInit {
       .editShoppingList(this.shoppingListDto.id, shoppingListEditDto, this.shareToken)
       .subscribe({
         next: (data) => {
-          this.shoppingListDto = data;
+          // the response only contains the edited items
+          for (const editedItem of data.ingredients) {
+            const index = this.shoppingListDto.ingredients.findIndex((item) => item.id == editedItem.id);
+            if (index >= 0) {
+              this.shoppingListDto.ingredients[index] = editedItem;
+            }
+          }
+          this.shoppingListDto.itemCount = data.itemCount;
+          this.shoppingListDto.checkedItemCount = data.checkedItemCount;
           this.getGroupedListOfIngredients();
         },
         error: (err) => {
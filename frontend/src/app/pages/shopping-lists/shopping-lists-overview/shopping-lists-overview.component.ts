@@ -17,7 +17,8 @@ import {
   ShoppingListApiService,
   ShoppingListDto,
   ShoppingListListPaginatedDto,
-  ShoppingListStatus
+  ShoppingListStatus,
+  ShoppingListView
 } from "../../../../generated";
 
 @Component({
@@ -83,7 +84,8 @@ export class ShoppingListsOverviewComponent {
         this.pageSize,
         this.shoppingListSearchTerm,
         this.selectedShoppingListStatus,
-        this.menuIdOfSearchTerm
+        this.menuIdOfSearchTerm,
+        ShoppingListView.Summary
       )
       .subscribe({
         next: (data) => {
@@ -99,7 +101,7 @@ export class ShoppingListsOverviewComponent {
   }
 
   fetchShoppingListForSearchSuggestion(): void {
-    this.shoppingListApiService.searchShoppingLists(0, 5, this.shoppingListSearchTerm, undefined, undefined).subscribe({
+    this.shoppingListApiService.searchShoppingLists(0, 5, this.shoppingListSearchTerm, undefined, undefined, ShoppingListView.Summary).subscribe({
       next: (data) => {
         this.shoppingListSearchSuggestions = data.content.map((item) => item.name);
       },
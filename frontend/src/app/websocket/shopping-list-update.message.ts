@@ -1,4 +1,11 @@
-import { IngredientCategory, IngredientUnitDto } from '../../generated';
+import { IngredientCategory, IngredientUnitDto, ShoppingListIngredientDto } from '../../generated';
+
+export interface ShoppingListUpdateBatch {
+  shoppingListId: number;
+  firstSequenceNumber: number; // sequence numbers are consecutive per shopping list, a gap means updates were missed
+  sequenceNumber: number;
+  updates: ShoppingListUpdateMessage[];
+}
 
 export interface ShoppingListUpdateMessage {
   updateType: ShoppingListUpdateType; // This is required
@@ -10,10 +17,12 @@ export interface ShoppingListUpdateMessage {
   isChecked?: boolean | null;
   checkedBy?: string | null;
   category?: IngredientCategory | null;
+  item?: ShoppingListIngredientDto | null; // only set for ADD
 }
 
 export enum ShoppingListUpdateType {
   MODIFY = 'MODIFY',
+  ADD = 'ADD',
   RELOAD = 'RELOAD',
   CLOSED = 'CLOSED',
 }
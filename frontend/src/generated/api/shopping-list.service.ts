@@ -21,6 +21,10 @@ import { CloseShoppingListDto } from '../model/close-shopping-list-dto';
 // @ts-ignore
 import { ErrorResponse } from '../model/error-response';
 // @ts-ignore
+import { ShoppingListChangesDto } from '../model/shopping-list-changes-dto';
+// @ts-ignore
+import { ShoppingListConsolidatedCreateDto } from '../model/shopping-list-consolidated-create-dto';
+// @ts-ignore
 import { ShoppingListCreateDto } from '../model/shopping-list-create-dto';
 // @ts-ignore
 import { ShoppingListDto } from '../model/shopping-list-dto';
@@ -36,6 +40,8 @@ import { ShoppingListPreviewEntryDto } from '../model/shopping-list-preview-entr
 import { ShoppingListStatus } from '../model/shopping-list-status';
 // @ts-ignore
 import { ShoppingListTokenDto } from '../model/shopping-list-token-dto';
+// @ts-ignore
+import { ShoppingListView } from '../model/shopping-list-view';
 
 // @ts-ignore
 import { BASE_PATH, COLLECTION_FORMATS }                     from '../variables';
@@ -261,6 +267,21 @@ export class ShoppingListApiService implements ShoppingListApiServiceInterface {
         );
     }
 
+    /**
+     * Create one shopping list from snapshots of several menus of the same organization
+     * The missing ingredients of every menu are computed against its own stash and summed up. The shopping list belongs to the first menu.
+     * @param shoppingListConsolidatedCreateDto The details of the shopping list and the snapshots per menu
+     * @param observe set whether or not to return the data Observable as the body, response or events. defaults to returning the body.
+     * @param reportProgress flag to report request and response progress.
+     */
+    public createConsolidatedShoppingList(shoppingListConsolidatedCreateDto: ShoppingListConsolidatedCreateDto, observe?: 'body', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<ShoppingListDto>;
+    public createConsolidatedShoppingList(shoppingListConsolidatedCreateDto: ShoppingListConsolidatedCreateDto, observe?: 'response', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpResponse<ShoppingListDto>>;
+    public createConsolidatedShoppingList(shoppingListConsolidatedCreateDto: ShoppingListConsolidatedCreateDto, observe?: 'events', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpEvent<ShoppingListDto>>;
+    public createConsolidatedShoppingList(shoppingListConsolidatedCreateDto: ShoppingListConsolidatedCreateDto, observe: any = 'body', reportProgress: boolean = false, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<any> {
+        if (shoppingListConsolidatedCreateDto === null || shoppingListConsolidatedCreateDto === undefined) {
+            throw new Error('Required parameter shoppingListConsolidatedCreateDto was null or undefined when calling createConsolidatedShoppingList.');
+        }
+
     /**
      * Create a new shopping list
      * @param shoppingListCreateDto The details of the shopping list
@@ -557,6 +578,86 @@ export class ShoppingListApiService implements ShoppingListApiServiceInterface {
         );
     }
 
+    /**
+     * Get the changes of a shopping list after a sequence number, used by clients to catch up after missing updates
+     * @param id The ID of the shopping list
+     * @param since Sequence number of the last operation the client has seen
+     * @param token Optional token to be used by anonymous users
+     * @param observe set whether or not to return the data Observable as the body, response or events. defaults to returning the body.
+     * @param reportProgress flag to report request and response progress.
+     */
+    public getShoppingListChanges(id: number, since: number, token?: string, observe?: 'body', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<ShoppingListChangesDto>;
+    public getShoppingListChanges(id: number, since: number, token?: string, observe?: 'response', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpResponse<ShoppingListChangesDto>>;
+    public getShoppingListChanges(id: number, since: number, token?: string, observe?: 'events', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpEvent<ShoppingListChangesDto>>;
+    public getShoppingListChanges(id: number, since: number, token?: string, observe: any = 'body', reportProgress: boolean = false, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<any> {
+        if (id === null || id === undefined) {
+            throw new Error('Required parameter id was null or undefined when calling getShoppingListChanges.');
+        }
+        if (since === null || since === undefined) {
+            throw new Error('Required parameter since was null or undefined when calling getShoppingListChanges.');
+        }
+
+        let localVarQueryParameters = new HttpParams({encoder: this.encoder});
+        if (since !== undefined && since !== null) {
+          localVarQueryParameters = this.addToHttpParams(localVarQueryParameters,
+            <any>since, 'since');
+        }
+        if (token !== undefined && token !== null) {
+          localVarQueryParameters = this.addToHttpParams(localVarQueryParameters,
+            <any>token, 'token');
+        }
+
+        let localVarHeaders = this.defaultHeaders;
+
+        let localVarHttpHeaderAcceptSelected: string | undefined = options && options.httpHeaderAccept;
+        if (localVarHttpHeaderAcceptSelected === undefined) {
+            // to determine the Accept header
+            const httpHeaderAccepts: string[] = [
+                'application/json'
+            ];
+            localVarHttpHeaderAcceptSelected = this.configuration.selectHeaderAccept(httpHeaderAccepts);
+        }
+        if (localVarHttpHeaderAcceptSelected !== undefined) {
+            localVarHeaders = localVarHeaders.set('Accept', localVarHttpHeaderAcceptSelected);
+        }
+
+        let localVarHttpContext: HttpContext | undefined = options && options.context;
+        if (localVarHttpContext === undefined) {
+            localVarHttpContext = new HttpContext();
+        }
+
+        let localVarTransferCache: boolean | undefined = options && options.transferCache;
+        if (localVarTransferCache === undefined) {
+            localVarTransferCache = true;
+        }
+
+
+        let responseType_: 'text' | 'json' | 'blob' = 'json';
+        if (localVarHttpHeaderAcceptSelected) {
+            if (localVarHttpHeaderAcceptSelected.startsWith('text')) {
+                responseType_ = 'text';
+            } else if (this.configuration.isJsonMime(localVarHttpHeaderAcceptSelected)) {
+                responseType_ = 'json';
+            } else {
+                responseType_ = 'blob';
+            }
+        }
+
+        let localVarPath = `/shopping-lists/${this.configuration.encodeParam({name: "id", value: id, in: "path", style: "simple", explode: false, dataType: "number", dataFormat: "int64"})}/changes`;
+        return this.httpClient.request<ShoppingListChangesDto>('get', `${this.configuration.basePath}${localVarPath}`,
+            {
+                context: localVarHttpContext,
+                params: localVarQueryParameters,
+                responseType: <any>responseType_,
+                withCredentials: this.configuration.withCredentials,
+                headers: localVarHeaders,
+                observe: observe,
+                transferCache: localVarTransferCache,
+                reportProgress: reportProgress
+            }
+        );
+    }
+
     /**
      * perform same computations as for the shopping list but preview which ingredients will be used.
      * @param shoppingListCreateDto The details of the shopping list
@@ -638,13 +739,14 @@ export class ShoppingListApiService implements ShoppingListApiServiceInterface {
      * @param name The name of the shopping list (supports partial match)
      * @param status Filter by shopping list status
      * @param menuId Filter by associated menuId of shopping list
+     * @param view SUMMARY returns the shopping lists without their ingredients, only with the item counts
      * @param observe set whether or not to return the data Observable as the body, response or events. defaults to returning the body.
      * @param reportProgress flag to report request and response progress.
      */
-    public searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, observe?: 'body', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<ShoppingListListPaginatedDto>;
-    public searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, observe?: 'response', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpResponse<ShoppingListListPaginatedDto>>;
-    public searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, observe?: 'events', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpEvent<ShoppingListListPaginatedDto>>;
-    public searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, observe: any = 'body', reportProgress: boolean = false, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<any> {
+    public searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, view?: ShoppingListView, observe?: 'body', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<ShoppingListListPaginatedDto>;
+    public searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, view?: ShoppingListView, observe?: 'response', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpResponse<ShoppingListListPaginatedDto>>;
+    public searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, view?: ShoppingListView, observe?: 'events', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpEvent<ShoppingListListPaginatedDto>>;
+    public searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, view?: ShoppingListView, observe: any = 'body', reportProgress: boolean = false, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<any> {
 
         let localVarQueryParameters = new HttpParams({encoder: this.encoder});
         if (page !== undefined && page !== null) {
@@ -667,6 +769,10 @@ export class ShoppingListApiService implements ShoppingListApiServiceInterface {
           localVarQueryParameters = this.addToHttpParams(localVarQueryParameters,
             <any>menuId, 'menuId');
         }
+        if (view !== undefined && view !== null) {
+          localVarQueryParameters = this.addToHttpParams(localVarQueryParameters,
+            <any>view, 'view');
+        }
 
         let localVarHeaders = this.defaultHeaders;
 
@@ -13,6 +13,8 @@ import { Observable }                                        from 'rxjs';
 
 import { CloseShoppingListDto } from '../model/models';
 import { ErrorResponse } from '../model/models';
+import { ShoppingListChangesDto } from '../model/models';
+import { ShoppingListConsolidatedCreateDto } from '../model/models';
 import { ShoppingListCreateDto } from '../model/models';
 import { ShoppingListDto } from '../model/models';
 import { ShoppingListEditDto } from '../model/models';
@@ -21,6 +23,7 @@ import { ShoppingListListPaginatedDto } from '../model/models';
 import { ShoppingListPreviewEntryDto } from '../model/models';
 import { ShoppingListStatus } from '../model/models';
 import { ShoppingListTokenDto } from '../model/models';
+import { ShoppingListView } from '../model/models';
 
 
 import { Configuration }                                     from '../configuration';
@@ -47,6 +50,13 @@ export interface ShoppingListApiServiceInterface {
      */
     closeShoppingList(id: number, extraHttpRequestParams?: any): Observable<CloseShoppingListDto>;
 
+    /**
+     * Create one shopping list from snapshots of several menus of the same organization
+     * The missing ingredients of every menu are computed against its own stash and summed up. The shopping list belongs to the first menu.
+     * @param shoppingListConsolidatedCreateDto The details of the shopping list and the snapshots per menu
+     */
+    createConsolidatedShoppingList(shoppingListConsolidatedCreateDto: ShoppingListConsolidatedCreateDto, extraHttpRequestParams?: any): Observable<ShoppingListDto>;
+
     /**
      * Create a new shopping list
      * 
@@ -78,6 +88,15 @@ export interface ShoppingListApiServiceInterface {
      */
     getShoppingListById(id: number, token?: string, extraHttpRequestParams?: any): Observable<ShoppingListDto>;
 
+    /**
+     * Get the changes of a shopping list after a sequence number, used by clients to catch up after missing updates
+     * 
+     * @param id The ID of the shopping list
+     * @param since Sequence number of the last operation the client has seen
+     * @param token Optional token to be used by anonymous users
+     */
+    getShoppingListChanges(id: number, since: number, token?: string, extraHttpRequestParams?: any): Observable<ShoppingListChangesDto>;
+
     /**
      * perform same computations as for the shopping list but preview which ingredients will be used.
      * 
@@ -93,7 +112,8 @@ export interface ShoppingListApiServiceInterface {
      * @param name The name of the shopping list (supports partial match)
      * @param status Filter by shopping list status
      * @param menuId Filter by associated menuId of shopping list
+     * @param view SUMMARY returns the shopping lists without their ingredients, only with the item counts
      */
-    searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, extraHttpRequestParams?: any): Observable<ShoppingListListPaginatedDto>;
+    searchShoppingLists(page?: number, size?: number, name?: string, status?: ShoppingListStatus, menuId?: number, view?: ShoppingListView, extraHttpRequestParams?: any): Observable<ShoppingListListPaginatedDto>;
 
 }
@@ -29,8 +29,10 @@ export interface StashApiServiceInterface {
      * 
      * 
      * @param id 
+     * @param sinceVersion Version the client already knows, only the entries changed since are returned if possible. See complete in the response.
+     * @param ifNoneMatch Standard conditional header, give an ETAG here. See the 304 response status.
      */
-    getStash(id: number, extraHttpRequestParams?: any): Observable<StashResponseDto>;
+    getStash(id: number, sinceVersion?: number, ifNoneMatch?: string, extraHttpRequestParams?: any): Observable<StashResponseDto>;
 
     /**
      * 
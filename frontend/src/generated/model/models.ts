@@ -52,6 +52,8 @@ export * from './recipe-visibility';
 export * from './replace-ingredient-request';
 export * from './reset-password-commit-request-dto';
 export * from './respond-to-invitation-request';
+export * from './shopping-list-changes-dto';
+export * from './shopping-list-consolidated-create-dto';
 export * from './shopping-list-create-dto';
 export * from './shopping-list-dto';
 export * from './shopping-list-edit-dto';
@@ -59,9 +61,13 @@ export * from './shopping-list-ingredient-add-dto';
 export * from './shopping-list-ingredient-dto';
 export * from './shopping-list-ingredient-edit-dto';
 export * from './shopping-list-list-paginated-dto';
+export * from './shopping-list-menu-selection-dto';
+export * from './shopping-list-operation-dto';
+export * from './shopping-list-operation-type-dto';
 export * from './shopping-list-preview-entry-dto';
 export * from './shopping-list-status';
 export * from './shopping-list-token-dto';
+export * from './shopping-list-view';
 export * from './snapshot-create-dto';
 export * from './snapshot-in-menu-dto';
 export * from './sort';
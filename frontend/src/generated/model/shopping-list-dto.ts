@@ -27,9 +27,21 @@ export interface ShoppingListDto {
      */
     menuId?: number;
     /**
-     * List of ingredients included in the shopping list
+     * List of ingredients included in the shopping list, empty in the summary view
      */
     ingredients: Array<ShoppingListIngredientDto>;
+    /**
+     * Number of items in the shopping list
+     */
+    itemCount?: number;
+    /**
+     * Number of checked off items in the shopping list
+     */
+    checkedItemCount?: number;
+    /**
+     * Sequence number of the last operation included, only set for single shopping lists
+     */
+    sequenceNumber?: number;
 }
 
 
@@ -22,5 +22,9 @@ export interface StashResponseDto {
      * ID of the organization to which the stash belongs, for menu stashes its the menu\'s organization
      */
     correspondingOrganizationId: number;
+    /**
+     * False if ingredients only holds the entries changed since the requested version, entries not listed are unchanged
+     */
+    complete?: boolean;
 }
 
@@ -0,0 +1,18 @@
+package dev.heinisch.menumaestro.configuration;
+
+import dev.heinisch.menumaestro.domain.menu.SnapshotEvaluationExecutor;
+import dev.heinisch.menumaestro.properties.MenuComputationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MenuComputationConfiguration {
+
+    @Bean
+    public SnapshotEvaluationExecutor snapshotEvaluationExecutor(MenuComputationProperties properties) {
+        int parallelism = properties.getSnapshotParallelism() == 0
+                ? Runtime.getRuntime().availableProcessors()
+                : properties.getSnapshotParallelism();
+        return SnapshotEvaluationExecutor.bounded(parallelism, properties.getParallelSnapshotThreshold());
+    }
+}
@@ -0,0 +1,15 @@
+package dev.heinisch.menumaestro.configuration;
+
+import dev.heinisch.menumaestro.domain.menu.MenuMetadataCache;
+import dev.heinisch.menumaestro.properties.MenuMetadataCacheProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MenuMetadataCacheConfiguration {
+
+    @Bean
+    public MenuMetadataCache menuMetadataCache(MenuMetadataCacheProperties properties) {
+        return new MenuMetadataCache(properties.getMaxEntries());
+    }
+}
@@ -49,6 +49,7 @@ public class IngredientDataGenerator {
                     .parent(i.parent_ingredient == null ? null : parentStore.get(i.parent_ingredient))
                     .status(IngredientStatus.PUBLIC)
                     .defaultUnit(IngredientUnit.valueOf(i.default_unit))
+                    .density(i.density)
                     .build();
             parentStore.put(i.name, ingredientRepository.save(entity));
         }
@@ -62,6 +63,7 @@ public class IngredientDataGenerator {
     @ToString
     private static class IngredientJsonObject {
         private String name, category, parent_ingredient, default_unit;
+        private Double density;
     }
 
 }
@@ -47,6 +47,15 @@ public class ShoppingListEndpoint implements ShoppingListApi {
         return ResponseEntity.ok(shoppingListService.createShoppingList(shoppingListCreateDto));
     }
 
+    @Override
+    @PreAuthorize("hasRole('ROLE_ADMIN') or (hasRole('ROLE_USER') and @organizationService.hasPermissionForOrganization(#shoppingListConsolidatedCreateDto.organizationId, principal, 'PLANNER'))")
+    public ResponseEntity<ShoppingListDto> createConsolidatedShoppingList(ShoppingListConsolidatedCreateDto shoppingListConsolidatedCreateDto) {
+        log.info("POST /shopping-lists/consolidated");
+        log.debug("Request-Body: {}", shoppingListConsolidatedCreateDto);
+        validateConsolidatedCreateDto(shoppingListConsolidatedCreateDto);
+        return ResponseEntity.ok(shoppingListService.createConsolidatedShoppingList(shoppingListConsolidatedCreateDto));
+    }
+
     @Override
     @PreAuthorize("hasRole('ROLE_ADMIN') or (hasRole('ROLE_USER') and @organizationService.hasPermissionsForShoppingList(#id, principal, 'SHOPPER'))")
     public ResponseEntity<ShoppingListTokenDto> createShoppingListToken(Long id) {
@@ -63,6 +72,16 @@ public class ShoppingListEndpoint implements ShoppingListApi {
         return ResponseEntity.ok(shoppingListService.getShoppingListById(id));
     }
 
+    @Override
+    @PreAuthorize("hasRole('ROLE_ADMIN') or @jwtService.isValidShoppingListToken(#id, #token) or (hasRole('ROLE_USER') and @organizationService.hasPermissionsForShoppingList(#id, principal, 'MEMBER'))")
+    public ResponseEntity<ShoppingListChangesDto> getShoppingListChanges(Long id, Long since, String token) {
+        log.info("GET /shopping-lists/{}/changes?since={}&token={}", id, since, StringUtils.isBlank(token) ? "<null>" : "<present>");
+        PropertyChecker.begin()
+            .checkThat(since, "since").notNull().notNegative().done()
+            .finalize(ValidationException::fromPropertyChecker);
+        return ResponseEntity.ok(shoppingListService.getShoppingListChanges(id, since));
+    }
+
     @Override
     @PreAuthorize("hasRole('ROLE_ADMIN') or @jwtService.isValidShoppingListToken(#id, #token) or (hasRole('ROLE_USER') and @organizationService.hasPermissionsForShoppingList(#id, principal, 'SHOPPER'))")
     public ResponseEntity<ShoppingListDto> editShoppingList(Long id, ShoppingListEditDto shoppingListEditDto, String token) {
@@ -82,21 +101,27 @@ public class ShoppingListEndpoint implements ShoppingListApi {
 
     @Override
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
-    public ResponseEntity<ShoppingListListPaginatedDto> searchShoppingLists(Integer page, Integer size, String name, ShoppingListStatus status, Long menuId) {
+    public ResponseEntity<ShoppingListListPaginatedDto> searchShoppingLists(Integer page, Integer size, String name, ShoppingListStatus status, Long menuId, ShoppingListView view) {
         log.info("GET /shopping-lists");
-        log.debug("Search-Params: name={} status={} menuId={} page={} size={}", name, status, menuId, page, size);
+        log.debug("Search-Params: name={} status={} menuId={} view={} page={} size={}", name, status, menuId, view, page, size);
 
         Pageable p = page == null && size == null
                 ? Pageable.unpaged()
                 : PageRequest.of(page == null ? 0 : page, size == null ? 20 : size);
+        boolean summary = view == ShoppingListView.SUMMARY;
 
         if (SecurityContextHolder.getContext().getAuthentication()
                 .getAuthorities().stream()
                 .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"))) {
-            ShoppingListListPaginatedDto result = shoppingListMapper.mapPageable(shoppingListService.searchShoppingListsAsAdmin(name, status, menuId, p));
+            ShoppingListListPaginatedDto result = shoppingListMapper.mapPageable(summary
+                    ? shoppingListService.searchShoppingListSummariesAsAdmin(name, status, menuId, p)
+                    : shoppingListService.searchShoppingListsAsAdmin(name, status, menuId, p));
             return ResponseEntity.ok(result);
         }
-        ShoppingListListPaginatedDto result = shoppingListMapper.mapPageable(shoppingListService.searchShoppingLists(name, status, menuId, SecurityContextHolder.getContext().getAuthentication().getName(), p));
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        ShoppingListListPaginatedDto result = shoppingListMapper.mapPageable(summary
+                ? shoppingListService.searchShoppingListSummaries(name, status, menuId, username, p)
+                : shoppingListService.searchShoppingLists(name, status, menuId, username, p));
         return ResponseEntity.ok(result);
     }
 
@@ -138,4 +163,18 @@ public class ShoppingListEndpoint implements ShoppingListApi {
             .done()
             .finalize(ValidationException::fromPropertyChecker);
     }
+
+    private void validateConsolidatedCreateDto(ShoppingListConsolidatedCreateDto dto) {
+        PropertyChecker.begin()
+            .append(ShoppingListConstraints.validShoppingListName(dto.getName()))
+            .checkThat(dto.getOrganizationId(), "organizationId").notNull().done()
+            .checkThat(dto.getMenus(), "menus").notNull().notEmpty()
+            .forEach((c, menu) -> c
+                .checkThat(menu.getMenuId(), "menus[].menuId").notNull().done()
+                .checkThat(menu.getSnapshotIds(), "menus[].snapshotIds").notNull()
+                .forEach((c2, i) -> c2.checkThat(i, "menus[].snapshotIds[].id").notNull())
+                .done())
+            .done()
+            .finalize(ValidationException::fromPropertyChecker);
+    }
 }
@@ -35,10 +35,17 @@ public class StashEndpoint implements StashApi {
             or (hasRole('ROLE_USER')
                 and @organizationService.hasPermissionsForStash(#id, authentication.principal, 'MEMBER'))
             """)
-    public ResponseEntity<StashResponseDto> getStash(Long id) {
+    public ResponseEntity<StashResponseDto> getStash(Long id, Long sinceVersion, String ifNoneMatch) {
         log.info("GET /stash/{}", id);
-        StashResponseDto stash = stashService.getStash(id);
-        return ResponseEntity.ok().header("ETag", stash.getVersionNumber()).body(stash);
+        if (ifNoneMatch != null) {
+            // polling clients mostly hold the current version, which is told without loading the entries
+            String versionNumber = stashService.getStashVersion(id).toString();
+            if (matchesAnyETag(ifNoneMatch, versionNumber)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versionNumber).build();
+            }
+        }
+        StashResponseDto stash = stashService.getStash(id, sinceVersion);
+        return ResponseEntity.ok().eTag(stash.getVersionNumber()).body(stash);
     }
 
     @Override
@@ -95,6 +102,23 @@ public class StashEndpoint implements StashApi {
         return ResponseEntity.ok(stashService.searchStashes(name, username, PageRequest.of(page, size)));
     }
 
+    /**
+     * @param ifNoneMatch comma separated, possibly weak or quoted, entity tags or '*'
+     */
+    boolean matchesAnyETag(String ifNoneMatch, String versionNumber) {
+        for (String eTag : ifNoneMatch.split(",")) {
+            eTag = eTag.trim();
+            if (eTag.startsWith("W/")) {
+                eTag = eTag.substring(2);
+            }
+            eTag = eTag.replace("\"", "");
+            if (eTag.equals("*") || eTag.equals(versionNumber)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     void validateStashUpdateRequest(Long id, List<IngredientUseCreateEditDto> body) {
         PropertyChecker.begin()
                 .checkThat(id, "stash id").notNull().done()
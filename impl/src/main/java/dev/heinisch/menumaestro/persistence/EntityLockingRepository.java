@@ -1,12 +1,29 @@
 package dev.heinisch.menumaestro.persistence;
 
+import dev.heinisch.menumaestro.properties.EntityLockingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 
 @Repository
@@ -15,6 +32,14 @@ public class EntityLockingRepository {
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final EntityLockingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public EntityLockingRepository(EntityLockingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Finds and locks the entity with PESSIMISTIC_WRITE.
      * @param entityClass identifies the entity type.
@@ -26,4 +51,119 @@ public class EntityLockingRepository {
     public <E> Optional<E> lockEntity(Class<E> entityClass, long id, int timeoutMilliseconds) {
         return Optional.ofNullable(entityManager.find(entityClass, id, LockModeType.PESSIMISTIC_WRITE, Map.of("javax.persistence.lock.timeout", timeoutMilliseconds)));
     }
+
+    /**
+     * Finds and locks the entity with PESSIMISTIC_READ, which other readers may hold at the same time.
+     * Keeps the entity from changing until the transaction ends, without serializing the readers.
+     * @param entityClass identifies the entity type.
+     * @param id of the entity, only long id supported.
+     * @param timeoutMilliseconds how long to wait before throwing
+     * @return an optional of the entity.
+     * @param <E> type of the entity.
+     */
+    public <E> Optional<E> lockEntityShared(Class<E> entityClass, long id, int timeoutMilliseconds) {
+        return Optional.ofNullable(entityManager.find(entityClass, id, LockModeType.PESSIMISTIC_READ, Map.of("javax.persistence.lock.timeout", timeoutMilliseconds)));
+    }
+
+    /**
+     * Finds and locks the entities with PESSIMISTIC_WRITE in one statement, in ascending id order. As long as entities
+     * of a type are only locked together through this method, transactions cannot deadlock on them.
+     * <br>
+     * An attempt that times out is rolled back to a savepoint and retried after a jittered backoff, until the configured
+     * attempts are used up. Pending changes are flushed before, so rolling back to the savepoint only undoes the attempt.
+     * Postgres ignores the lock timeout hint, there it is set as {@code lock_timeout} for the locking statement.
+     * Wait times and retries are recorded per entity type.
+     * @param entityClass identifies the entity type.
+     * @param ids of the entities, only long ids supported.
+     * @param timeoutMilliseconds how long a single attempt waits before it is retried
+     * @return the locked entities by id in ascending order, ids without entity are missing.
+     * @param <E> type of the entity.
+     * @throws org.springframework.dao.PessimisticLockingFailureException if the last attempt timed out
+     */
+    public <E> Map<Long, E> lockEntities(Class<E> entityClass, Collection<Long> ids, int timeoutMilliseconds) {
+        List<Long> sortedIds = ids.stream().distinct().sorted().toList();
+        String entity = entityClass.getSimpleName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        entityManager.flush();
+        for (int attempt = 1; ; attempt++) {
+            boolean lastAttempt = attempt >= properties.getAttempts();
+            Savepoint savepoint = lastAttempt ? null : unwrapSession().doReturningWork(Connection::setSavepoint);
+            try {
+                List<E> entities = findAndLock(entityClass, sortedIds, timeoutMilliseconds);
+                if (savepoint != null) {
+                    unwrapSession().doWork(connection -> connection.releaseSavepoint(savepoint));
+                }
+                sample.stop(meterRegistry.timer("menumaestro.locking.wait", "entity", entity, "outcome", "acquired"));
+                return toMapById(entities);
+            } catch (LockTimeoutException e) {
+                if (lastAttempt) {
+                    sample.stop(meterRegistry.timer("menumaestro.locking.wait", "entity", entity, "outcome", "timeout"));
+                    throw e;
+                }
+                unwrapSession().doWork(connection -> connection.rollback(savepoint));
+                meterRegistry.counter("menumaestro.locking.retries", "entity", entity).increment();
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    private <E> List<E> findAndLock(Class<E> entityClass, List<Long> sortedIds, int timeoutMilliseconds) {
+        if (!isPostgres()) {
+            return findAndLockWithHint(entityClass, sortedIds, timeoutMilliseconds);
+        }
+        String previousLockTimeout = (String) entityManager.createNativeQuery("SELECT current_setting('lock_timeout')")
+                .getSingleResult();
+        setLockTimeout(timeoutMilliseconds + "ms");
+        // on a timeout the transaction is rolled back to the savepoint, which also resets the lock timeout
+        List<E> entities = findAndLockWithHint(entityClass, sortedIds, timeoutMilliseconds);
+        setLockTimeout(previousLockTimeout);
+        return entities;
+    }
+
+    private void setLockTimeout(String lockTimeout) {
+        entityManager.createNativeQuery("SELECT set_config('lock_timeout', ?1, true)")
+                .setParameter(1, lockTimeout)
+                .getSingleResult();
+    }
+
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    private <E> List<E> findAndLockWithHint(Class<E> entityClass, List<Long> sortedIds, int timeoutMilliseconds) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<E> query = criteriaBuilder.createQuery(entityClass);
+        Root<E> root = query.from(entityClass);
+        query.select(root)
+                .where(root.get("id").in(sortedIds))
+                .orderBy(criteriaBuilder.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout", timeoutMilliseconds)
+                .getResultList();
+    }
+
+    private <E> Map<Long, E> toMapById(List<E> entities) {
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Long, E> entitiesById = new LinkedHashMap<>();
+        for (E entity : entities) {
+            entitiesById.put((Long) persistenceUnitUtil.getIdentifier(entity), entity);
+        }
+        return entitiesById;
+    }
+
+    private void backoff(int attempt, LockTimeoutException cause) {
+        long backoff = Math.min(properties.getBackoff().toMillis() << Math.min(attempt - 1, 16), properties.getMaxBackoff().toMillis());
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    private Session unwrapSession() {
+        return entityManager.unwrap(Session.class);
+    }
 }
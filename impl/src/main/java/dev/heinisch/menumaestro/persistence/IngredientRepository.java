@@ -54,10 +54,18 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
         SET ingredient_id = :ingredientIdWhichReplaces
         WHERE ingredient_id = :ingredientIdToReplace;
 
+        UPDATE stash
+        SET version_number = version_number + 1, last_removal_version = version_number + 1
+        WHERE id IN (SELECT stash_id FROM stash_entry WHERE ingredient_id = :ingredientIdToReplace);
+
         UPDATE stash_entry
         SET ingredient_id = :ingredientIdWhichReplaces
         WHERE ingredient_id = :ingredientIdToReplace;
 
+        UPDATE stash_movement
+        SET ingredient_id = :ingredientIdWhichReplaces
+        WHERE ingredient_id = :ingredientIdToReplace;
+
         DELETE FROM ingredient
         WHERE id = :ingredientIdToReplace;
     """, nativeQuery = true)
@@ -92,9 +100,16 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
     DELETE FROM recipe_ingredient_use
     WHERE ingredient_id = :ingredientId;
 
+    UPDATE stash
+    SET version_number = version_number + 1, last_removal_version = version_number + 1
+    WHERE id IN (SELECT stash_id FROM stash_entry WHERE ingredient_id = :ingredientId);
+
     DELETE FROM stash_entry
     WHERE ingredient_id = :ingredientId;
 
+    DELETE FROM stash_movement
+    WHERE ingredient_id = :ingredientId;
+
     DELETE FROM ingredient
     WHERE id = :ingredientId;
 
@@ -5,6 +5,7 @@ import dev.heinisch.menumaestro.domain.menu.MenuStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -34,4 +35,11 @@ public interface MenuRepository extends JpaRepository<Menu, Long> {
     Menu findByMealId(Long mealId);
 
     void deleteAllByOrganizationId(Long organizationId);
+
+    /**
+     * Atomic increment, so that concurrent changes to the same menu never end up with the same content version.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE menu SET content_version = content_version + 1 WHERE id = ?1", nativeQuery = true)
+    void incrementContentVersion(Long menuId);
 }
@@ -0,0 +1,236 @@
+package dev.heinisch.menumaestro.persistence;
+
+import dev.heinisch.menumaestro.properties.PostgresNotificationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Postgres LISTEN/NOTIFY between the replicas, with a single listener connection per replica shared by all
+ * {@link Listener}s.
+ * <br>
+ * Postgres delivers a notification only when the notifying transaction commits, so {@link #notify(String, String)}
+ * is called within the transaction whose changes the other replicas should learn about. Listeners only receive the
+ * notifications of other replicas. The listener holds one connection of the pool for its lifetime and only runs once
+ * a listener is registered.
+ */
+@Slf4j
+@Component
+public class PostgresNotifications implements SmartLifecycle {
+
+    // postgres rejects notification payloads of 8000 bytes and more
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    /**
+     * Notified by this replica itself to wake up its listener, which then picks up changed channels right away.
+     */
+    private final String wakeUpChannel = "wake_up_" + instanceId.replace("-", "");
+
+    private final PostgresNotificationProperties properties;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile Thread listenerThread;
+
+    /**
+     * Receives the notifications of other replicas on the channels it asks for.
+     */
+    public interface Listener {
+
+        /**
+         * Channels to listen on, asked for again whenever the listener wakes up.
+         */
+        Set<String> channels();
+
+        void onNotification(String channel, String payload);
+
+        /**
+         * Called once this listener's channels are listened on, again after each reconnect,
+         * as notifications might have been missed in between.
+         */
+        default void onListening() {
+        }
+    }
+
+    public PostgresNotifications(PostgresNotificationProperties properties, DataSource dataSource) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public synchronized void register(Listener listener) {
+        listeners.add(listener);
+        if (running && listenerThread == null) {
+            startListenerThread();
+        } else {
+            wakeUp();
+        }
+    }
+
+    /**
+     * Notifies the other replicas once the current transaction commits.
+     */
+    public void notify(String channel, String payload) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payload(payload));
+    }
+
+    /**
+     * Whether the payload is small enough to be sent by {@link #notify(String, String)}.
+     */
+    public boolean fits(String payload) {
+        return payload(payload).getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES;
+    }
+
+    /**
+     * Lets the listener pick up changed {@link Listener#channels()} now instead of after its listen timeout.
+     * Notifications committed before the listener got to LISTEN are not received.
+     */
+    public void wakeUp() {
+        if (listenerThread == null) {
+            return;
+        }
+        try {
+            notify(wakeUpChannel, "");
+        } catch (DataAccessException e) {
+            log.debug("Could not wake up the notification listener, it picks up changed channels after its listen timeout", e);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        if (!listeners.isEmpty()) {
+            startListenerThread();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void startListenerThread() {
+        listenerThread = Thread.ofPlatform()
+                .name("postgres-notification-listener")
+                .daemon()
+                .start(this::listen);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + wakeUpChannel);
+                }
+                Map<String, Listener> listening = new HashMap<>();
+                Set<Listener> listeningListeners = new HashSet<>();
+                log.info("Listening for notifications of other replicas");
+                while (running) {
+                    updateListening(connection, listening, listeningListeners);
+                    PGNotification[] notifications = pgConnection.getNotifications((int) properties.getListenTimeout().toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification, listening);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost connection for notifications of other replicas, reconnecting", e);
+                try {
+                    Thread.sleep(properties.getReconnectDelay());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Listens on the channels all listeners currently ask for, and only on those.
+     */
+    private void updateListening(Connection connection, Map<String, Listener> listening, Set<Listener> listeningListeners) throws SQLException {
+        Map<String, Listener> wanted = new HashMap<>();
+        for (Listener listener : listeners) {
+            listener.channels().forEach(channel -> wanted.putIfAbsent(channel, listener));
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (Map.Entry<String, Listener> channel : wanted.entrySet()) {
+                if (listening.put(channel.getKey(), channel.getValue()) == null) {
+                    statement.execute("LISTEN " + channel.getKey());
+                }
+            }
+            for (Iterator<String> iterator = listening.keySet().iterator(); iterator.hasNext(); ) {
+                String channel = iterator.next();
+                if (!wanted.containsKey(channel)) {
+                    statement.execute("UNLISTEN " + channel);
+                    iterator.remove();
+                }
+            }
+        }
+        for (Listener listener : listeners) {
+            if (listeningListeners.add(listener)) {
+                listener.onListening();
+            }
+        }
+    }
+
+    private void onNotification(PGNotification notification, Map<String, Listener> listening) {
+        String payload = notification.getParameter();
+        int separator = payload.indexOf('\n');
+        if (separator < 0 || instanceId.equals(payload.substring(0, separator))) {
+            return;
+        }
+        Listener listener = listening.get(notification.getName());
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.onNotification(notification.getName(), payload.substring(separator + 1));
+        } catch (RuntimeException e) {
+            log.warn("Could not handle notification of another replica on channel {}", notification.getName(), e);
+        }
+    }
+
+    private String payload(String payload) {
+        return instanceId + "\n" + payload;
+    }
+}
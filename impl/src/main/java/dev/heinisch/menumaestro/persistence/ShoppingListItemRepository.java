@@ -2,10 +2,39 @@ package dev.heinisch.menumaestro.persistence;
 
 import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface ShoppingListItemRepository extends JpaRepository<ShoppingListItem, Long> {
 
     List<ShoppingListItem> findShoppingListItemsByCheckedByAccountUsername(String username);
+
+    boolean existsByIdAndShoppingListId(Long id, Long shoppingListId);
+
+    /**
+     * Checks off an item of an open shopping list, unless it is already checked. Only the item row is locked,
+     * so shoppers checking off different items of the same list never wait for each other.
+     *
+     * @return 0 if the item is already checked, not part of the shopping list or the list is closed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE shopping_list_item SET is_checked = true, checked_by_account_username = ?3
+                WHERE id = ?2 AND shopping_list_id = ?1 AND is_checked = false
+                AND EXISTS (SELECT 1 FROM shopping_list sl WHERE sl.id = ?1 AND sl.is_closed = false)
+            """, nativeQuery = true)
+    int checkOff(Long shoppingListId, Long itemId, String username);
+
+    /**
+     * @return 0 if the item is not part of the shopping list or the list is closed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE shopping_list_item SET is_checked = false, checked_by_account_username = NULL
+                WHERE id = ?2 AND shopping_list_id = ?1
+                AND EXISTS (SELECT 1 FROM shopping_list sl WHERE sl.id = ?1 AND sl.is_closed = false)
+            """, nativeQuery = true)
+    int uncheck(Long shoppingListId, Long itemId);
 }
@@ -0,0 +1,69 @@
+package dev.heinisch.menumaestro.persistence;
+
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ShoppingListOperationRepository extends JpaRepository<ShoppingListOperation, Long> {
+
+    interface OperationSequence {
+        long getLastSequenceNumber();
+
+        /**
+         * Operations up to and including this sequence number have been removed from the log.
+         */
+        long getCompactedSequenceNumber();
+    }
+
+    List<ShoppingListOperation> findByShoppingListIdAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(Long shoppingListId, Long sequenceNumber);
+
+    @Query(value = """
+            SELECT last_sequence_number AS lastSequenceNumber, compacted_sequence_number AS compactedSequenceNumber
+                FROM shopping_list_op_sequence WHERE shopping_list_id = ?1
+            """, nativeQuery = true)
+    Optional<OperationSequence> findOperationSequence(Long shoppingListId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO shopping_list_op_sequence (shopping_list_id, last_sequence_number, compacted_sequence_number)
+                VALUES (?1, 0, 0)
+            """, nativeQuery = true)
+    void createOperationSequence(Long shoppingListId);
+
+    /**
+     * Reserves the next {@code count} sequence numbers of the shopping list. The counter row stays locked until the
+     * transaction ends, so operations of a list are committed in sequence order.
+     *
+     * @return 0 if the shopping list has no sequence yet
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE shopping_list_op_sequence SET last_sequence_number = last_sequence_number + ?2
+                WHERE shopping_list_id = ?1
+            """, nativeQuery = true)
+    int reserveSequenceNumbers(Long shoppingListId, int count);
+
+    /**
+     * Marks everything but the last {@code retainedOperations} operations of every list as compacted.
+     * Must run before {@link #deleteCompactedOperations()}, so readers never miss operations without noticing.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE shopping_list_op_sequence SET compacted_sequence_number = last_sequence_number - :retainedOperations
+                WHERE last_sequence_number - :retainedOperations > compacted_sequence_number
+            """, nativeQuery = true)
+    int markCompacted(@Param("retainedOperations") long retainedOperations);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            DELETE FROM shopping_list_op WHERE sequence_number <= (
+                SELECT s.compacted_sequence_number FROM shopping_list_op_sequence s
+                    WHERE s.shopping_list_id = shopping_list_op.shopping_list_id)
+            """, nativeQuery = true)
+    int deleteCompactedOperations();
+}
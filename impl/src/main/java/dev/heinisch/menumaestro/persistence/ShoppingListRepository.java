@@ -1,6 +1,7 @@
 package dev.heinisch.menumaestro.persistence;
 
 import dev.heinisch.menumaestro.domain.shopping_list.ShoppingList;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
@@ -33,10 +35,68 @@ public interface ShoppingListRepository extends JpaRepository<ShoppingList, Long
            """)
     Page<ShoppingList> searchShoppingListsByNameAndShoppingListStatusAdmin(String name, Boolean isClosed, Long menuId, Pageable pageable);
 
+    @Query(value = """
+           SELECT new dev.heinisch.menumaestro.domain.shopping_list.ShoppingListSummary(
+                    sl.id, sl.name, sl.isClosed, sl.organizationId, sl.menuId,
+                    COUNT(i.id), COALESCE(SUM(CASE WHEN i.isChecked = true THEN 1L ELSE 0L END), 0L))
+             FROM ShoppingList sl LEFT JOIN sl.items i
+             WHERE (LOWER(sl.name) LIKE LOWER(CONCAT('%', :name, '%')) OR :name IS NULL)
+               AND (:isClosed IS NULL OR
+                    (sl.isClosed = :isClosed))
+               AND (sl.organizationId in :organizationIds)
+               AND (:menuId IS NULL OR sl.menuId = :menuId)
+             GROUP BY sl.id, sl.name, sl.isClosed, sl.organizationId, sl.menuId
+             ORDER BY sl.isClosed ASC, sl.name ASC
+           """, countQuery = """
+           SELECT COUNT(sl) FROM ShoppingList sl
+             WHERE (LOWER(sl.name) LIKE LOWER(CONCAT('%', :name, '%')) OR :name IS NULL)
+               AND (:isClosed IS NULL OR
+                    (sl.isClosed = :isClosed))
+               AND (sl.organizationId in :organizationIds)
+               AND (:menuId IS NULL OR sl.menuId = :menuId)
+           """)
+    Page<ShoppingListSummary> searchShoppingListSummaries(String name, Boolean isClosed, Long menuId, Set<Long> organizationIds, Pageable pageable);
+
+    @Query(value = """
+           SELECT new dev.heinisch.menumaestro.domain.shopping_list.ShoppingListSummary(
+                    sl.id, sl.name, sl.isClosed, sl.organizationId, sl.menuId,
+                    COUNT(i.id), COALESCE(SUM(CASE WHEN i.isChecked = true THEN 1L ELSE 0L END), 0L))
+             FROM ShoppingList sl LEFT JOIN sl.items i
+             WHERE (LOWER(sl.name) LIKE LOWER(CONCAT('%', :name, '%')) OR :name IS NULL)
+               AND (:isClosed IS NULL OR
+                    (sl.isClosed = :isClosed))
+               AND (:menuId IS NULL OR sl.menuId = :menuId)
+             GROUP BY sl.id, sl.name, sl.isClosed, sl.organizationId, sl.menuId
+             ORDER BY sl.isClosed ASC, sl.name ASC
+           """, countQuery = """
+           SELECT COUNT(sl) FROM ShoppingList sl
+             WHERE (LOWER(sl.name) LIKE LOWER(CONCAT('%', :name, '%')) OR :name IS NULL)
+               AND (:isClosed IS NULL OR
+                    (sl.isClosed = :isClosed))
+               AND (:menuId IS NULL OR sl.menuId = :menuId)
+           """)
+    Page<ShoppingListSummary> searchShoppingListSummariesAdmin(String name, Boolean isClosed, Long menuId, Pageable pageable);
+
+    /**
+     * The summary of a single shopping list, without loading its items.
+     */
+    @Query("""
+           SELECT new dev.heinisch.menumaestro.domain.shopping_list.ShoppingListSummary(
+                    sl.id, sl.name, sl.isClosed, sl.organizationId, sl.menuId,
+                    COUNT(i.id), COALESCE(SUM(CASE WHEN i.isChecked = true THEN 1L ELSE 0L END), 0L))
+             FROM ShoppingList sl LEFT JOIN sl.items i
+             WHERE sl.id = :id
+             GROUP BY sl.id, sl.name, sl.isClosed, sl.organizationId, sl.menuId
+           """)
+    Optional<ShoppingListSummary> findSummaryById(Long id);
+
     @Query("SELECT COUNT(*) FROM ShoppingList  sl WHERE sl.menuId = :menuId AND sl.isClosed = false")
     long existsShoppingListForMenu(Long menuId);
 
 
     @Query("SELECT distinct sl from ShoppingList sl WHERE sl.menuId = :menuId")
     List<ShoppingList> getShoppingListByMenuId(Long menuId);
+
+    @Query("SELECT sl.isClosed FROM ShoppingList sl WHERE sl.id = ?1")
+    Optional<Boolean> findIsClosedById(Long id);
 }
@@ -1,12 +1,18 @@
 package dev.heinisch.menumaestro.persistence;
 
 import dev.heinisch.menumaestro.domain.stash.StashEntry;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * For almost all cases, use {@link StashRepository} instead.
  */
 @Repository
 public interface StashEntryRepository extends CrudRepository<StashEntry, Long> {
+
+    @Query("SELECT e FROM StashEntry e WHERE e.id.stashId = ?1 AND e.versionNumber > ?2")
+    List<StashEntry> findChangedSince(Long stashId, Long sinceVersion);
 }
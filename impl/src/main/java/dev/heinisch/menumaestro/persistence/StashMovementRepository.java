@@ -0,0 +1,25 @@
+package dev.heinisch.menumaestro.persistence;
+
+import dev.heinisch.menumaestro.domain.stash.StashMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StashMovementRepository extends JpaRepository<StashMovement, Long> {
+
+    List<StashMovement> findByStashIdAndCompactedFalseOrderByIdAsc(Long stashId);
+
+    List<StashMovement> findByStashIdOrderByIdAsc(Long stashId);
+
+    @Query("SELECT DISTINCT m.stashId FROM StashMovement m WHERE m.compacted = false")
+    List<Long> findStashIdsWithPendingMovements(Pageable pageable);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StashMovement m SET m.compacted = true WHERE m.id IN :ids")
+    int markCompacted(@Param("ids") Collection<Long> ids);
+}
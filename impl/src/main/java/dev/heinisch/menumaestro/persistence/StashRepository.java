@@ -51,6 +51,16 @@ public interface StashRepository extends JpaRepository<Stash, Long> {
             """)
     Page<StashIdName> searchByName(String stashName, String username, Set<String> orgRoles, Pageable pageable);
 
+    /**
+     * Version of an unlocked stash as shown to clients, the pending movements count as the versions compacting them will add.
+     */
+    @Query("""
+            SELECT s.versionNumber + (SELECT COUNT(m) FROM StashMovement m WHERE m.stashId = s.id AND m.compacted = false)
+            FROM Stash s
+            WHERE s.id = ?1 AND s.locked = false
+            """)
+    Optional<Long> findVisibleVersion(Long stashId);
+
     @EntityGraph("Stash.aggregate")
     @Query("SELECT s FROM Stash s WHERE s.id = ?1")
     Optional<Stash> findByIdFetchAggregate(Long id);
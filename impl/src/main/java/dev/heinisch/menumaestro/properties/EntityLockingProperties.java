@@ -0,0 +1,33 @@
+package dev.heinisch.menumaestro.properties;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "menumaestro.entity-locking")
+public class EntityLockingProperties {
+
+    /**
+     * How often locking several entities at once is attempted before the lock timeout is passed on to the caller.
+     */
+    @Positive
+    private int attempts = 3;
+
+    /**
+     * Backoff before the second attempt, doubled for every further attempt up to {@link #maxBackoff}.
+     * The actual delay is drawn at random between half of it and all of it, so competing transactions spread out.
+     */
+    @NotNull
+    private Duration backoff = Duration.ofMillis(20);
+
+    @NotNull
+    private Duration maxBackoff = Duration.ofMillis(200);
+}
@@ -0,0 +1,25 @@
+package dev.heinisch.menumaestro.properties;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "menumaestro.ingredient-cache")
+public class IngredientCacheProperties {
+
+    /**
+     * Notify other replicas about ingredient changes via postgres LISTEN/NOTIFY. Requires a postgres database.
+     */
+    private boolean crossReplicaInvalidation = false;
+
+    /**
+     * Postgres notification channel shared by all replicas.
+     */
+    @NotBlank
+    private String notificationChannel = "ingredient_changed";
+}
@@ -0,0 +1,28 @@
+package dev.heinisch.menumaestro.properties;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "menumaestro.menu-computation")
+public class MenuComputationProperties {
+
+    /**
+     * Maximum number of snapshots of one menu that are evaluated at the same time, shared by all requests.
+     * 0 uses the number of available processors, 1 evaluates all snapshots on the request thread.
+     */
+    @PositiveOrZero
+    private int snapshotParallelism = 0;
+
+    /**
+     * Menus with fewer snapshots than this are evaluated on the request thread.
+     */
+    @Positive
+    private int parallelSnapshotThreshold = 8;
+}
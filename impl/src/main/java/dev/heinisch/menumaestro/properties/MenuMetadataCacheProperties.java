@@ -0,0 +1,20 @@
+package dev.heinisch.menumaestro.properties;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "menumaestro.menu-metadata-cache")
+public class MenuMetadataCacheProperties {
+
+    /**
+     * Number of menus whose computed metadata is kept, least recently used menus are evicted first.
+     */
+    @Positive
+    private int maxEntries = 256;
+}
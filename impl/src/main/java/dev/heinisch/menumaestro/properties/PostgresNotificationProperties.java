@@ -0,0 +1,29 @@
+package dev.heinisch.menumaestro.properties;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "menumaestro.postgres-notifications")
+public class PostgresNotificationProperties {
+
+    /**
+     * How long the listener waits for notifications before checking its connection again.
+     * Changed channels are picked up right away, the listener is woken up for them.
+     */
+    @NotNull
+    private Duration listenTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Delay before the listener reconnects after losing its connection.
+     */
+    @NotNull
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+}
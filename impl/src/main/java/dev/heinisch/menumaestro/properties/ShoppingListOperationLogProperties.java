@@ -0,0 +1,21 @@
+package dev.heinisch.menumaestro.properties;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "menumaestro.shopping-list-operation-log")
+public class ShoppingListOperationLogProperties {
+
+    /**
+     * Number of most recent operations kept per shopping list when the log is compacted.
+     * Clients that are further behind receive a full snapshot of the list instead.
+     */
+    @Positive
+    private long retainedOperations = 500;
+}
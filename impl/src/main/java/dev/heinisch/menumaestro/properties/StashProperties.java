@@ -0,0 +1,54 @@
+package dev.heinisch.menumaestro.properties;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "menumaestro.stash")
+public class StashProperties {
+
+    @NotNull @Valid
+    private CompactionProperties compaction = new CompactionProperties();
+
+    public enum CompactionMode {
+        /**
+         * Movements are folded into the stash entries by the transaction that records them, under an exclusive lock of the stash.
+         */
+        IMMEDIATE,
+        /**
+         * Shopping list closes and completed meals only append movements under a shared lock of the stash,
+         * a scheduled job folds them into the stash entries. Everything reading the stash folds in the pending movements,
+         * and each of them counts towards the stash version as it will once compacted.
+         */
+        BACKGROUND
+    }
+
+    @Getter @Setter @Validated
+    public static class CompactionProperties {
+
+        @NotNull
+        private CompactionMode mode = CompactionMode.BACKGROUND;
+
+        /**
+         * Delay between two runs of the background compaction.
+         */
+        @NotNull
+        private Duration interval = Duration.ofSeconds(5);
+
+        /**
+         * Maximum number of stashes compacted per run.
+         */
+        @Positive
+        private int maxStashesPerRun = 100;
+    }
+}
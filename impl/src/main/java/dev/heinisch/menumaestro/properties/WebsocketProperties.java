@@ -1,13 +1,18 @@
 package dev.heinisch.menumaestro.properties;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
 import java.util.List;
 
 @Getter
@@ -25,10 +30,81 @@ public class WebsocketProperties {
     @NotNull @Valid
     private TopicProperties topics;
 
+    @NotNull @Valid
+    private BrokerProperties broker = new BrokerProperties();
+
+    @NotNull @Valid
+    private SessionProperties session = new SessionProperties();
+
+    @NotNull @Valid
+    private AuthorizationCacheProperties authorizationCache = new AuthorizationCacheProperties();
+
 
     @Getter @Setter @Validated
     public static class TopicProperties {
 
         private String shoppingListTopicPrefix;
     }
+
+    public enum BrokerType {
+        /**
+         * Only subscribers connected to the same replica receive updates.
+         */
+        LOCAL,
+        /**
+         * Updates are relayed between replicas via postgres LISTEN/NOTIFY. Requires a postgres database.
+         */
+        POSTGRES
+    }
+
+    @Getter @Setter @Validated
+    public static class BrokerProperties {
+
+        @NotNull
+        private BrokerType type = BrokerType.LOCAL;
+
+        /**
+         * Prefix of the postgres notification channels, followed by the shopping list id.
+         */
+        @NotBlank
+        @Pattern(regexp = "[a-z_][a-z0-9_]*")
+        private String channelPrefix = "shopping_list_";
+    }
+
+    @Getter @Setter @Validated
+    public static class SessionProperties {
+
+        /**
+         * Maximum size of the messages buffered for a session while sending to it, the session is closed beyond.
+         */
+        @NotNull
+        private DataSize sendBufferSizeLimit = DataSize.ofKilobytes(512);
+
+        /**
+         * Maximum time a single send to a session may take, the session is closed beyond.
+         */
+        @NotNull
+        private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+        /**
+         * Number of shopping list updates that may be waiting to be sent to a session. Further updates for a
+         * subscription of a session that fell behind are collapsed into a single RELOAD, sent once there is room again.
+         */
+        @Min(1)
+        private int maxPendingMessages = 16;
+    }
+
+    @Getter @Setter @Validated
+    public static class AuthorizationCacheProperties {
+
+        /**
+         * How long a granted subscription is remembered per token and shopping list. Bounds how long a removed member
+         * may still subscribe through another replica, which does not see the removal.
+         */
+        @NotNull
+        private Duration ttl = Duration.ofSeconds(30);
+
+        @Min(0)
+        private int maxEntries = 10_000;
+    }
 }
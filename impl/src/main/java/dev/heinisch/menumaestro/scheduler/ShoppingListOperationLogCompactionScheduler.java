@@ -0,0 +1,24 @@
+package dev.heinisch.menumaestro.scheduler;
+
+import dev.heinisch.menumaestro.service.ShoppingListOperationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShoppingListOperationLogCompactionScheduler {
+
+    private final ShoppingListOperationService shoppingListOperationService;
+
+    /**
+     * Runs every hour to drop old operations of the shopping list operation logs
+     */
+    @Scheduled(cron = "0 0 * * * *")
+    public void compactOperationLogs() {
+        log.debug("Running scheduled compaction of shopping list operation logs");
+        shoppingListOperationService.compact();
+    }
+}
@@ -0,0 +1,37 @@
+package dev.heinisch.menumaestro.scheduler;
+
+import dev.heinisch.menumaestro.properties.StashProperties;
+import dev.heinisch.menumaestro.service.StashService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StashMovementCompactionScheduler {
+
+    private final StashService stashService;
+    private final StashProperties stashProperties;
+
+    /**
+     * Folds pending stash movements into the stash entries, each stash in its own transaction.
+     * Stashes that are locked by another transaction are left for the next run.
+     */
+    @Scheduled(fixedDelayString = "${menumaestro.stash.compaction.interval:5s}")
+    public void compactStashMovements() {
+        if (stashProperties.getCompaction().getMode() != StashProperties.CompactionMode.BACKGROUND) {
+            return;
+        }
+        for (Long stashId : stashService.findStashesToCompact()) {
+            try {
+                int compacted = stashService.compactMovements(stashId);
+                log.debug("Compacted {} movements of stash {}", compacted, stashId);
+            } catch (PessimisticLockingFailureException e) {
+                log.debug("Stash {} is locked, compacting it in the next run", stashId);
+            }
+        }
+    }
+}
@@ -50,6 +50,7 @@ public class AccountService {
     private final OrganizationService organizationService;
     private final ImageRepository imageRepository;
     private final ShoppingListItemRepository shoppingListItemRepository;
+    private final ShoppingListAuthorizationCache shoppingListAuthorizationCache;
 
     @Transactional
     public AccountInfoDto createAccount(AccountCreateRequestDto dto) {
@@ -185,6 +186,7 @@ public class AccountService {
             }
             organizationAccountRelationRepository.delete(member);
         }
+        shoppingListAuthorizationCache.invalidateAccount(username);
         List<ImageRecord> images = imageRepository.findImageRecordsByUploadedBy(username).stream().toList();
         for (ImageRecord image : images) {
             image.setUploadedBy("Deleted User");
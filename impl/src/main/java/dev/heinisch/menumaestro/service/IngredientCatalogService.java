@@ -0,0 +1,69 @@
+package dev.heinisch.menumaestro.service;
+
+import dev.heinisch.menumaestro.domain.ingredient.PrefetchedIngredientCatalog;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingList;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListItem;
+import dev.heinisch.menumaestro.domain.stash.Stash;
+import dev.heinisch.menumaestro.domain.stash.StashEntry;
+import dev.heinisch.menumaestro.domain.stash.StashMovement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Creates ingredient catalogs that load all ingredients of an aggregate with one {@code findAllById},
+ * which is mostly served by the {@link IngredientReferenceCache}.
+ */
+@Slf4j
+@Service
+public class IngredientCatalogService {
+
+    private final IngredientReferenceCache ingredientReferenceCache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public IngredientCatalogService(IngredientReferenceCache ingredientReferenceCache, MeterRegistry meterRegistry) {
+        this.ingredientReferenceCache = ingredientReferenceCache;
+        this.hits = meterRegistry.counter("menumaestro.ingredients.catalog", "result", "hit");
+        this.misses = meterRegistry.counter("menumaestro.ingredients.catalog", "result", "miss");
+    }
+
+    public PrefetchedIngredientCatalog forStash(Stash stash) {
+        return forIngredientIds(Stream.concat(stash.getEntries().stream().map(StashEntry::getIngredientId),
+                        stash.getPendingMovements().stream().map(StashMovement::getIngredientId))
+                .collect(Collectors.toSet()));
+    }
+
+    public PrefetchedIngredientCatalog forShoppingList(ShoppingList shoppingList) {
+        return forIngredientIds(shoppingList.getItems().stream()
+                .map(ShoppingListItem::getIngredientId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+    }
+
+    public PrefetchedIngredientCatalog forIngredientIds(Set<Long> ingredientIds) {
+        return new PrefetchedIngredientCatalog(ingredientIds, ingredientReferenceCache::findAllById,
+                id -> ingredientReferenceCache.findById(id).orElseThrow());
+    }
+
+    /**
+     * Counts the hits and misses of the catalog, misses point to an incomplete prefetch and are logged with the request.
+     */
+    public void logUsage(String request, PrefetchedIngredientCatalog catalog) {
+        hits.increment(catalog.getHits());
+        misses.increment(catalog.getMisses());
+        if (catalog.getMisses() > 0) {
+            log.debug("Ingredient catalog for {}: {} hits, {} misses, {} prefetched", request,
+                    catalog.getHits(), catalog.getMisses(), catalog.getPrefetched());
+        } else {
+            log.trace("Ingredient catalog for {}: {} hits, {} prefetched", request,
+                    catalog.getHits(), catalog.getPrefetched());
+        }
+    }
+}
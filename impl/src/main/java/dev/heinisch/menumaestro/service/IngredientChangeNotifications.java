@@ -0,0 +1,66 @@
+package dev.heinisch.menumaestro.service;
+
+import dev.heinisch.menumaestro.domain.menu.MenuMetadataCache;
+import dev.heinisch.menumaestro.persistence.PostgresNotifications;
+import dev.heinisch.menumaestro.properties.IngredientCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Keeps the ingredient caches of all replicas coherent via {@link PostgresNotifications}.
+ * The caches are also invalidated whenever the listener (re)connects, as notifications might have been missed.
+ */
+@Slf4j
+@Component
+public class IngredientChangeNotifications implements PostgresNotifications.Listener {
+
+    private final IngredientCacheProperties properties;
+    private final IngredientReferenceCache ingredientReferenceCache;
+    private final MenuMetadataCache menuMetadataCache;
+    private final PostgresNotifications notifications;
+
+    public IngredientChangeNotifications(IngredientCacheProperties properties,
+                                         IngredientReferenceCache ingredientReferenceCache,
+                                         MenuMetadataCache menuMetadataCache,
+                                         PostgresNotifications notifications) {
+        this.properties = properties;
+        this.ingredientReferenceCache = ingredientReferenceCache;
+        this.menuMetadataCache = menuMetadataCache;
+        this.notifications = notifications;
+        if (properties.isCrossReplicaInvalidation()) {
+            notifications.register(this);
+        }
+    }
+
+    /**
+     * Notifies the other replicas once the current transaction commits.
+     */
+    public void publish() {
+        if (properties.isCrossReplicaInvalidation()) {
+            notifications.notify(properties.getNotificationChannel(), "");
+        }
+    }
+
+    @Override
+    public Set<String> channels() {
+        return Set.of(properties.getNotificationChannel());
+    }
+
+    @Override
+    public void onNotification(String channel, String payload) {
+        invalidateCaches();
+    }
+
+    @Override
+    public void onListening() {
+        invalidateCaches();
+    }
+
+    private void invalidateCaches() {
+        log.debug("Invalidating ingredient caches after change on another replica");
+        ingredientReferenceCache.invalidate();
+        menuMetadataCache.invalidateAll();
+    }
+}
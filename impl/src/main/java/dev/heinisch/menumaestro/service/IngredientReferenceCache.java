@@ -0,0 +1,141 @@
+package dev.heinisch.menumaestro.service;
+
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.persistence.IngredientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable snapshot of the ingredient table, which only changes through {@link IngredientService}.
+ * Readers never lock, writers replace the whole snapshot after their transaction committed.
+ * <br>
+ * Every read returns detached copies of the cached ingredients, so a caller changing them does not affect other readers.
+ * They must never be attached to other entities.
+ * Ids that are not in the snapshot (e.g. ingredients committed by another replica that did not notify yet)
+ * are loaded from the database.
+ */
+@Slf4j
+@Component
+public class IngredientReferenceCache {
+
+    private final IngredientRepository ingredientRepository;
+    private final TransactionTemplate loadTransaction;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public IngredientReferenceCache(IngredientRepository ingredientRepository, PlatformTransactionManager transactionManager) {
+        this.ingredientRepository = ingredientRepository;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+    }
+
+    public Optional<Ingredient> findById(Long id) {
+        Ingredient ingredient = snapshot().byId().get(id);
+        return ingredient != null ? Optional.of(copy(ingredient)) : ingredientRepository.findById(id);
+    }
+
+    public List<Ingredient> findAllById(Collection<Long> ids) {
+        Map<Long, Ingredient> byId = snapshot().byId();
+        List<Ingredient> ingredients = new ArrayList<>(ids.size());
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            Ingredient ingredient = byId.get(id);
+            if (ingredient != null) {
+                ingredients.add(copy(ingredient));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            ingredients.addAll(ingredientRepository.findAllById(missing));
+        }
+        return ingredients;
+    }
+
+    /**
+     * Drops the current snapshot, the next reader loads a new one.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * Replaces the snapshot once the current transaction committed, so the new snapshot contains its changes.
+     */
+    public void refreshAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate();
+                snapshot();
+            }
+        });
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    private synchronized Snapshot load() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        long loadedGeneration = generation.get();
+        Snapshot loaded = loadTransaction.execute(status -> Snapshot.of(ingredientRepository.findAll()));
+        // an invalidation during the load may not be contained in the loaded data, so it is only used for this read
+        if (generation.get() == loadedGeneration) {
+            snapshot = loaded;
+        }
+        log.debug("Loaded ingredient snapshot with {} ingredients", loaded.byId().size());
+        return loaded;
+    }
+
+    /**
+     * Children are left out, they are lazy and cannot be loaded for a detached ingredient anyway.
+     */
+    private static Ingredient copy(Ingredient ingredient) {
+        if (ingredient == null) {
+            return null;
+        }
+        return Ingredient.builder()
+                .id(ingredient.getId())
+                .name(ingredient.getName())
+                .defaultUnit(ingredient.getDefaultUnit())
+                .status(ingredient.getStatus())
+                .username(ingredient.getUsername())
+                .category(ingredient.getCategory())
+                .density(ingredient.getDensity())
+                .parent(copy(ingredient.getParent()))
+                .build();
+    }
+
+    private record Snapshot(Map<Long, Ingredient> byId) {
+
+        static Snapshot of(List<Ingredient> ingredients) {
+            Map<Long, Ingredient> byId = new HashMap<>(ingredients.size() * 2);
+            for (Ingredient ingredient : ingredients) {
+                byId.put(ingredient.getId(), copy(ingredient));
+            }
+            return new Snapshot(Map.copyOf(byId));
+        }
+    }
+}
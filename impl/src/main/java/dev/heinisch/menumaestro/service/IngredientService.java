@@ -5,6 +5,7 @@ import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientCategory;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientStatus;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import dev.heinisch.menumaestro.domain.menu.MenuMetadataCache;
 import dev.heinisch.menumaestro.exceptions.NotFoundException;
 import dev.heinisch.menumaestro.exceptions.ValidationException;
 import dev.heinisch.menumaestro.mapper.IngredientMapper;
@@ -20,6 +21,8 @@ import org.openapitools.model.ReplaceIngredientRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +33,9 @@ public class IngredientService {
     private final AccountService accountService;
     private final AccountRepository accountRepository;
     private final EmailService emailService;
+    private final MenuMetadataCache menuMetadataCache;
+    private final IngredientReferenceCache ingredientReferenceCache;
+    private final IngredientChangeNotifications ingredientChangeNotifications;
 
     @Transactional
     public IngredientDto approveIngredient(Long ingredientId) {
@@ -39,6 +45,7 @@ public class IngredientService {
         if (requesterEMail != null) {
             emailService.ingredientAcceptNotification(requesterEMail, ingredient.getName());
         }
+        ingredientsChanged();
         return ingredientMapper.toIngredientDto(ingredient);
     }
 
@@ -52,7 +59,8 @@ public class IngredientService {
             emailService.sendIngredientRejectNotification(email, ingredient.getName(), null);
         }
         ingredientRepository.deleteIngredientAndReferences(ingredientId);
-
+        ingredientsChanged();
+        invalidateMenuMetadataAfterCommit();
     }
     @Transactional
     public Page<IngredientDtoWithCategory> findAllRequestedIngredients(Pageable p) {
@@ -75,7 +83,9 @@ public class IngredientService {
                 .defaultUnit(IngredientUnit.valueOf(createIngredientDto.getDefaultUnit().getValue()))
                 .build();
 
-        return ingredientMapper.toIngredientDto(ingredientRepository.save(ingredient));
+        ingredient = ingredientRepository.save(ingredient);
+        ingredientsChanged();
+        return ingredientMapper.toIngredientDto(ingredient);
     }
 
     @Transactional
@@ -99,12 +109,34 @@ public class IngredientService {
             ingredientRepository.deleteIngredientAndReferences(willBeReplaced.getId());
             replacementName = null;
         }
+        ingredientsChanged();
+        invalidateMenuMetadataAfterCommit();
         if (requesterEmail != null) {
             emailService.sendIngredientRejectNotification(requesterEmail, willBeReplaced.getName(), replacementName);
         }
         return ingredientMapper.toIngredientDto(replaces);
     }
 
+    /**
+     * Replaces the ingredient snapshot of this replica after commit and notifies the other replicas.
+     */
+    private void ingredientsChanged() {
+        ingredientReferenceCache.refreshAfterCommit();
+        ingredientChangeNotifications.publish();
+    }
+
+    /**
+     * Meals of any menu might have referenced the ingredient, and the native queries do not bump any menu or stash version.
+     */
+    private void invalidateMenuMetadataAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                menuMetadataCache.invalidateAll();
+            }
+        });
+    }
+
     private String getEmailOfRequestingUser(Ingredient ingredient) {
         return accountRepository.findById(ingredient.getUsername()).map(Account::getEmail).orElse(null);
     }
@@ -121,7 +153,9 @@ public class IngredientService {
                 .defaultUnit(IngredientUnit.valueOf(createIngredientDto.getDefaultUnit().getValue()))
                 .build();
 
-        return ingredientMapper.toIngredientDto(ingredientRepository.save(ingredient));
+        ingredient = ingredientRepository.save(ingredient);
+        ingredientsChanged();
+        return ingredientMapper.toIngredientDto(ingredient);
     }
 
     @Transactional
@@ -7,11 +7,11 @@ import dev.heinisch.menumaestro.domain.menu.Menu;
 import dev.heinisch.menumaestro.domain.menu.MenuComputationService;
 import dev.heinisch.menumaestro.domain.recipe.RecipeValue;
 import dev.heinisch.menumaestro.domain.menu.MenuStatus;
+import dev.heinisch.menumaestro.domain.stash.StashMovementSource;
 import dev.heinisch.menumaestro.exceptions.ConflictException;
 import dev.heinisch.menumaestro.exceptions.NotFoundException;
 import dev.heinisch.menumaestro.exceptions.ValidationException;
 import dev.heinisch.menumaestro.mapper.MealMapper;
-import dev.heinisch.menumaestro.persistence.IngredientRepository;
 import dev.heinisch.menumaestro.persistence.MealRepository;
 import dev.heinisch.menumaestro.persistence.MenuRepository;
 import lombok.RequiredArgsConstructor;
@@ -33,7 +33,7 @@ public class MealService {
     private final MenuRepository menuRepository;
     private final MealMapper mealMapper;
     private final MenuComputationService menuComputationService;
-    private final IngredientRepository ingredientRepository;
+    private final IngredientCatalogService ingredientCatalogService;
     private final StashService stashService;
     private final RecipeValueCreateService recipeValueCreateService;
     private final IngredientComputationService ingredientComputationService;
@@ -43,7 +43,9 @@ public class MealService {
         Meal meal = mealRepository.findById(id).orElseThrow(() -> new NotFoundException(String.format("Meal with id '%d' not found!", id)));
 
 
-        menuComputationService.computeMetadata(meal.getMenu(), iid -> ingredientRepository.findById(iid).orElseThrow());
+        var ingredientCatalog = ingredientCatalogService.forStash(meal.getMenu().getStash());
+        menuComputationService.computeMetadata(meal.getMenu(), ingredientCatalog);
+        ingredientCatalogService.logUsage("meal " + id, ingredientCatalog);
         return mealMapper.toMealDto(meal);
     }
 
@@ -64,9 +66,10 @@ public class MealService {
             List<IngredientUse> ingredients =
              ingredientComputationService.ingredientsOfOpenMeals(List.of(meal))
                     .map(i -> i.scale(1, -1)).toList();
-            stashService.addToStash(menu.getStash().getId(),ingredients);
+            stashService.addToStash(menu.getStash().getId(), ingredients, StashMovementSource.MEAL_DONE, meal.getId());
         }
         meal.setIsDone(done);
+        menuRepository.incrementContentVersion(meal.getMenu().getId());
     }
 
     @Transactional
@@ -75,6 +78,7 @@ public class MealService {
                 .orElseThrow(() -> new NotFoundException(String.format("Meal with id '%d' not found!", id)));
         Menu menu = menuRepository.findByMealId(id);
         menu.removeMeal(meal);
+        menuRepository.incrementContentVersion(menu.getId());
     }
 
     @Transactional
@@ -93,7 +97,10 @@ public class MealService {
             RecipeValue recipeValue = recipeValueCreateService.validateAndCreateNewRecipeValue(mealEditDto.getRecipe());
             meal.setRecipe(recipeValue);
         }
-        menuComputationService.computeMetadata(meal.getMenu(), iid -> ingredientRepository.findById(iid).orElseThrow());
+        menuRepository.incrementContentVersion(meal.getMenu().getId());
+        var ingredientCatalog = ingredientCatalogService.forStash(meal.getMenu().getStash());
+        menuComputationService.computeMetadataWithoutCache(meal.getMenu(), ingredientCatalog);
+        ingredientCatalogService.logUsage("editing meal " + id, ingredientCatalog);
         return mealMapper.toMealDto(mealRepository.save(meal));
     }
 }
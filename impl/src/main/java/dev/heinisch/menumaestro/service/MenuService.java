@@ -19,7 +19,6 @@ import dev.heinisch.menumaestro.mapper.MenuMapper;
 import dev.heinisch.menumaestro.mapper.OrganizationMapper;
 import dev.heinisch.menumaestro.mapper.util.EnumsMapper;
 import dev.heinisch.menumaestro.persistence.EntityLockingRepository;
-import dev.heinisch.menumaestro.persistence.IngredientRepository;
 import dev.heinisch.menumaestro.persistence.MealRepository;
 import dev.heinisch.menumaestro.persistence.MenuRepository;
 import dev.heinisch.menumaestro.persistence.OrganizationRepository;
@@ -47,7 +46,7 @@ public class MenuService {
     private final OrganizationRepository organizationRepository;
     private final RecipeRepository recipeRepository;
     private final MealRepository mealRepository;
-    private final IngredientRepository ingredientRepository;
+    private final IngredientCatalogService ingredientCatalogService;
     private final IngredientMapper ingredientMapper;
     private final MenuMapper menuMapper;
     private final OrganizationMapper organizationMapper;
@@ -93,6 +92,7 @@ public class MenuService {
                 .numberOfPeople(menu.getNumberOfPeople())
                 .build();
         mealRepository.save(meal);
+        menuRepository.incrementContentVersion(id);
     }
 
     @Transactional
@@ -117,6 +117,7 @@ public class MenuService {
             throw new ValidationException("Incorrect snapshot position provided!");
         }
         menu.addMenuItem(snapshot);
+        menuRepository.incrementContentVersion(id);
     }
 
     @Transactional
@@ -136,6 +137,7 @@ public class MenuService {
         } else {
             menu.removeSnapshot((Snapshot)snapshot.get());
         }
+        menuRepository.incrementContentVersion(menuId);
     }
 
     @Transactional
@@ -163,7 +165,9 @@ public class MenuService {
     public MenuDetailDto getMenuById(Long id) {
         Menu menu = menuRepository.findById(id)
                 .orElseThrow(() -> NotFoundException.forEntityAndId("Menu", id));
-        menuComputationService.computeMetadata(menu, iid -> ingredientRepository.findById(iid).orElseThrow());
+        var ingredientCatalog = ingredientCatalogService.forStash(menu.getStash());
+        menuComputationService.computeMetadata(menu, ingredientCatalog);
+        ingredientCatalogService.logUsage("menu " + id, ingredientCatalog);
         var dto = menuMapper.toMenuDetailDto(menu);
         dto.setOrganization(organizationMapper.toOrganizationSummaryDto(organizationRepository.findById(menu.getOrganizationId()).orElseThrow()));
         return dto;
@@ -231,6 +235,7 @@ public class MenuService {
             throw new ValidationException("The given item-list must contain exactly all items of the menu.");
         }
         menu.assignPositionFromItemIdList(itemIds);
+        menuRepository.incrementContentVersion(id);
     }
 
     @Transactional
@@ -252,14 +257,26 @@ public class MenuService {
         menu.setStatus(dev.heinisch.menumaestro.domain.menu.MenuStatus.CLOSED);
         Organization organization = organizationRepository.findById(menu.getOrganizationId())
             .orElseThrow();
-        List<ShoppingList> shoppingLists = shoppingListRepository.getShoppingListByMenuId(menu.getId()).stream().toList();
-        for (ShoppingList shoppingList : shoppingLists) {
-            shoppingListService.closeShoppingList(shoppingList.getId());
+        // locked in the order closing a single shopping list does, the list before the stash,
+        // and both stashes in id order before closing the lists adds to the menu stash
+        List<Long> shoppingListIds = shoppingListRepository.getShoppingListByMenuId(menu.getId()).stream()
+            .map(ShoppingList::getId)
+            .toList();
+        if (!shoppingListIds.isEmpty()) {
+            entityLocker.lockEntities(ShoppingList.class, shoppingListIds, 50);
         }
-        entityLocker.lockEntity(Stash.class, menu.getStash().getId(), 50)
-            .orElseThrow(() -> NotFoundException.forEntityAndId("Stash", menu.getStash().getId()));
-        entityLocker.lockEntity(Stash.class, organization.getStash().getId(), 50)
-            .orElseThrow(() -> NotFoundException.forEntityAndId("Stash", organization.getStash().getId()));
+        List<Long> stashIds = List.of(menu.getStash().getId(), organization.getStash().getId());
+        Map<Long, Stash> lockedStashes = entityLocker.lockEntities(Stash.class, stashIds, 50);
+        for (Long stashId : stashIds) {
+            if (!lockedStashes.containsKey(stashId)) {
+                throw NotFoundException.forEntityAndId("Stash", stashId);
+            }
+        }
+        for (Long shoppingListId : shoppingListIds) {
+            shoppingListService.closeShoppingList(shoppingListId);
+        }
+        // movements still pending would be stuck in the locked stash
+        stashService.compactMovements(menu.getStash().getId());
         List<IngredientUseCreateEditDto> transferList = new ArrayList<>();
         for (StashEntry entry : menu.getStash().getEntries()) {
             transferList.add(new IngredientUseCreateEditDto(entry.getIngredientId(),
@@ -267,5 +284,6 @@ public class MenuService {
         }
         stashService.moveStashIngredients(menu.getStash().getId(), organization.getStash().getId(), transferList);
         menu.getStash().setLocked(true);
+        menuRepository.incrementContentVersion(id);
     }
 }
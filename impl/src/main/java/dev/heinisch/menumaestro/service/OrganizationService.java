@@ -40,6 +40,7 @@ public class OrganizationService {
     private final OrganizationAccountRelationRepository organizationAccountRelationRepository;
     private final StashRepository stashRepository;
     private final MarkdownValidatorService markdownValidatorService;
+    private final ShoppingListAuthorizationCache shoppingListAuthorizationCache;
 
     @Transactional(readOnly = true)
     public Page<OrganizationSummaryDto> getOrganizationsByUsernameAndNameSubstring(String username, String nameSearchQuery, Pageable page) {
@@ -202,6 +203,7 @@ public class OrganizationService {
 
             // Delete the organization
             organizationRepository.delete(organization);
+            shoppingListAuthorizationCache.invalidateAll();
         } catch (DataIntegrityViolationException ex) {
             // If the foreign key constraint violation occurs, throw a 409 Conflict
             if (ex.getMessage().contains("fk_menu_organization_id")) {
@@ -261,6 +263,7 @@ public class OrganizationService {
         } else {
             organizationAccountRelationRepository.delete(relation);
         }
+        shoppingListAuthorizationCache.invalidateAccount(respondingUsername);
     }
 
     @Transactional
@@ -283,6 +286,7 @@ public class OrganizationService {
             throw new ConflictException("Cannot kick the owner of the organization!");
         }
         organizationAccountRelationRepository.delete(relation);
+        shoppingListAuthorizationCache.invalidateAccount(usernameToRemove);
     }
 
     @Transactional
@@ -305,5 +309,6 @@ public class OrganizationService {
             throw new ConflictException("Cannot change the role of owner of the organization!");
         }
         relation.setRole(OrganizationRole.valueOf(newRole.name()));
+        shoppingListAuthorizationCache.invalidateAccount(usernameToChangeRoleOf);
     }
 }
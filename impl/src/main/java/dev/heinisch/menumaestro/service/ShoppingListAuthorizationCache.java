@@ -0,0 +1,118 @@
+package dev.heinisch.menumaestro.service;
+
+import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU cache of granted shopping list subscriptions per token and shopping list, so clients reconnecting with
+ * the same token neither parse it again nor query their permissions. Denied subscriptions are not cached.
+ * <br>
+ * An entry lives until the configured ttl or the expiration of its token, whichever comes first. Changes to the
+ * memberships of an account drop its entries once they committed, other replicas only forget them after the ttl.
+ */
+@Component
+public class ShoppingListAuthorizationCache {
+
+    private final WebsocketProperties.AuthorizationCacheProperties properties;
+    private final Map<Key, Decision> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ShoppingListAuthorizationCache(WebsocketProperties websocketProperties, MeterRegistry meterRegistry) {
+        this.properties = websocketProperties.getAuthorizationCache();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Decision> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+        this.hits = meterRegistry.counter("menumaestro.websocket.authorization.cache", "result", "hit");
+        this.misses = meterRegistry.counter("menumaestro.websocket.authorization.cache", "result", "miss");
+    }
+
+    private record Key(String tokenHash, Long shoppingListId) {
+    }
+
+    /**
+     * @param username null for share tokens, which do not depend on memberships
+     */
+    private record Decision(String username, long expiresAt) {
+    }
+
+    public boolean isAuthorized(String token, Long shoppingListId) {
+        Key key = new Key(hash(token), shoppingListId);
+        synchronized (entries) {
+            Decision decision = entries.get(key);
+            if (decision != null && decision.expiresAt() > System.currentTimeMillis()) {
+                hits.increment();
+                return true;
+            }
+            if (decision != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return false;
+    }
+
+    public void storeAuthorized(String token, Long shoppingListId, String username, Date tokenExpiration) {
+        long expiresAt = Math.min(System.currentTimeMillis() + properties.getTtl().toMillis(), tokenExpiration.getTime());
+        Key key = new Key(hash(token), shoppingListId);
+        synchronized (entries) {
+            entries.put(key, new Decision(username, expiresAt));
+        }
+    }
+
+    /**
+     * Drops the entries of the account now and again after the current transaction committed, since subscriptions
+     * checked concurrently may still have stored what they read before.
+     */
+    public void invalidateAccount(String username) {
+        afterCommit(() -> {
+            synchronized (entries) {
+                entries.values().removeIf(decision -> Objects.equals(decision.username(), username));
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        afterCommit(() -> {
+            synchronized (entries) {
+                entries.clear();
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package dev.heinisch.menumaestro.service;
+
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListOperation;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListOperationType;
+import dev.heinisch.menumaestro.persistence.ShoppingListOperationRepository;
+import dev.heinisch.menumaestro.properties.ShoppingListOperationLogProperties;
+import dev.heinisch.menumaestro.websocket.ShoppingListUpdateMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Maintains the append-only operation log of shopping lists, which clients use to catch up on missed updates.
+ */
+@Slf4j
+@Service
+public class ShoppingListOperationService {
+
+    private final ShoppingListOperationRepository shoppingListOperationRepository;
+    private final ShoppingListOperationLogProperties shoppingListOperationLogProperties;
+    private final TransactionTemplate createSequenceTransaction;
+
+    public ShoppingListOperationService(ShoppingListOperationRepository shoppingListOperationRepository,
+                                        ShoppingListOperationLogProperties shoppingListOperationLogProperties,
+                                        PlatformTransactionManager transactionManager) {
+        this.shoppingListOperationRepository = shoppingListOperationRepository;
+        this.shoppingListOperationLogProperties = shoppingListOperationLogProperties;
+        this.createSequenceTransaction = new TransactionTemplate(transactionManager);
+        this.createSequenceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Creates the empty log of a new shopping list, within the transaction that creates the list.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void createLog(Long shoppingListId) {
+        shoppingListOperationRepository.createOperationSequence(shoppingListId);
+    }
+
+    /**
+     * Appends the updates to the log of the shopping list. Must be called as the last statement of the transaction,
+     * the sequence of the list stays locked until it commits.
+     *
+     * @return sequence number of the first appended operation
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long append(Long shoppingListId, List<ShoppingListUpdateMessage> updates) {
+        if (shoppingListOperationRepository.reserveSequenceNumbers(shoppingListId, updates.size()) == 0) {
+            createMissingLog(shoppingListId);
+            if (shoppingListOperationRepository.reserveSequenceNumbers(shoppingListId, updates.size()) == 0) {
+                throw new IllegalStateException("Shopping list " + shoppingListId + " has no operation log");
+            }
+        }
+        long firstSequenceNumber = getLastSequenceNumber(shoppingListId) - updates.size() + 1;
+        List<ShoppingListOperation> operations = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            ShoppingListUpdateMessage update = updates.get(i);
+            operations.add(ShoppingListOperation.builder()
+                    .shoppingListId(shoppingListId)
+                    .sequenceNumber(firstSequenceNumber + i)
+                    .operationType(ShoppingListOperationType.valueOf(update.updateType().name()))
+                    .shoppingListItemId(update.shoppingListItemId())
+                    .amount(update.amount())
+                    .unit(update.unit())
+                    .isChecked(update.isChecked())
+                    .checkedByAccountUsername(update.checkedBy())
+                    .build());
+        }
+        shoppingListOperationRepository.saveAll(operations);
+        return firstSequenceNumber;
+    }
+
+    /**
+     * Lists created before their log was created with them (or inserted directly) get it with their first operation.
+     * It is created in a transaction of its own, so of two concurrent first operations the one losing the insert
+     * just uses the log of the other one instead of failing its whole transaction.
+     */
+    private void createMissingLog(Long shoppingListId) {
+        try {
+            createSequenceTransaction.executeWithoutResult(status ->
+                    shoppingListOperationRepository.createOperationSequence(shoppingListId));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Operation log of shopping list {} was created concurrently", shoppingListId);
+        }
+    }
+
+    /**
+     * @return sequence number of the last committed operation of the shopping list, 0 if there is none
+     */
+    @Transactional(readOnly = true)
+    public long getLastSequenceNumber(Long shoppingListId) {
+        return shoppingListOperationRepository.findOperationSequence(shoppingListId)
+                .map(ShoppingListOperationRepository.OperationSequence::getLastSequenceNumber)
+                .orElse(0L);
+    }
+
+    /**
+     * @return all operations after the given sequence number in order,
+     * empty if the log cannot provide them (compacted, or a sequence number the list never had)
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<ShoppingListOperation>> findOperationsSince(Long shoppingListId, long sequenceNumber) {
+        var operationSequence = shoppingListOperationRepository.findOperationSequence(shoppingListId);
+        long lastSequenceNumber = operationSequence.map(ShoppingListOperationRepository.OperationSequence::getLastSequenceNumber).orElse(0L);
+        long compactedSequenceNumber = operationSequence.map(ShoppingListOperationRepository.OperationSequence::getCompactedSequenceNumber).orElse(0L);
+        if (sequenceNumber < compactedSequenceNumber || sequenceNumber > lastSequenceNumber) {
+            return Optional.empty();
+        }
+        List<ShoppingListOperation> operations = shoppingListOperationRepository
+                .findByShoppingListIdAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(shoppingListId, sequenceNumber);
+        if (!operations.isEmpty() && operations.getFirst().getSequenceNumber() != sequenceNumber + 1) {
+            // compacted in between the two queries
+            return Optional.empty();
+        }
+        return Optional.of(operations);
+    }
+
+    @Transactional
+    public void compact() {
+        int compactedLists = shoppingListOperationRepository.markCompacted(shoppingListOperationLogProperties.getRetainedOperations());
+        if (compactedLists == 0) {
+            return;
+        }
+        int deletedOperations = shoppingListOperationRepository.deleteCompactedOperations();
+        log.info("Compacted operation log of {} shopping lists, removed {} operations", compactedLists, deletedOperations);
+    }
+}
@@ -2,15 +2,21 @@ package dev.heinisch.menumaestro.service;
 
 import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import dev.heinisch.menumaestro.domain.ingredient.PrefetchedIngredientCatalog;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientComputationService;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUseBatch;
 import dev.heinisch.menumaestro.domain.menu.Meal;
 import dev.heinisch.menumaestro.domain.menu.Menu;
 import dev.heinisch.menumaestro.domain.menu.MenuComputationService;
+import dev.heinisch.menumaestro.domain.menu.SnapshotEvaluationExecutor;
 import dev.heinisch.menumaestro.domain.menu.Snapshot;
 import dev.heinisch.menumaestro.domain.organization.Organization;
 import dev.heinisch.menumaestro.domain.shopping_list.ShoppingList;
 import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListItem;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListOperation;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListOperationType;
+import dev.heinisch.menumaestro.domain.stash.StashMovementSource;
 import dev.heinisch.menumaestro.exceptions.ConflictException;
 import dev.heinisch.menumaestro.exceptions.NotFoundException;
 import dev.heinisch.menumaestro.exceptions.ValidationException;
@@ -19,32 +25,39 @@ import dev.heinisch.menumaestro.persistence.EntityLockingRepository;
 import dev.heinisch.menumaestro.persistence.IngredientRepository;
 import dev.heinisch.menumaestro.persistence.MenuRepository;
 import dev.heinisch.menumaestro.persistence.OrganizationRepository;
+import dev.heinisch.menumaestro.persistence.ShoppingListItemRepository;
 import dev.heinisch.menumaestro.persistence.ShoppingListRepository;
 import dev.heinisch.menumaestro.websocket.ShoppingListUpdateMessage;
-import dev.heinisch.menumaestro.websocket.ShoppingListUpdateType;
-import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import dev.heinisch.menumaestro.websocket.ShoppingListUpdatePublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openapitools.model.CloseShoppingListDto;
+import org.openapitools.model.ShoppingListChangesDto;
+import org.openapitools.model.ShoppingListConsolidatedCreateDto;
 import org.openapitools.model.ShoppingListCreateDto;
 import org.openapitools.model.ShoppingListDto;
 import org.openapitools.model.ShoppingListEditDto;
 import org.openapitools.model.ShoppingListIngredientAddDto;
+import org.openapitools.model.ShoppingListIngredientDto;
 import org.openapitools.model.ShoppingListIngredientEditDto;
+import org.openapitools.model.ShoppingListMenuSelectionDto;
+import org.openapitools.model.ShoppingListOperationDto;
 import org.openapitools.model.ShoppingListPreviewEntryDto;
 import org.openapitools.model.ShoppingListStatus;
 import org.openapitools.model.ShoppingListTokenDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -56,6 +69,7 @@ import java.util.stream.Collectors;
 public class ShoppingListService {
 
     private final ShoppingListRepository shoppingListRepository;
+    private final ShoppingListItemRepository shoppingListItemRepository;
     private final OrganizationRepository organizationRepository;
     private final MenuRepository menuRepository;
 
@@ -63,12 +77,15 @@ public class ShoppingListService {
 
     private final MenuComputationService menuComputationService;
     private final IngredientComputationService ingredientComputationService;
+    private final SnapshotEvaluationExecutor snapshotEvaluationExecutor;
     private final IngredientRepository ingredientRepository;
+    private final IngredientCatalogService ingredientCatalogService;
+    private final IngredientReferenceCache ingredientReferenceCache;
     private final JwtService jwtService;
     private final StashService stashService;
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final WebsocketProperties websocketProperties;
+    private final ShoppingListOperationService shoppingListOperationService;
+    private final ShoppingListUpdatePublisher shoppingListUpdatePublisher;
     private final EntityLockingRepository entityLockingRepository;
 
     @Transactional
@@ -80,8 +97,63 @@ public class ShoppingListService {
                 .filter(Meal.class::isInstance)
                 .map(Meal.class::cast)
                 .collect(Collectors.toSet());
+        var ingredientCatalog = ingredientCatalogService.forStash(menu.getStash());
         var ingredientUses = ingredientComputationService.computeMissingIngredientsSimple(meals, allMeals, menu.getStash(),
-                id -> ingredientRepository.findById(id).orElseThrow()).missingIngredients();
+                ingredientCatalog).missingIngredients().stream().map(ingredientComputationService::toDisplayUnit).toList();
+        ingredientCatalogService.logUsage("shopping list creation of menu " + menu.getId(), ingredientCatalog);
+        return saveShoppingList(shoppingListDto.getName(), shoppingListDto.getOrganizationId(), shoppingListDto.getMenuId(), ingredientUses);
+    }
+
+    /**
+     * Computes the missing ingredients of every menu against its own stash, concurrently once everything was loaded,
+     * and creates one shopping list with their sum. The shopping list belongs to the first menu.
+     */
+    @Transactional
+    public ShoppingListDto createConsolidatedShoppingList(ShoppingListConsolidatedCreateDto shoppingListDto) {
+        if (!organizationRepository.existsById(shoppingListDto.getOrganizationId())) {
+            throw new ValidationException("No organization with id " + shoppingListDto.getOrganizationId() + "!");
+        }
+        Set<Long> menuIds = new HashSet<>();
+        List<MenuSelection> selections = new ArrayList<>();
+        for (ShoppingListMenuSelectionDto selection : shoppingListDto.getMenus()) {
+            if (!menuIds.add(selection.getMenuId())) {
+                throw new ValidationException("Menu with id " + selection.getMenuId() + " is selected more than once!");
+            }
+            selections.add(loadSelection(shoppingListDto.getOrganizationId(), selection));
+        }
+
+        List<List<IngredientUse>> missingIngredientsPerMenu = snapshotEvaluationExecutor.map(selections,
+                selection -> ingredientComputationService.computeMissingIngredientsSimple(selection.meals(), selection.allMeals(),
+                        selection.menu().getStash(), selection.ingredientCatalog()).missingIngredients());
+        IngredientUseBatch missingIngredients = new IngredientUseBatch(missingIngredientsPerMenu.stream().mapToInt(List::size).sum());
+        missingIngredientsPerMenu.forEach(uses -> uses.forEach(missingIngredients::add));
+        var ingredientUses = ingredientComputationService.sumIngredients(missingIngredients).stream()
+                .map(ingredientComputationService::toDisplayUnit).toList();
+        selections.forEach(selection -> ingredientCatalogService.logUsage(
+                "consolidated shopping list creation of menu " + selection.menu().getId(), selection.ingredientCatalog()));
+        return saveShoppingList(shoppingListDto.getName(), shoppingListDto.getOrganizationId(),
+                selections.getFirst().menu().getId(), ingredientUses);
+    }
+
+    /**
+     * Everything a menu computation reads, loaded within the transaction.
+     */
+    private record MenuSelection(Menu menu, Set<Meal> meals, Set<Meal> allMeals, PrefetchedIngredientCatalog ingredientCatalog) {
+    }
+
+    private MenuSelection loadSelection(Long organizationId, ShoppingListMenuSelectionDto selection) {
+        Menu menu = checkOrgAndGetMenu(organizationId, selection.getMenuId());
+        var includedSnapshots = checkAndGetSnapshots(selection.getSnapshotIds(), menu);
+        Set<Meal> meals = menuComputationService.getIncludedMeals(menu, includedSnapshots);
+        Set<Meal> allMeals = menu.getItems().stream()
+                .filter(Meal.class::isInstance)
+                .map(Meal.class::cast)
+                .collect(Collectors.toSet());
+        // also loads the stash entries
+        return new MenuSelection(menu, meals, allMeals, ingredientCatalogService.forStash(menu.getStash()));
+    }
+
+    private ShoppingListDto saveShoppingList(String name, Long organizationId, Long menuId, List<IngredientUse> ingredientUses) {
         Set<ShoppingListItem> items = ingredientUses.stream()
                 .map(usedIngredient -> ShoppingListItem.builder()
                         .ingredientId(usedIngredient.ingredient().getId())
@@ -91,15 +163,16 @@ public class ShoppingListService {
                         .build()
                 ).collect(Collectors.toSet());
         var shoppingList = ShoppingList.builder()
-                .name(shoppingListDto.getName())
-                .organizationId(shoppingListDto.getOrganizationId())
+                .name(name)
+                .organizationId(organizationId)
                 .isClosed(false)
-                .menuId(shoppingListDto.getMenuId())
+                .menuId(menuId)
                 .items(items)
                 .build();
         shoppingList = shoppingListRepository.save(shoppingList);
+        shoppingListOperationService.createLog(shoppingList.getId());
         Set<Long> ingredientIds = ingredientUses.stream().map(use -> use.ingredient().getId()).collect(Collectors.toSet());
-        Map<Long, Ingredient> ingredientsById = ingredientRepository.findAllById(ingredientIds)
+        Map<Long, Ingredient> ingredientsById = ingredientReferenceCache.findAllById(ingredientIds)
                 .stream().collect(Collectors.toMap(Ingredient::getId, Function.identity()));
         return shoppingListMapper.toShoppingListDto(shoppingList, ingredientsById);
     }
@@ -113,23 +186,29 @@ public class ShoppingListService {
                 .filter(Meal.class::isInstance)
                 .map(Meal.class::cast)
                 .collect(Collectors.toSet());
+        var ingredientCatalog = ingredientCatalogService.forStash(menu.getStash());
         var ingredientUses = ingredientComputationService.computeMissingIngredientsSimple(meals, allMeals, menu.getStash(),
-                id -> ingredientRepository.findById(id).orElseThrow());
+                ingredientCatalog);
+        ingredientCatalogService.logUsage("shopping list preview of menu " + menu.getId(), ingredientCatalog);
         var ingredientUsePairs = ingredientComputationService.mapToIngredientAmountPair(ingredientUses.usedStashIngredients(),
-                ingredientUses.totalIngredients());
+                ingredientUses.totalIngredients()).stream().map(ingredientComputationService::toDisplayUnit).toList();
 
         return shoppingListMapper.toPreviewEntryDtos(ingredientUsePairs);
     }
 
     private static Set<Snapshot> checkAndGetSnapshots(ShoppingListCreateDto shoppingListDto, Menu menu) {
-        var snapshotIds = new HashSet<>(shoppingListDto.getSnapshotIds());
+        return checkAndGetSnapshots(shoppingListDto.getSnapshotIds(), menu);
+    }
+
+    private static Set<Snapshot> checkAndGetSnapshots(List<Long> requestedSnapshotIds, Menu menu) {
+        var snapshotIds = new HashSet<>(requestedSnapshotIds);
         var includedSnapshots = menu.getItems()
                 .stream()
                 .filter(item -> item instanceof Snapshot && snapshotIds.contains(item.getId()))
                 .map(Snapshot.class::cast)
                 .collect(Collectors.toSet());
         if (snapshotIds.size() != includedSnapshots.size()) {
-            throw new ValidationException("Some snapshots don't exist in the menu with id " + shoppingListDto.getMenuId() + "!");
+            throw new ValidationException("Some snapshots don't exist in the menu with id " + menu.getId() + "!");
         }
         return includedSnapshots;
     }
@@ -138,8 +217,12 @@ public class ShoppingListService {
         if (!organizationRepository.existsById(shoppingListDto.getOrganizationId())) {
             throw new ValidationException("No organization with id " + shoppingListDto.getOrganizationId() + "!");
         }
-        Menu menu = menuRepository.findById(shoppingListDto.getMenuId()).orElseThrow(() -> new ValidationException("No menu with id " + shoppingListDto.getMenuId() + "!"));
-        if (!menu.getOrganizationId().equals(shoppingListDto.getOrganizationId())) {
+        return checkOrgAndGetMenu(shoppingListDto.getOrganizationId(), shoppingListDto.getMenuId());
+    }
+
+    private Menu checkOrgAndGetMenu(Long organizationId, Long menuId) {
+        Menu menu = menuRepository.findById(menuId).orElseThrow(() -> new ValidationException("No menu with id " + menuId + "!"));
+        if (!menu.getOrganizationId().equals(organizationId)) {
             throw new ValidationException("Given menu is from a different organization!");
         }
         return menu;
@@ -156,8 +239,58 @@ public class ShoppingListService {
 
     @Transactional(readOnly = true)
     public ShoppingListDto getShoppingListById(Long id) {
+        // read before the list, replaying operations the list already contains is harmless
+        long sequenceNumber = shoppingListOperationService.getLastSequenceNumber(id);
         ShoppingList shoppingList = shoppingListRepository.findById(id).orElseThrow(() -> new NotFoundException("Shopping list with id " + id + " not found!"));
-        return shoppingListMapper.toShoppingListDto(shoppingList, mapIngredients(shoppingList, null));
+        return shoppingListMapper.toShoppingListDto(shoppingList, mapIngredients(shoppingList, null))
+                .sequenceNumber(sequenceNumber);
+    }
+
+    /**
+     * Returns the operations after the given sequence number, or a full snapshot of the list
+     * if the operation log cannot provide them anymore.
+     */
+    @Transactional(readOnly = true)
+    public ShoppingListChangesDto getShoppingListChanges(Long id, long sinceSequenceNumber) {
+        if (!shoppingListRepository.existsById(id)) {
+            throw new NotFoundException("Shopping list with id " + id + " not found!");
+        }
+        var operations = shoppingListOperationService.findOperationsSince(id, sinceSequenceNumber);
+        if (operations.isEmpty()) {
+            ShoppingListDto snapshot = getShoppingListById(id);
+            return new ShoppingListChangesDto()
+                    .shoppingListId(id)
+                    .sequenceNumber(snapshot.getSequenceNumber())
+                    .operations(List.of())
+                    .snapshot(snapshot);
+        }
+        Set<Long> addedItemIds = operations.get().stream()
+                .filter(operation -> operation.getOperationType() == ShoppingListOperationType.ADD)
+                .map(ShoppingListOperation::getShoppingListItemId)
+                .collect(Collectors.toSet());
+        Map<Long, ShoppingListIngredientDto> addedItemsById = new HashMap<>();
+        if (!addedItemIds.isEmpty()) {
+            List<ShoppingListItem> addedItems = shoppingListItemRepository.findAllById(addedItemIds);
+            Set<Long> ingredientIds = addedItems.stream()
+                    .map(ShoppingListItem::getIngredientId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<Long, Ingredient> ingredientsById = ingredientReferenceCache.findAllById(ingredientIds)
+                    .stream().collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+            for (ShoppingListItem item : addedItems) {
+                addedItemsById.put(item.getId(), shoppingListMapper.toShoppingListIngredientDto(item, ingredientsById));
+            }
+        }
+        List<ShoppingListOperationDto> operationDtos = operations.get().stream()
+                .map(operation -> shoppingListMapper.toShoppingListOperationDto(operation)
+                        .item(operation.getOperationType() == ShoppingListOperationType.ADD
+                                ? addedItemsById.get(operation.getShoppingListItemId())
+                                : null))
+                .toList();
+        return new ShoppingListChangesDto()
+                .shoppingListId(id)
+                .sequenceNumber(operationDtos.isEmpty() ? sinceSequenceNumber : operationDtos.getLast().getSequenceNumber())
+                .operations(operationDtos);
     }
 
     @Transactional(readOnly = true)
@@ -170,56 +303,96 @@ public class ShoppingListService {
                 .flatMap(sl -> sl.getItems().stream())
                 .map(ShoppingListItem::getIngredientId)
                 .collect(Collectors.toSet());
-        Map<Long, Ingredient> ingredientsById = ingredientRepository.findAllById(ingredientIds)
+        Map<Long, Ingredient> ingredientsById = ingredientReferenceCache.findAllById(ingredientIds)
                 .stream().collect(Collectors.toMap(Ingredient::getId, Function.identity()));
         return shoppingLists.map(shoppingList -> shoppingListMapper.toShoppingListDto(shoppingList, ingredientsById));
     }
 
+    /**
+     * Shopping lists without their items, only with the item counts, which are aggregated by the database.
+     */
+    @Transactional(readOnly = true)
+    public Page<ShoppingListDto> searchShoppingListSummariesAsAdmin(String name, ShoppingListStatus status, Long menuId, Pageable pageable) {
+        return shoppingListRepository.searchShoppingListSummariesAdmin(name, shoppingListMapper.toIsClosed(status), menuId, pageable)
+                .map(shoppingListMapper::toShoppingListSummaryDto);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ShoppingListDto> searchShoppingListSummaries(String name, ShoppingListStatus status, Long menuId, String username, Pageable pageable) {
+        return shoppingListRepository.searchShoppingListSummaries(name, shoppingListMapper.toIsClosed(status), menuId, memberOrganizationIds(username), pageable)
+                .map(shoppingListMapper::toShoppingListSummaryDto);
+    }
+
     @Transactional(readOnly = true)
     public Page<ShoppingListDto> searchShoppingLists(String name, ShoppingListStatus status, Long menuId, String username, Pageable pageable) {
         Boolean isClosed = shoppingListMapper.toIsClosed(status);
-        Set<Long> organizationIds = organizationRepository.findByMemberUsernameAndNameContainingIgnoreCaseAndNotInvited(username, "", Pageable.unpaged())
-                .stream()
-                .map(Organization::getId)
-                .collect((Collectors.toSet()));
+        Set<Long> organizationIds = memberOrganizationIds(username);
         Page<ShoppingList> shoppingLists = shoppingListRepository.searchShoppingListsByNameAndShoppingListStatus(name, isClosed, menuId, organizationIds, pageable);
         Set<Long> ingredientIds = shoppingLists.stream()
                 .flatMap(sl -> sl.getItems().stream())
                 .map(ShoppingListItem::getIngredientId)
                 .collect(Collectors.toSet());
-        Map<Long, Ingredient> ingredientsById = ingredientRepository.findAllById(ingredientIds)
+        Map<Long, Ingredient> ingredientsById = ingredientReferenceCache.findAllById(ingredientIds)
                 .stream().collect(Collectors.toMap(Ingredient::getId, Function.identity()));
         return shoppingLists.map(shoppingList -> shoppingListMapper.toShoppingListDto(shoppingList, ingredientsById));
     }
 
+    private Set<Long> memberOrganizationIds(String username) {
+        return organizationRepository.findByMemberUsernameAndNameContainingIgnoreCaseAndNotInvited(username, "", Pageable.unpaged())
+                .stream()
+                .map(Organization::getId)
+                .collect((Collectors.toSet()));
+    }
+
+    /**
+     * Checks off / unchecks items with one conditional update per item instead of locking the shopping list exclusively,
+     * so concurrent shoppers only contend when they check off the same item.
+     * The shared lock on the list keeps it from being closed until the edits committed, otherwise closing could miss them.
+     * <br>
+     * The list aggregate is never loaded, the response only contains the edited items and the item counts of the list.
+     */
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public ShoppingListDto editShoppingList(Long id, ShoppingListEditDto shoppingListEditDto) {
-        ShoppingList shoppingList = entityLockingRepository.lockEntity(ShoppingList.class, id, 50)
+        ShoppingList lockedShoppingList = entityLockingRepository.lockEntityShared(ShoppingList.class, id, 50)
                 .orElseThrow(() -> new NotFoundException("Shopping list with id " + id + " not found!"));
-        if (shoppingList.getIsClosed()) {
+        if (lockedShoppingList.getIsClosed()) {
             throw new ValidationException("Shopping-List is closed!");
         }
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        List<Long> editedItemIds = new ArrayList<>();
         for (ShoppingListIngredientEditDto shoppingListIngredientEditDto : shoppingListEditDto.getIngredients()) {
-            ShoppingListItem shoppingListItem = shoppingList.getItems()
-                    .stream()
-                    .filter(item -> item.getId().equals(shoppingListIngredientEditDto.getId()))
-                    .findFirst()
-                    .orElseThrow(() -> new NotFoundException("Shopping list item with id " +
-                            shoppingListIngredientEditDto.getId() + " not found in shopping list with id " +
-                            shoppingList.getId() + "!"));
-            if (shoppingListItem.getIsChecked()
-                    && shoppingListIngredientEditDto.getChecked()) {
-                throw new ConflictException("Item was already checked off!");
+            Long itemId = shoppingListIngredientEditDto.getId();
+            int updatedRows = shoppingListIngredientEditDto.getChecked()
+                    ? shoppingListItemRepository.checkOff(id, itemId, username)
+                    : shoppingListItemRepository.uncheck(id, itemId);
+            if (updatedRows == 0) {
+                throw editFailure(id, itemId);
             }
-            shoppingListItem.setIsChecked(shoppingListIngredientEditDto.getChecked());
-            shoppingListItem.setCheckedByAccountUsername(shoppingListIngredientEditDto.getChecked() ? username : null);
-            messagingTemplate.convertAndSend(
-                    websocketProperties.getTopics().getShoppingListTopicPrefix() + "/" + id,
-                    ShoppingListUpdateMessage.update(shoppingListItem)
-            );
+            editedItemIds.add(itemId);
+        }
+        List<ShoppingListItem> editedItems = shoppingListItemRepository.findAllById(editedItemIds);
+        for (ShoppingListItem shoppingListItem : editedItems) {
+            shoppingListUpdatePublisher.publish(id, ShoppingListUpdateMessage.update(shoppingListItem));
         }
-        return shoppingListMapper.toShoppingListDto(shoppingList, mapIngredients(shoppingList, null));
+        Set<Long> ingredientIds = editedItems.stream().map(ShoppingListItem::getIngredientId).collect(Collectors.toSet());
+        Map<Long, Ingredient> ingredientsById = ingredientReferenceCache.findAllById(ingredientIds)
+                .stream().collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        return shoppingListMapper.toShoppingListSummaryDto(shoppingListRepository.findSummaryById(id).orElseThrow())
+                .ingredients(shoppingListMapper.toShoppingListIngredientDtoList(editedItems, ingredientsById));
+    }
+
+    /**
+     * Finds out why a conditional update of an item changed no row, only runs once the request fails anyway.
+     */
+    private RuntimeException editFailure(Long shoppingListId, Long itemId) {
+        if (shoppingListRepository.findIsClosedById(shoppingListId).orElse(true)) {
+            return new ValidationException("Shopping-List is closed!");
+        }
+        if (!shoppingListItemRepository.existsByIdAndShoppingListId(itemId, shoppingListId)) {
+            return new NotFoundException("Shopping list item with id " + itemId
+                    + " not found in shopping list with id " + shoppingListId + "!");
+        }
+        return new ConflictException("Item was already checked off!");
     }
 
     @Transactional(isolation = Isolation.READ_COMMITTED)
@@ -250,10 +423,7 @@ public class ShoppingListService {
             Double newAmount = existingItem.getAmount() + shoppingListIngredientAddDto.getAmount();
 
             existingItem.setAmount(newAmount);
-            messagingTemplate.convertAndSend(
-                    websocketProperties.getTopics().getShoppingListTopicPrefix() + "/" + id,
-                    ShoppingListUpdateMessage.update(existingItem)
-            );
+            shoppingListUpdatePublisher.publish(id, ShoppingListUpdateMessage.update(existingItem));
         } else {
             ShoppingListItem shoppingListItem = ShoppingListItem.builder()
                     .shoppingList(shoppingList)
@@ -265,34 +435,33 @@ public class ShoppingListService {
                     .checkedByAccountUsername(null)
                     .build();
 
-            shoppingList.addItem(shoppingListItem);
+            shoppingList.addItem(shoppingListItemRepository.save(shoppingListItem));
+            var ingredientsById = mapIngredients(shoppingList, newItemIngredientId);
+            shoppingListUpdatePublisher.publish(id, ShoppingListUpdateMessage.add(shoppingListItem,
+                    shoppingListMapper.toShoppingListIngredientDto(shoppingListItem, ingredientsById)));
+            return shoppingListMapper.toShoppingListDto(shoppingList, ingredientsById);
         }
-        messagingTemplate.convertAndSend(
-                websocketProperties.getTopics().getShoppingListTopicPrefix() + "/" + id,
-                ShoppingListUpdateMessage.builder().updateType(ShoppingListUpdateType.RELOAD).build()
-        );
         return shoppingListMapper.toShoppingListDto(shoppingList, mapIngredients(shoppingList, newItemIngredientId));
     }
 
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public CloseShoppingListDto closeShoppingList(Long id) {
-        ShoppingList shoppingList = shoppingListRepository.findById(id)
+        // locked before reading, so a concurrent close or check-off that committed meanwhile is seen
+        ShoppingList shoppingList = entityLockingRepository.lockEntity(ShoppingList.class, id, 50)
                 .orElseThrow(() -> new NotFoundException("Shopping list with id " + id + " not found!"));
-        entityLockingRepository.lockEntity(ShoppingList.class, shoppingList.getId(), 50);
         Menu menu = menuRepository.findById(shoppingList.getMenuId()).orElseThrow();
         if (shoppingList.getIsClosed())
             return shoppingListMapper.toCloseShoppingListDto(menu.getStash().getId(), shoppingListMapper.toShoppingListDto(shoppingList, mapIngredients(shoppingList, null)));
 
         shoppingList.setIsClosed(true);
+        var ingredientCatalog = ingredientCatalogService.forShoppingList(shoppingList);
         List<IngredientUse> tickedIngredients;
         tickedIngredients = shoppingList.getItems().stream().filter(ShoppingListItem::getIsChecked).filter(item -> item.getIngredientId() != null)
-                .map(shoppingListItem -> IngredientUse.fromShoppingListItem(shoppingListItem, ingredientId -> ingredientRepository.findById(ingredientId).orElseThrow())
+                .map(shoppingListItem -> IngredientUse.fromShoppingListItem(shoppingListItem, ingredientCatalog)
                 ).toList();
-        stashService.addToStash(menu.getStash().getId(), tickedIngredients);
-        messagingTemplate.convertAndSend(
-            websocketProperties.getTopics().getShoppingListTopicPrefix() + "/" + id,
-            ShoppingListUpdateMessage.builder().updateType(ShoppingListUpdateType.CLOSED).build()
-        );
+        ingredientCatalogService.logUsage("closing shopping list " + id, ingredientCatalog);
+        stashService.addToStash(menu.getStash().getId(), tickedIngredients, StashMovementSource.SHOPPING_LIST_CLOSED, id);
+        shoppingListUpdatePublisher.publish(id, ShoppingListUpdateMessage.closed());
         return shoppingListMapper.toCloseShoppingListDto(menu.getStash().getId(), shoppingListMapper.toShoppingListDto(shoppingList, mapIngredients(shoppingList, null)));
     }
 
@@ -304,7 +473,7 @@ public class ShoppingListService {
         if (newItemIngredientId != null) {
             ingredientIds.add(newItemIngredientId);
         }
-        return ingredientRepository.findAllById(ingredientIds)
+        return ingredientReferenceCache.findAllById(ingredientIds)
                 .stream().collect(Collectors.toMap(Ingredient::getId, Function.identity()));
     }
 }
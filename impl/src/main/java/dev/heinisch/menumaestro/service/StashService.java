@@ -5,9 +5,13 @@ import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientComputationService;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUnitConversionService;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUseKey;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUseKeyMap;
 import dev.heinisch.menumaestro.domain.organization.OrganizationRole;
 import dev.heinisch.menumaestro.domain.stash.Stash;
 import dev.heinisch.menumaestro.domain.stash.StashEntry;
+import dev.heinisch.menumaestro.domain.stash.StashMovement;
+import dev.heinisch.menumaestro.domain.stash.StashMovementSource;
 import dev.heinisch.menumaestro.exceptions.ConflictException;
 import dev.heinisch.menumaestro.exceptions.NotFoundException;
 import dev.heinisch.menumaestro.exceptions.ValidationException;
@@ -15,16 +19,17 @@ import dev.heinisch.menumaestro.exceptions.VersionMatchFailedException;
 import dev.heinisch.menumaestro.mapper.IngredientMapper;
 import dev.heinisch.menumaestro.mapper.StashMapper;
 import dev.heinisch.menumaestro.persistence.EntityLockingRepository;
-import dev.heinisch.menumaestro.persistence.IngredientRepository;
+import dev.heinisch.menumaestro.persistence.StashEntryRepository;
+import dev.heinisch.menumaestro.persistence.StashMovementRepository;
 import dev.heinisch.menumaestro.persistence.StashRepository;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
+import dev.heinisch.menumaestro.properties.StashProperties;
+import dev.heinisch.menumaestro.properties.StashProperties.CompactionMode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.tuple.Pair;
 import org.openapitools.model.IngredientUseCreateEditDto;
 import org.openapitools.model.StashResponseDto;
 import org.openapitools.model.StashSearchResponseDto;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
@@ -37,6 +42,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -44,32 +50,74 @@ import java.util.stream.Collectors;
 public class StashService {
 
     private final StashRepository stashRepository;
-    private final IngredientRepository ingredientRepository;
+    private final StashEntryRepository stashEntryRepository;
+    private final IngredientCatalogService ingredientCatalogService;
+    private final IngredientReferenceCache ingredientReferenceCache;
     private final StashMapper stashMapper;
     private final IngredientMapper ingredientMapper;
     private final EntityLockingRepository entityLocker;
     private final IngredientComputationService ingredientComputationService;
     private final IngredientUnitConversionService ingredientUnitConversionService;
+    private final StashMovementRepository stashMovementRepository;
+    private final StashProperties stashProperties;
 
+    @Transactional(isolation = Isolation.REPEATABLE_READ, readOnly = true)
+    public StashResponseDto getStash(Long stashId) {
+        return getStash(stashId, null);
+    }
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    /**
+     * @return the version {@link #getStash(Long, Long)} would show, which counts the pending movements
+     */
+    @Transactional(readOnly = true)
+    public Long getStashVersion(Long stashId) {
+        return stashRepository.findVisibleVersion(stashId)
+                .orElseThrow(() -> NotFoundException.forEntityAndId("Stash", stashId));
+    }
 
+    /**
+     * @param sinceVersion if given, only the entries changed after this version are returned. Falls back to all entries
+     *                     when entries were removed since, movements are pending or the version is unknown.
+     */
     @Transactional(isolation = Isolation.REPEATABLE_READ, readOnly = true)
-    public StashResponseDto getStash(Long stashId) {
-        Stash stash = stashRepository.findByIdFetchAggregate(stashId)
+    public StashResponseDto getStash(Long stashId, Long sinceVersion) {
+        Stash stash = stashRepository.findById(stashId)
                 .orElseThrow(() -> NotFoundException.forEntityAndId("Stash", stashId));
         if (stash.getLocked()) {
             throw NotFoundException.forEntityAndId("Stash", stashId);
         }
-        Set<Long> ingredientIds = stash.getEntries().stream()
-                .map(StashEntry::getIngredientId)
+        List<StashMovement> pendingMovements = stash.getPendingMovements();
+        if (sinceVersion != null && pendingMovements.isEmpty()
+                && sinceVersion >= stash.getLastRemovalVersion() && sinceVersion <= stash.getVersionNumber()) {
+            List<StashEntry> changedEntries = stashEntryRepository.findChangedSince(stashId, sinceVersion);
+            Map<Long, Ingredient> ingredientsById = ingredientReferenceCache.findAllById(changedEntries.stream()
+                            .map(StashEntry::getIngredientId)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+            var stashMeta = stashRepository.getStashName(stashId).orElseThrow();
+            return stashMapper.toStashDeltaResponseDto(stash, changedEntries, stashMeta.getName(), stashMeta.getOrganizationId(), ingredientsById);
+        }
+        Set<Long> ingredientIds = Stream.concat(stash.getEntries().stream().map(StashEntry::getIngredientId),
+                        pendingMovements.stream().map(StashMovement::getIngredientId))
                 .collect(Collectors.toSet());
-        Map<Long, Ingredient> ingredientsById = ingredientRepository.findAllById(ingredientIds)
+        Map<Long, Ingredient> ingredientsById = ingredientReferenceCache.findAllById(ingredientIds)
                 .stream()
                 .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
         var stashMeta = stashRepository.getStashName(stashId).orElseThrow();
-        return stashMapper.toStashResponseDto(stash, stashMeta.getName(), stashMeta.getOrganizationId(), ingredientsById);
+        StashResponseDto stashResponseDto = stashMapper.toStashResponseDto(stash, stashMeta.getName(), stashMeta.getOrganizationId(), ingredientsById);
+        if (!pendingMovements.isEmpty()) {
+            // show the movements appended since the last compaction, the version already counts them as compaction will
+            stashResponseDto.setIngredients(ingredientComputationService.stashBalance(stash.getEntries(), pendingMovements, List.of(), ingredientsById::get).stream()
+                    .map(ingredientUse -> stashMapper.toIngredientUseDto(StashEntry.builder()
+                            .ingredientId(ingredientUse.ingredient().getId())
+                            .unit(ingredientUse.unit())
+                            .amount(ingredientUse.amount())
+                            .build(), ingredientUse.ingredient()))
+                    .toList());
+            stashResponseDto.setVersionNumber(String.valueOf(stash.getVisibleVersionNumber()));
+        }
+        return stashResponseDto;
     }
 
     @Transactional(readOnly = true)
@@ -83,35 +131,133 @@ public class StashService {
     }
 
     /**
-     * Adds the given ingredients to the stash. Calling methods must use READ_COMMITTED isolation.
+     * Adds the given ingredients to the stash and records them as movements from the given source.
+     * Calling methods must use READ_COMMITTED isolation.
+     * <br>
+     * With {@link CompactionMode#BACKGROUND} the movements are only appended, under a shared lock that keeps the stash
+     * from being locked meanwhile, and folded into the entries by {@link #compactMovements(Long)} later on.
+     * Otherwise they are folded into the entries right away.
      */
     @Transactional(isolation = Isolation.READ_COMMITTED)
-    public void addToStash(Long stashId, List<IngredientUse> updateCommands) {
+    public void addToStash(Long stashId, List<IngredientUse> updateCommands, StashMovementSource source, Long sourceId) {
+        if (stashProperties.getCompaction().getMode() == CompactionMode.BACKGROUND) {
+            Stash stash = entityLocker.lockEntityShared(Stash.class, stashId, 50)
+                    .orElseThrow(() -> NotFoundException.forEntityAndId("Stash", stashId));
+            if (stash.getLocked()) {
+                throw new ConflictException("At least one of the stashes is locked.");
+            }
+            recordMovements(stashId, updateCommands, source, sourceId, false);
+            return;
+        }
         entityLocker.lockEntity(Stash.class, stashId, 50)
                 .orElseThrow(() -> NotFoundException.forEntityAndId("Stash", stashId));
         Stash stash = stashRepository.findByIdFetchAggregate(stashId).orElseThrow();
         if (stash.getLocked()) {
             throw new ConflictException("At least one of the stashes is locked.");
         }
-        List<IngredientUse> ingredients = stash.getEntries().stream()
-                .map(e -> IngredientUse.fromStashEntry(e, id -> ingredientRepository.findById(id).orElseThrow()))
-                .collect(Collectors.toCollection(ArrayList::new));
-        ingredients.addAll(updateCommands);
-        List<IngredientUse> ingredientUses = ingredientComputationService.sumAutoconverting(ingredients)
-                .filter(i -> i.amount() >= 0.001)
-                .toList();
-        var newStashEntries = ingredientUses.stream()
-                .map(i -> StashEntry.builder()
+        // left over from running with background compaction before
+        List<StashMovement> pendingMovements = stashMovementRepository.findByStashIdAndCompactedFalseOrderByIdAsc(stashId);
+        stash.incrementVersionNumber(pendingMovements.size() + 1);
+        applyToEntries(stash, pendingMovements, updateCommands);
+        markCompacted(pendingMovements);
+        recordMovements(stashId, updateCommands, source, sourceId, true);
+    }
+
+    /**
+     * Folds the movements appended since the last compaction into the entries of the stash.
+     * Each folded movement increments the version, so the version shown while they were pending stays valid.
+     *
+     * @return the number of movements folded
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public int compactMovements(Long stashId) {
+        entityLocker.lockEntity(Stash.class, stashId, 50)
+                .orElseThrow(() -> NotFoundException.forEntityAndId("Stash", stashId));
+        Stash stash = stashRepository.findByIdFetchAggregate(stashId).orElseThrow();
+        return compactMovements(stash);
+    }
+
+    /**
+     * @return ids of stashes with pending movements, at most as many as configured per compaction run
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findStashesToCompact() {
+        return stashMovementRepository.findStashIdsWithPendingMovements(
+                PageRequest.ofSize(stashProperties.getCompaction().getMaxStashesPerRun()));
+    }
+
+    /**
+     * Requires the stash to be locked.
+     */
+    private int compactMovements(Stash stash) {
+        List<StashMovement> pendingMovements = stashMovementRepository.findByStashIdAndCompactedFalseOrderByIdAsc(stash.getId());
+        if (pendingMovements.isEmpty()) {
+            return 0;
+        }
+        stash.incrementVersionNumber(pendingMovements.size());
+        applyToEntries(stash, pendingMovements, List.of());
+        markCompacted(pendingMovements);
+        return pendingMovements.size();
+    }
+
+    private void markCompacted(List<StashMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        stashMovementRepository.markCompacted(movements.stream().map(StashMovement::getId).toList());
+    }
+
+    /**
+     * The new sums are diffed against the existing entries per (ingredient, unit), so only entries whose amount changed
+     * are updated and only vanished or new keys are deleted or inserted.
+     * Changed entries are stamped with the current version, so increment it before.
+     */
+    private void applyToEntries(Stash stash, List<StashMovement> movements, List<IngredientUse> updateCommands) {
+        var ingredientCatalog = ingredientCatalogService.forIngredientIds(Stream.concat(
+                        stash.getEntries().stream().map(StashEntry::getIngredientId),
+                        movements.stream().map(StashMovement::getIngredientId))
+                .collect(Collectors.toSet()));
+        List<IngredientUse> ingredientUses = ingredientComputationService.stashBalance(stash.getEntries(), movements, updateCommands, ingredientCatalog);
+        ingredientCatalogService.logUsage("adding to stash " + stash.getId(), ingredientCatalog);
+        IngredientUseKeyMap<IngredientUse> newAmounts = IngredientUseKeyMap.keyedBy(ingredientUses, IngredientUseKey::of);
+        // a key is never deleted and inserted again, so the inserts hibernate flushes first cannot collide with the deletes
+        stash.getEntries().removeIf(entry -> {
+            IngredientUse newAmount = newAmounts.remove(toIngredientUseKey(entry));
+            if (newAmount == null) {
+                stash.recordEntryRemoval();
+                return true;
+            }
+            if (Math.abs(entry.getAmount() - newAmount.amount()) > 0.00001) {
+                entry.updateAmount(newAmount.amount());
+            }
+            return false;
+        });
+        for (IngredientUse ingredientUse : ingredientUses) {
+            if (newAmounts.containsKey(IngredientUseKey.of(ingredientUse))) {
+                stash.getEntries().add(StashEntry.builder()
                         .stash(stash)
-                        .ingredientId(i.ingredient().getId())
-                        .unit(i.unit())
-                        .amount(i.amount())
+                        .ingredientId(ingredientUse.ingredient().getId())
+                        .unit(ingredientUse.unit())
+                        .amount(ingredientUse.amount())
+                        .build());
+            }
+        }
+    }
+
+    private void recordMovements(Long stashId, List<IngredientUse> changes, StashMovementSource source, Long sourceId, boolean compacted) {
+        stashMovementRepository.saveAll(changes.stream()
+                .filter(change -> change.amount() != 0)
+                .map(ingredientUnitConversionService::toCanonicalUnit)
+                .map(change -> StashMovement.builder()
+                        .stashId(stashId)
+                        .ingredientId(change.ingredient().getId())
+                        .unit(change.unit())
+                        .amount(change.amount())
+                        .source(source)
+                        .sourceId(sourceId)
+                        .compacted(compacted)
                         .build())
-                .collect(Collectors.toSet());
-        stash.getEntries().clear();
-        entityManager.flush(); // force delete statements to come first
-        stash.getEntries().addAll(newStashEntries);
-        stash.incrementVersionNumber();
+                .toList());
     }
 
     /**
@@ -131,28 +277,42 @@ public class StashService {
         if (stash.getLocked()) {
             throw new ConflictException("Stash is locked.");
         }
+        compactMovements(stash);
         if (versionNumber != null && !stash.getVersionNumber().equals(versionNumber)) {
             throw new VersionMatchFailedException("Concurrent stash update detected.");
         }
         stash.incrementVersionNumber();
-        Map<Pair<Long, IngredientUnit>, StashEntry> entryMap = stash.getEntries().stream()
-                .collect(Collectors.toMap(this::toIngredientUseKey, Function.identity()));
+        IngredientUseKeyMap<StashEntry> entryMap = IngredientUseKeyMap.keyedBy(stash.getEntries(), this::toIngredientUseKey);
+        var ingredientCatalog = ingredientCatalogService.forIngredientIds(updateCommands.stream()
+                .map(IngredientUseCreateEditDto::getId)
+                .collect(Collectors.toSet()));
+        List<IngredientUse> changes = new ArrayList<>();
         for (IngredientUseCreateEditDto updatedIngredientAmount : updateCommands) {
-            applyStashUpdate(entryMap, stash, updatedIngredientAmount);
+            double change = applyStashUpdate(entryMap, stash, updatedIngredientAmount);
+            changes.add(new IngredientUse(ingredientCatalog.get(updatedIngredientAmount.getId()),
+                    toStashUnit(updatedIngredientAmount), change));
         }
+        ingredientCatalogService.logUsage("updating stash " + stashId, ingredientCatalog);
+        recordMovements(stashId, changes, StashMovementSource.MANUAL_EDIT, null, true);
         return stash.getVersionNumber();
     }
 
-    void applyStashUpdate(Map<Pair<Long, IngredientUnit>, StashEntry> entryMap, Stash stash, IngredientUseCreateEditDto patch) {
-        Pair<Long, IngredientUnit> key = toIngredientUseKey(patch);
-        if (patch.getAmount() == 0) {
+    /**
+     * @return the change of the amount of the patched entry
+     */
+    double applyStashUpdate(IngredientUseKeyMap<StashEntry> entryMap, Stash stash, IngredientUseCreateEditDto patch) {
+        long key = toIngredientUseKey(patch);
+        double amount = toAmountInStashUnit(patch);
+        if (amount == 0) {
             // remove entry, if it still existed.
             StashEntry entry = entryMap.remove(key);
             if (entry != null) {
-                stash.getEntries().remove(entry);
+                stash.removeEntry(entry);
+                return -entry.getAmount();
             } else {
                 // shouldn't happen, log to be safe
                 log.warn("Possible state mismatch: got request to remove ingredient not in stash.");
+                return 0;
             }
         } else {
             StashEntry entry = entryMap.get(key);
@@ -160,55 +320,84 @@ public class StashService {
                 entry = StashEntry.builder()
                         .stash(stash)
                         .ingredientId(patch.getId())
-                        .unit(ingredientMapper.toIngredientUnit(patch.getUnit()))
-                        .amount((double) patch.getAmount())
+                        .unit(toStashUnit(patch))
+                        .amount(amount)
                         .build();
                 stash.getEntries().add(entry);
                 entryMap.put(key, entry);
+                return amount;
             } else {
-                entry.setAmount((double) patch.getAmount());
+                double change = amount - entry.getAmount();
+                entry.updateAmount(amount);
+                return change;
             }
         }
     }
 
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public Long moveStashIngredients(Long fromStashId, Long toStashId, List<IngredientUseCreateEditDto> transferAmounts) {
-        entityLocker.lockEntity(Stash.class, fromStashId, 50)
-                .orElseThrow(() -> NotFoundException.forEntityAndId("Stash", fromStashId));
-        entityLocker.lockEntity(Stash.class, toStashId, 50)
-                .orElseThrow(() -> NotFoundException.forEntityAndId("Target Stash", toStashId));
+        Map<Long, Stash> lockedStashes = entityLocker.lockEntities(Stash.class, List.of(fromStashId, toStashId), 50);
+        if (!lockedStashes.containsKey(fromStashId)) {
+            throw NotFoundException.forEntityAndId("Stash", fromStashId);
+        }
+        if (!lockedStashes.containsKey(toStashId)) {
+            throw NotFoundException.forEntityAndId("Target Stash", toStashId);
+        }
         Stash fromStash = stashRepository.findByIdFetchAggregate(fromStashId).orElseThrow();
         if (fromStash.getLocked()) {
             throw new ConflictException("At least one of the stashes is locked.");
         }
+        compactMovements(fromStash);
         // toStash version incremented in addToStash()
         fromStash.incrementVersionNumber();
-        Map<Pair<Long, IngredientUnit>, StashEntry> fromStashMap = fromStash.getEntries().stream()
-                .collect(Collectors.toMap(this::toIngredientUseKey, Function.identity()));
+        IngredientUseKeyMap<StashEntry> fromStashMap = IngredientUseKeyMap.keyedBy(fromStash.getEntries(), this::toIngredientUseKey);
+        var ingredientCatalog = ingredientCatalogService.forIngredientIds(transferAmounts.stream()
+                .map(IngredientUseCreateEditDto::getId)
+                .collect(Collectors.toSet()));
         List<IngredientUse> ingredientsMoved = new ArrayList<>();
         for (IngredientUseCreateEditDto transferAmount : transferAmounts) {
-            var key = toIngredientUseKey(transferAmount);
+            long key = toIngredientUseKey(transferAmount);
+            double amount = toAmountInStashUnit(transferAmount);
             StashEntry fromEntry = fromStashMap.get(key);
-            if (fromEntry == null || fromEntry.getAmount() < transferAmount.getAmount()) {
+            // the amounts were converted from floats, equal amounts may differ in the last digits
+            double tolerance = Math.max(0.0001, amount * 1e-6);
+            if (fromEntry == null || fromEntry.getAmount() + tolerance < amount) {
                 throw new ValidationException("Insufficient amount for ingredients, please check stash contents");
-            } else if (fromEntry.getAmount() <= transferAmount.getAmount() + 0.0001) {
-                fromStash.getEntries().remove(fromEntry);
+            } else if (fromEntry.getAmount() <= amount + tolerance) {
+                fromStash.removeEntry(fromEntry);
                 fromStashMap.remove(key);
             } else {
-                fromEntry.setAmount(fromEntry.getAmount() - transferAmount.getAmount());
+                fromEntry.updateAmount(fromEntry.getAmount() - amount);
             }
-            ingredientsMoved.add(new IngredientUse(ingredientRepository.findById(fromEntry.getIngredientId()).orElseThrow(),
-                    fromEntry.getUnit(), transferAmount.getAmount()));
+            ingredientsMoved.add(new IngredientUse(ingredientCatalog.get(fromEntry.getIngredientId()),
+                    fromEntry.getUnit(), amount));
         }
-        addToStash(toStashId, ingredientsMoved);
+        ingredientCatalogService.logUsage("moving from stash " + fromStashId, ingredientCatalog);
+        List<IngredientUse> ingredientsRemoved = ingredientsMoved.stream()
+                .map(i -> new IngredientUse(i.ingredient(), i.unit(), -i.amount()))
+                .toList();
+        recordMovements(fromStashId, ingredientsRemoved, StashMovementSource.TRANSFER, toStashId, true);
+        addToStash(toStashId, ingredientsMoved, StashMovementSource.TRANSFER, fromStashId);
         return fromStash.getVersionNumber();
     }
 
-    Pair<Long, IngredientUnit> toIngredientUseKey(StashEntry stashEntry) {
-        return Pair.of(stashEntry.getIngredientId(), stashEntry.getUnit());
+    long toIngredientUseKey(StashEntry stashEntry) {
+        return IngredientUseKey.of(stashEntry.getIngredientId(), stashEntry.getUnit());
+    }
+
+    long toIngredientUseKey(IngredientUseCreateEditDto dto) {
+        return IngredientUseKey.of(dto.getId(), toStashUnit(dto));
+    }
+
+    /**
+     * Stash entries are stored in grams, millilitres or pieces, see {@link IngredientComputationService#sumInStashUnits}.
+     * Commands in any unit of a kind address the entry of that kind.
+     */
+    IngredientUnit toStashUnit(IngredientUseCreateEditDto dto) {
+        return ingredientUnitConversionService.canonicalUnit(ingredientMapper.toIngredientUnit(dto.getUnit()));
     }
 
-    Pair<Long, IngredientUnit> toIngredientUseKey(IngredientUseCreateEditDto dto) {
-        return Pair.of(dto.getId(), ingredientMapper.toIngredientUnit(dto.getUnit()));
+    double toAmountInStashUnit(IngredientUseCreateEditDto dto) {
+        return ingredientUnitConversionService.convertAmountTo(dto.getAmount(), ingredientMapper.toIngredientUnit(dto.getUnit()), toStashUnit(dto));
     }
 }
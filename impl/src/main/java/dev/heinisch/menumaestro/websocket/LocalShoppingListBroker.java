@@ -0,0 +1,52 @@
+package dev.heinisch.menumaestro.websocket;
+
+import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Sends updates only to subscribers of this replica, for single replica deployments.
+ * <br>
+ * A batch is serialized once per {@link ShoppingListEncoding} that has subscribers and the bytes are handed to the
+ * broker as they are, which shares them between all subscribers of the destination. Nothing is serialized for
+ * shopping lists nobody is subscribed to.
+ */
+@RequiredArgsConstructor
+public class LocalShoppingListBroker implements ShoppingListBroker {
+
+    /**
+     * Headers of the messages for the {@link ShoppingListSlowConsumerPolicy}, they are not sent to the clients.
+     */
+    public static final String SHOPPING_LIST_ID_HEADER = "shoppingListId";
+    public static final String FIRST_SEQUENCE_NUMBER_HEADER = "firstSequenceNumber";
+    public static final String SEQUENCE_NUMBER_HEADER = "sequenceNumber";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final WebsocketProperties websocketProperties;
+    private final ShoppingListSubscriptions subscriptions;
+    private final ShoppingListUpdateSerializer serializer;
+
+    @Override
+    public void relay(ShoppingListUpdateBatch batch) {
+        // no other replicas
+    }
+
+    @Override
+    public void deliver(ShoppingListUpdateBatch batch) {
+        for (ShoppingListEncoding encoding : subscriptions.encodingsOf(batch.shoppingListId())) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setContentType(encoding.getContentType());
+            accessor.setHeader(SHOPPING_LIST_ID_HEADER, batch.shoppingListId());
+            accessor.setHeader(FIRST_SEQUENCE_NUMBER_HEADER, batch.firstSequenceNumber());
+            accessor.setHeader(SEQUENCE_NUMBER_HEADER, batch.sequenceNumber());
+            accessor.setLeaveMutable(true);
+            messagingTemplate.send(
+                    encoding.destination(websocketProperties.getTopics().getShoppingListTopicPrefix(), batch.shoppingListId()),
+                    MessageBuilder.createMessage(serializer.serialize(batch, encoding), accessor.getMessageHeaders())
+            );
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dev.heinisch.menumaestro.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.heinisch.menumaestro.persistence.PostgresNotifications;
+import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Relays shopping list updates between replicas via {@link PostgresNotifications}, with one channel per shopping list.
+ * <br>
+ * Each replica only listens on the channels of the shopping lists that have subscribers connected to it, and starts
+ * to do so as soon as a shopping list gets its first subscriber. Updates committed before that, or while the listener
+ * reconnects, are not relayed to this replica; the clients notice them through the sequence numbers of the next batch
+ * and catch up via the changes endpoint.
+ */
+@Slf4j
+public class PostgresShoppingListBroker implements ShoppingListBroker, PostgresNotifications.Listener {
+
+    private final LocalShoppingListBroker localBroker;
+    private final ShoppingListSubscriptions subscriptions;
+    private final WebsocketProperties.BrokerProperties properties;
+    private final ObjectMapper objectMapper;
+    private final PostgresNotifications notifications;
+
+    public PostgresShoppingListBroker(LocalShoppingListBroker localBroker,
+                                      ShoppingListSubscriptions subscriptions,
+                                      WebsocketProperties.BrokerProperties properties,
+                                      ObjectMapper objectMapper,
+                                      PostgresNotifications notifications) {
+        this.localBroker = localBroker;
+        this.subscriptions = subscriptions;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.notifications = notifications;
+        subscriptions.addFirstSubscriberListener(shoppingListId -> notifications.wakeUp());
+        notifications.register(this);
+    }
+
+    @Override
+    public void relay(ShoppingListUpdateBatch batch) {
+        String payload = payload(batch);
+        if (!notifications.fits(payload)) {
+            // the other replicas let their clients reload the list instead
+            payload = payload(new ShoppingListUpdateBatch(batch.shoppingListId(), batch.firstSequenceNumber(),
+                    batch.sequenceNumber(), List.of(ShoppingListUpdateMessage.reload())));
+        }
+        notifications.notify(channel(batch.shoppingListId()), payload);
+    }
+
+    @Override
+    public void deliver(ShoppingListUpdateBatch batch) {
+        localBroker.deliver(batch);
+    }
+
+    @Override
+    public Set<String> channels() {
+        return subscriptions.subscribedShoppingListIds().stream().map(this::channel).collect(Collectors.toSet());
+    }
+
+    @Override
+    public void onNotification(String channel, String payload) {
+        try {
+            ShoppingListUpdateBatch batch = objectMapper.readValue(payload, ShoppingListUpdateBatch.class);
+            if (subscriptions.hasSubscribers(batch.shoppingListId())) {
+                localBroker.deliver(batch);
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Could not deliver shopping list updates of another replica from channel {}", channel, e);
+        }
+    }
+
+    private String payload(ShoppingListUpdateBatch batch) {
+        try {
+            return objectMapper.writeValueAsString(batch);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize updates of shopping list " + batch.shoppingListId(), e);
+        }
+    }
+
+    private String channel(Long shoppingListId) {
+        return properties.getChannelPrefix() + shoppingListId;
+    }
+}
@@ -0,0 +1,18 @@
+package dev.heinisch.menumaestro.websocket;
+
+/**
+ * Distributes the update batches of shopping lists to their subscribers, possibly across several replicas.
+ */
+public interface ShoppingListBroker {
+
+    /**
+     * Called within the transaction that produced the batch, right before it commits.
+     * Brokers spanning several replicas hand the batch to the other replicas here.
+     */
+    void relay(ShoppingListUpdateBatch batch);
+
+    /**
+     * Called after the transaction committed, sends the batch to the subscribers connected to this replica.
+     */
+    void deliver(ShoppingListUpdateBatch batch);
+}
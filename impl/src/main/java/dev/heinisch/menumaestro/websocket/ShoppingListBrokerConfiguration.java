@@ -0,0 +1,28 @@
+package dev.heinisch.menumaestro.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.heinisch.menumaestro.persistence.PostgresNotifications;
+import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+@Configuration
+public class ShoppingListBrokerConfiguration {
+
+    @Bean
+    public ShoppingListBroker shoppingListBroker(SimpMessagingTemplate messagingTemplate,
+                                                 WebsocketProperties websocketProperties,
+                                                 ShoppingListSubscriptions shoppingListSubscriptions,
+                                                 ShoppingListUpdateSerializer shoppingListUpdateSerializer,
+                                                 ObjectMapper objectMapper,
+                                                 PostgresNotifications postgresNotifications) {
+        var localBroker = new LocalShoppingListBroker(messagingTemplate, websocketProperties,
+                shoppingListSubscriptions, shoppingListUpdateSerializer);
+        return switch (websocketProperties.getBroker().getType()) {
+            case LOCAL -> localBroker;
+            case POSTGRES -> new PostgresShoppingListBroker(localBroker, shoppingListSubscriptions,
+                    websocketProperties.getBroker(), objectMapper, postgresNotifications);
+        };
+    }
+}
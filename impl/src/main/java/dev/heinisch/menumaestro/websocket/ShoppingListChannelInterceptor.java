@@ -7,6 +7,7 @@ import dev.heinisch.menumaestro.properties.JwtProperties;
 import dev.heinisch.menumaestro.properties.WebsocketProperties;
 import dev.heinisch.menumaestro.service.JwtService;
 import dev.heinisch.menumaestro.service.OrganizationService;
+import dev.heinisch.menumaestro.service.ShoppingListAuthorizationCache;
 import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,8 +16,10 @@ import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 
+import java.util.Date;
 import java.util.List;
 
 @Component
@@ -27,6 +30,7 @@ public class ShoppingListChannelInterceptor implements ChannelInterceptor {
     private final JwtService jwtService;
     private final JwtProperties jwtProperties;
     private final OrganizationService organizationService;
+    private final ShoppingListAuthorizationCache shoppingListAuthorizationCache;
     private final WebsocketProperties websocketProperties;
 
     @Override
@@ -72,6 +76,11 @@ public class ShoppingListChannelInterceptor implements ChannelInterceptor {
         }
 
         final String token = tokenList.getFirst();
+        if (shoppingListAuthorizationCache.isAuthorized(token, shoppingListId)) {
+            log.debug("WebSocket connection established: Cached authorization for shopping list {}", shoppingListId);
+            return withEncoding(message, shoppingListId);
+        }
+
         final Claims claims;
         try {
             claims = jwtService.extractAllClaims(token);
@@ -80,7 +89,7 @@ public class ShoppingListChannelInterceptor implements ChannelInterceptor {
             throw new UnauthorizedException("Invalid JWT token format or claims extraction failed");
         }
 
-        if (jwtService.isTokenExpired(token)) {
+        if (claims.getExpiration().before(new Date())) {
             log.warn("WebSocket connection rejected: Token expired");
             throw new UnauthorizedException("Provided token is expired!");
         }
@@ -102,18 +111,20 @@ public class ShoppingListChannelInterceptor implements ChannelInterceptor {
 
             log.info("WebSocket connection established: User '{}' connected to shopping list {}", username, shoppingListId);
             // logged-in user has permissions
-            return message;
+            shoppingListAuthorizationCache.storeAuthorized(token, shoppingListId, username, claims.getExpiration());
+            return withEncoding(message, shoppingListId);
         }
 
         if(claims.getAudience().contains(jwtProperties.getShoppingListShareToken().getAudienceClaim())) {
-            if (!jwtService.isValidShoppingListToken(shoppingListId, token)) {
+            if (!shoppingListId.toString().equals(claims.getSubject())) {
                 log.warn("WebSocket connection rejected: Invalid shopping list share token for shopping list {}", shoppingListId);
                 throw ForbiddenException.generic();
             }
 
             log.info("WebSocket connection established: Anonymous user connected via share token to shopping list {}", shoppingListId);
             // shopping list share token is valid
-            return message;
+            shoppingListAuthorizationCache.storeAuthorized(token, shoppingListId, null, claims.getExpiration());
+            return withEncoding(message, shoppingListId);
         }
 
         log.warn("WebSocket connection rejected: Token has wrong audience claim");
@@ -121,4 +132,18 @@ public class ShoppingListChannelInterceptor implements ChannelInterceptor {
         throw new UnauthorizedException("Wrong token provided!");
     }
 
+    /**
+     * Moves the subscription to the destination of the requested encoding. Only done after the permission check,
+     * since the encoding destinations themselves are rejected above.
+     */
+    private Message<?> withEncoding(Message<?> message, Long shoppingListId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        ShoppingListEncoding encoding = ShoppingListEncoding.of(accessor);
+        if (encoding == ShoppingListEncoding.JSON) {
+            return message;
+        }
+        accessor.setDestination(encoding.destination(websocketProperties.getTopics().getShoppingListTopicPrefix(), shoppingListId));
+        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+    }
+
 }
@@ -0,0 +1,85 @@
+package dev.heinisch.menumaestro.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Encoding of the shopping list updates sent to a subscription, chosen by the client with the {@value #ACCEPT_HEADER}
+ * header of its SUBSCRIBE frame. Subscriptions without the header, or with an unknown type, receive JSON.
+ * Binary encodings are sent as application/octet-stream, which makes spring send binary websocket frames, and are
+ * not available over SockJS.
+ */
+public enum ShoppingListEncoding {
+    JSON(MimeTypeUtils.APPLICATION_JSON, null, null),
+    CBOR(new MimeType("application", "cbor"), "cbor", CBORFactory::new),
+    SMILE(new MimeType("application", "x-jackson-smile"), "smile", SmileFactory::new);
+
+    public static final String ACCEPT_HEADER = "X-Accept";
+
+    private final MimeType mimeType;
+    private final String destinationSuffix;
+    private final Supplier<JsonFactory> factory;
+
+    ShoppingListEncoding(MimeType mimeType, String destinationSuffix, Supplier<JsonFactory> factory) {
+        this.mimeType = mimeType;
+        this.destinationSuffix = destinationSuffix;
+        this.factory = factory;
+    }
+
+    public MimeType getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Content type of the STOMP frames.
+     */
+    public MimeType getContentType() {
+        return factory == null ? mimeType : MimeTypeUtils.APPLICATION_OCTET_STREAM;
+    }
+
+    /**
+     * Factory of the binary format, null for JSON, which uses the application's object mapper as is.
+     */
+    public JsonFactory createFactory() {
+        return factory == null ? null : factory.get();
+    }
+
+    /**
+     * Each encoding is broadcast on its own destination below the topic of the shopping list, so the payload is
+     * serialized once per encoding and shared by all of its subscribers.
+     */
+    public String destination(String topicPrefix, Long shoppingListId) {
+        String destination = topicPrefix + "/" + shoppingListId;
+        return destinationSuffix == null ? destination : destination + "/" + destinationSuffix;
+    }
+
+    public static ShoppingListEncoding ofDestination(String destination) {
+        for (ShoppingListEncoding encoding : values()) {
+            if (encoding.destinationSuffix != null && destination != null
+                    && destination.endsWith("/" + encoding.destinationSuffix)) {
+                return encoding;
+            }
+        }
+        return JSON;
+    }
+
+    public static ShoppingListEncoding of(StompHeaderAccessor accessor) {
+        List<String> accept = accessor.getNativeHeader(ACCEPT_HEADER);
+        if (accept == null || accept.isEmpty() || accept.getFirst() == null) {
+            return JSON;
+        }
+        for (ShoppingListEncoding encoding : values()) {
+            if (encoding.mimeType.toString().equalsIgnoreCase(accept.getFirst().trim())) {
+                return encoding;
+            }
+        }
+        return JSON;
+    }
+}
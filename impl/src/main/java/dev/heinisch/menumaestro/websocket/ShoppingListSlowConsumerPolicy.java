@@ -0,0 +1,210 @@
+package dev.heinisch.menumaestro.websocket;
+
+import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a session that cannot keep up from queuing every update of its shopping lists.
+ * <br>
+ * Counts the updates handed to the client outbound channel per session until they were actually written to the
+ * socket. Once a session has {@link WebsocketProperties.SessionProperties#getMaxPendingMessages()} updates pending,
+ * further updates for its subscriptions are collapsed into a single RELOAD per subscription, covering the sequence numbers
+ * it missed. A subscription stays collapsed until its RELOAD was sent, so no later update overtakes it. The RELOADs are
+ * sent one by one, in the order the subscriptions fell behind, whenever a written message frees a pending slot.
+ * Sessions exceeding the send buffer or time limits are closed by spring, their clients catch up when reconnecting.
+ */
+@Slf4j
+@Component
+public class ShoppingListSlowConsumerPolicy implements ChannelInterceptor {
+
+    private static final byte[] MESSAGE_FRAME = "MESSAGE\n".getBytes(StandardCharsets.UTF_8);
+
+    private final MessageChannel clientOutboundChannel;
+    private final ShoppingListUpdateSerializer serializer;
+    private final WebsocketProperties websocketProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    public ShoppingListSlowConsumerPolicy(@Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                                          ShoppingListUpdateSerializer serializer,
+                                          WebsocketProperties websocketProperties,
+                                          MeterRegistry meterRegistry) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.serializer = serializer;
+        this.websocketProperties = websocketProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Missed updates of a subscription, collapsed into one RELOAD.
+     */
+    private record CollapsedUpdates(String destination, Long shoppingListId, long firstSequenceNumber, long sequenceNumber) {
+
+        CollapsedUpdates merge(CollapsedUpdates later) {
+            return new CollapsedUpdates(destination, shoppingListId, firstSequenceNumber, later.sequenceNumber);
+        }
+    }
+
+    /**
+     * Guarded by itself, deciding to collapse an update and sending a RELOAD must not interleave.
+     */
+    private static class SessionState {
+        private int pendingMessages;
+        /**
+         * subscription id -> collapsed updates, in the order the subscriptions fell behind
+         */
+        private final Map<String, CollapsedUpdates> collapsed = new LinkedHashMap<>();
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new SessionState());
+                super.afterConnectionEstablished(new PendingMessagesSession(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                try {
+                    super.afterConnectionClosed(session, closeStatus);
+                } finally {
+                    sessions.remove(session.getId());
+                }
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        SessionState state = sessions.get(SimpMessageHeaderAccessor.getSessionId(headers));
+        if (state == null) {
+            return message;
+        }
+        Long shoppingListId = headers.get(LocalShoppingListBroker.SHOPPING_LIST_ID_HEADER, Long.class);
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+        synchronized (state) {
+            if (shoppingListId != null && (state.collapsed.containsKey(subscriptionId)
+                    || state.pendingMessages >= websocketProperties.getSession().getMaxPendingMessages())) {
+                String destination = SimpMessageHeaderAccessor.getDestination(headers);
+                state.collapsed.merge(
+                        subscriptionId,
+                        new CollapsedUpdates(destination, shoppingListId,
+                                headers.get(LocalShoppingListBroker.FIRST_SEQUENCE_NUMBER_HEADER, Long.class),
+                                headers.get(LocalShoppingListBroker.SEQUENCE_NUMBER_HEADER, Long.class)),
+                        CollapsedUpdates::merge
+                );
+                // tagged by encoding, destinations contain the shopping list id
+                meterRegistry.counter("menumaestro.websocket.updates.collapsed",
+                        "encoding", ShoppingListEncoding.ofDestination(destination).name()).increment();
+                return null;
+            }
+            // RELOADs pass here too, they count as pending like any update
+            state.pendingMessages++;
+        }
+        return message;
+    }
+
+    private void onMessageSent(String sessionId) {
+        SessionState state = sessions.get(sessionId);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            state.pendingMessages--;
+            // each RELOAD takes a pending slot once it passed preSend, so the loop stops when the session is full again
+            while (state.pendingMessages < websocketProperties.getSession().getMaxPendingMessages()
+                    && !state.collapsed.isEmpty()) {
+                String subscriptionId = state.collapsed.keySet().iterator().next();
+                sendReload(sessionId, subscriptionId, state.collapsed.remove(subscriptionId));
+            }
+        }
+    }
+
+    private void sendReload(String sessionId, String subscriptionId, CollapsedUpdates updates) {
+        ShoppingListEncoding encoding = ShoppingListEncoding.ofDestination(updates.destination());
+        ShoppingListUpdateBatch reload = new ShoppingListUpdateBatch(updates.shoppingListId(),
+                updates.firstSequenceNumber(), updates.sequenceNumber(), List.of(ShoppingListUpdateMessage.reload()));
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(updates.destination());
+        accessor.setContentType(encoding.getContentType());
+        accessor.setLeaveMutable(true);
+        // sent asynchronously, the session is still being flushed by the calling thread
+        clientOutboundChannel.send(MessageBuilder.createMessage(serializer.serialize(reload, encoding), accessor.getMessageHeaders()));
+        meterRegistry.counter("menumaestro.websocket.updates.reloads", "encoding", encoding.name()).increment();
+        log.debug("Session {} fell behind on {}, sent RELOAD for sequence numbers {} to {}",
+                sessionId, updates.destination(), updates.firstSequenceNumber(), updates.sequenceNumber());
+    }
+
+    private static boolean isMessageFrame(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage textMessage) {
+            return textMessage.getPayload().startsWith("MESSAGE\n");
+        }
+        if (message instanceof BinaryMessage binaryMessage) {
+            ByteBuffer payload = binaryMessage.getPayload();
+            if (payload.remaining() < MESSAGE_FRAME.length) {
+                return false;
+            }
+            for (int i = 0; i < MESSAGE_FRAME.length; i++) {
+                if (payload.get(payload.position() + i) != MESSAGE_FRAME[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sits below the buffering session decorator of spring, so it only sees messages once they are written.
+     */
+    private class PendingMessagesSession extends WebSocketSessionDecorator {
+
+        PendingMessagesSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            super.sendMessage(message);
+            if (isMessageFrame(message)) {
+                onMessageSent(getId());
+            }
+        }
+    }
+}
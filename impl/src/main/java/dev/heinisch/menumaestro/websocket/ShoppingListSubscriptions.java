@@ -0,0 +1,131 @@
+package dev.heinisch.menumaestro.websocket;
+
+import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks which shopping lists have subscribers connected to this replica, and in which {@link ShoppingListEncoding}.
+ * Only subscriptions that passed the {@link ShoppingListChannelInterceptor} are counted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShoppingListSubscriptions {
+
+    private final WebsocketProperties websocketProperties;
+
+    private record Topic(Long shoppingListId, ShoppingListEncoding encoding) {
+    }
+
+    /**
+     * session id -> subscription id -> topic
+     */
+    private final Map<String, Map<String, Topic>> subscriptionsPerSession = new ConcurrentHashMap<>();
+    private final Map<Topic, AtomicInteger> subscriberCounts = new ConcurrentHashMap<>();
+    private final List<Consumer<Long>> firstSubscriberListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Called with the id of a shopping list once it gets its first subscriber on this replica.
+     */
+    public void addFirstSubscriberListener(Consumer<Long> listener) {
+        firstSubscriberListeners.add(listener);
+    }
+
+    public boolean hasSubscribers(Long shoppingListId) {
+        return !encodingsOf(shoppingListId).isEmpty();
+    }
+
+    public Set<ShoppingListEncoding> encodingsOf(Long shoppingListId) {
+        Set<ShoppingListEncoding> encodings = EnumSet.noneOf(ShoppingListEncoding.class);
+        for (ShoppingListEncoding encoding : ShoppingListEncoding.values()) {
+            if (subscriberCounts.containsKey(new Topic(shoppingListId, encoding))) {
+                encodings.add(encoding);
+            }
+        }
+        return encodings;
+    }
+
+    public Set<Long> subscribedShoppingListIds() {
+        return subscriberCounts.keySet().stream().map(Topic::shoppingListId).collect(Collectors.toUnmodifiableSet());
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long shoppingListId = shoppingListIdOf(accessor.getDestination());
+        if (shoppingListId == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        Topic topic = new Topic(shoppingListId, ShoppingListEncoding.of(accessor));
+        Topic previous = subscriptionsPerSession.computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), topic);
+        if (previous != null) {
+            decrement(previous);
+        }
+        boolean first = !hasSubscribers(shoppingListId);
+        subscriberCounts.compute(topic, (key, count) -> {
+            if (count == null) {
+                count = new AtomicInteger();
+            }
+            count.incrementAndGet();
+            return count;
+        });
+        if (first) {
+            firstSubscriberListeners.forEach(listener -> listener.accept(shoppingListId));
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, Topic> subscriptions = accessor.getSessionId() == null ? null : subscriptionsPerSession.get(accessor.getSessionId());
+        if (subscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        Topic topic = subscriptions.remove(accessor.getSubscriptionId());
+        if (topic != null) {
+            decrement(topic);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, Topic> subscriptions = subscriptionsPerSession.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::decrement);
+        }
+    }
+
+    private void decrement(Topic topic) {
+        subscriberCounts.computeIfPresent(topic, (key, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    private Long shoppingListIdOf(String destination) {
+        String prefix = websocketProperties.getTopics().getShoppingListTopicPrefix() + "/";
+        if (destination == null || !destination.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(destination.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
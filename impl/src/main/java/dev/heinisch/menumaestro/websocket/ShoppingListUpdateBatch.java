@@ -0,0 +1,12 @@
+package dev.heinisch.menumaestro.websocket;
+
+import java.util.List;
+
+/**
+ * All updates of one transaction on a shopping list, one per operation appended to the operation log of the list.
+ * Sequence numbers of a list are consecutive, a client whose last seen sequence number is not right before
+ * {@code firstSequenceNumber} missed updates and catches up through the changes of the list.
+ */
+public record ShoppingListUpdateBatch(Long shoppingListId, long firstSequenceNumber, long sequenceNumber,
+                                      List<ShoppingListUpdateMessage> updates) {
+}
@@ -4,11 +4,12 @@ import dev.heinisch.menumaestro.domain.ingredient.IngredientCategory;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
 import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListItem;
 import lombok.Builder;
+import org.openapitools.model.ShoppingListIngredientDto;
 
 @Builder
 public record ShoppingListUpdateMessage(ShoppingListUpdateType updateType, Long shoppingListItemId, String customName,
                                         String name, IngredientUnit unit, Double amount, Boolean isChecked,
-                                        String checkedBy, IngredientCategory category) {
+                                        String checkedBy, IngredientCategory category, ShoppingListIngredientDto item) {
 
     public static ShoppingListUpdateMessage update(ShoppingListItem item) {
         return ShoppingListUpdateMessage.builder()
@@ -24,4 +25,28 @@ public record ShoppingListUpdateMessage(ShoppingListUpdateType updateType, Long
             .build();
     }
 
+    public static ShoppingListUpdateMessage add(ShoppingListItem item, ShoppingListIngredientDto itemDto) {
+        return ShoppingListUpdateMessage.builder()
+            .checkedBy(item.getCheckedByAccountUsername())
+            .isChecked(item.getIsChecked())
+            .shoppingListItemId(item.getId())
+            .amount(item.getAmount())
+            .unit(item.getUnit())
+            .item(itemDto)
+            .updateType(ShoppingListUpdateType.ADD)
+            .build();
+    }
+
+    public static ShoppingListUpdateMessage reload() {
+        return ShoppingListUpdateMessage.builder()
+            .updateType(ShoppingListUpdateType.RELOAD)
+            .build();
+    }
+
+    public static ShoppingListUpdateMessage closed() {
+        return ShoppingListUpdateMessage.builder()
+            .updateType(ShoppingListUpdateType.CLOSED)
+            .build();
+    }
+
 }
@@ -0,0 +1,92 @@
+package dev.heinisch.menumaestro.websocket;
+
+import dev.heinisch.menumaestro.service.ShoppingListOperationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the updates of a transaction per shopping list, appends them to the operation log of the list right before
+ * the transaction commits and publishes them as one {@link ShoppingListUpdateBatch} through the {@link ShoppingListBroker},
+ * so clients never see changes that are rolled back.
+ * Several modifications of the same item within a transaction are coalesced into the last one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShoppingListUpdatePublisher {
+
+    private final ShoppingListOperationService shoppingListOperationService;
+    private final ShoppingListBroker shoppingListBroker;
+
+    /**
+     * Queues the update for the current transaction, which has to be a writing one.
+     */
+    public void publish(Long shoppingListId, ShoppingListUpdateMessage update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Shopping list updates can only be published within a transaction");
+        }
+        PendingUpdates pendingUpdates = (PendingUpdates) TransactionSynchronizationManager.getResource(this);
+        if (pendingUpdates == null) {
+            pendingUpdates = new PendingUpdates();
+            TransactionSynchronizationManager.bindResource(this, pendingUpdates);
+            TransactionSynchronizationManager.registerSynchronization(pendingUpdates);
+        }
+        pendingUpdates.add(shoppingListId, update);
+    }
+
+    /**
+     * A later update of an item replaces an earlier one of the same type, an ADD stays in front of the MODIFYs of its item.
+     */
+    private record ItemUpdateKey(Long shoppingListItemId, ShoppingListUpdateType updateType) {
+    }
+
+    private class PendingUpdates implements TransactionSynchronization {
+        // ordered by list id, so the sequences of several lists are always locked in the same order
+        private final Map<Long, Map<Object, ShoppingListUpdateMessage>> updatesPerList = new TreeMap<>();
+        private final List<ShoppingListUpdateBatch> batches = new ArrayList<>();
+
+        void add(Long shoppingListId, ShoppingListUpdateMessage update) {
+            Object key = update.shoppingListItemId() == null
+                    ? new Object()
+                    : new ItemUpdateKey(update.shoppingListItemId(), update.updateType());
+            updatesPerList.computeIfAbsent(shoppingListId, id -> new LinkedHashMap<>()).put(key, update);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            updatesPerList.forEach((shoppingListId, updatesByKey) -> {
+                List<ShoppingListUpdateMessage> updates = new ArrayList<>(updatesByKey.values());
+                long firstSequenceNumber = shoppingListOperationService.append(shoppingListId, updates);
+                ShoppingListUpdateBatch batch = new ShoppingListUpdateBatch(shoppingListId, firstSequenceNumber,
+                        firstSequenceNumber + updates.size() - 1, updates);
+                shoppingListBroker.relay(batch);
+                batches.add(batch);
+            });
+        }
+
+        @Override
+        public void afterCommit() {
+            for (ShoppingListUpdateBatch batch : batches) {
+                try {
+                    shoppingListBroker.deliver(batch);
+                } catch (RuntimeException e) {
+                    log.warn("Could not publish updates of shopping list {}", batch.shoppingListId(), e);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ShoppingListUpdatePublisher.this);
+        }
+    }
+}
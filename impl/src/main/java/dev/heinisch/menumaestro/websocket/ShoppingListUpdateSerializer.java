@@ -0,0 +1,36 @@
+package dev.heinisch.menumaestro.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Serializes update batches in every {@link ShoppingListEncoding}, based on the configuration of the application's
+ * object mapper.
+ */
+@Component
+public class ShoppingListUpdateSerializer {
+
+    private final Map<ShoppingListEncoding, ObjectWriter> writers = new EnumMap<>(ShoppingListEncoding.class);
+
+    public ShoppingListUpdateSerializer(ObjectMapper objectMapper) {
+        for (ShoppingListEncoding encoding : ShoppingListEncoding.values()) {
+            JsonFactory factory = encoding.createFactory();
+            ObjectMapper mapper = factory == null ? objectMapper : objectMapper.copyWith(factory);
+            writers.put(encoding, mapper.writerFor(ShoppingListUpdateBatch.class));
+        }
+    }
+
+    public byte[] serialize(ShoppingListUpdateBatch batch, ShoppingListEncoding encoding) {
+        try {
+            return writers.get(encoding).writeValueAsBytes(batch);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize updates of shopping list " + batch.shoppingListId(), e);
+        }
+    }
+}
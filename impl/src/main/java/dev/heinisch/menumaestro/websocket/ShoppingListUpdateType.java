@@ -2,6 +2,10 @@ package dev.heinisch.menumaestro.websocket;
 
 public enum ShoppingListUpdateType {
     MODIFY,
+    /**
+     * A new item, carried in full so clients do not have to reload the list.
+     */
+    ADD,
     RELOAD,
     CLOSED
 }
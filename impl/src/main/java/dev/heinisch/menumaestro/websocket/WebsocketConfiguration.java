@@ -12,6 +12,7 @@ import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 import java.util.List;
 
@@ -22,6 +23,7 @@ import java.util.List;
 public class WebsocketConfiguration implements WebSocketMessageBrokerConfigurer {
 
     private final ShoppingListChannelInterceptor interceptor;
+    private final ShoppingListSlowConsumerPolicy slowConsumerPolicy;
     private final WebsocketProperties websocketProperties;
     private final CorsProperties corsProperties;
 
@@ -51,4 +53,16 @@ public class WebsocketConfiguration implements WebSocketMessageBrokerConfigurer
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(interceptor);
     }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(slowConsumerPolicy);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit((int) websocketProperties.getSession().getSendBufferSizeLimit().toBytes());
+        registration.setSendTimeLimit((int) websocketProperties.getSession().getSendTimeLimit().toMillis());
+        registration.addDecoratorFactory(slowConsumerPolicy::decorate);
+    }
 }
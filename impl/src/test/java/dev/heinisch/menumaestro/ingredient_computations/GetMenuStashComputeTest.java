@@ -3,6 +3,7 @@ package dev.heinisch.menumaestro.ingredient_computations;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
 import dev.heinisch.menumaestro.domain.menu.Menu;
 import dev.heinisch.menumaestro.domain.menu.MenuComputationService;
+import dev.heinisch.menumaestro.domain.menu.MenuMetadataCache;
 import dev.heinisch.menumaestro.domain.menu.Snapshot;
 import dev.heinisch.menumaestro.domain.organization.Organization;
 import dev.heinisch.menumaestro.domain.stash.Stash;
@@ -22,17 +23,21 @@ import dev.heinisch.menumaestro.persistence.MenuRepository;
 import dev.heinisch.menumaestro.persistence.OrganizationRepository;
 import dev.heinisch.menumaestro.persistence.RecipeRepository;
 import dev.heinisch.menumaestro.persistence.ShoppingListRepository;
+import dev.heinisch.menumaestro.service.IngredientCatalogService;
+import dev.heinisch.menumaestro.service.IngredientReferenceCache;
 import dev.heinisch.menumaestro.service.JwtService;
 import dev.heinisch.menumaestro.service.MarkdownValidatorService;
 import dev.heinisch.menumaestro.service.MenuService;
 import dev.heinisch.menumaestro.service.ShoppingListService;
 import dev.heinisch.menumaestro.service.StashService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openapitools.model.MealInMenuDto;
 import org.openapitools.model.MealStatus;
 import org.openapitools.model.SnapshotInMenuDto;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -84,7 +89,7 @@ public class GetMenuStashComputeTest extends IngredientComputationTestBase {
         ingredientRepository = mock(IngredientRepository.class);
         markdownValidatorService = mock(MarkdownValidatorService.class);
 
-        menuComputationService = new MenuComputationService(ingredientComputationService);
+        menuComputationService = new MenuComputationService(ingredientComputationService, new MenuMetadataCache(16));
 
         menuMapper = new MenuMapperImpl();
         organizationMapper = new OrganizationMapperImpl();
@@ -92,7 +97,7 @@ public class GetMenuStashComputeTest extends IngredientComputationTestBase {
         shoppingListMapper = new ShoppingListMapperImpl();
 
         shoppingListRepository = mock(ShoppingListRepository.class);
-        menuService = new MenuService(menuRepository, organizationRepository, recipeRepository, mealRepository, ingredientRepository, ingredientMapper, menuMapper, organizationMapper, enumsMapper, menuComputationService, shoppingListRepository, shoppingListService, stashService, entityLocker, markdownValidatorService);
+        menuService = new MenuService(menuRepository, organizationRepository, recipeRepository, mealRepository, new IngredientCatalogService(new IngredientReferenceCache(ingredientRepository, mock(PlatformTransactionManager.class)), new SimpleMeterRegistry()), ingredientMapper, menuMapper, organizationMapper, enumsMapper, menuComputationService, shoppingListRepository, shoppingListService, stashService, entityLocker, markdownValidatorService);
     }
 
     @Test
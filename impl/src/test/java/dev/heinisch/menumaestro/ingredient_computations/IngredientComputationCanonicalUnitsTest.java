@@ -0,0 +1,132 @@
+package dev.heinisch.menumaestro.ingredient_computations;
+
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient_computation.AggregationMode;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientComputationService;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUseBatch;
+import dev.heinisch.menumaestro.domain.menu.Meal;
+import dev.heinisch.menumaestro.domain.stash.Stash;
+import dev.heinisch.menumaestro.mapper.IngredientMapperImpl;
+import dev.heinisch.menumaestro.mapper.ShoppingListMapper;
+import dev.heinisch.menumaestro.mapper.ShoppingListMapperImpl;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.IngredientUnitDto;
+import org.openapitools.model.ShoppingListPreviewEntryDto;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.CUPS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.GRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.KILOGRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.LITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.MILLILITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.OUNCES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.PIECE;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.TABLESPOONS;
+
+/**
+ * Tests {@link AggregationMode#CANONICAL_UNITS}, where amounts are summed in grams, millilitres and pieces
+ * and only converted to nicer units when they are handed to the mappers.
+ */
+public class IngredientComputationCanonicalUnitsTest extends IngredientComputationTestBase {
+
+    IngredientComputationService canonicalComputationService;
+    ShoppingListMapper shoppingListMapper;
+
+    @BeforeEach
+    void setupCanonical() {
+        canonicalComputationService = new IngredientComputationService(ingredientUnitConversionService, AggregationMode.CANONICAL_UNITS);
+        shoppingListMapper = new ShoppingListMapperImpl();
+        ReflectionTestUtils.setField(shoppingListMapper, "ingredientMapper", new IngredientMapperImpl());
+    }
+
+    @Test
+    void givenMixedUnits_sumIngredients_summedInCanonicalUnits() {
+        var batch = IngredientUseBatch.of(List.of(
+                new IngredientUse(ingredient1, KILOGRAMS, 1),
+                new IngredientUse(ingredient1, GRAMS, 500),
+                new IngredientUse(ingredient1, OUNCES, 2),
+                new IngredientUse(ingredient2, LITRES, 1),
+                new IngredientUse(ingredient2, CUPS, 2),
+                new IngredientUse(ingredient2, TABLESPOONS, 3),
+                new IngredientUse(ingredient3, PIECE, 2)
+        ));
+
+        var sum = canonicalComputationService.sumIngredients(batch).stream().toList();
+
+        assertIngredientUsesSetEqual(List.of(
+                new IngredientUse(ingredient1, GRAMS, 1556),
+                new IngredientUse(ingredient2, MILLILITRES, 1517),
+                new IngredientUse(ingredient3, PIECE, 2)
+        ), sum, "canonical sum");
+    }
+
+    @Test
+    void givenVolumeOfIngredientWithDensity_sumIngredients_summedInGrams() {
+        Ingredient flour = Ingredient.builder().id(5L).name("flour").defaultUnit(KILOGRAMS).density(0.5).build();
+
+        var sum = canonicalComputationService.sumIngredients(List.of(
+                new IngredientUse(flour, CUPS, 1),
+                new IngredientUse(flour, GRAMS, 100)
+        )).toList();
+
+        assertIngredientUsesSetEqual(List.of(new IngredientUse(flour, GRAMS, 218)), sum, "canonical sum with density");
+    }
+
+    @Test
+    void givenCanonicalUnits_toDisplayUnit_nicerUnitOfSameKind() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(new IngredientUse(ingredient1, KILOGRAMS, 1.556),
+                        canonicalComputationService.toDisplayUnit(new IngredientUse(ingredient1, GRAMS, 1556))),
+                () -> Assertions.assertEquals(new IngredientUse(ingredient1, GRAMS, 200),
+                        canonicalComputationService.toDisplayUnit(new IngredientUse(ingredient1, GRAMS, 200))),
+                () -> Assertions.assertEquals(new IngredientUse(ingredient2, LITRES, 1.517),
+                        canonicalComputationService.toDisplayUnit(new IngredientUse(ingredient2, MILLILITRES, 1517)))
+        );
+    }
+
+    @Test
+    void givenPreferredUnits_toDisplayUnit_unchanged() {
+        var ingredientUse = new IngredientUse(ingredient1, GRAMS, 1556);
+
+        Assertions.assertSame(ingredientUse, ingredientComputationService.toDisplayUnit(ingredientUse));
+    }
+
+    @Test
+    void givenAmountPair_toDisplayUnit_bothAmountsInDisplayUnit() {
+        var displayed = canonicalComputationService.toDisplayUnit(Pair.of(1200., new IngredientUse(ingredient1, GRAMS, 1500)));
+
+        Assertions.assertEquals(1.2, displayed.getLeft(), 0.0001);
+        Assertions.assertEquals(KILOGRAMS, displayed.getRight().unit());
+        Assertions.assertEquals(1.5, displayed.getRight().amount(), 0.0001);
+    }
+
+    @Test
+    void givenStash_previewEntries_convertedToDisplayUnitAtMapper() {
+        Set<Meal> meals = Set.of(mealScaledWithIngredients("meal", 1, 1, Set.of(
+                useIngredient(ingredient1, KILOGRAMS, 1),
+                useIngredient(ingredient1, GRAMS, 500))));
+        Stash stash = Stash.builder().entries(Set.of(stashEntry(ingredient1.getId(), GRAMS, 1000))).build();
+
+        var result = canonicalComputationService.computeMissingIngredientsSimple(meals, meals, stash, this::mockLoadIngredient);
+        assertIngredientUsesSetEqual(List.of(new IngredientUse(ingredient1, GRAMS, 500)), result.missingIngredients(), "missing");
+        List<ShoppingListPreviewEntryDto> entries = shoppingListMapper.toPreviewEntryDtos(canonicalComputationService
+                .mapToIngredientAmountPair(result.usedStashIngredients(), result.totalIngredients()).stream()
+                .map(canonicalComputationService::toDisplayUnit)
+                .toList());
+
+        Assertions.assertEquals(1, entries.size());
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(ingredient1.getId(), entries.getFirst().getId()),
+                () -> Assertions.assertEquals(IngredientUnitDto.KILOGRAMS, entries.getFirst().getUnit()),
+                () -> Assertions.assertEquals(1f, entries.getFirst().getAmount(), 0.0001f),
+                () -> Assertions.assertEquals(1.5f, entries.getFirst().getTotalAmount(), 0.0001f)
+        );
+    }
+}
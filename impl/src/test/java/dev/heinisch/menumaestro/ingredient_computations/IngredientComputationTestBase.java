@@ -10,6 +10,8 @@ import dev.heinisch.menumaestro.domain.menu.Meal;
 import dev.heinisch.menumaestro.domain.recipe.RecipeIngredientUse;
 import dev.heinisch.menumaestro.domain.recipe.RecipeValue;
 import dev.heinisch.menumaestro.domain.stash.StashEntry;
+import dev.heinisch.menumaestro.domain.stash.StashMovement;
+import dev.heinisch.menumaestro.domain.stash.StashMovementSource;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 
@@ -72,6 +74,16 @@ public class IngredientComputationTestBase {
                 .build();
     }
 
+    StashMovement pendingMovement(Long ingredientId, IngredientUnit unit, double amount) {
+        return StashMovement.builder()
+                .ingredientId(ingredientId)
+                .unit(unit)
+                .amount(amount)
+                .source(StashMovementSource.MEAL_DONE)
+                .compacted(false)
+                .build();
+    }
+
     RecipeIngredientUse useIngredient(Ingredient ingredient, IngredientUnit unit, float amount) {
         return RecipeIngredientUse.builder()
                 .ingredient(ingredient)
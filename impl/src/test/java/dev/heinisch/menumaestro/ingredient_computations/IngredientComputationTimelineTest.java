@@ -0,0 +1,65 @@
+package dev.heinisch.menumaestro.ingredient_computations;
+
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
+import dev.heinisch.menumaestro.domain.menu.MealStatus;
+import dev.heinisch.menumaestro.domain.stash.Stash;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.GRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.KILOGRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.LITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.MILLILITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.PIECE;
+
+public class IngredientComputationTimelineTest extends IngredientComputationTestBase {
+
+    @Test
+    void givenStash_earlierMealTakesIngredientsFirst() {
+        var meal1 = mealScaledWithIngredients("meal 1", 1, 1, Set.of(
+                useIngredient(ingredient1, GRAMS, 600)));
+        var meal2 = mealScaledWithIngredients("meal 2", 1, 1, Set.of(
+                useIngredient(ingredient1, KILOGRAMS, 0.6f),
+                useIngredient(ingredient3, PIECE, 2)));
+        var meal3 = mealScaledWithIngredients("meal 3", 1, 1, Set.of(
+                useIngredient(ingredient3, PIECE, 1)));
+        var stash = Stash.builder().entries(Set.of(stashEntry(1L, KILOGRAMS, 1))).build();
+
+        var result = ingredientComputationService.computeMissingIngredientsWithTimelineHeuristic(
+                List.of(meal3, meal2, meal1), List.of(meal1, meal2, meal3), stash, this::mockLoadIngredient);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(MealStatus.ALL_INGREDIENTS_PRESENT, result.mealStatusPerMeal().get(meal1.getId())),
+                () -> Assertions.assertEquals(MealStatus.SOME_INGREDIENTS_MISSING, result.mealStatusPerMeal().get(meal2.getId())),
+                () -> Assertions.assertEquals(MealStatus.ALL_INGREDIENTS_MISSING, result.mealStatusPerMeal().get(meal3.getId()))
+        );
+        assertIngredientUsesSetEqual(List.of(
+                new IngredientUse(ingredient1, GRAMS, 200),
+                new IngredientUse(ingredient3, PIECE, 3)
+        ), result.missingIngredients(), "missing");
+    }
+
+    @Test
+    void givenUnselectedMealInBetween_consumesStashWithoutReportingMissing() {
+        var meal1 = mealScaledWithIngredients("meal 1", 1, 1, Set.of(
+                useIngredient(ingredient2, LITRES, 1)));
+        var unselected = mealScaledWithIngredients("meal 2", 1, 1, Set.of(
+                useIngredient(ingredient2, MILLILITRES, 1500)));
+        var meal3 = mealScaledWithIngredients("meal 3", 1, 1, Set.of(
+                useIngredient(ingredient2, LITRES, 0.5f)));
+        var stash = Stash.builder().entries(Set.of(stashEntry(2L, LITRES, 2))).build();
+
+        var result = ingredientComputationService.computeMissingIngredientsWithTimelineHeuristic(
+                List.of(meal1, meal3), List.of(meal1, unselected, meal3), stash, this::mockLoadIngredient);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(MealStatus.ALL_INGREDIENTS_PRESENT, result.mealStatusPerMeal().get(meal1.getId())),
+                () -> Assertions.assertEquals(MealStatus.ALL_INGREDIENTS_MISSING, result.mealStatusPerMeal().get(meal3.getId())),
+                () -> Assertions.assertFalse(result.mealStatusPerMeal().containsKey(unselected.getId()))
+        );
+        assertIngredientUsesSetEqual(List.of(new IngredientUse(ingredient2, LITRES, 0.5)), result.missingIngredients(), "missing");
+    }
+}
@@ -1,10 +1,26 @@
 package dev.heinisch.menumaestro.ingredient_computations;
 
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
 import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUnitConversionService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.Stream;
+
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.CUPS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.GRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.KILOGRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.LITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.MILLILITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.OUNCES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.TABLESPOONS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.TEASPOONS;
 
 public class IngredientUnitConverterTest {
     private IngredientUnitConversionService converter;
@@ -167,4 +183,70 @@ public class IngredientUnitConverterTest {
     public void testCanConvertWeightUnits() {
         Assertions.assertTrue(converter.canConvert(IngredientUnit.GRAMS, IngredientUnit.OUNCES));
     }
+
+    @Test
+    public void testCannotConvertMassToVolumeWithoutDensity() {
+        Ingredient flour = Ingredient.builder().id(1L).defaultUnit(IngredientUnit.KILOGRAMS).build();
+        Assertions.assertFalse(converter.canConvert(flour, IngredientUnit.CUPS, IngredientUnit.GRAMS));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> converter.convertAmountTo(flour, 1, IngredientUnit.CUPS, IngredientUnit.GRAMS));
+    }
+
+    @Test
+    public void testConvertVolumeToMassWithDensity() {
+        Ingredient flour = Ingredient.builder().id(1L).defaultUnit(IngredientUnit.KILOGRAMS).density(0.5).build();
+        Assertions.assertTrue(converter.canConvert(flour, IngredientUnit.CUPS, IngredientUnit.GRAMS));
+        Assertions.assertEquals(118, converter.convertAmountTo(flour, 1, IngredientUnit.CUPS, IngredientUnit.GRAMS), 0.0001);
+        Assertions.assertEquals(0.118, converter.convertAmountTo(flour, 1, IngredientUnit.CUPS, IngredientUnit.KILOGRAMS), 0.0001);
+    }
+
+    @Test
+    public void testConvertMassToVolumeWithDensity() {
+        Ingredient honey = Ingredient.builder().id(2L).defaultUnit(IngredientUnit.GRAMS).density(1.4).build();
+        Assertions.assertEquals(100, converter.convertAmountTo(honey, 140, IngredientUnit.GRAMS, IngredientUnit.MILLILITRES), 0.0001);
+        Assertions.assertFalse(converter.canConvert(honey, IngredientUnit.GRAMS, IngredientUnit.PIECE));
+    }
+
+    /**
+     * Every conversion as it was written before the factor table, multiplying or dividing by the rounded constant.
+     */
+    static Stream<Arguments> roundedConstantConversions() {
+        return Stream.of(
+                Arguments.of(MILLILITRES, LITRES, (DoubleUnaryOperator) amount -> amount / 1000),
+                Arguments.of(MILLILITRES, CUPS, (DoubleUnaryOperator) amount -> amount / 236),
+                Arguments.of(MILLILITRES, TABLESPOONS, (DoubleUnaryOperator) amount -> amount / 15),
+                Arguments.of(MILLILITRES, TEASPOONS, (DoubleUnaryOperator) amount -> amount / 5),
+                Arguments.of(LITRES, MILLILITRES, (DoubleUnaryOperator) amount -> amount * 1000),
+                Arguments.of(LITRES, CUPS, (DoubleUnaryOperator) amount -> amount * 4),
+                Arguments.of(LITRES, TABLESPOONS, (DoubleUnaryOperator) amount -> amount * 68),
+                Arguments.of(LITRES, TEASPOONS, (DoubleUnaryOperator) amount -> amount * 202),
+                Arguments.of(CUPS, MILLILITRES, (DoubleUnaryOperator) amount -> amount * 236),
+                Arguments.of(CUPS, LITRES, (DoubleUnaryOperator) amount -> amount / 4),
+                Arguments.of(CUPS, TABLESPOONS, (DoubleUnaryOperator) amount -> amount * 16),
+                Arguments.of(CUPS, TEASPOONS, (DoubleUnaryOperator) amount -> amount * 48),
+                Arguments.of(TABLESPOONS, MILLILITRES, (DoubleUnaryOperator) amount -> amount * 15),
+                Arguments.of(TABLESPOONS, LITRES, (DoubleUnaryOperator) amount -> amount / 68),
+                Arguments.of(TABLESPOONS, CUPS, (DoubleUnaryOperator) amount -> amount / 16),
+                Arguments.of(TABLESPOONS, TEASPOONS, (DoubleUnaryOperator) amount -> amount * 3),
+                Arguments.of(TEASPOONS, MILLILITRES, (DoubleUnaryOperator) amount -> amount * 5),
+                Arguments.of(TEASPOONS, LITRES, (DoubleUnaryOperator) amount -> amount / 202),
+                Arguments.of(TEASPOONS, CUPS, (DoubleUnaryOperator) amount -> amount / 48),
+                Arguments.of(TEASPOONS, TABLESPOONS, (DoubleUnaryOperator) amount -> amount / 3),
+                Arguments.of(GRAMS, KILOGRAMS, (DoubleUnaryOperator) amount -> amount / 1000),
+                Arguments.of(GRAMS, OUNCES, (DoubleUnaryOperator) amount -> amount / 28),
+                Arguments.of(KILOGRAMS, GRAMS, (DoubleUnaryOperator) amount -> amount * 1000),
+                Arguments.of(KILOGRAMS, OUNCES, (DoubleUnaryOperator) amount -> amount * 35),
+                Arguments.of(OUNCES, GRAMS, (DoubleUnaryOperator) amount -> amount * 28),
+                Arguments.of(OUNCES, KILOGRAMS, (DoubleUnaryOperator) amount -> amount / 35)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("roundedConstantConversions")
+    public void testFactorTable_sameResultsAsRoundedConstants(IngredientUnit fromUnit, IngredientUnit toUnit, DoubleUnaryOperator roundedConstantConversion) {
+        for (double amount : new double[]{0.1, 1, 2.5, 7.3, 236, 1234.567, 1e-9}) {
+            // exactly the same double, not only within a tolerance
+            Assertions.assertEquals(roundedConstantConversion.applyAsDouble(amount), converter.convertAmountTo(amount, fromUnit, toUnit),
+                    fromUnit + " to " + toUnit + " of " + amount);
+        }
+    }
 }
@@ -0,0 +1,56 @@
+package dev.heinisch.menumaestro.ingredient_computations;
+
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientAmountAccumulator;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUseBatch;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.GRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.KILOGRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.MILLILITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.PIECE;
+
+public class IngredientUseBatchSumTest extends IngredientComputationTestBase {
+
+    @Test
+    void givenBatch_sumIngredients_convertsToFirstUnitOfSameKind() {
+        var batch = IngredientUseBatch.of(List.of(
+                new IngredientUse(ingredient1, KILOGRAMS, 0.5),
+                new IngredientUse(ingredient1, GRAMS, 250),
+                new IngredientUse(ingredient1, PIECE, 2),
+                new IngredientUse(ingredient3, PIECE, 1),
+                new IngredientUse(ingredient3, PIECE, 1)
+        ));
+
+        IngredientAmountAccumulator sum = ingredientComputationService.sumIngredients(batch);
+
+        assertIngredientUsesSetEqual(List.of(
+                new IngredientUse(ingredient1, KILOGRAMS, 0.75),
+                new IngredientUse(ingredient1, PIECE, 2),
+                new IngredientUse(ingredient3, PIECE, 2)
+        ), sum.stream().toList(), "batch sum");
+    }
+
+    @Test
+    void givenManyIngredients_sumIngredients_matchesStreamSum() {
+        List<IngredientUse> uses = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            Ingredient ingredient = Ingredient.builder().id(id).name("ingredient " + id).defaultUnit(MILLILITRES).build();
+            for (IngredientUnit unit : IngredientUnit.values()) {
+                uses.add(new IngredientUse(ingredient, unit, id));
+            }
+        }
+
+        List<IngredientUse> sum = ingredientComputationService.sumIngredients(uses).toList();
+
+        // per ingredient: one volume, one mass and one piece bucket
+        Assertions.assertEquals(1500, sum.size());
+        Assertions.assertEquals(sum.size(), ingredientComputationService.sumIngredients(IngredientUseBatch.of(sum)).size());
+    }
+}
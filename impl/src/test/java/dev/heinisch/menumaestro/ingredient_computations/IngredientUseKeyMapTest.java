@@ -0,0 +1,38 @@
+package dev.heinisch.menumaestro.ingredient_computations;
+
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUseKey;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUseKeyMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IngredientUseKeyMapTest {
+
+    @Test
+    void key_roundTripsIngredientIdAndUnit() {
+        long key = IngredientUseKey.of(123456789L, IngredientUnit.TABLESPOONS);
+        Assertions.assertEquals(123456789L, IngredientUseKey.ingredientIdOf(key));
+        Assertions.assertEquals(IngredientUnit.TABLESPOONS, IngredientUseKey.unitOf(key));
+        Assertions.assertNotEquals(key, IngredientUseKey.of(123456789L, IngredientUnit.TEASPOONS));
+    }
+
+    @Test
+    void putGetRemove_growsBeyondExpectedSize() {
+        IngredientUseKeyMap<String> map = new IngredientUseKeyMap<>(2);
+        for (long id = 1; id <= 100; id++) {
+            for (IngredientUnit unit : IngredientUnit.values()) {
+                map.put(IngredientUseKey.of(id, unit), id + unit.name());
+            }
+        }
+        Assertions.assertEquals("42GRAMS", map.get(IngredientUseKey.of(42, IngredientUnit.GRAMS)));
+        Assertions.assertNull(map.get(IngredientUseKey.of(101, IngredientUnit.GRAMS)));
+
+        Assertions.assertEquals("42GRAMS", map.remove(IngredientUseKey.of(42, IngredientUnit.GRAMS)));
+        Assertions.assertFalse(map.containsKey(IngredientUseKey.of(42, IngredientUnit.GRAMS)));
+        Assertions.assertNull(map.remove(IngredientUseKey.of(42, IngredientUnit.GRAMS)));
+        Assertions.assertTrue(map.containsKey(IngredientUseKey.of(42, IngredientUnit.KILOGRAMS)));
+
+        map.put(IngredientUseKey.of(42, IngredientUnit.GRAMS), "again");
+        Assertions.assertEquals("again", map.get(IngredientUseKey.of(42, IngredientUnit.GRAMS)));
+    }
+}
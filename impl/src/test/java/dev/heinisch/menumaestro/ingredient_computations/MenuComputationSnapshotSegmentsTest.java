@@ -0,0 +1,94 @@
+package dev.heinisch.menumaestro.ingredient_computations;
+
+import dev.heinisch.menumaestro.domain.menu.Meal;
+import dev.heinisch.menumaestro.domain.menu.MealStatus;
+import dev.heinisch.menumaestro.domain.menu.Menu;
+import dev.heinisch.menumaestro.domain.menu.MenuComputationService;
+import dev.heinisch.menumaestro.domain.menu.MenuItem;
+import dev.heinisch.menumaestro.domain.menu.MenuMetadataCache;
+import dev.heinisch.menumaestro.domain.menu.Snapshot;
+import dev.heinisch.menumaestro.domain.menu.SnapshotEvaluationExecutor;
+import dev.heinisch.menumaestro.domain.menu.SnapshotMetadata;
+import dev.heinisch.menumaestro.domain.stash.Stash;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.GRAMS;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.LITRES;
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.PIECE;
+
+public class MenuComputationSnapshotSegmentsTest extends IngredientComputationTestBase {
+
+    @Test
+    void snapshotsEvaluatedConcurrently_sameResultAsSequential() {
+        Map<Long, MealStatus> sequentialStatuses = new HashMap<>();
+        List<SnapshotMetadata> sequentialMetadata = new ArrayList<>();
+        compute(SnapshotEvaluationExecutor.sequential(), sequentialStatuses, sequentialMetadata);
+
+        Map<Long, MealStatus> concurrentStatuses = new HashMap<>();
+        List<SnapshotMetadata> concurrentMetadata = new ArrayList<>();
+        try (var executor = SnapshotEvaluationExecutor.bounded(4, 2)) {
+            compute(executor, concurrentStatuses, concurrentMetadata);
+        }
+
+        Assertions.assertEquals(sequentialStatuses, concurrentStatuses);
+        Assertions.assertEquals(sequentialMetadata, concurrentMetadata);
+        Assertions.assertTrue(sequentialStatuses.containsValue(MealStatus.ALL_INGREDIENTS_PRESENT));
+        Assertions.assertTrue(sequentialStatuses.containsValue(MealStatus.SOME_INGREDIENTS_MISSING));
+    }
+
+    @Test
+    void getIncludedMeals_onlyMealsBeforeSelectedSnapshots() {
+        var meal1 = mealScaledWithIngredients("meal 1", 1, 1, Set.of(useIngredient(ingredient1, GRAMS, 100)));
+        var snapshot1 = Snapshot.builder().name("snapshot 1").build();
+        var meal2 = mealScaledWithIngredients("meal 2", 1, 1, Set.of(useIngredient(ingredient1, GRAMS, 100)));
+        var meal3 = mealScaledWithIngredients("meal 3", 1, 1, Set.of(useIngredient(ingredient1, GRAMS, 100)));
+        var snapshot2 = Snapshot.builder().name("snapshot 2").build();
+        var menu = Menu.builder().name("menu").description("menu").numberOfPeople(1).organizationId(1L)
+                .items(List.of(meal1, snapshot1, meal2, meal3, snapshot2)).build();
+        var menuComputationService = new MenuComputationService(ingredientComputationService, new MenuMetadataCache(16));
+
+        Assertions.assertEquals(Set.of(meal2, meal3), menuComputationService.getIncludedMeals(menu, Set.of(snapshot2)));
+        Assertions.assertEquals(Set.of(meal1, meal2, meal3), menuComputationService.getIncludedMeals(menu, Set.of(snapshot1, snapshot2)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> menuComputationService.getIncludedMeals(menu, Set.of(Snapshot.builder().name("other").build())));
+    }
+
+    private void compute(SnapshotEvaluationExecutor executor, Map<Long, MealStatus> mealStatuses, List<SnapshotMetadata> snapshotMetadata) {
+        idSeq = 0;
+        List<MenuItem> items = new ArrayList<>();
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (int day = 0; day < 14; day++) {
+            items.add(mealScaledWithIngredients("breakfast " + day, 2, 1, Set.of(
+                    useIngredient(ingredient1, GRAMS, 50 * day),
+                    useIngredient(ingredient3, PIECE, 1))));
+            items.add(mealScaledWithIngredients("dinner " + day, 4, 2, Set.of(
+                    useIngredient(ingredient2, LITRES, 0.25f * day),
+                    useIngredient(ingredient1, GRAMS, 100))));
+            Snapshot snapshot = Snapshot.builder().name("day " + day).build();
+            snapshots.add(snapshot);
+            items.add(snapshot);
+        }
+        var menu = Menu.builder().name("camp").description("camp").numberOfPeople(4).organizationId(1L).items(items).build();
+        menu.setStash(Stash.builder().entries(Set.of(
+                stashEntry(1L, GRAMS, 900),
+                stashEntry(2L, LITRES, 2),
+                stashEntry(3L, PIECE, 3))).build());
+
+        new MenuComputationService(ingredientComputationService, new MenuMetadataCache(16), executor)
+                .computeMetadataWithoutCache(menu, this::mockLoadIngredient);
+
+        for (MenuItem item : items) {
+            if (item instanceof Meal meal) {
+                mealStatuses.put(meal.getId(), meal.getStatus());
+            }
+        }
+        snapshots.forEach(snapshot -> snapshotMetadata.add(snapshot.getMetadata()));
+    }
+}
@@ -0,0 +1,160 @@
+package dev.heinisch.menumaestro.ingredient_computations;
+
+import dev.heinisch.menumaestro.domain.ingredient.IngredientCatalog;
+import dev.heinisch.menumaestro.domain.menu.Meal;
+import dev.heinisch.menumaestro.domain.menu.MealStatus;
+import dev.heinisch.menumaestro.domain.menu.Menu;
+import dev.heinisch.menumaestro.domain.menu.MenuComputationService;
+import dev.heinisch.menumaestro.domain.menu.MenuItem;
+import dev.heinisch.menumaestro.domain.menu.MenuMetadataCache;
+import dev.heinisch.menumaestro.domain.menu.Snapshot;
+import dev.heinisch.menumaestro.domain.menu.SnapshotMetadata;
+import dev.heinisch.menumaestro.domain.stash.Stash;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.heinisch.menumaestro.domain.ingredient.IngredientUnit.GRAMS;
+
+public class MenuMetadataCacheTest extends IngredientComputationTestBase {
+
+    MenuMetadataCache menuMetadataCache;
+    MenuComputationService menuComputationService;
+    AtomicInteger ingredientLookups;
+    IngredientCatalog countingCatalog;
+
+    Meal meal1;
+    Meal meal2;
+    Snapshot snapshot;
+    Menu menu;
+
+    @BeforeEach
+    void setUpMenu() {
+        menuMetadataCache = new MenuMetadataCache(16);
+        menuComputationService = new MenuComputationService(ingredientComputationService, menuMetadataCache);
+        ingredientLookups = new AtomicInteger();
+        countingCatalog = id -> {
+            ingredientLookups.incrementAndGet();
+            return mockLoadIngredient(id);
+        };
+
+        meal1 = mealScaledWithIngredients("meal 1", 1, 1, Set.of(useIngredient(ingredient1, GRAMS, 100)));
+        meal2 = mealScaledWithIngredients("meal 2", 1, 1, Set.of(useIngredient(ingredient1, GRAMS, 100)));
+        snapshot = Snapshot.builder().name("snapshot").build();
+        ReflectionTestUtils.setField(snapshot, "id", 10L);
+        menu = menu(1L, List.of(meal1, meal2, snapshot), 150);
+    }
+
+    @Test
+    void sameVersions_metadataServedFromCache() {
+        menuComputationService.computeMetadata(menu, countingCatalog);
+        int lookupsOfComputation = ingredientLookups.get();
+        MealStatus meal1Status = meal1.getStatus();
+        MealStatus meal2Status = meal2.getStatus();
+        SnapshotMetadata snapshotMetadata = snapshot.getMetadata();
+        ReflectionTestUtils.setField(meal1, "status", null);
+        ReflectionTestUtils.setField(meal2, "status", null);
+        ReflectionTestUtils.setField(snapshot, "metadata", null);
+
+        menuComputationService.computeMetadata(menu, countingCatalog);
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(lookupsOfComputation > 0),
+                () -> Assertions.assertEquals(lookupsOfComputation, ingredientLookups.get()),
+                () -> Assertions.assertEquals(MealStatus.ALL_INGREDIENTS_PRESENT, meal1Status),
+                () -> Assertions.assertEquals(meal1Status, meal1.getStatus()),
+                () -> Assertions.assertEquals(meal2Status, meal2.getStatus()),
+                () -> Assertions.assertNotNull(snapshotMetadata),
+                () -> Assertions.assertEquals(snapshotMetadata, snapshot.getMetadata())
+        );
+    }
+
+    @Test
+    void stashVersionChanged_metadataRecomputed() {
+        menuComputationService.computeMetadata(menu, countingCatalog);
+        int lookupsOfComputation = ingredientLookups.get();
+
+        menu.getStash().incrementVersionNumber();
+        menuComputationService.computeMetadata(menu, countingCatalog);
+
+        Assertions.assertEquals(2 * lookupsOfComputation, ingredientLookups.get());
+    }
+
+    @Test
+    void movementPending_metadataRecomputedWithMovement() {
+        menuComputationService.computeMetadata(menu, countingCatalog);
+        Assertions.assertEquals(MealStatus.SOME_INGREDIENTS_MISSING, meal2.getStatus());
+
+        menu.setStash(Stash.builder()
+                .entries(Set.of(stashEntry(ingredient1.getId(), GRAMS, 150)))
+                .pendingMovements(List.of(pendingMovement(ingredient1.getId(), GRAMS, 50)))
+                .build());
+        menuComputationService.computeMetadata(menu, countingCatalog);
+
+        Assertions.assertEquals(MealStatus.ALL_INGREDIENTS_PRESENT, meal2.getStatus());
+    }
+
+    @Test
+    void contentVersionChanged_metadataRecomputed() {
+        menuComputationService.computeMetadata(menu, countingCatalog);
+        int lookupsOfComputation = ingredientLookups.get();
+
+        ReflectionTestUtils.setField(menu, "contentVersion", 1L);
+        menuComputationService.computeMetadata(menu, countingCatalog);
+
+        Assertions.assertEquals(2 * lookupsOfComputation, ingredientLookups.get());
+    }
+
+    @Test
+    void invalidateAll_metadataRecomputed() {
+        menuComputationService.computeMetadata(menu, countingCatalog);
+        int lookupsOfComputation = ingredientLookups.get();
+
+        menuMetadataCache.invalidateAll();
+        menuComputationService.computeMetadata(menu, countingCatalog);
+
+        Assertions.assertEquals(2 * lookupsOfComputation, ingredientLookups.get());
+    }
+
+    @Test
+    void otherMenuWithSameVersions_notServedFromCacheOfMenu() {
+        menuComputationService.computeMetadata(menu, countingCatalog);
+
+        var otherMeal = mealScaledWithIngredients("meal 1", 1, 1, Set.of(useIngredient(ingredient1, GRAMS, 100)));
+        ReflectionTestUtils.setField(otherMeal, "id", meal1.getId());
+        var otherMenu = menu(2L, List.of(otherMeal), 0);
+        menuComputationService.computeMetadata(otherMenu, countingCatalog);
+
+        Assertions.assertEquals(MealStatus.ALL_INGREDIENTS_PRESENT, meal1.getStatus());
+        Assertions.assertEquals(MealStatus.ALL_INGREDIENTS_MISSING, otherMeal.getStatus());
+    }
+
+    @Test
+    void menuChangedAfterComputation_cachedMetadataUnaffected() {
+        menuComputationService.computeMetadata(menu, countingCatalog);
+        MealStatus meal1Status = meal1.getStatus();
+        SnapshotMetadata snapshotMetadata = snapshot.getMetadata();
+
+        ReflectionTestUtils.setField(meal1, "status", MealStatus.DONE);
+        ReflectionTestUtils.setField(snapshot, "metadata", new SnapshotMetadata(0, 0, 0));
+        menuComputationService.computeMetadata(menu, countingCatalog);
+
+        Assertions.assertEquals(meal1Status, meal1.getStatus());
+        Assertions.assertEquals(snapshotMetadata, snapshot.getMetadata());
+    }
+
+    private Menu menu(Long id, List<MenuItem> items, float gramsInStash) {
+        var menu = Menu.builder().name("menu").description("menu").numberOfPeople(1).organizationId(1L)
+                .items(items).build();
+        ReflectionTestUtils.setField(menu, "id", id);
+        menu.setStash(Stash.builder().entries(gramsInStash > 0
+                ? Set.of(stashEntry(ingredient1.getId(), GRAMS, gramsInStash))
+                : Set.of()).build());
+        return menu;
+    }
+}
@@ -0,0 +1,52 @@
+package dev.heinisch.menumaestro.ingredient_computations;
+
+import dev.heinisch.menumaestro.DefaultIngredientTestData;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientUnit;
+import dev.heinisch.menumaestro.mapper.StashMapper;
+import dev.heinisch.menumaestro.mapper.StashMapperImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.IngredientUnitDto;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+public class StashMapperTest extends IngredientComputationTestBase {
+
+    StashMapper stashMapper;
+
+    @BeforeEach
+    void setupMapper() {
+        stashMapper = new StashMapperImpl();
+        ReflectionTestUtils.setField(stashMapper, "ingredientUnitConversionService", ingredientUnitConversionService);
+    }
+
+    @Test
+    void toIngredientUseDto_manyGrams_shownInKilograms() {
+        var dto = stashMapper.toIngredientUseDto(stashEntry(ingredient1.getId(), IngredientUnit.GRAMS, 500), ingredient1);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(ingredient1.getId(), dto.getId()),
+                () -> Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_NAME_1, dto.getName()),
+                () -> Assertions.assertEquals(IngredientUnitDto.KILOGRAMS, dto.getUnit()),
+                () -> Assertions.assertEquals(0.5f, dto.getAmount(), 0.0001f)
+        );
+    }
+
+    @Test
+    void toIngredientUseDto_fewMillilitres_unitKept() {
+        var dto = stashMapper.toIngredientUseDto(stashEntry(ingredient2.getId(), IngredientUnit.MILLILITRES, 250), Map.of(ingredient2.getId(), ingredient2));
+
+        Assertions.assertEquals(IngredientUnitDto.MILLILITRES, dto.getUnit());
+        Assertions.assertEquals(250f, dto.getAmount(), 0.0001f);
+    }
+
+    @Test
+    void toIngredientUseDto_pieces_unitKept() {
+        var dto = stashMapper.toIngredientUseDto(stashEntry(ingredient3.getId(), IngredientUnit.PIECE, 30), ingredient3);
+
+        Assertions.assertEquals(IngredientUnitDto.PIECE, dto.getUnit());
+        Assertions.assertEquals(30f, dto.getAmount(), 0.0001f);
+    }
+}
@@ -0,0 +1,52 @@
+package dev.heinisch.menumaestro.service;
+
+import dev.heinisch.menumaestro.DefaultIngredientTestData;
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.PrefetchedIngredientCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+
+public class IngredientCatalogServiceTest {
+
+    SimpleMeterRegistry meterRegistry;
+    IngredientCatalogService ingredientCatalogService;
+    Map<Long, Ingredient> ingredientsById;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        ingredientCatalogService = new IngredientCatalogService(mock(IngredientReferenceCache.class), meterRegistry);
+        ingredientsById = Map.of(
+                1L, DefaultIngredientTestData.defaultIngredient1(1L),
+                2L, DefaultIngredientTestData.defaultIngredient2(2L));
+    }
+
+    @Test
+    void logUsage_countsHitsAndMissesOfAllCatalogs() {
+        var catalog1 = catalog(Set.of(1L));
+        catalog1.get(1L);
+        catalog1.get(1L);
+        catalog1.get(2L);
+        var catalog2 = catalog(Set.of(1L, 2L));
+        catalog2.get(2L);
+
+        ingredientCatalogService.logUsage("first request", catalog1);
+        ingredientCatalogService.logUsage("second request", catalog2);
+
+        Assertions.assertEquals(3, meterRegistry.counter("menumaestro.ingredients.catalog", "result", "hit").count());
+        Assertions.assertEquals(1, meterRegistry.counter("menumaestro.ingredients.catalog", "result", "miss").count());
+    }
+
+    private PrefetchedIngredientCatalog catalog(Set<Long> prefetchIds) {
+        return new PrefetchedIngredientCatalog(prefetchIds,
+                ids -> ids.stream().map(ingredientsById::get).toList(),
+                ingredientsById::get);
+    }
+}
@@ -0,0 +1,63 @@
+package dev.heinisch.menumaestro.service;
+
+import dev.heinisch.menumaestro.DefaultIngredientTestData;
+import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient.IngredientStatus;
+import dev.heinisch.menumaestro.persistence.IngredientRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IngredientReferenceCacheTest {
+
+    IngredientRepository ingredientRepository;
+    IngredientReferenceCache cache;
+
+    @BeforeEach
+    void setup() {
+        ingredientRepository = mock(IngredientRepository.class);
+        when(ingredientRepository.findAll()).thenReturn(List.of(
+                DefaultIngredientTestData.defaultIngredient1(1L),
+                DefaultIngredientTestData.defaultIngredient2(2L)));
+        cache = new IngredientReferenceCache(ingredientRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void findById_loadsSnapshotOnce() {
+        Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_NAME_1, cache.findById(1L).orElseThrow().getName());
+        Assertions.assertEquals(2, cache.findAllById(List.of(1L, 2L)).size());
+
+        verify(ingredientRepository, times(1)).findAll();
+    }
+
+    @Test
+    void changedResult_otherReadersUnaffected() {
+        Ingredient ingredient = cache.findById(1L).orElseThrow();
+        ingredient.setStatus(IngredientStatus.REQUESTED);
+        ingredient.setUsername("someone");
+
+        Ingredient otherRead = cache.findAllById(List.of(1L)).getFirst();
+
+        Assertions.assertNotSame(ingredient, otherRead);
+        Assertions.assertEquals(DefaultIngredientTestData.DEFAULT_INGREDIENT_STATUS_1, otherRead.getStatus());
+        Assertions.assertNull(otherRead.getUsername());
+    }
+
+    @Test
+    void invalidate_nextReadLoadsNewSnapshot() {
+        cache.findById(1L);
+
+        cache.invalidate();
+        cache.findById(1L);
+
+        verify(ingredientRepository, times(2)).findAll();
+    }
+}
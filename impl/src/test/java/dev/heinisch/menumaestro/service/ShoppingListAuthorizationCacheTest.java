@@ -0,0 +1,54 @@
+package dev.heinisch.menumaestro.service;
+
+import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+public class ShoppingListAuthorizationCacheTest {
+
+    private static final Date TOKEN_EXPIRATION = new Date(System.currentTimeMillis() + 60_000);
+
+    SimpleMeterRegistry meterRegistry;
+    ShoppingListAuthorizationCache cache;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ShoppingListAuthorizationCache(new WebsocketProperties(), meterRegistry);
+    }
+
+    @Test
+    void isAuthorized_storedForTokenAndList_hit() {
+        cache.storeAuthorized("token-1", 1L, "user1", TOKEN_EXPIRATION);
+
+        Assertions.assertTrue(cache.isAuthorized("token-1", 1L));
+        Assertions.assertFalse(cache.isAuthorized("token-1", 2L));
+        Assertions.assertFalse(cache.isAuthorized("token-2", 1L));
+        Assertions.assertEquals(1, meterRegistry.counter("menumaestro.websocket.authorization.cache", "result", "hit").count());
+        Assertions.assertEquals(2, meterRegistry.counter("menumaestro.websocket.authorization.cache", "result", "miss").count());
+    }
+
+    @Test
+    void isAuthorized_tokenExpired_miss() {
+        cache.storeAuthorized("token-1", 1L, "user1", new Date(System.currentTimeMillis() - 1));
+
+        Assertions.assertFalse(cache.isAuthorized("token-1", 1L));
+    }
+
+    @Test
+    void invalidateAccount_dropsOnlyEntriesOfAccount() {
+        cache.storeAuthorized("token-1", 1L, "user1", TOKEN_EXPIRATION);
+        cache.storeAuthorized("token-2", 1L, "user2", TOKEN_EXPIRATION);
+        cache.storeAuthorized("share-token", 1L, null, TOKEN_EXPIRATION);
+
+        cache.invalidateAccount("user1");
+
+        Assertions.assertFalse(cache.isAuthorized("token-1", 1L));
+        Assertions.assertTrue(cache.isAuthorized("token-2", 1L));
+        Assertions.assertTrue(cache.isAuthorized("share-token", 1L));
+    }
+}
@@ -0,0 +1,91 @@
+package dev.heinisch.menumaestro.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class LocalShoppingListBrokerTest {
+
+    private static final ShoppingListUpdateBatch BATCH =
+            new ShoppingListUpdateBatch(7L, 3L, 3L, List.of(ShoppingListUpdateMessage.closed()));
+
+    SimpMessagingTemplate messagingTemplate;
+    ShoppingListSubscriptions subscriptions;
+    LocalShoppingListBroker broker;
+
+    @BeforeEach
+    void setup() {
+        WebsocketProperties websocketProperties = new WebsocketProperties();
+        websocketProperties.setTopics(new WebsocketProperties.TopicProperties());
+        websocketProperties.getTopics().setShoppingListTopicPrefix("/shopping-lists");
+
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        subscriptions = new ShoppingListSubscriptions(websocketProperties);
+        broker = new LocalShoppingListBroker(messagingTemplate, websocketProperties, subscriptions,
+                new ShoppingListUpdateSerializer(new ObjectMapper()));
+    }
+
+    @Test
+    void deliver_noSubscribers_sendsNothing() {
+        broker.deliver(BATCH);
+
+        verify(messagingTemplate, never()).send(anyString(), any());
+    }
+
+    @Test
+    void deliver_jsonAndCborSubscribers_sendsOncePerEncoding() throws Exception {
+        subscribe("session-1", null);
+        subscribe("session-2", null);
+        subscribe("session-3", "application/cbor");
+
+        broker.deliver(BATCH);
+
+        ArgumentCaptor<Message<?>> json = messageCaptor();
+        verify(messagingTemplate).send(eq("/shopping-lists/7"), json.capture());
+        Assertions.assertEquals("application/json", json.getValue().getHeaders().get(MessageHeaders.CONTENT_TYPE).toString());
+        Assertions.assertEquals(BATCH, new ObjectMapper().readValue((byte[]) json.getValue().getPayload(), ShoppingListUpdateBatch.class));
+
+        ArgumentCaptor<Message<?>> cbor = messageCaptor();
+        verify(messagingTemplate).send(eq("/shopping-lists/7/cbor"), cbor.capture());
+        Assertions.assertEquals("application/octet-stream", cbor.getValue().getHeaders().get(MessageHeaders.CONTENT_TYPE).toString());
+        Assertions.assertEquals(BATCH, new ObjectMapper(new CBORFactory()).readValue((byte[]) cbor.getValue().getPayload(), ShoppingListUpdateBatch.class));
+
+        verify(messagingTemplate, never()).send(eq("/shopping-lists/7/smile"), any());
+    }
+
+    private void subscribe(String sessionId, String accept) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination("/shopping-lists/7");
+        if (accept != null) {
+            accessor.setNativeHeader(ShoppingListEncoding.ACCEPT_HEADER, accept);
+        }
+        subscriptions.onSubscribe(new SessionSubscribeEvent(this, MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Message<?>> messageCaptor() {
+        return ArgumentCaptor.forClass((Class<Message<?>>) (Class<?>) Message.class);
+    }
+}
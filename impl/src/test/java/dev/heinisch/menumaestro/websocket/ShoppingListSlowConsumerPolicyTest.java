@@ -0,0 +1,136 @@
+package dev.heinisch.menumaestro.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.heinisch.menumaestro.properties.WebsocketProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ShoppingListSlowConsumerPolicyTest {
+
+    private static final String DESTINATION = "/shopping-lists/7";
+
+    MessageChannel clientOutboundChannel;
+    SimpleMeterRegistry meterRegistry;
+    ShoppingListSlowConsumerPolicy policy;
+    WebSocketSession session;
+
+    @BeforeEach
+    void setup() throws Exception {
+        WebsocketProperties websocketProperties = new WebsocketProperties();
+        websocketProperties.getSession().setMaxPendingMessages(2);
+
+        clientOutboundChannel = mock(MessageChannel.class);
+        meterRegistry = new SimpleMeterRegistry();
+        policy = new ShoppingListSlowConsumerPolicy(clientOutboundChannel,
+                new ShoppingListUpdateSerializer(new ObjectMapper()), websocketProperties, meterRegistry);
+        // like the outbound channel of spring, RELOADs pass the interceptor as well
+        when(clientOutboundChannel.send(any())).thenAnswer(invocation -> policy.preSend(invocation.getArgument(0), clientOutboundChannel) != null);
+
+        WebSocketSession rawSession = mock(WebSocketSession.class);
+        when(rawSession.getId()).thenReturn("session-1");
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        policy.decorate(handler).afterConnectionEstablished(rawSession);
+
+        ArgumentCaptor<WebSocketSession> decorated = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(decorated.capture());
+        session = decorated.getValue();
+    }
+
+    @Test
+    void preSend_belowLimit_passesUpdates() {
+        Assertions.assertNotNull(policy.preSend(update(1), clientOutboundChannel));
+        Assertions.assertNotNull(policy.preSend(update(2), clientOutboundChannel));
+    }
+
+    @Test
+    void preSend_sessionFellBehind_collapsesUpdatesIntoOneReload() throws Exception {
+        policy.preSend(update(1), clientOutboundChannel);
+        policy.preSend(update(2), clientOutboundChannel);
+
+        Assertions.assertNull(policy.preSend(update(3), clientOutboundChannel));
+        Assertions.assertNull(policy.preSend(update(4), clientOutboundChannel));
+        Assertions.assertEquals(2, meterRegistry.counter("menumaestro.websocket.updates.collapsed", "encoding", ShoppingListEncoding.JSON.name()).count());
+        verify(clientOutboundChannel, never()).send(any());
+
+        writeMessage();
+
+        List<Message<byte[]>> reloads = sentReloads(1);
+        Assertions.assertEquals("session-1", SimpMessageHeaderAccessor.getSessionId(reloads.getFirst().getHeaders()));
+        Assertions.assertEquals("sub-0", SimpMessageHeaderAccessor.getSubscriptionId(reloads.getFirst().getHeaders()));
+        Assertions.assertEquals(new ShoppingListUpdateBatch(7L, 3L, 4L, List.of(ShoppingListUpdateMessage.reload())), batch(reloads.getFirst()));
+        Assertions.assertEquals(1, meterRegistry.counter("menumaestro.websocket.updates.reloads", "encoding", ShoppingListEncoding.JSON.name()).count());
+    }
+
+    @Test
+    void preSend_subscriptionCollapsed_laterUpdatesMergedUntilItsReloadWasSent() throws Exception {
+        policy.preSend(update("sub-0", 1), clientOutboundChannel);
+        policy.preSend(update("sub-1", 2), clientOutboundChannel);
+        policy.preSend(update("sub-0", 3), clientOutboundChannel);
+        policy.preSend(update("sub-1", 4), clientOutboundChannel);
+        policy.preSend(update("sub-0", 5), clientOutboundChannel);
+
+        // the RELOAD of sub-0 takes the freed slot, sub-1 stays collapsed
+        writeMessage();
+        Assertions.assertNull(policy.preSend(update("sub-1", 6), clientOutboundChannel));
+        Assertions.assertEquals(new ShoppingListUpdateBatch(7L, 3L, 5L, List.of(ShoppingListUpdateMessage.reload())), batch(sentReloads(1).getFirst()));
+
+        writeMessage();
+        List<Message<byte[]>> reloads = sentReloads(2);
+        Assertions.assertEquals("sub-1", SimpMessageHeaderAccessor.getSubscriptionId(reloads.get(1).getHeaders()));
+        Assertions.assertEquals(new ShoppingListUpdateBatch(7L, 4L, 6L, List.of(ShoppingListUpdateMessage.reload())), batch(reloads.get(1)));
+
+        // both RELOADs were sent, the next update once there is room passes again
+        writeMessage();
+        Assertions.assertNotNull(policy.preSend(update("sub-0", 7), clientOutboundChannel));
+    }
+
+    private void writeMessage() throws Exception {
+        session.sendMessage(new TextMessage("MESSAGE\ndestination:" + DESTINATION + "\n\n{}\0"));
+    }
+
+    private List<Message<byte[]>> sentReloads(int times) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> reload = ArgumentCaptor.forClass((Class<Message<byte[]>>) (Class<?>) Message.class);
+        verify(clientOutboundChannel, times(times)).send(reload.capture());
+        return reload.getAllValues();
+    }
+
+    private static ShoppingListUpdateBatch batch(Message<byte[]> message) throws Exception {
+        return new ObjectMapper().readValue(message.getPayload(), ShoppingListUpdateBatch.class);
+    }
+
+    private static Message<byte[]> update(long sequenceNumber) {
+        return update("sub-0", sequenceNumber);
+    }
+
+    private static Message<byte[]> update(String subscriptionId, long sequenceNumber) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId("session-1");
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(DESTINATION);
+        accessor.setHeader(LocalShoppingListBroker.SHOPPING_LIST_ID_HEADER, 7L);
+        accessor.setHeader(LocalShoppingListBroker.FIRST_SEQUENCE_NUMBER_HEADER, sequenceNumber);
+        accessor.setHeader(LocalShoppingListBroker.SEQUENCE_NUMBER_HEADER, sequenceNumber);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
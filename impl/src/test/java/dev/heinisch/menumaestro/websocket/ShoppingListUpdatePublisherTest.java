@@ -0,0 +1,153 @@
+package dev.heinisch.menumaestro.websocket;
+
+import dev.heinisch.menumaestro.service.ShoppingListOperationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the transaction synchronization of the publisher by hand, the way spring does on commit and rollback.
+ */
+public class ShoppingListUpdatePublisherTest {
+
+    ShoppingListOperationService shoppingListOperationService;
+    ShoppingListBroker shoppingListBroker;
+    ShoppingListUpdatePublisher publisher;
+
+    @BeforeEach
+    void setup() {
+        shoppingListOperationService = mock(ShoppingListOperationService.class);
+        shoppingListBroker = mock(ShoppingListBroker.class);
+        publisher = new ShoppingListUpdatePublisher(shoppingListOperationService, shoppingListBroker);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void teardown() {
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.unbindResourceIfPossible(publisher);
+    }
+
+    @Test
+    void publish_withoutTransaction_fails() {
+        TransactionSynchronizationManager.clearSynchronization();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> publisher.publish(1L, ShoppingListUpdateMessage.closed()));
+    }
+
+    @Test
+    void commit_oneBatchPerListWithCoalescedUpdates() {
+        when(shoppingListOperationService.append(eq(2L), any())).thenReturn(10L);
+        publisher.publish(2L, modify(21L, false));
+        publisher.publish(2L, modify(22L, true));
+        publisher.publish(2L, modify(21L, true));
+        publisher.publish(2L, ShoppingListUpdateMessage.closed());
+
+        commit();
+
+        var expected = new ShoppingListUpdateBatch(2L, 10L, 12L,
+                List.of(modify(21L, true), modify(22L, true), ShoppingListUpdateMessage.closed()));
+        verify(shoppingListOperationService).append(2L, expected.updates());
+        InOrder inOrder = inOrder(shoppingListBroker);
+        inOrder.verify(shoppingListBroker).relay(expected);
+        inOrder.verify(shoppingListBroker).deliver(expected);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void commit_addStaysInFrontOfModifyOfItsItem() {
+        when(shoppingListOperationService.append(eq(1L), any())).thenReturn(1L);
+        var add = ShoppingListUpdateMessage.builder()
+                .updateType(ShoppingListUpdateType.ADD)
+                .shoppingListItemId(11L)
+                .isChecked(false)
+                .build();
+        publisher.publish(1L, add);
+        publisher.publish(1L, modify(11L, true));
+
+        commit();
+
+        verify(shoppingListBroker).deliver(new ShoppingListUpdateBatch(1L, 1L, 2L, List.of(add, modify(11L, true))));
+    }
+
+    @Test
+    void commit_severalLists_sequencesAppendedInListOrder() {
+        when(shoppingListOperationService.append(eq(1L), any())).thenReturn(4L);
+        when(shoppingListOperationService.append(eq(2L), any())).thenReturn(7L);
+        publisher.publish(2L, modify(21L, true));
+        publisher.publish(1L, modify(11L, true));
+
+        commit();
+
+        InOrder inOrder = inOrder(shoppingListOperationService, shoppingListBroker);
+        inOrder.verify(shoppingListOperationService).append(1L, List.of(modify(11L, true)));
+        inOrder.verify(shoppingListOperationService).append(2L, List.of(modify(21L, true)));
+        inOrder.verify(shoppingListBroker).deliver(new ShoppingListUpdateBatch(1L, 4L, 4L, List.of(modify(11L, true))));
+        inOrder.verify(shoppingListBroker).deliver(new ShoppingListUpdateBatch(2L, 7L, 7L, List.of(modify(21L, true))));
+    }
+
+    @Test
+    void rollback_nothingAppendedOrPublished() {
+        publisher.publish(1L, modify(11L, true));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        verify(shoppingListOperationService, never()).append(anyLong(), any());
+        verify(shoppingListBroker, never()).relay(any());
+        verify(shoppingListBroker, never()).deliver(any());
+        Assertions.assertFalse(TransactionSynchronizationManager.hasResource(publisher));
+    }
+
+    @Test
+    void deliveryFails_otherBatchesStillDelivered() {
+        when(shoppingListOperationService.append(eq(1L), any())).thenReturn(1L);
+        when(shoppingListOperationService.append(eq(2L), any())).thenReturn(1L);
+        var failingBatch = new ShoppingListUpdateBatch(1L, 1L, 1L, List.of(modify(11L, true)));
+        doThrow(new IllegalStateException("broker down")).when(shoppingListBroker).deliver(failingBatch);
+        publisher.publish(1L, modify(11L, true));
+        publisher.publish(2L, modify(21L, true));
+
+        commit();
+
+        verify(shoppingListBroker).deliver(new ShoppingListUpdateBatch(2L, 1L, 1L, List.of(modify(21L, true))));
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.beforeCommit(false);
+        }
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCommit();
+        }
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    private static ShoppingListUpdateMessage modify(Long itemId, boolean checked) {
+        return ShoppingListUpdateMessage.builder()
+                .updateType(ShoppingListUpdateType.MODIFY)
+                .shoppingListItemId(itemId)
+                .isChecked(checked)
+                .build();
+    }
+}
@@ -4,6 +4,8 @@ import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
 import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
 import dev.heinisch.menumaestro.domain.shopping_list.ShoppingList;
 import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListItem;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListOperation;
+import dev.heinisch.menumaestro.domain.shopping_list.ShoppingListSummary;
 import dev.heinisch.menumaestro.mapper.util.BasePageableMapper;
 import org.apache.commons.lang3.tuple.Pair;
 import org.mapstruct.Context;
@@ -16,6 +18,7 @@ import org.openapitools.model.CloseShoppingListDto;
 import org.openapitools.model.ShoppingListDto;
 import org.openapitools.model.ShoppingListIngredientDto;
 import org.openapitools.model.ShoppingListListPaginatedDto;
+import org.openapitools.model.ShoppingListOperationDto;
 import org.openapitools.model.ShoppingListPreviewEntryDto;
 import org.openapitools.model.ShoppingListStatus;
 
@@ -44,8 +47,16 @@ public interface ShoppingListMapper extends BasePageableMapper<ShoppingListListP
 
     @Mapping(target = "status", source = "isClosed")
     @Mapping(target = "ingredients", source = "items")
+    @Mapping(target = "itemCount", expression = "java((long) shoppingList.getItems().size())")
+    @Mapping(target = "checkedItemCount", expression = "java(shoppingList.getItems().stream().filter(item -> Boolean.TRUE.equals(item.getIsChecked())).count())")
+    @Mapping(target = "sequenceNumber", ignore = true)
     ShoppingListDto toShoppingListDto(ShoppingList shoppingList, @Context Map<Long, Ingredient> ingredientsById);
 
+    @Mapping(target = "status", source = "isClosed")
+    @Mapping(target = "ingredients", expression = "java(new java.util.ArrayList<>())")
+    @Mapping(target = "sequenceNumber", ignore = true)
+    ShoppingListDto toShoppingListSummaryDto(ShoppingListSummary summary);
+
     @IterableMapping(qualifiedByName = "shoppingListItem")
     List<ShoppingListIngredientDto> toShoppingListIngredientDtoList(Collection<ShoppingListItem> item, @Context Map<Long, Ingredient> ingredientsById);
 
@@ -81,6 +92,12 @@ public interface ShoppingListMapper extends BasePageableMapper<ShoppingListListP
     @Mapping(target = "id", source = "shoppingListItem.id")
     ShoppingListIngredientDto toShoppingListIngredientDtoCustomItem(ShoppingListItem shoppingListItem);
 
+    @Mapping(target = "type", source = "operationType")
+    @Mapping(target = "itemId", source = "shoppingListItemId")
+    @Mapping(target = "checkedBy", source = "checkedByAccountUsername")
+    @Mapping(target = "item", ignore = true)
+    ShoppingListOperationDto toShoppingListOperationDto(ShoppingListOperation operation);
+
     List<ShoppingListDto> toShoppingListDtoList(List<ShoppingList> shoppingLists, @Context Map<Long, Ingredient> ingredientsById);
 
     default ShoppingListStatus toShoppingListStatus(boolean isClosed) {
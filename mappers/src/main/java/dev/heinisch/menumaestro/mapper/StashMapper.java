@@ -1,6 +1,8 @@
 package dev.heinisch.menumaestro.mapper;
 
 import dev.heinisch.menumaestro.domain.ingredient.Ingredient;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUnitConversionService;
+import dev.heinisch.menumaestro.domain.ingredient_computation.IngredientUse;
 import dev.heinisch.menumaestro.domain.stash.Stash;
 import dev.heinisch.menumaestro.domain.stash.StashEntry;
 import dev.heinisch.menumaestro.domain.stash.projections.StashIdName;
@@ -11,27 +13,53 @@ import org.mapstruct.ReportingPolicy;
 import org.openapitools.model.IngredientUseDto;
 import org.openapitools.model.StashResponseDto;
 import org.openapitools.model.StashSearchResponseDto;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.List;
 import java.util.Map;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
-public interface StashMapper {
+public abstract class StashMapper {
+
+    @Autowired
+    protected IngredientUnitConversionService ingredientUnitConversionService;
+
     @Mapping(target = "ingredients", source = "stash.entries")
     @Mapping(target = "name", source = "menuName")
     @Mapping(target = "correspondingOrganizationId", source = "correspondingOrgId")
-    StashResponseDto toStashResponseDto(Stash stash, String menuName, Long correspondingOrgId, @Context Map<Long, Ingredient> ingredientsById);
+    @Mapping(target = "complete", constant = "true")
+    public abstract StashResponseDto toStashResponseDto(Stash stash, String menuName, Long correspondingOrgId, @Context Map<Long, Ingredient> ingredientsById);
+
+    @Mapping(target = "id", source = "stash.id")
+    @Mapping(target = "versionNumber", source = "stash.versionNumber")
+    @Mapping(target = "ingredients", source = "changedEntries")
+    @Mapping(target = "name", source = "menuName")
+    @Mapping(target = "correspondingOrganizationId", source = "correspondingOrgId")
+    @Mapping(target = "complete", constant = "false")
+    public abstract StashResponseDto toStashDeltaResponseDto(Stash stash, List<StashEntry> changedEntries, String menuName, Long correspondingOrgId, @Context Map<Long, Ingredient> ingredientsById);
 
-    default IngredientUseDto toIngredientUseDto(StashEntry stashEntry, @Context Map<Long, Ingredient> ingredientsById) {
+    public IngredientUseDto toIngredientUseDto(StashEntry stashEntry, @Context Map<Long, Ingredient> ingredientsById) {
         return toIngredientUseDto(stashEntry, ingredientsById.get(stashEntry.getIngredientId()));
     }
 
-    @Mapping(target = "id", source = "stashEntry.ingredientId")
-    @Mapping(target = "unit", source = "stashEntry.unit")
-    @Mapping(target = "amount", source = "stashEntry.amount")
-    @Mapping(target = "name", source = "ingredient.name")
-    IngredientUseDto toIngredientUseDto(StashEntry stashEntry, Ingredient ingredient);
+    /**
+     * Entries are stored in grams, millilitres or pieces, they are shown in a nicer unit of the same kind.
+     */
+    public IngredientUseDto toIngredientUseDto(StashEntry stashEntry, Ingredient ingredient) {
+        if (stashEntry == null) {
+            return null;
+        }
+        return toIngredientUseDto(ingredientUnitConversionService.heuristicallyConvertToNicerUnit(
+                new IngredientUse(ingredient, stashEntry.getUnit(), stashEntry.getAmount())), stashEntry.getIngredientId());
+    }
+
+    @Mapping(target = "id", source = "ingredientId")
+    @Mapping(target = "unit", source = "ingredientUse.unit")
+    @Mapping(target = "amount", source = "ingredientUse.amount")
+    @Mapping(target = "name", source = "ingredientUse.ingredient.name")
+    protected abstract IngredientUseDto toIngredientUseDto(IngredientUse ingredientUse, Long ingredientId);
+
+    public abstract StashSearchResponseDto toStashSearchDto(StashIdName stash);
 
-    StashSearchResponseDto toStashSearchDto(StashIdName stash);
-    List<StashSearchResponseDto> toStashSearchDtoList(List<StashIdName> list);
+    public abstract List<StashSearchResponseDto> toStashSearchDtoList(List<StashIdName> list);
 }